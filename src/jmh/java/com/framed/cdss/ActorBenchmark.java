@@ -0,0 +1,100 @@
+package com.framed.cdss;
+
+import com.framed.core.Measurement;
+import com.framed.core.remote.NoTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of delivering one message to an {@link Actor}: sequence accounting, evaluation of all firing rules,
+ * snapshot construction, the (empty) fire function and latency publication, across rule and channel counts.
+ *
+ * <p>Rule {@code r} requires any new message on channel {@code r % channels} and, with more than one channel,
+ * at least two new messages on channel {@code (r + 1) % channels}. Messages are published round robin on all
+ * channels of a {@link DispatchMode#SEQUENTIAL} bus, so the actor runs on the benchmark thread. {@code snapshot}
+ * selects whether the actor implements {@link MapActor#fireFunction(Map)} or {@link Actor#fireFunction(ActorSnapshot)}.</p>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ActorBenchmark {
+
+  private static final int MESSAGES_PER_CHANNEL = 1024;
+
+  @Param({"1", "4", "16"})
+  public int channels;
+
+  @Param({"1", "4", "16"})
+  public int rules;
+
+  public enum Snapshot { MAP, ARRAYS }
+
+  @Param({"MAP", "ARRAYS"})
+  public Snapshot snapshot;
+
+  private SocketEventBus eventBus;
+  private Actor actor;
+  private String[] channelNames;
+  private Measurement[][] messages;
+  private int next;
+
+  @Setup
+  public void setup() {
+    eventBus = new SocketEventBus(new NoTransport(), DispatchMode.SEQUENTIAL);
+    channelNames = new String[channels];
+    messages = new Measurement[channels][MESSAGES_PER_CHANNEL];
+    long start = Measurement.now();
+    for (int c = 0; c < channels; c++) {
+      channelNames[c] = "bench.channel-%d".formatted(c);
+      for (int i = 0; i < MESSAGES_PER_CHANNEL; i++) {
+        messages[c][i] = Measurement.of("bench", channelNames[c], "Measurement",
+          start + TimeUnit.MILLISECONDS.toNanos(i * 10L), 40 + i % 20);
+      }
+    }
+    List<Map<String, String>> firingRules = new ArrayList<>();
+    for (int r = 0; r < rules; r++) {
+      Map<String, String> rule = new HashMap<>();
+      rule.put(channelNames[r % channels], "*");
+      if (channels > 1) {
+        rule.put(channelNames[(r + 1) % channels], "2");
+      }
+      firingRules.add(rule);
+    }
+    List<String> inputs = List.of(channelNames);
+    if (snapshot == Snapshot.MAP) {
+      actor = new MapActor(eventBus, "bench-actor", firingRules, inputs, List.of("bench.out")) {
+        @Override
+        public void fireFunction(Map<String, Object> latestSnapshot) {
+        }
+      };
+    } else {
+      actor = new Actor(eventBus, "bench-actor", firingRules, inputs, List.of("bench.out")) {
+        @Override
+        public void fireFunction(ActorSnapshot latestSnapshot) {
+        }
+      };
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    actor.stop();
+    eventBus.shutdown();
+  }
+
+  @Benchmark
+  public void onMessage() {
+    int channel = next % channels;
+    int index = (next / channels) % MESSAGES_PER_CHANNEL;
+    next++;
+    eventBus.publish(channelNames[channel], messages[channel][index]);
+  }
+}
@@ -0,0 +1,69 @@
+package com.framed.cdss;
+
+import java.util.Random;
+
+/**
+ * Synthetic but physiologically plausible vital sign signals for benchmarks, generated in-process and reproducible
+ * via their seed.
+ */
+public final class Signals {
+
+  private Signals() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * A capnogram (EtCO₂ waveform in mmHg): inspiratory baseline near 0, steep expiratory upstroke, alveolar plateau
+   * rising slightly towards the end-tidal value and a steep inspiratory downstroke. Gaussian noise and rare spikes
+   * (sensor artifacts) are added.
+   *
+   * @param sampleRateHz the sampling rate, e.g. 100 Hz for Medibus real-time data
+   * @param breathsPerMin the respiratory rate
+   * @param endTidal     the end-tidal CO₂ in mmHg
+   * @param samples      the number of samples
+   * @param seed         the seed of the noise
+   * @return the samples
+   */
+  public static double[] capnogram(double sampleRateHz, double breathsPerMin, double endTidal, int samples, long seed) {
+    Random random = new Random(seed);
+    double period = 60.0 / breathsPerMin;
+    double[] values = new double[samples];
+    for (int i = 0; i < samples; i++) {
+      double phase = (i / sampleRateHz % period) / period;
+      double value;
+      if (phase < 0.4) {
+        value = 0.5; // inspiration
+      } else if (phase < 0.5) {
+        value = 0.5 + (endTidal * 0.9 - 0.5) * (phase - 0.4) / 0.1; // expiratory upstroke
+      } else if (phase < 0.95) {
+        value = endTidal * (0.9 + 0.1 * (phase - 0.5) / 0.45); // alveolar plateau
+      } else {
+        value = endTidal * (1 - (phase - 0.95) / 0.05); // inspiratory downstroke
+      }
+      value += random.nextGaussian() * 0.3;
+      if (random.nextInt(500) == 0) {
+        value += 15; // artifact
+      }
+      values[i] = Math.max(0, value);
+    }
+    return values;
+  }
+
+  /**
+   * An SpO₂ trend in integer percent as reported by pulse oximeters: a stable baseline with slow desaturation
+   * episodes and quantization noise.
+   *
+   * @param samples the number of samples (typically one per second)
+   * @param seed    the seed of the noise
+   * @return the samples
+   */
+  public static double[] spo2(int samples, long seed) {
+    Random random = new Random(seed);
+    double[] values = new double[samples];
+    for (int i = 0; i < samples; i++) {
+      double episode = Math.max(0, Math.sin(2 * Math.PI * i / 300.0)) * 8; // desaturation of up to 8 % every 5 min
+      values[i] = Math.min(100, Math.round(97 - episode + random.nextGaussian() * 0.7));
+    }
+    return values;
+  }
+}
@@ -0,0 +1,46 @@
+package com.framed.cdss;
+
+import java.util.List;
+
+/**
+ * Builds {@link ActorSnapshot}s for benchmarks calling {@link Actor#fireFunction(ActorSnapshot)} directly, with the
+ * same per-firing allocations as {@code Actor} (one copy of the value, timestamp and counter arrays).
+ */
+public final class Snapshots {
+
+  private final List<String> channels;
+  private final String[] timestampKeys;
+  private final long[] counts;
+  private final long[] changed;
+
+  /**
+   * @param channels the input channels of the actor, in the order of {@link Actor#getInputChannels()}
+   */
+  public Snapshots(List<String> channels) {
+    this.channels = List.copyOf(channels);
+    this.timestampKeys = new String[channels.size()];
+    this.counts = new long[channels.size()];
+    this.changed = new long[(channels.size() + 63) >>> 6];
+    for (int c = 0; c < channels.size(); c++) {
+      timestampKeys[c] = "%s-timestamp".formatted(channels.get(c));
+      counts[c] = 1;
+      changed[c >>> 6] |= 1L << c;
+    }
+  }
+
+  /**
+   * @param timestampNanos the timestamp of all channels in nanoseconds since the epoch
+   * @param values         the numeric latest value per channel
+   * @return a snapshot in which every channel changed, without samples
+   */
+  public ActorSnapshot of(long timestampNanos, double... values) {
+    Object[] boxed = new Object[values.length];
+    long[] timestamps = new long[values.length];
+    for (int c = 0; c < values.length; c++) {
+      boxed[c] = values[c];
+      timestamps[c] = timestampNanos;
+    }
+    return new ActorSnapshot(channels, boxed, values.clone(), timestamps, counts.clone(), changed.clone(), null,
+      timestampKeys);
+  }
+}
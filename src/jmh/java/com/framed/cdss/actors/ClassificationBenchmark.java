@@ -0,0 +1,78 @@
+package com.framed.cdss.actors;
+
+import com.framed.cdss.Signals;
+import com.framed.cdss.Snapshots;
+import com.framed.core.remote.NoTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the classification actors on a 1 Hz SpO₂ trend: {@link TrendClassificationActor#fireFunction} (sliding
+ * window, regression slope and warning publication) and {@link LimitClassificationActor#fireFunction} (classification
+ * of SpO₂ and heart rate and publication of both classes).
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassificationBenchmark {
+
+  private static final String SPO2 = "spo2";
+  private static final String HR = "hr";
+  private static final int SAMPLES = 3600;
+
+  @Param({"10", "60"})
+  public int trendWindow;
+
+  private SocketEventBus eventBus;
+  private TrendClassificationActor trend;
+  private LimitClassificationActor limits;
+  private Snapshots trendSnapshots;
+  private Snapshots limitSnapshots;
+  private double[] spo2;
+  private long startMillis;
+  private int next;
+
+  @Setup
+  public void setup() {
+    eventBus = new SocketEventBus(new NoTransport(), DispatchMode.SEQUENTIAL);
+    JSONArray firingRules = new JSONArray().put(new JSONObject().put(SPO2, "*"));
+    trend = new TrendClassificationActor(eventBus, "bench-trend", firingRules, new JSONArray().put(SPO2),
+      new JSONArray().put("bench.trend"), new JSONObject().put(SPO2, trendWindow), new JSONObject().put(SPO2, 2),
+      new JSONObject().put(SPO2, 0), "DOWN");
+    limits = new LimitClassificationActor(eventBus, "bench-limits", firingRules, new JSONArray().put(SPO2).put(HR),
+      new JSONArray().put("bench.limits"),
+      new JSONObject().put(SPO2, new JSONArray().put(85).put(90).put(94).put(100))
+        .put(HR, new JSONArray().put(40).put(50).put(100).put(120).put(150)));
+    trendSnapshots = new Snapshots(trend.getInputChannels());
+    limitSnapshots = new Snapshots(limits.getInputChannels());
+    spo2 = Signals.spo2(SAMPLES, 42);
+    startMillis = Instant.now().toEpochMilli();
+  }
+
+  @TearDown
+  public void tearDown() {
+    trend.stop();
+    limits.stop();
+    eventBus.shutdown();
+  }
+
+  @Benchmark
+  public void trendFireFunction() {
+    int i = next++;
+    trend.fireFunction(trendSnapshots.of((startMillis + i * 1000L) * 1_000_000L, spo2[i % SAMPLES]));
+  }
+
+  @Benchmark
+  public void limitsFireFunction() {
+    int i = next++;
+    limits.fireFunction(limitSnapshots.of((startMillis + i * 1000L) * 1_000_000L, spo2[i % SAMPLES], 60.0 + i % 80));
+  }
+}
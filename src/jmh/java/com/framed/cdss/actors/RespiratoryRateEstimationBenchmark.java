@@ -0,0 +1,68 @@
+package com.framed.cdss.actors;
+
+import com.framed.cdss.Signals;
+import com.framed.cdss.Snapshots;
+import com.framed.core.remote.NoTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link RespiratoryRateEstimationActor#fireFunction(com.framed.cdss.ActorSnapshot)} per EtCO₂ sample of a 100 Hz capnogram at
+ * 15 breaths/min, with EMA smoothing and Hampel filtering switched on and off.
+ *
+ * <p>Each invocation builds the snapshot of the next sample (value and timestamp), as {@code Actor} does before
+ * firing; timestamps keep advancing by 10 ms so that breath detection sees a continuous signal.</p>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RespiratoryRateEstimationBenchmark {
+
+  private static final String CHANNEL = "etco2";
+  private static final int SAMPLES = 60 * 100;
+
+  @Param({"false", "true"})
+  public boolean useEMA;
+
+  @Param({"false", "true"})
+  public boolean useHampel;
+
+  @Param({"25"})
+  public int windowSize;
+
+  private SocketEventBus eventBus;
+  private RespiratoryRateEstimationActor actor;
+  private Snapshots snapshots;
+  private double[] signal;
+  private long startMillis;
+  private int next;
+
+  @Setup
+  public void setup() {
+    eventBus = new SocketEventBus(new NoTransport(), DispatchMode.SEQUENTIAL);
+    actor = new RespiratoryRateEstimationActor(eventBus, "bench-rr", CHANNEL, new JSONArray().put("bench.rr"),
+      windowSize, 5.0, 5.0, 1.0, 40, useEMA, 0.3, useHampel, 7, 3.0);
+    snapshots = new Snapshots(List.of(CHANNEL));
+    signal = Signals.capnogram(100, 15, 38, SAMPLES, 42);
+    startMillis = Instant.now().toEpochMilli();
+  }
+
+  @TearDown
+  public void tearDown() {
+    actor.stop();
+    eventBus.shutdown();
+  }
+
+  @Benchmark
+  public void fireFunction() {
+    int i = next++;
+    actor.fireFunction(snapshots.of((startMillis + i * 10L) * 1_000_000L, signal[i % SAMPLES]));
+  }
+}
@@ -0,0 +1,38 @@
+package com.framed.cdss.utils;
+
+import com.framed.cdss.Signals;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SlopeUtils#computeSlope(Deque)} over an EtCO₂ window sampled at 100 Hz.
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlopeUtilsBenchmark {
+
+  @Param({"10", "50", "100", "250", "500"})
+  public int windowSize;
+
+  private final Deque<SlopeUtils.Sample> window = new ArrayDeque<>();
+
+  @Setup
+  public void setup() {
+    double[] values = Signals.capnogram(100, 15, 38, windowSize, 42);
+    Instant start = Instant.now();
+    for (int i = 0; i < windowSize; i++) {
+      window.addLast(new SlopeUtils.Sample(start.plusMillis(i * 10L), values[i]));
+    }
+  }
+
+  @Benchmark
+  public double computeSlope() {
+    return SlopeUtils.computeSlope(window);
+  }
+}
@@ -0,0 +1,77 @@
+package com.framed.communicator.driver.parser.medibus;
+
+import com.framed.communicator.driver.protocol.medibus.MedibusStreams;
+import com.framed.core.remote.NoTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link MedibusRealTimeParser#parse(Byte, String)}. One operation feeds one real-time record of
+ * {@code streams} data streams byte by byte, as the framer publishes them, so the primary result is records/s,
+ * {@code gc.alloc.rate.norm} the allocation per record and the {@code bytes} secondary result the byte rate.
+ *
+ * <p>The parser is configured with waveform type 4 (8 waveforms); a real-time configuration response for each
+ * waveform is published before the measurement, so every value is scaled and published.</p>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MedibusRealTimeParserBenchmark {
+
+  private static final String DEVICE = "bench-device";
+  private static final int RECORDS = 4096;
+  private static final String[] WAVEFORM_CODES = {"00", "01", "02", "05", "06", "0A", "1C", "1E"};
+
+  @Param({"1", "3", "8"})
+  public int streams;
+
+  private SocketEventBus eventBus;
+  private MedibusRealTimeParser parser;
+  private byte[][] records;
+  private int next;
+
+  /**
+   * Bytes fed to the parser, reported as rate.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Bytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    eventBus = new SocketEventBus(new NoTransport(), DispatchMode.SEQUENTIAL);
+    parser = new MedibusRealTimeParser(eventBus, 4, new JSONArray().put(DEVICE));
+    for (String code : WAVEFORM_CODES) {
+      eventBus.publish(DEVICE + ".real-time", new JSONObject()
+        .put("dataCode", code).put("Interval", 8000).put("minValue", 0).put("maxValue", 100).put("maxBinValue", 4095));
+    }
+    records = MedibusStreams.realTimeRecords(streams, RECORDS, 42);
+  }
+
+  @TearDown
+  public void tearDown() {
+    eventBus.shutdown();
+  }
+
+  @Benchmark
+  public void parse(Bytes counter) {
+    byte[] record = records[next++ % RECORDS];
+    for (byte b : record) {
+      parser.parse(b, DEVICE);
+    }
+    counter.bytes += record.length;
+  }
+}
@@ -0,0 +1,63 @@
+package com.framed.communicator.driver.parser.medibus;
+
+import com.framed.communicator.driver.protocol.medibus.MedibusStreams;
+import com.framed.core.remote.NoTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link MedibusSlowParser#parse(byte[], String)} per response frame of {@code items} data items,
+ * including the publication of every item as measurement. {@code gc.alloc.rate.norm} is the allocation per frame.
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MedibusSlowParserBenchmark {
+
+  private static final String DEVICE = "bench-device";
+  private static final int FRAMES = 256;
+
+  public enum Response { MEASUREMENTS, SETTINGS, TEXT }
+
+  @Param({"MEASUREMENTS", "SETTINGS", "TEXT"})
+  public Response response;
+
+  @Param({"8", "32"})
+  public int items;
+
+  private SocketEventBus eventBus;
+  private MedibusSlowParser parser;
+  private byte[][] frames;
+  private int next;
+
+  @Setup
+  public void setup() {
+    eventBus = new SocketEventBus(new NoTransport(), DispatchMode.SEQUENTIAL);
+    parser = new MedibusSlowParser(eventBus, new JSONArray().put(DEVICE));
+    Random random = new Random(42);
+    frames = new byte[FRAMES][];
+    for (int f = 0; f < FRAMES; f++) {
+      frames[f] = switch (response) {
+        case MEASUREMENTS -> MedibusStreams.measurementResponse(items, random);
+        case SETTINGS -> MedibusStreams.settingsResponse(items, random);
+        case TEXT -> MedibusStreams.textResponse(items);
+      };
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    eventBus.shutdown();
+  }
+
+  @Benchmark
+  public void parse() {
+    parser.parse(frames[next++ % FRAMES], DEVICE);
+  }
+}
@@ -0,0 +1,102 @@
+package com.framed.communicator.driver.protocol.medibus;
+
+import com.framed.core.remote.NoTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link MedibusFramer#createFrameListFromByte(byte)}. One operation feeds one frame byte by byte,
+ * so the primary result is frames/s, {@code gc.alloc.rate.norm} the allocation per frame and the {@code bytes}
+ * secondary result the byte rate, to be compared with the line rate of the serial port (baud / 10 bytes/s).
+ *
+ * <ul>
+ *   <li>{@code SLOW}: measurement responses of {@code items} data items.</li>
+ *   <li>{@code REAL_TIME}: real-time records of 3 data streams, each byte published on the (empty) bus.</li>
+ *   <li>{@code MIXED}: a measurement response followed by 50 real-time records, as during a slow poll with
+ *       waveforms enabled; one operation is one slow frame plus its records.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MedibusFramerBenchmark {
+
+  private static final int FRAMES = 256;
+
+  public enum Stream { SLOW, REAL_TIME, MIXED }
+
+  @Param({"SLOW", "REAL_TIME", "MIXED"})
+  public Stream stream;
+
+  @Param({"8", "32"})
+  public int items;
+
+  private SocketEventBus eventBus;
+  private MedibusFramer framer;
+  private byte[][] frames;
+  private int next;
+
+  /**
+   * Bytes fed to the framer, reported as rate.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Bytes {
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    eventBus = new SocketEventBus(new NoTransport(), DispatchMode.SEQUENTIAL);
+    framer = new MedibusFramer(frame -> { }, eventBus, "bench-device");
+    Random random = new Random(42);
+    byte[][] records = MedibusStreams.realTimeRecords(3, FRAMES * 50, 42);
+    frames = new byte[FRAMES][];
+    for (int f = 0; f < FRAMES; f++) {
+      frames[f] = switch (stream) {
+        case SLOW -> MedibusStreams.frame(MedibusStreams.measurementResponse(items, random));
+        case REAL_TIME -> records[f];
+        case MIXED -> {
+          byte[] slow = MedibusStreams.frame(MedibusStreams.measurementResponse(items, random));
+          int length = slow.length;
+          for (int r = 0; r < 50; r++) {
+            length += records[f * 50 + r].length;
+          }
+          byte[] mixed = new byte[length];
+          System.arraycopy(slow, 0, mixed, 0, slow.length);
+          int offset = slow.length;
+          for (int r = 0; r < 50; r++) {
+            byte[] record = records[f * 50 + r];
+            System.arraycopy(record, 0, mixed, offset, record.length);
+            offset += record.length;
+          }
+          yield mixed;
+        }
+      };
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    eventBus.shutdown();
+  }
+
+  @Benchmark
+  public void frame(Bytes counter) {
+    byte[] frame = frames[next++ % FRAMES];
+    for (byte b : frame) {
+      framer.createFrameListFromByte(b);
+    }
+    counter.bytes += frame.length;
+  }
+}
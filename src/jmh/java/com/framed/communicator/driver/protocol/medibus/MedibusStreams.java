@@ -0,0 +1,126 @@
+package com.framed.communicator.driver.protocol.medibus;
+
+import com.framed.communicator.driver.protocol.medibus.utils.DataConstants;
+import com.framed.communicator.driver.protocol.medibus.utils.DataUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Synthetic Medibus byte streams for benchmarks, reproducible via their seed.
+ *
+ * <h2>Encoding:</h2>
+ * <ul>
+ *   <li>Slow frames: {@code SOH}, echo of the command, data items, two ASCII hex checksum characters, {@code CR}.
+ *       {@link #measurementResponse} builds the user data (without checksum and {@code CR}), {@link #frame} the
+ *       complete frame as read from the serial line.</li>
+ *   <li>Real-time records: a sync byte announcing data streams 1 to 4, for more streams a sync command pair
+ *       ({@code SC_TX_DATASTREAM_5_8}), then one pair of real-time bytes per stream carrying the 12 bit value
+ *       (low 6 bits first).</li>
+ * </ul>
+ */
+public final class MedibusStreams {
+
+  /**
+   * Data codes of {@link DataConstants#MedibusXMeasurementCP1} used for measurement responses.
+   */
+  private static final int[] MEASUREMENT_CODES = {0x03, 0x05, 0x06, 0x0B, 0x1A, 0x25, 0x2B, 0x50, 0x71, 0x72,
+    0x73, 0x74, 0x78, 0x7B, 0x7D, 0xB5};
+
+  private MedibusStreams() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * @param items  the number of data items (code and 4 character value)
+   * @param random the source of the values
+   * @return the user data of a response to "current measured data codepage 1"
+   */
+  public static byte[] measurementResponse(int items, Random random) {
+    StringBuilder data = new StringBuilder().append((char) DataConstants.BOFRESPCHAR).append('$');
+    for (int i = 0; i < items; i++) {
+      data.append("%02X".formatted(MEASUREMENT_CODES[i % MEASUREMENT_CODES.length]))
+        .append("%4d".formatted(random.nextInt(1000)));
+    }
+    return data.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @param items  the number of data items (code and 4 character value)
+   * @param random the source of the values
+   * @return the user data of a response to "current device settings"
+   */
+  public static byte[] settingsResponse(int items, Random random) {
+    StringBuilder data = new StringBuilder().append((char) DataConstants.BOFRESPCHAR).append(')');
+    for (int i = 0; i < items; i++) {
+      data.append("%02X".formatted(1 + i % 4)).append("%5d".formatted(random.nextInt(1000)));
+    }
+    return data.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @param items the number of text items
+   * @return the user data of a response to "current text messages"
+   */
+  public static byte[] textResponse(int items) {
+    StringBuilder data = new StringBuilder().append((char) DataConstants.BOFRESPCHAR).append('*');
+    for (int i = 0; i < items; i++) {
+      data.append((char) 0x0A).append(' ').append('7').append("SPN-CPA").append((char) 0x03);
+    }
+    return data.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @param userData the user data of a command or response
+   * @return the frame with checksum and {@code CR}
+   */
+  public static byte[] frame(byte[] userData) {
+    byte[] checksum = "%02X".formatted(DataUtils.computeChecksum(userData) & 0xFF).getBytes(StandardCharsets.US_ASCII);
+    return DataUtils.concatBuffer(userData, checksum);
+  }
+
+  /**
+   * @param streams the number of data streams (1 to 8)
+   * @param values  the 12 bit value of each stream
+   * @return one real-time data record
+   */
+  public static byte[] realTimeRecord(int streams, int[] values) {
+    if (streams < 1 || streams > 8) {
+      throw new IllegalArgumentException("Expected 1 to 8 data streams, got %d".formatted(streams));
+    }
+    ByteArrayOutputStream record = new ByteArrayOutputStream();
+    record.write(DataConstants.SYNC_BYTE | ((1 << Math.min(streams, 4)) - 1));
+    if (streams > 4) {
+      record.write(DataConstants.SC_TX_DATASTREAM_5_8);
+      record.write(DataConstants.SYNC_CMD_BYTE | ((1 << (streams - 4)) - 1));
+    }
+    for (int s = 0; s < streams; s++) {
+      record.write(DataConstants.RT_BYTE | (values[s] & 0x3F));
+      record.write(DataConstants.RT_BYTE | ((values[s] >> 6) & 0x3F));
+    }
+    return record.toByteArray();
+  }
+
+  /**
+   * A real-time data record per sample of a periodic waveform on every stream, e.g. a capnogram.
+   *
+   * @param streams the number of data streams (1 to 8)
+   * @param records the number of records
+   * @param seed    the seed of the noise
+   * @return the records
+   */
+  public static byte[][] realTimeRecords(int streams, int records, long seed) {
+    Random random = new Random(seed);
+    byte[][] result = new byte[records][];
+    int[] values = new int[streams];
+    for (int r = 0; r < records; r++) {
+      for (int s = 0; s < streams; s++) {
+        double wave = Math.sin(2 * Math.PI * (r + s * 25) / 400.0);
+        values[s] = (int) Math.max(0, Math.min(4095, 2048 + 1800 * wave + random.nextGaussian() * 20));
+      }
+      result[r] = realTimeRecord(streams, values);
+    }
+    return result;
+  }
+}
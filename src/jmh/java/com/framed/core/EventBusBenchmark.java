@@ -0,0 +1,88 @@
+package com.framed.core;
+
+import com.framed.core.utils.DispatchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publish-to-handler latency and throughput of an {@link EventBus}, for a number of handlers on the published
+ * address ({@code fanOut}). Subclasses create the bus for their {@link DispatchMode}s.
+ *
+ * <p>Every benchmark waits until all handlers received the published messages, so queued dispatch modes
+ * are measured including the hand-off to their executors.</p>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+public abstract class EventBusBenchmark {
+
+  static final String ADDRESS = "bench.event-bus";
+  static final int BATCH = 1000;
+
+  @Param({"1", "4", "16"})
+  public int fanOut;
+
+  private final AtomicLong delivered = new AtomicLong();
+  private EventBus eventBus;
+  private Measurement message;
+
+  /**
+   * @return a new bus
+   */
+  protected abstract EventBus createBus();
+
+  /**
+   * Releases the resources of the bus.
+   */
+  protected abstract void shutdown(EventBus eventBus);
+
+  @Setup
+  public void setup() {
+    eventBus = createBus();
+    for (int i = 0; i < fanOut; i++) {
+      eventBus.register(ADDRESS, message -> delivered.incrementAndGet());
+    }
+    message = Measurement.of("bench", "HR", "Measurement", Measurement.now(), 72.0);
+  }
+
+  @TearDown
+  public void tearDown() {
+    shutdown(eventBus);
+  }
+
+  /**
+   * Time from publishing a single message until all handlers received it.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long publishToHandlerLatency() {
+    long target = delivered.get() + fanOut;
+    eventBus.publish(ADDRESS, message);
+    return awaitDelivered(target);
+  }
+
+  /**
+   * Messages published per millisecond, sustained until all handlers received them.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @OperationsPerInvocation(BATCH)
+  public long publishThroughput() {
+    long target = delivered.get() + (long) BATCH * fanOut;
+    for (int i = 0; i < BATCH; i++) {
+      eventBus.publish(ADDRESS, message);
+    }
+    return awaitDelivered(target);
+  }
+
+  private long awaitDelivered(long target) {
+    long current;
+    while ((current = delivered.get()) < target) {
+      Thread.onSpinWait();
+    }
+    return current;
+  }
+}
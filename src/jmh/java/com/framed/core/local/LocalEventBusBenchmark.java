@@ -0,0 +1,25 @@
+package com.framed.core.local;
+
+import com.framed.core.EventBus;
+import com.framed.core.EventBusBenchmark;
+import com.framed.core.utils.DispatchMode;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link EventBusBenchmark} of a {@link LocalEventBus} in its {@link DispatchMode}s.
+ */
+public class LocalEventBusBenchmark extends EventBusBenchmark {
+
+  @Param({"PER_HANDLER", "DEADLINE"})
+  public DispatchMode dispatchMode;
+
+  @Override
+  protected EventBus createBus() {
+    return new LocalEventBus(dispatchMode);
+  }
+
+  @Override
+  protected void shutdown(EventBus eventBus) {
+    ((LocalEventBus) eventBus).shutdown();
+  }
+}
@@ -0,0 +1,40 @@
+package com.framed.core.remote;
+
+import com.framed.core.Registration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.framed.core.utils.RemoteUtils.registerHandler;
+
+/**
+ * A transport that never opens sockets, so that benchmarks of a {@link SocketEventBus} without peers
+ * measure the local dispatch only.
+ */
+public final class NoTransport implements Transport {
+
+  private final Map<String, List<Consumer<RemoteMessage>>> handlers = new ConcurrentHashMap<>();
+
+  @Override
+  public void send(String host, int port, String address, Object message) {
+  }
+
+  @Override
+  public void publish(String host, int port, String address, Object message) {
+  }
+
+  @Override
+  public Registration registerEnvelope(String address, Consumer<RemoteMessage> handler) {
+    return registerHandler(address, handler, handlers);
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public void shutdown() {
+  }
+}
@@ -0,0 +1,26 @@
+package com.framed.core.remote;
+
+import com.framed.core.EventBus;
+import com.framed.core.EventBusBenchmark;
+import com.framed.core.utils.DispatchMode;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * {@link EventBusBenchmark} of the local dispatch of a {@link SocketEventBus} in all {@link DispatchMode}s.
+ * The bus has no peers; its transport does not open sockets.
+ */
+public class SocketEventBusBenchmark extends EventBusBenchmark {
+
+  @Param({"SEQUENTIAL", "PARALLEL", "PER_HANDLER", "DEADLINE"})
+  public DispatchMode dispatchMode;
+
+  @Override
+  protected EventBus createBus() {
+    return new SocketEventBus(new NoTransport(), dispatchMode);
+  }
+
+  @Override
+  protected void shutdown(EventBus eventBus) {
+    ((SocketEventBus) eventBus).shutdown();
+  }
+}
@@ -0,0 +1,120 @@
+package com.framed.core.remote;
+
+import com.framed.core.utils.DispatchMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loopback round trip between two {@link SocketEventBus}es: bus A publishes a ping to bus B, whose first handler
+ * publishes it back as pong. The ping address on B has {@code fanOut} handlers.
+ *
+ * <p>UDP transports may drop datagrams. A round trip without pong within {@link #TIMEOUT_NANOS} is counted as
+ * lost (reported as the {@code lost} secondary result) instead of failing the run.</p>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransportRoundTripBenchmark {
+
+  private static final String PING = "bench.ping";
+  private static final String PONG = "bench.pong";
+  private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  public enum Kind { NIO_TCP, TCP, NIO_UDP, UDP }
+
+  @Param({"NIO_TCP", "TCP", "NIO_UDP", "UDP"})
+  public Kind transport;
+
+  @Param({"16", "256", "2048"})
+  public int payloadBytes;
+
+  @Param({"1", "4"})
+  public int fanOut;
+
+  private final AtomicLong pongs = new AtomicLong();
+  private SocketEventBus busA;
+  private SocketEventBus busB;
+  private String payload;
+
+  /**
+   * Round trips without pong, reported per iteration.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Losses {
+    public long lost;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      lost = 0;
+    }
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    String host = InetAddress.getLoopbackAddress().getHostAddress();
+    int portA = freePort();
+    int portB = freePort();
+    busA = new SocketEventBus(createTransport(portA), DispatchMode.SEQUENTIAL);
+    busB = new SocketEventBus(createTransport(portB), DispatchMode.SEQUENTIAL);
+    busA.addPeer(new Peer(host, portB));
+    busB.addPeer(new Peer(host, portA));
+
+    busB.register(PING, message -> busB.publish(PONG, message));
+    for (int i = 1; i < fanOut; i++) {
+      busB.register(PING, message -> { });
+    }
+    busA.register(PONG, message -> pongs.incrementAndGet());
+    payload = "x".repeat(payloadBytes);
+    Thread.sleep(100); // let the listener threads bind
+  }
+
+  @TearDown
+  public void tearDown() {
+    busA.shutdown();
+    busB.shutdown();
+  }
+
+  @Benchmark
+  public long roundTrip(Losses losses) {
+    long target = pongs.get() + 1;
+    long deadline = System.nanoTime() + TIMEOUT_NANOS;
+    busA.publish(PING, payload);
+    long current;
+    while ((current = pongs.get()) < target) {
+      if (System.nanoTime() - deadline > 0) {
+        losses.lost++;
+        return current;
+      }
+      Thread.onSpinWait();
+    }
+    return current;
+  }
+
+  private Transport createTransport(int port) throws IOException {
+    return switch (transport) {
+      case NIO_TCP -> new NioTcpTransport(port);
+      case TCP -> new TCPTransport(port);
+      case NIO_UDP -> new NioUdpTransport(port);
+      case UDP -> new UDPTransport(port);
+    };
+  }
+
+  private int freePort() throws IOException {
+    if (transport == Kind.NIO_UDP || transport == Kind.UDP) {
+      try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+        return socket.getLocalPort();
+      }
+    }
+    try (ServerSocket socket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+      return socket.getLocalPort();
+    }
+  }
+}
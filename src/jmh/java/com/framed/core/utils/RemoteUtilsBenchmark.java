@@ -0,0 +1,56 @@
+package com.framed.core.utils;
+
+import com.framed.core.Measurement;
+import com.framed.core.remote.RemoteMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding ({@link RemoteUtils#toEnvelope}) and decoding ({@link RemoteUtils#parseMessage}) cost of the JSON
+ * envelopes exchanged by the transports, for inline (string, measurement) and Base64 (bytes) payloads.
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "--enable-preview")
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RemoteUtilsBenchmark {
+
+  public enum Payload { STRING, MEASUREMENT, BYTES }
+
+  @Param({"STRING", "MEASUREMENT", "BYTES"})
+  public Payload payload;
+
+  @Param({"16", "256", "2048"})
+  public int payloadBytes;
+
+  private Object message;
+  private String envelope;
+
+  @Setup
+  public void setup() {
+    message = switch (payload) {
+      case STRING -> "x".repeat(payloadBytes);
+      case MEASUREMENT -> Measurement.of("Oxylog-3000-Plus-00", "HR", "Measurement", Measurement.now(), 72.0)
+        .withAttributes(Map.of("note", "x".repeat(payloadBytes)));
+      case BYTES -> {
+        byte[] bytes = new byte[payloadBytes];
+        Arrays.fill(bytes, (byte) 0x42);
+        yield bytes;
+      }
+    };
+    envelope = encode();
+  }
+
+  @Benchmark
+  public String encode() {
+    return RemoteUtils.toEnvelope("bench.remote", message, "publish").toString();
+  }
+
+  @Benchmark
+  public RemoteMessage parseMessage() {
+    return RemoteUtils.parseMessage(envelope);
+  }
+}
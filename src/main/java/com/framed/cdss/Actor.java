@@ -1,33 +1,45 @@
 package com.framed.cdss;
 
 import com.framed.cdss.utils.RuleType;
+import com.framed.core.AddressRegistry;
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
 import com.framed.core.Service;
+import com.framed.core.jfr.ActorEvaluationEvent;
+import com.framed.core.jfr.ActorFireEvent;
+import com.framed.core.metrics.LatencyHistogram;
+import com.framed.core.metrics.MetricsRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 
-import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 import static com.framed.cdss.utils.CDSSUtils.publishResult;
 
 /**
  * A reactive multi-input Actor that evaluates a set of firing rules on incoming
  * messages, constructs exactly one consistent snapshot per evaluation cycle,
- * and triggers a user-defined {@link #fireFunction(Map)} once whenever at least
- * one rule is satisfied.
+ * and triggers a user-defined {@link #fireFunction(ActorSnapshot)} once whenever at least one rule is satisfied.
  *
  * <h1>Core Semantics</h1>
  * <ul>
  *   <li>Each input channel maintains:
  *     <ul>
  *       <li>a monotonic absolute sequence counter (never reset), and</li>
- *       <li>a latest JSON message value.</li>
+ *       <li>a latest message, a {@link Measurement} or (from legacy producers) a JSON object.</li>
  *     </ul>
  *   </li>
  *
@@ -42,13 +54,20 @@ import static com.framed.cdss.utils.CDSSUtils.publishResult;
  *   <li>Each rule maintains its own <b>last-consumed</b> sequence pointer per channel.
  *       This gives each rule independent delta semantics.</li>
  *
+ *   <li>Rules are compiled once at construction into index-based structures (channel index, sequence counters,
+ *       per-rule pointers and a flat condition array), so an evaluation that does not fire allocates nothing.</li>
+ *
+ *   <li>Satisfied rules are consumed in the evaluation that found them, so a message can only satisfy rules
+ *       referencing its channel. Each evaluation therefore only tests the rules of that channel, found through an
+ *       inverted channel → rule index, and its cost scales with those rules instead of the total rule count.</li>
+ *
  *   <li>On each incoming message:
  *     <ul>
- *       <li>all rules are evaluated against a stable snapshot of latest data + seq counters;</li>
+ *       <li>the rules referencing its channel are evaluated against the latest data + seq counters;</li>
  *       <li>every satisfied rule updates its per-channel pointers;</li>
  *       <li>a single snapshot is created;</li>
- *       <li>{@link #fireFunction(Map)} is called once;</li>
- *       <li>latency is published according to all three modes (A, B, C).</li>
+ *       <li>{@link #fireFunction(ActorSnapshot)} is called once;</li>
+ *       <li>latency is recorded according to all three modes (A, B, C).</li>
  *     </ul>
  *   </li>
  * </ul>
@@ -56,29 +75,97 @@ import static com.framed.cdss.utils.CDSSUtils.publishResult;
  * <h1>Snapshot Semantics</h1>
  * The snapshot contains:
  * <ul>
- *     <li><b>channel → value</b> extracted from the JSON field "value"</li>
- *     <li><b>channel-timestamp → Instant</b> parsed from JSON "timestamp"</li>
+ *     <li><b>channel → value</b> of the {@link Measurement} (boxed {@link Double} for numeric values), or the
+ *         JSON field "value"</li>
+ *     <li><b>channel-timestamp → Instant</b> of the {@link Measurement}, or from JSON "timestampNs" (nanoseconds since
+ *         the epoch) or "timestamp"</li>
  * </ul>
  *
- * This snapshot is immutable and provided to {@link #fireFunction(Map)}.
+ * This snapshot is immutable and provided to {@link #fireFunction(ActorSnapshot)} as an {@link ActorSnapshot} backed
+ * by arrays indexed like {@link #getInputChannels()}, with unboxed numeric values and timestamps and a bitmask of the
+ * channels that changed since the actor last fired. Values and timestamps are extracted once per incoming message
+ * and cached per channel, so a snapshot never parses a timestamp string. Input channels are de-duplicated, so every
+ * channel has exactly one index.
+ *
+ * <p>Cold or third-party actors that look channels up by name may extend {@link MapActor} instead, which receives
+ * the snapshot as a map converted with {@link ActorSnapshot#toMap()} at the cost of a map per firing.</p>
  *
- * <h1>Latency Publishing Modes</h1>
- * After a firing, the Actor publishes:
+ * <h1>Micro-Batching</h1>
+ * With {@link #setBatching(int, boolean)} the actor coalesces under load: when it finds several messages in its
+ * mailbox, it applies up to {@code maxMessages} of them to the channel state and sequence counters, then evaluates
+ * the rules of all updated channels and fires at most once. With {@code samples} enabled the snapshot additionally
+ * holds <b>channel-samples → List&lt;{@link Sample}&gt;</b> with every message applied since the previous firing,
+ * for actors that need each sample rather than the latest one. Without load the mailbox holds a single message and
+ * the actor behaves as without batching. The {@link com.framed.orchestrator.Manager} enables it from the optional
+ * {@code batching} object of an actor in services.json.
+ *
+ * <h1>Emit on Change</h1>
+ * Classification actors publish a class on every firing, mostly the same one. Actors publishing through
+ * {@link #publishOnChange(String, Object)} (or checking {@link #shouldEmit(String, Object)}) can be switched to emit on
+ * change with {@link #setEmitOnChange(boolean, long)}: an output is then only published when its value differs from
+ * the last one published under the same key, and an unchanged value again once the heartbeat interval has passed
+ * since its last publication, so downstream actors and dashboards keep receiving it. The heartbeat is checked when
+ * the actor fires; an actor without input publishes nothing. The {@link com.framed.orchestrator.Manager} enables it
+ * from the optional {@code emitOnChange} object of an actor in services.json.
+ *
+ * <h1>Latency Modes</h1>
+ * After a firing, the Actor records the time from the message timestamps to the firing:
  * <ol>
- *   <li><b>(A) Per-channel latency</b>: For every input channel.</li>
+ *   <li><b>(A) Per-channel latency</b>: For every input channel with a timestamped message, once per timestamp.</li>
  *   <li><b>(B) One global latency</b>: Based on the earliest channel timestamp.</li>
  *   <li><b>(C2) Rule-participation latency</b>: Only for channels whose delta ≥ 1
  *       for at least one satisfied rule.</li>
  * </ol>
  *
- * The latency messages are deduplicated per timestamp to avoid double publications.
+ * Latencies are recorded into lock-free histograms and can be published as periodic summaries instead of one message
+ * per firing: once enabled with {@link #setLatencyReporting(long, boolean)}, each series with new values publishes
+ * its count, p50, p90, p99 and max (seconds) of the interval as "Latency-count", "Latency-p50", ... to
+ * "Latency-channel-id", "Latency-Global-id" and "Latency-Rule-channel-id". The same method enables per-fire
+ * publication for debugging. Summaries are off for an actor constructed directly; the
+ * {@link com.framed.orchestrator.Manager} enables them every {@value #DEFAULT_LATENCY_SUMMARY_MILLIS} ms, or as set by
+ * the optional {@code latency} object of an actor in services.json. {@link #stop()} cancels them and removes the
+ * histograms.
+ *
+ * <h1>Metrics</h1>
+ * Firings and outputs suppressed by emit on change are counted per actor in {@link MetricsRegistry#getDefault()}
+ * ({@value #FIRED}, {@value #SUPPRESSED}), latencies are recorded
+ * there as {@value #LATENCY} with the labels actor, mode (channel, global, rule) and channel. Rule evaluations and
+ * firings are emitted as {@link ActorEvaluationEvent} and {@link ActorFireEvent} to JFR.
  *
  * <h1>Thread Safety</h1>
- * All rule evaluation and delta accounting is done under a single lock, while
- * {@link #fireFunction(Map)} is executed outside the lock.
+ * Each actor owns a lock-free multi-producer, single-consumer mailbox. Bus handlers only enqueue the message; the
+ * first producer finding the mailbox idle becomes its consumer and drains it on its own thread until it is empty,
+ * while other producers return immediately. All actor state, rule evaluation, {@link #fireFunction(ActorSnapshot)}
+ * and latency recording are therefore confined to one logical thread at a time, with the atomic hand-over between
+ * consumers providing visibility. Messages of all input channels are processed in mailbox order, and subclasses may
+ * keep plain unsynchronized state in {@link #fireFunction(ActorSnapshot)}. A failure while processing a message is
+ * logged with the actor id and channel and never reaches the publisher.
+ *
+ * <p>A message published by {@link #fireFunction(ActorSnapshot)} to one of the actor's own inputs is processed after
+ * the current one instead of recursively. {@link #getState()} is served through the mailbox as well.</p>
  */
 public abstract class Actor extends Service {
 
+  private static final Logger logger = Logger.getLogger(Actor.class.getName());
+
+  public static final String FIRED = "framed_actor_fired_total";
+
+  public static final String SUPPRESSED = "framed_actor_suppressed_total";
+
+  public static final String LATENCY = "framed_actor_latency_seconds";
+
+  /** {@code summaryIntervalMillis} of {@link #setLatencyReporting(long, boolean)} applied by the Manager by default. */
+  public static final long DEFAULT_LATENCY_SUMMARY_MILLIS = 10_000;
+
+  private static final ScheduledExecutorService latencySummaries = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "Actor-LatencySummaries");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** Default {@code maxMessages} of {@link #setBatching(int, boolean)} when configured without one. */
+  public static final int DEFAULT_MAX_BATCH = 256;
+
   /** Raw firing rule definitions. */
   private final List<Map<String, String>> firingRules;
 
@@ -88,29 +175,127 @@ public abstract class Actor extends Service {
   /** Input channels this actor listens to. */
   protected final List<String> inputChannels;
 
+  /** Registry announcing the output channels, resolved once for all publications. */
+  protected final AddressRegistry addressRegistry;
+
   /** Output channels this actor may publish to. */
   protected final List<String> outputChannels;
 
-  /** Tracks timestamps previously published for latency reporting. */
-  private final Map<String, Instant> lastTsPublishedByChannel = new ConcurrentHashMap<>();
+  /** Timestamp per channel index whose per-channel latency was recorded last, to record each message once. */
+  private final long[] lastLatencyTimestamp;
+
+  /** (A) per-channel latency series per channel index. */
+  private final LatencySeries[] channelLatency;
+
+  /** (B) global latency series. */
+  private final LatencySeries globalLatency;
+
+  /** (C2) rule-participation latency series per channel index. */
+  private final LatencySeries[] ruleLatency;
+
+  /** All latency series; its monitor guards the summaries. */
+  private final List<LatencySeries> latencySeries = new ArrayList<>();
+
+  /** Scheduled latency summaries, {@code null} if disabled. Guarded by {@link #latencySeries}. */
+  private ScheduledFuture<?> latencySummary;
+
+  /** Whether every firing publishes its latencies. */
+  private boolean perFireLatency;
+
+  /** Channel → index into {@link #inputChannels} and the per-channel arrays. */
+  private final Map<String, Integer> channelIndex = new HashMap<>();
+
+  /** Latest message ({@link Measurement} or JSON object) per channel index. */
+  private final Object[] latestByChannel;
+
+  /** Snapshot value of the latest message per channel index, see {@link #snapshotValue(Object)}. */
+  private final Object[] valueByChannel;
 
-  /** Compiled rules: channel → structured FiringRule. */
-  private final List<Map<String, FiringRule>> compiledRules = new ArrayList<>();
+  /** Numeric value of the latest message per channel index, {@code NaN} if not numeric or without data. */
+  private final double[] numericByChannel;
 
-  /** Latest JSON message per input channel. */
-  private final Map<String, Object> latestByChannel = new ConcurrentHashMap<>();
+  /** Timestamp of the latest message per channel index in nanoseconds since the epoch, see {@link #timestampOf}. */
+  private final long[] timestampByChannel;
 
-  /** Absolute message counter per channel (never reset). */
-  private final Map<String, Long> channelSeq = new ConcurrentHashMap<>();
+  /** Sequence counter per channel index at the previous firing, to detect changed channels. */
+  private final long[] seqAtLastFire;
+
+  /** Snapshot keys "channel-timestamp" per channel index. */
+  private final String[] timestampKeys;
+
+  /** Absolute message counter per channel index (never reset). */
+  private final long[] channelSeq;
 
   /**
    * Per-rule, per-channel last consumed sequence number.
-   * lastConsumedSeqByRule.get(ruleIndex).get(channel)
+   * lastConsumedSeqByRule[ruleIndex][channelIndex]
+   */
+  private final long[][] lastConsumedSeqByRule;
+
+  /**
+   * Conditions of all rules, flattened: rule i owns the entries from {@code ruleOffsets[i]} (inclusive) to
+   * {@code ruleOffsets[i + 1]} (exclusive) of {@link #conditions} and {@link #conditionChannels}.
+   */
+  private int[] ruleOffsets;
+
+  /** Flat condition array, see {@link #ruleOffsets}. */
+  private FiringRule[] conditions;
+
+  /** Channel index each entry of {@link #conditions} applies to. */
+  private int[] conditionChannels;
+
+  /** Inverted index: rulesByChannel[channelIndex] lists the rules with a condition on that channel. */
+  private int[][] rulesByChannel;
+
+  /**
+   * Rules satisfied in the current evaluation, the first {@link #satisfiedCount} entries are valid.
    */
-  private final List<Map<String, Long>> lastConsumedSeqByRule = new ArrayList<>();
+  private final int[] satisfiedRules;
+
+  /** Number of valid entries of {@link #satisfiedRules}. */
+  private int satisfiedCount;
+
+  /** Pending {@link Delivery}s and {@link Runnable} tasks, drained by a single consumer. */
+  private final Queue<Object> mailbox = new ConcurrentLinkedQueue<>();
+
+  /** Number of enqueued items not yet accounted for by the consumer; the producer raising it from 0 drains. */
+  private final AtomicInteger pending = new AtomicInteger();
+
+  /** Thread currently draining the mailbox, {@code null} when idle. */
+  private volatile Thread consumer;
+
+  /** Channels updated since the last evaluation, the first {@link #updatedCount} entries are valid. */
+  private final int[] updatedChannels;
+
+  /** Number of valid entries of {@link #updatedChannels}. */
+  private int updatedCount;
+
+  /** Whether a channel is listed in {@link #updatedChannels}. */
+  private final boolean[] updated;
+
+  /** Evaluation in which each rule was last tested, so rules on several updated channels are tested once. */
+  private final long[] ruleTestedIn;
+
+  /** Number of the current evaluation, see {@link #ruleTestedIn}. */
+  private long evaluationNumber;
+
+  /** Maximum number of messages applied per evaluation, 1 without batching. */
+  private int maxBatch = 1;
+
+  /** Samples received per channel index since the previous firing, {@code null} unless samples are collected. */
+  private List<List<Sample>> samplesByChannel;
+
+  /** Number of {@link #fireFunction(ActorSnapshot)} calls. */
+  private final LongAdder fired;
 
-  /** Lock protecting evaluation and pointer updates. */
-  private final ReentrantLock evalLock = new ReentrantLock();
+  /** Last published output per key with emit on change, {@code null} if disabled. */
+  private Map<String, Emitted> emittedByKey;
+
+  /** Heartbeat interval of emit on change in nanoseconds, 0 without heartbeat. */
+  private long heartbeatNanos;
+
+  /** Number of outputs suppressed by emit on change. */
+  private final LongAdder suppressed;
 
   /**
    * Constructs a rule-based Actor.
@@ -130,179 +315,453 @@ public abstract class Actor extends Service {
     super(eventBus);
     this.id = id;
     this.firingRules = firingRules;
-    this.inputChannels = List.copyOf(inputChannels);
+    this.inputChannels = List.copyOf(new LinkedHashSet<>(inputChannels));
     this.outputChannels = List.copyOf(outputChannels);
+    this.addressRegistry = AddressRegistry.of(eventBus);
+    this.fired = MetricsRegistry.getDefault().counter(FIRED, "actor", id);
+    this.suppressed = MetricsRegistry.getDefault().counter(SUPPRESSED, "actor", id);
+
+    int channels = this.inputChannels.size();
+    for (int c = 0; c < channels; c++) {
+      channelIndex.put(this.inputChannels.get(c), c);
+    }
+    this.latestByChannel = new Object[channels];
+    this.valueByChannel = new Object[channels];
+    this.numericByChannel = new double[channels];
+    this.timestampByChannel = new long[channels];
+    this.seqAtLastFire = new long[channels];
+    this.timestampKeys = new String[channels];
+    this.channelSeq = new long[channels];
+    this.lastConsumedSeqByRule = new long[firingRules.size()][channels];
+    this.satisfiedRules = new int[firingRules.size()];
+    this.ruleTestedIn = new long[firingRules.size()];
+    this.updatedChannels = new int[channels];
+    this.updated = new boolean[channels];
+    this.lastLatencyTimestamp = new long[channels];
+    this.channelLatency = new LatencySeries[channels];
+    this.ruleLatency = new LatencySeries[channels];
 
     compileRules();
-    initLastConsumedPointers();
+
+    for (int c = 0; c < channels; c++) {
+      String ch = this.inputChannels.get(c);
+      channelLatency[c] = new LatencySeries("Latency", "Latency-%s-%s".formatted(ch, id), "channel", ch);
+      ruleLatency[c] = new LatencySeries("Latency-RuleParticipation", "Latency-Rule-%s-%s".formatted(ch, id), "rule", ch);
+    }
+    this.globalLatency = new LatencySeries("Latency-Global", "Latency-Global-%s".formatted(id), "global", null);
+    latencySeries.addAll(List.of(channelLatency));
+    latencySeries.add(globalLatency);
+    latencySeries.addAll(List.of(ruleLatency));
 
     for (String ch : this.inputChannels) {
-      channelSeq.put(ch, 0L);
-      latestByChannel.put(ch, new JSONObject());
-      this.eventBus.register(ch, msg -> onMessage(ch, msg));
+      int index = channelIndex.get(ch);
+      latestByChannel[index] = new JSONObject();
+      valueByChannel[index] = snapshotValue(latestByChannel[index]);
+      numericByChannel[index] = Double.NaN;
+      timestampKeys[index] = "%s-timestamp".formatted(ch);
+      this.eventBus.register(ch, msg -> enqueue(new Delivery(index, msg)));
     }
+    this.eventBus.respond("%s.state".formatted(id), request -> getState());
   }
 
   /**
    * Called once per evaluation cycle when any rule is satisfied.
    *
-   * @param latestSnapshot immutable snapshot of latest channel values and timestamps
+   * @param snapshot immutable snapshot of latest channel values, timestamps and changed channels
    */
-  public abstract void fireFunction(Map<String, Object> latestSnapshot);
+  public abstract void fireFunction(ActorSnapshot snapshot);
 
-  /** @return list of input channels this actor listens to */
-  public List<String> getInputChannels() { return inputChannels; }
+  /**
+   * Enables micro-batched firing. The setting is applied through the mailbox, after the messages already queued.
+   *
+   * @param maxMessages maximum number of queued messages applied before the rules are evaluated, 1 disables batching
+   * @param samples     whether snapshots hold the list of samples per channel under {@code <channel>-samples}
+   * @throws IllegalArgumentException if {@code maxMessages} is smaller than 1
+   */
+  public void setBatching(int maxMessages, boolean samples) {
+    if (maxMessages < 1)
+      throw new IllegalArgumentException("maxMessages must be >= 1, was: %d".formatted(maxMessages));
+    enqueue((Runnable) () -> applyBatching(maxMessages, samples));
+  }
 
-  /** @return list of output channels this actor may publish to */
-  public List<String> getOutputChannels() { return outputChannels; }
+  /**
+   * Enables publishing outputs only on change, see {@link #shouldEmit(String, Object)}. The setting is applied through
+   * the mailbox, after the messages already queued; enabling it again forgets the outputs published so far.
+   *
+   * @param enabled         whether outputs are only published on change
+   * @param heartbeatMillis interval after which an unchanged output is published again, 0 disables the heartbeat
+   * @throws IllegalArgumentException if {@code heartbeatMillis} is negative
+   */
+  public void setEmitOnChange(boolean enabled, long heartbeatMillis) {
+    if (heartbeatMillis < 0)
+      throw new IllegalArgumentException("heartbeatMillis must be >= 0, was: %d".formatted(heartbeatMillis));
+    enqueue((Runnable) () -> {
+      emittedByKey = enabled ? new HashMap<>() : null;
+      heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+    });
+  }
 
   /**
-   * Handles an incoming message:
-   * <ul>
-   *     <li>Stores latest JSON object</li>
-   *     <li>Increments sequence counter</li>
-   *     <li>Evaluates all rules</li>
-   * </ul>
+   * Decides whether an output is published. Without emit on change every output is; with it, only a value that
+   * differs from the last one published under the same key, or an unchanged value whose last publication is at least
+   * the heartbeat interval ago. To be called from the fire function.
+   *
+   * @param key   identifies the output, e.g. the input channel a class is computed from
+   * @param value the value to publish
+   * @return whether to publish the value; {@code true} records it as published
    */
-  private void onMessage(String channel, Object msg) {
-    latestByChannel.put(channel, msg);
-    channelSeq.merge(channel, 1L, Long::sum);
-    evaluateRules();
+  protected boolean shouldEmit(String key, Object value) {
+    if (emittedByKey == null) {
+      return true;
+    }
+    long now = System.nanoTime();
+    Emitted last = emittedByKey.get(key);
+    if (last == null) {
+      emittedByKey.put(key, new Emitted(value, now));
+      return true;
+    }
+    if (Objects.equals(last.value, value) && (heartbeatNanos == 0 || now - last.nanos < heartbeatNanos)) {
+      suppressed.increment();
+      return false;
+    }
+    last.value = value;
+    last.nanos = now;
+    return true;
   }
 
   /**
-   * Main evaluation procedure. Produces exactly one snapshot + one fire
-   * per evaluation cycle, regardless of how many rules were satisfied.
+   * Publishes a result to all output channels, unless emit on change suppresses it.
+   *
+   * @param key   identifies the output, see {@link #shouldEmit(String, Object)}
+   * @param value the value to publish
    */
-  private void evaluateRules() {
-    Map<String, Object> snapshotToFire = new HashMap<>();
-
-    evalLock.lock();
-    try {
-      // Stable state snapshot
-      Map<String, Long> seqAtCall = new HashMap<>();
-      Map<String, Object> latestAtCall = new HashMap<>();
-
-      for (String ch : inputChannels) {
-        seqAtCall.put(ch, channelSeq.getOrDefault(ch, 0L));
-        latestAtCall.put(ch, latestByChannel.get(ch));
-      }
+  protected void publishOnChange(String key, Object value) {
+    if (shouldEmit(key, value)) {
+      publishResult(eventBus, addressRegistry, value, id, outputChannels);
+    }
+  }
 
-      // Determine satisfied rules
-      List<Integer> satisfiedRules = new ArrayList<>();
+  /** Value and {@link System#nanoTime()} of the last publication of an output key. */
+  private static final class Emitted {
+    private Object value;
+    private long nanos;
 
-      for (int i = 0; i < compiledRules.size(); i++) {
-        Map<String, FiringRule> rule = compiledRules.get(i);
-        Map<String, Long> lastPtr = lastConsumedSeqByRule.get(i);
+    private Emitted(Object value, long nanos) {
+      this.value = value;
+      this.nanos = nanos;
+    }
+  }
 
-        boolean satisfied = true;
+  private void applyBatching(int maxMessages, boolean samples) {
+    maxBatch = maxMessages;
+    if (samples) {
+      samplesByChannel = new ArrayList<>(inputChannels.size());
+      for (int c = 0; c < inputChannels.size(); c++) samplesByChannel.add(new ArrayList<>());
+    } else {
+      samplesByChannel = null;
+    }
+  }
 
-        for (var e : rule.entrySet()) {
-          String ch = e.getKey();
-          FiringRule cond = e.getValue();
+  /** @return list of input channels this actor listens to */
+  public List<String> getInputChannels() { return inputChannels; }
 
-          long delta = seqAtCall.get(ch) - lastPtr.get(ch);
-          Object latest = latestAtCall.get(ch);
+  /** @return list of output channels this actor may publish to */
+  public List<String> getOutputChannels() { return outputChannels; }
+
+  /**
+   * Current state of the actor, served on {@code <id>.state} via {@link EventBus#request(String, Object, long)}.
+   *
+   * @return the latest value, its timestamp and the number of received messages per input channel
+   */
+  public JSONObject getState() {
+    if (consumer == Thread.currentThread()) {
+      return buildState();
+    }
+    CompletableFuture<JSONObject> state = new CompletableFuture<>();
+    enqueue((Runnable) () -> {
+      try {
+        state.complete(buildState());
+      } catch (RuntimeException e) {
+        state.completeExceptionally(e);
+      }
+    });
+    return state.join();
+  }
+
+  private JSONObject buildState() {
+    JSONObject channels = new JSONObject();
+    for (String ch : inputChannels) {
+      int index = channelIndex.get(ch);
+      channels.put(ch, new JSONObject()
+        .put("value", valueByChannel[index])
+        .put("timestamp", Measurement.toInstant(timestampByChannel[index]).toString())
+        .put("count", channelSeq[index]));
+    }
+    return new JSONObject().put("id", id).put("channels", channels);
+  }
 
-          if (!testCondition(cond, delta, latest)) {
-            satisfied = false; break;
+  /** A message received on the input channel with the given index. */
+  private record Delivery(int channel, Object message) {}
+
+  /**
+   * A message received on a channel while batching with samples, see {@link #setBatching(int, boolean)}.
+   *
+   * @param value     the value of the {@link Measurement}, or the JSON field "value"
+   * @param timestamp the timestamp of the {@link Measurement}, or from JSON "timestampNs" or "timestamp"
+   */
+  public record Sample(Object value, Instant timestamp) {}
+
+  /**
+   * Adds a {@link Delivery} or task to the mailbox and drains it if no other thread does.
+   */
+  private void enqueue(Object item) {
+    mailbox.offer(item);
+    if (pending.getAndIncrement() == 0) {
+      drain();
+    }
+  }
+
+  /**
+   * Processes mailbox items until the mailbox is empty and no producer enqueued in the meantime. A failing item does
+   * not stop the drain and is logged here: the draining thread may be any producer, so the failure must not surface
+   * from its unrelated publish or method call.
+   */
+  private void drain() {
+    int missed = 1;
+    consumer = Thread.currentThread();
+    while (true) {
+      Object item;
+      while ((item = mailbox.poll()) != null) {
+        try {
+          if (item instanceof Delivery delivery) {
+            onMessages(delivery);
+          } else {
+            ((Runnable) item).run();
           }
+        } catch (RuntimeException e) {
+          String source = item instanceof Delivery delivery ? "channel " + inputChannels.get(delivery.channel()) : "a task";
+          logger.log(Level.WARNING, "Actor %s failed to process %s: %s".formatted(id, source, e), e);
         }
+      }
+      consumer = null;
+      missed = pending.addAndGet(-missed);
+      if (missed == 0) break;
+      consumer = Thread.currentThread();
+    }
+  }
 
-        if (satisfied) satisfiedRules.add(i);
+  /**
+   * Handles incoming messages on the mailbox consumer:
+   * <ul>
+   *     <li>Stores the latest message of the delivery and, when batching, of up to {@code maxMessages - 1} further
+   *         deliveries waiting in the mailbox</li>
+   *     <li>Increments the sequence counters</li>
+   *     <li>Evaluates the rules referencing the updated channels</li>
+   *     <li>Fires once if any of them is satisfied</li>
+   * </ul>
+   */
+  private void onMessages(Delivery first) {
+    ActorEvaluationEvent evaluation = new ActorEvaluationEvent();
+    evaluation.begin();
+
+    receive(first);
+    int messages = 1;
+    while (messages < maxBatch && mailbox.peek() instanceof Delivery) {
+      receive((Delivery) mailbox.poll());
+      messages++;
+    }
+    int rulesSatisfied = evaluateRules();
+
+    // Only one snapshot per evaluation
+    if (rulesSatisfied > 0) {
+      ActorSnapshot snapshot = buildSnapshot();
+      boolean[] participating = consumeSatisfiedRules();
+
+      fired.increment();
+      ActorFireEvent fire = new ActorFireEvent();
+      fire.begin();
+      fireFunction(snapshot);
+      if (fire.shouldCommit()) {
+        fire.actor = id;
+        fire.rulesSatisfied = rulesSatisfied;
+        fire.commit();
       }
+      recordLatencies(snapshot, participating);
+    }
 
-      // Only one snapshot per evaluation
-      if (!satisfiedRules.isEmpty()) {
-        snapshotToFire = buildSnapshotFrom(latestAtCall);
+    if (evaluation.shouldCommit()) {
+      evaluation.actor = id;
+      evaluation.rulesSatisfied = rulesSatisfied;
+      evaluation.messages = messages;
+      evaluation.commit();
+    }
+  }
 
-        // Advance all satisfied rules’ pointers
-        for (int idx : satisfiedRules) {
-          Map<String, Long> lastPtr = lastConsumedSeqByRule.get(idx);
-          for (String ch : inputChannels) {
-            lastPtr.put(ch, seqAtCall.get(ch));
-          }
-        }
+  /** Applies a delivery to the channel state and marks its channel as updated. */
+  private void receive(Delivery delivery) {
+    int channel = delivery.channel();
+    latestByChannel[channel] = delivery.message();
+    valueByChannel[channel] = snapshotValue(delivery.message());
+    numericByChannel[channel] = valueByChannel[channel] instanceof Number n ? n.doubleValue() : Double.NaN;
+    timestampByChannel[channel] = timestampOf(delivery.message());
+    channelSeq[channel]++;
+    if (samplesByChannel != null) {
+      samplesByChannel.get(channel).add(new Sample(valueByChannel[channel], Measurement.toInstant(timestampByChannel[channel])));
+    }
+    if (!updated[channel]) {
+      updated[channel] = true;
+      updatedChannels[updatedCount++] = channel;
+    }
+  }
 
+  /**
+   * Collects the satisfied rules referencing an updated channel in {@link #satisfiedRules} and clears the updated
+   * channels. Rules without a condition on an updated channel cannot have become satisfied, since their channels saw
+   * no new message since the previous evaluation, which consumed every rule it found satisfied.
+   *
+   * @return the number of satisfied rules
+   */
+  private int evaluateRules() {
+    satisfiedCount = 0;
+    evaluationNumber++;
+    for (int u = 0; u < updatedCount; u++) {
+      int channel = updatedChannels[u];
+      updated[channel] = false;
+      for (int r : rulesByChannel[channel]) {
+        if (ruleTestedIn[r] == evaluationNumber) continue;
+        ruleTestedIn[r] = evaluationNumber;
+        if (isSatisfied(r)) satisfiedRules[satisfiedCount++] = r;
       }
+    }
+    updatedCount = 0;
+    return satisfiedCount;
+  }
 
-    } finally {
-      evalLock.unlock();
+  /** @return whether all conditions of a rule hold for the current sequence counters and latest messages */
+  private boolean isSatisfied(int rule) {
+    long[] lastPtr = lastConsumedSeqByRule[rule];
+    for (int k = ruleOffsets[rule]; k < ruleOffsets[rule + 1]; k++) {
+      int c = conditionChannels[k];
+      if (!testCondition(conditions[k], channelSeq[c] - lastPtr[c], latestByChannel[c])) {
+        return false;
+      }
     }
+    return true;
+  }
 
-    // Execute fire + latency reporting outside lock
-    if (!snapshotToFire.isEmpty()) {
-      fireFunction(snapshotToFire);
-      publishAllLatencyModes(snapshotToFire);
+  /**
+   * Advances the pointers of all satisfied rules to the current sequence counters. Must be called after
+   * {@link #evaluateRules()}.
+   *
+   * @return per channel index, whether the channel had a delta &ge; 1 in at least one satisfied rule
+   */
+  private boolean[] consumeSatisfiedRules() {
+    boolean[] participating = new boolean[channelSeq.length];
+    for (int i = 0; i < satisfiedCount; i++) {
+      int r = satisfiedRules[i];
+      long[] lastPtr = lastConsumedSeqByRule[r];
+      for (int k = ruleOffsets[r]; k < ruleOffsets[r + 1]; k++) {
+        int c = conditionChannels[k];
+        if (channelSeq[c] - lastPtr[c] >= 1) participating[c] = true;
+      }
+      System.arraycopy(channelSeq, 0, lastPtr, 0, channelSeq.length);
     }
+    satisfiedCount = 0;
+    return participating;
   }
 
   /**
-   * Builds an immutable latest-value snapshot from the provided map.
-   * Extracts:
-   * <ul>
-   *   <li>value   under channel name</li>
-   *   <li>Instant under "channel-timestamp"</li>
-   * </ul>
+   * Builds an immutable snapshot of all input channels from the cached values and timestamps, marks the channels
+   * changed since the previous firing and hands over the samples collected since then (and resets them).
    */
   @NotNull
-  private Map<String, Object> buildSnapshotFrom(Map<String, Object> latestAtCall) {
-    Map<String, Object> snapshot = new LinkedHashMap<>();
-
-    for (String ch : inputChannels) {
-      JSONObject dp = (JSONObject) latestAtCall.get(ch);
-
-      // --- Value handling ---
-      Object value = dp.has("value") ? dp.get("value") : 0;
-      snapshot.put(ch, value);
-
-      // --- Timestamp handling ---
-      Instant ts;
-      if (dp.has("timestamp")) {
-        // Parse normally
-        LocalDateTime ldt = LocalDateTime.parse(dp.getString("timestamp"), formatter);
-        ts = ldt.atZone(ZoneId.systemDefault()).toInstant();
-      } else {
-        // Channel has not yet received any data → default timestamp
-        ts = Instant.EPOCH;
+  private ActorSnapshot buildSnapshot() {
+    int channels = inputChannels.size();
+    long[] changed = new long[(channels + 63) >>> 6];
+    List<List<Sample>> samples = samplesByChannel == null ? null : new ArrayList<>(channels);
+
+    for (int c = 0; c < channels; c++) {
+      if (channelSeq[c] != seqAtLastFire[c]) {
+        changed[c >>> 6] |= 1L << c;
+        seqAtLastFire[c] = channelSeq[c];
+      }
+      if (samples != null) {
+        samples.add(List.copyOf(samplesByChannel.get(c)));
+        samplesByChannel.get(c).clear();
       }
+    }
+
+    return new ActorSnapshot(inputChannels, valueByChannel.clone(), numericByChannel.clone(),
+      timestampByChannel.clone(), channelSeq.clone(), changed, samples, timestampKeys);
+  }
 
-      snapshot.put("%s-timestamp".formatted(ch), ts);
+  /** @return the value of a {@link Measurement}, or the JSON field "value" (0 if the channel has no data yet) */
+  private static Object snapshotValue(Object message) {
+    if (message instanceof Measurement m) {
+      return m.value();
     }
+    JSONObject dp = (JSONObject) message;
+    return dp.has("value") ? dp.get("value") : 0;
+  }
 
-    return Collections.unmodifiableMap(snapshot);
+  /**
+   * @return the timestamp in nanoseconds since the epoch of a {@link Measurement}, or of the JSON field "timestampNs"
+   *         if present, else parsed from the JSON field "timestamp" (0 if the channel has no data yet)
+   */
+  private static long timestampOf(Object message) {
+    if (message instanceof Measurement m) {
+      return m.timestampNanos();
+    }
+    JSONObject dp = (JSONObject) message;
+    if (dp.opt("timestampNs") instanceof Number nanos) {
+      return nanos.longValue();
+    }
+    if (!dp.has("timestamp")) {
+      return 0L;
+    }
+    return Measurement.toEpochNanos(LocalDateTime.parse(dp.getString("timestamp"), formatter));
   }
 
-  /** Compiles rule tokens ("*", "N", "r:v") into structured FiringRule objects. */
+  /**
+   * Compiles rule tokens ("*", "N", "r:v") into the flat {@link #conditions} array with the channel index of each
+   * condition and the offsets of each rule, and builds the inverted {@link #rulesByChannel} index.
+   */
   private void compileRules() {
+    List<FiringRule> flat = new ArrayList<>();
+    List<Integer> flatChannels = new ArrayList<>();
+    ruleOffsets = new int[firingRules.size() + 1];
+
     for (int i = 0; i < firingRules.size(); i++) {
       Map<String, String> ruleCfg = firingRules.get(i);
 
       if (ruleCfg == null || ruleCfg.isEmpty())
         throw new IllegalArgumentException("Rule %d is empty or null.".formatted(i));
 
-      Map<String, FiringRule> compiled = new HashMap<>();
-
+      ruleOffsets[i] = flat.size();
       for (var e : ruleCfg.entrySet()) {
         String ch = e.getKey();
         String tok = e.getValue();
 
-        if (!inputChannels.contains(ch))
+        Integer index = channelIndex.get(ch);
+        if (index == null)
           throw new IllegalArgumentException("Rule %d references unknown channel '%s'".formatted(i, ch));
 
-        compiled.put(ch, parseCondition(tok));
+        flat.add(parseCondition(tok));
+        flatChannels.add(index);
       }
-
-      compiledRules.add(Collections.unmodifiableMap(compiled));
     }
-  }
 
-  /** Initializes per-rule per-channel last-consumed pointers to zero. */
-  private void initLastConsumedPointers() {
-    for (int i = 0; i < firingRules.size(); i++) {
-      Map<String, Long> ptr = new HashMap<>();
-      for (String ch : inputChannels) ptr.put(ch, 0L);
-      lastConsumedSeqByRule.add(ptr);
+    ruleOffsets[firingRules.size()] = flat.size();
+    conditions = flat.toArray(new FiringRule[0]);
+    conditionChannels = flatChannels.stream().mapToInt(Integer::intValue).toArray();
+
+    rulesByChannel = new int[inputChannels.size()][];
+    for (int c = 0; c < rulesByChannel.length; c++) {
+      int channel = c;
+      rulesByChannel[c] = IntStream.range(0, firingRules.size())
+        .filter(r -> IntStream.range(ruleOffsets[r], ruleOffsets[r + 1])
+          .anyMatch(k -> conditionChannels[k] == channel))
+        .toArray();
     }
   }
 
@@ -331,108 +790,157 @@ public abstract class Actor extends Service {
     return switch (cond.type()) {
       case ANY -> delta >= 1;
       case AT_LEAST -> delta >= cond.n();
-      case REQUIRE_VALUE -> delta >= 1 && valueMatchesExpected(latest, cond.value());
+      case REQUIRE_VALUE -> delta >= 1 && valueMatchesExpected(valueOf(latest), cond.value());
     };
   }
 
-  /** Default equality check for "r:v". */
+  /** @return the value of a {@link Measurement} or of the JSON field "value" */
+  private static Object valueOf(Object message) {
+    if (message instanceof Measurement m) {
+      return m.value();
+    }
+    if (message instanceof JSONObject dp) {
+      return dp.opt("value");
+    }
+    return message;
+  }
+
+  /** Default equality check for "r:v"; numeric values are compared numerically. */
   protected boolean valueMatchesExpected(Object actual, String expected) {
+    if (actual instanceof Number n && expected != null) {
+      try {
+        return n.doubleValue() == Double.parseDouble(expected);
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
     return Objects.equals(Objects.toString(actual, null), expected);
   }
 
   // --------------------------------------------------------------------------
-  // LATENCY PUBLISHING (A + B + C2)
+  // LATENCY (A + B + C2)
   // --------------------------------------------------------------------------
 
   /**
-   * Publishes latency in all three modes:
-   * <ol>
-   *   <li>(A) per channel latency</li>
-   *   <li>(B) global latency (earliest timestamp)</li>
-   *   <li>(C2) rule-participation latency (channels with delta >= 1)</li>
-   * </ol>
+   * Sets how latencies are reported. Latencies are always recorded into the histograms {@value #LATENCY}; the
+   * interval setting takes effect immediately, the per-fire setting through the mailbox.
+   *
+   * @param summaryIntervalMillis interval of the published summaries, 0 disables them
+   * @param perFire               whether every firing additionally publishes its latencies (debug mode)
+   * @throws IllegalArgumentException if {@code summaryIntervalMillis} is negative
    */
-  private void publishAllLatencyModes(Map<String, Object> snapshot) {
-    Instant now = Instant.now();
+  public void setLatencyReporting(long summaryIntervalMillis, boolean perFire) {
+    if (summaryIntervalMillis < 0)
+      throw new IllegalArgumentException("summaryIntervalMillis must be >= 0, was: %d".formatted(summaryIntervalMillis));
+    synchronized (latencySeries) {
+      if (latencySummary != null) latencySummary.cancel(false);
+      latencySummary = summaryIntervalMillis == 0 ? null : latencySummaries.scheduleAtFixedRate(
+        this::publishLatencySummaries, summaryIntervalMillis, summaryIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    enqueue((Runnable) () -> perFireLatency = perFire);
+  }
 
-    publishPerChannelLatency(snapshot, now);
-    publishGlobalLatency(snapshot, now);
-    publishRuleParticipationLatency(snapshot, now);
+  /** Cancels the latency summaries and removes the latency histograms from the registry. */
+  @Override
+  public void stop() {
+    synchronized (latencySeries) {
+      if (latencySummary != null) latencySummary.cancel(false);
+      latencySummary = null;
+      for (LatencySeries series : latencySeries) {
+        MetricsRegistry.getDefault().removeHistogram(LATENCY, series.labels);
+      }
+    }
   }
 
   /**
-   * (A) Publishes latency per input channel.
+   * Records the latency of a firing in all three modes:
+   * <ol>
+   *   <li>(A) per channel, once per message timestamp</li>
+   *   <li>(B) global, from the earliest timestamp</li>
+   *   <li>(C2) rule participation, for channels with delta >= 1 in a satisfied rule</li>
+   * </ol>
+   * Channels without data or without timestamp are skipped.
    */
-  private void publishPerChannelLatency(Map<String, Object> snapshot, Instant benchmarkTs) {
-    for (String ch : inputChannels) {
-      String timeKey = "%s-timestamp".formatted(ch);
-      Instant ts = (Instant) snapshot.get(timeKey);
-
-      Instant lastPublished = lastTsPublishedByChannel.get(ch);
-      if (lastPublished != null && lastPublished.equals(ts))
-        return; // already published this timestamp
-
-      double seconds = Duration.between(ts, benchmarkTs).toNanos() / 1_000_000_000d;
+  private void recordLatencies(ActorSnapshot snapshot, boolean[] participating) {
+    long now = Measurement.now();
+    long earliest = Long.MAX_VALUE;
+
+    for (int c = 0; c < snapshot.size(); c++) {
+      long ts = snapshot.timestampNanos(c);
+      if (snapshot.count(c) == 0 || ts == 0) continue;
+      earliest = Math.min(earliest, ts);
+      if (ts == lastLatencyTimestamp[c]) continue; // already recorded this timestamp
+      lastLatencyTimestamp[c] = ts;
+      channelLatency[c].record(now - ts);
+    }
 
-      publishResult(eventBus, formatter, seconds, "Latency",
-              List.of("Latency-%s-%s".formatted(ch, id)));
+    if (earliest != Long.MAX_VALUE) {
+      globalLatency.record(now - earliest);
+    }
 
-      lastTsPublishedByChannel.put(ch, ts);
+    for (int c = 0; c < participating.length; c++) {
+      long ts = snapshot.timestampNanos(c);
+      if (participating[c] && ts != 0) ruleLatency[c].record(now - ts);
     }
   }
 
   /**
-   * (B) Publishes a global latency value using the earliest timestamp
-   * across all channels in the snapshot.
+   * Publishes count, p50, p90, p99 and max of the latencies recorded since the previous summary, for every series
+   * with new values.
    */
-  private void publishGlobalLatency(Map<String, Object> snapshot, Instant benchmarkTs) {
-    Instant earliest = null;
-
-    for (String ch : inputChannels) {
-      Instant ts = (Instant) snapshot.get("%s-timestamp".formatted(ch));
-      if (earliest == null || ts.isBefore(earliest)) earliest = ts;
-    }
-
-    if (earliest != null) {
-      double seconds = Duration.between(earliest, benchmarkTs).toNanos() / 1_000_000_000d;
-
-      publishResult(eventBus, formatter, seconds, "Latency-Global",
-              List.of("Latency-Global-%s".formatted(id)));
+  void publishLatencySummaries() {
+    synchronized (latencySeries) {
+      for (LatencySeries series : latencySeries) {
+        series.publishSummary();
+      }
     }
   }
 
   /**
-   * (C) Publishes latency only for channels that contributed delta >= 1
-   * in at least one satisfied rule during this evaluation.
+   * One latency series of the actor: its histogram and the address its values are published on.
    */
-  private void publishRuleParticipationLatency(Map<String, Object> snapshot, Instant benchmarkTs) {
-    // Determine participating channels (delta >= 1 for satisfied rules)
-    Set<String> participating = new HashSet<>();
-
-    for (int i = 0; i < compiledRules.size(); i++) {
-      Map<String, Long> lastPtr = lastConsumedSeqByRule.get(i);
-      Map<String, FiringRule> rule = compiledRules.get(i);
-
-      for (var e : rule.entrySet()) {
-        String ch = e.getKey();
-        long last = lastPtr.get(ch);
-        long cur = channelSeq.get(ch);
+  private final class LatencySeries {
+
+    private final String className;
+    private final List<String> address;
+    private final String[] labels;
+    private final LatencyHistogram histogram;
+
+    /** Histogram at the previous summary, guarded by {@link #latencySeries}. */
+    private LatencyHistogram.Snapshot reported;
+
+    private LatencySeries(String className, String address, String mode, String channel) {
+      this.className = className;
+      this.address = List.of(address);
+      this.labels = channel == null
+        ? new String[]{"actor", id, "mode", mode}
+        : new String[]{"actor", id, "mode", mode, "channel", channel};
+      this.histogram = MetricsRegistry.getDefault().histogram(LATENCY, labels);
+      this.reported = histogram.snapshot();
+    }
 
-        if (cur - last >= 1) {
-          participating.add(ch);
-        }
+    private void record(long nanos) {
+      histogram.record(nanos);
+      if (perFireLatency) {
+        publishResult(eventBus, addressRegistry, seconds(nanos), className, address);
       }
     }
 
-    // Publish latency for participating channels only
-    for (String ch : participating) {
-      String timeKey = "%s-timestamp".formatted(ch);
-      Instant ts = (Instant) snapshot.get(timeKey);
-
-      double seconds = Duration.between(ts, benchmarkTs).toNanos() / 1_000_000_000d;
+    private void publishSummary() {
+      LatencyHistogram.Snapshot current = histogram.snapshot();
+      LatencyHistogram.Snapshot interval = current.minus(reported);
+      reported = current;
+      if (interval.count() == 0) return;
+
+      publishResult(eventBus, addressRegistry, interval.count(), "%s-count".formatted(className), address);
+      publishResult(eventBus, addressRegistry, seconds(interval.valueAtPercentile(50)), "%s-p50".formatted(className), address);
+      publishResult(eventBus, addressRegistry, seconds(interval.valueAtPercentile(90)), "%s-p90".formatted(className), address);
+      publishResult(eventBus, addressRegistry, seconds(interval.valueAtPercentile(99)), "%s-p99".formatted(className), address);
+      publishResult(eventBus, addressRegistry, seconds(interval.max()), "%s-max".formatted(className), address);
+    }
 
-      publishResult(eventBus, formatter, seconds, "Latency-RuleParticipation",
-              List.of("Latency-Rule-%s-%s".formatted(ch, id)));
+    private static double seconds(long nanos) {
+      return Math.max(0, nanos) / 1_000_000_000d;
     }
   }
-}
\ No newline at end of file
+}
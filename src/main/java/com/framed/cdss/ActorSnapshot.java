@@ -0,0 +1,156 @@
+package com.framed.cdss;
+
+import com.framed.core.Measurement;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the input channels of an {@link Actor} at a firing, passed to
+ * {@link Actor#fireFunction(ActorSnapshot)}. Channels are addressed by their index in {@link Actor#getInputChannels()}.
+ *
+ * <ul>
+ *   <li>{@link #get(int)}, {@link #getDouble(int)}: latest value; {@link #getDouble(int)} avoids boxing and is
+ *       {@code NaN} for non-numeric values and channels without data.</li>
+ *   <li>{@link #timestampNanos(int)}, {@link #timestamp(int)}: timestamp of the latest message.</li>
+ *   <li>{@link #isChanged(int)}, {@link #nextChanged(int)}: whether a channel received messages since the actor last
+ *       fired, so that unchanged channels can be skipped.</li>
+ *   <li>{@link #samples(int)}: samples since the previous firing when the actor batches with samples.</li>
+ * </ul>
+ *
+ * <p>{@link #toMap()} renders the snapshot as passed to {@link MapActor#fireFunction(Map)}.</p>
+ */
+public final class ActorSnapshot {
+
+  private final List<String> channels;
+  private final Object[] values;
+  private final double[] numericValues;
+  private final long[] timestampNanos;
+  private final long[] counts;
+  private final long[] changed;
+  private final List<List<Actor.Sample>> samples;
+  private final String[] timestampKeys;
+
+  /**
+   * Takes ownership of the given arrays and sample lists, which must not be modified afterwards.
+   */
+  ActorSnapshot(List<String> channels, Object[] values, double[] numericValues, long[] timestampNanos, long[] counts,
+                long[] changed, List<List<Actor.Sample>> samples, String[] timestampKeys) {
+    this.channels = channels;
+    this.values = values;
+    this.numericValues = numericValues;
+    this.timestampNanos = timestampNanos;
+    this.counts = counts;
+    this.changed = changed;
+    this.samples = samples;
+    this.timestampKeys = timestampKeys;
+  }
+
+  /** @return number of channels */
+  public int size() {
+    return channels.size();
+  }
+
+  /** @return name of the channel with the given index */
+  public String channel(int index) {
+    return channels.get(index);
+  }
+
+  /** @return index of a channel, -1 if it is not an input of the actor */
+  public int indexOf(String channel) {
+    return channels.indexOf(channel);
+  }
+
+  /**
+   * @return the value of the latest {@link Measurement} (boxed {@link Double} for numeric values) or the JSON field
+   *         "value", 0 if the channel has no data yet
+   */
+  public Object get(int index) {
+    return values[index];
+  }
+
+  /** @return the numeric latest value, {@code NaN} if it is not numeric or the channel has no data yet */
+  public double getDouble(int index) {
+    return numericValues[index];
+  }
+
+  /** @return the timestamp of the latest message in nanoseconds since the epoch, 0 if the channel has no data yet */
+  public long timestampNanos(int index) {
+    return timestampNanos[index];
+  }
+
+  /** @return the timestamp of the latest message, {@link Instant#EPOCH} if the channel has no data yet */
+  public Instant timestamp(int index) {
+    return Measurement.toInstant(timestampNanos[index]);
+  }
+
+  /** @return the number of messages the channel received since the actor was created */
+  public long count(int index) {
+    return counts[index];
+  }
+
+  /** @return whether the channel received messages since the actor last fired */
+  public boolean isChanged(int index) {
+    return (changed[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   * Iterates the changed channels: {@code for (int i = s.nextChanged(0); i >= 0; i = s.nextChanged(i + 1))}.
+   *
+   * @param fromIndex first index to consider
+   * @return the first changed channel index at or after {@code fromIndex}, -1 if there is none
+   */
+  public int nextChanged(int fromIndex) {
+    int word = fromIndex >>> 6;
+    if (fromIndex >= channels.size() || word >= changed.length) {
+      return -1;
+    }
+    long bits = changed[word] & (-1L << fromIndex);
+    while (true) {
+      if (bits != 0) {
+        return word * 64 + Long.numberOfTrailingZeros(bits);
+      }
+      if (++word == changed.length) {
+        return -1;
+      }
+      bits = changed[word];
+    }
+  }
+
+  /** @return the number of changed channels */
+  public int changedCount() {
+    int count = 0;
+    for (long word : changed) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * @return the samples the channel received since the previous firing, empty if the actor does not collect samples
+   * @see Actor#setBatching(int, boolean)
+   */
+  public List<Actor.Sample> samples(int index) {
+    return samples == null ? List.of() : samples.get(index);
+  }
+
+  /**
+   * @return the snapshot as immutable map of channel → value, "channel-timestamp" → Instant and, if samples are
+   *         collected, "channel-samples" → List of {@link Actor.Sample}
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    for (int c = 0; c < channels.size(); c++) {
+      String ch = channels.get(c);
+      map.put(ch, values[c]);
+      map.put(timestampKeys[c], timestamp(c));
+      if (samples != null) {
+        map.put("%s-samples".formatted(ch), samples.get(c));
+      }
+    }
+    return Collections.unmodifiableMap(map);
+  }
+}
@@ -0,0 +1,50 @@
+package com.framed.cdss;
+
+import com.framed.core.EventBus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link Actor} whose fire function receives the snapshot as an immutable map of channel → value and
+ * channel-timestamp → Instant (see {@link ActorSnapshot#toMap()}), for cold or third-party actors that look channels
+ * up by name. Converting allocates a map per firing, so actors on the hot path, including the shipped ones in
+ * {@code com.framed.cdss.actors}, extend {@link Actor} and implement {@link Actor#fireFunction(ActorSnapshot)}
+ * directly.
+ */
+public abstract class MapActor extends Actor {
+
+  /**
+   * Constructs a rule-based Actor receiving map snapshots.
+   *
+   * @param eventBus        the event bus providing input messages and publishing outputs
+   * @param id              actor identifier
+   * @param firingRules     list of rules (channel → token)
+   * @param inputChannels   list of channels this actor subscribes to
+   * @param outputChannels  list of channels this actor may publish to
+   */
+  protected MapActor(EventBus eventBus,
+                     String id,
+                     List<Map<String, String>> firingRules,
+                     List<String> inputChannels,
+                     List<String> outputChannels) {
+    super(eventBus, id, firingRules, inputChannels, outputChannels);
+  }
+
+  /**
+   * Converts the snapshot with {@link ActorSnapshot#toMap()} and calls {@link #fireFunction(Map)}.
+   *
+   * @param snapshot immutable snapshot of latest channel values, timestamps and changed channels
+   */
+  @Override
+  public final void fireFunction(ActorSnapshot snapshot) {
+    fireFunction(snapshot.toMap());
+  }
+
+  /**
+   * Called once per evaluation cycle when any rule is satisfied.
+   *
+   * @param latestSnapshot immutable snapshot of latest channel values and timestamps
+   */
+  public abstract void fireFunction(Map<String, Object> latestSnapshot);
+}
@@ -1,19 +1,18 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.cdss.FiringRule;
 import com.framed.core.EventBus;
 
 import java.util.List;
 import java.util.Map;
 
-import static com.framed.cdss.utils.CDSSUtils.publishResult;
-
 public class DislocationClassificationActor extends Actor {
 
-    private final String etCO2LimitChannel;
-    private final String spo2TrendChannel;
-    private final String sfLimitChannel;
+    private static final int ETCO2_LIMIT = 0;
+    private static final int SPO2_TREND = 1;
+    private static final int SF_LIMIT = 2;
 
     /**
      * Constructs an {@code Actor} that subscribes to the given {@code inputChannels}, evaluates the provided
@@ -59,17 +58,20 @@ public class DislocationClassificationActor extends Actor {
                     outputChannel
             )
         );
-        this.etCO2LimitChannel = etCO2LimitChannel;
-        this.spo2TrendChannel = spo2TrendChannel;
-        this.sfLimitChannel = sfLimitChannel;
     }
 
+    /**
+     * Publishes the dislocation class of the etCO2 limit (index 0), SpO2 trend (index 1) and S/F limit (index 2)
+     * classes; a channel without data counts as class 0.
+     *
+     * @param snapshot snapshot of the etCO2 limit, SpO2 trend and S/F limit channels
+     */
     @Override
-    public void fireFunction(Map<String, Object> latestSnapshot) {
+    public void fireFunction(ActorSnapshot snapshot) {
         int warnValue = 0;
-        int etCO2State = (int) latestSnapshot.get(etCO2LimitChannel);
-        int spo2State = (int) latestSnapshot.get(spo2TrendChannel);
-        int sfState = (int) latestSnapshot.get(sfLimitChannel);
+        int etCO2State = (int) snapshot.getDouble(ETCO2_LIMIT);
+        int spo2State = (int) snapshot.getDouble(SPO2_TREND);
+        int sfState = (int) snapshot.getDouble(SF_LIMIT);
         if (spo2State == 1 && sfState >= 1 ) {
            if (etCO2State == 0){
                warnValue = 1;
@@ -79,7 +81,7 @@ public class DislocationClassificationActor extends Actor {
                warnValue = 3;
            }
         }
-        publishResult(eventBus, formatter, warnValue, id, outputChannels);
+        publishOnChange(id, warnValue);
     }
 
 
@@ -1,17 +1,16 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.cdss.FiringRule;
 import com.framed.core.EventBus;
 
 import java.util.List;
 import java.util.Map;
 
-import static com.framed.cdss.utils.CDSSUtils.publishResult;
-
 public class HeartrateClassificationActor extends Actor {
-    private final String etCO2TrendChannel;
-    private final String hrLimitChannel;
+    private static final int ETCO2_TREND = 0;
+    private static final int HR_LIMIT = 1;
 
     /**
      * Constructs an {@code Actor} that subscribes to the given {@code inputChannels}, evaluates the provided
@@ -55,15 +54,19 @@ public class HeartrateClassificationActor extends Actor {
                         outputChannel
                 )
         );
-        this.hrLimitChannel = hrLimitChannel;
-        this.etCO2TrendChannel = etCO2TrendChannel;
     }
 
 
+    /**
+     * Publishes the arrhythmia class of the etCO2 trend (index 0) and Heartrate limit (index 1) classes; a channel
+     * without data counts as class 0.
+     *
+     * @param snapshot snapshot of the etCO2 trend and Heartrate limit channels
+     */
     @Override
-    public void fireFunction(Map<String, Object> latestSnapshot) {
-        int etCO2Status = (int) latestSnapshot.get(etCO2TrendChannel);
-        int hrStatus  = (int) latestSnapshot.get(hrLimitChannel);
+    public void fireFunction(ActorSnapshot snapshot) {
+        int etCO2Status = (int) snapshot.getDouble(ETCO2_TREND);
+        int hrStatus  = (int) snapshot.getDouble(HR_LIMIT);
         int warnValue = 0;
         if (etCO2Status == 1) {
             if (hrStatus == 0) {
@@ -72,6 +75,6 @@ public class HeartrateClassificationActor extends Actor {
                 warnValue = 2;
             }
         }
-        publishResult(eventBus, formatter, warnValue, id, outputChannels);
+        publishOnChange(id, warnValue);
     }
 }
@@ -2,11 +2,11 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.core.EventBus;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -60,12 +60,13 @@ import static com.framed.cdss.utils.CDSSUtils.*;
  * <p>The result is therefore a discrete "classification bin" for each channel.
  *
  * <p><strong>Input:</strong>
- * The actor listens to a set of input channels and expects incoming snapshots
- * in {@link #fireFunction(Map)} where each channel maps to a numeric value
- * (any {@link Number} subtype is accepted).
+ * The actor listens to a set of input channels and expects a numeric value
+ * (any {@link Number} subtype is accepted) on each channel of the snapshot passed to
+ * {@link #fireFunction(ActorSnapshot)}; a channel without data yet is classified as value 0.
  *
  * <p><strong>Output:</strong>
- * For each input event, the actor publishes a result message containing:
+ * For each input event, the actor publishes a result message per input channel (with emit on change only when
+ * the class of the channel changed, see {@link Actor#setEmitOnChange(boolean, long)}) containing:
  *
  * <ul>
  *   <li>{@code timestamp}: ISO timestamp</li>
@@ -91,7 +92,6 @@ import static com.framed.cdss.utils.CDSSUtils.*;
  * <ul>
  *   <li>Limited channels must be a subset of the input channels.</li>
  *   <li>Each value in the snapshot must be numeric.</li>
- *   <li>Missing channel values will result in an exception.</li>
  * </ul>
  *
  * <p>This class generalizes a "limits classifier" into multiple dynamically
@@ -107,6 +107,9 @@ public class LimitClassificationActor extends Actor {
    */
   Map<String, List<Float>> limits;
 
+  /** The bounds of {@link #limits} by input channel index, {@code null} for channels without limits. */
+  private final float[][] boundsByChannel;
+
 
   /**
    * Constructs a {@code LimitClassifier}.
@@ -150,15 +153,25 @@ public class LimitClassificationActor extends Actor {
     }
 
     this.limits = parseLimitsJson(limits);
+    this.boundsByChannel = new float[this.inputChannels.size()][];
+    for (int c = 0; c < this.inputChannels.size(); c++) {
+      List<Float> bounds = this.limits.get(this.inputChannels.get(c));
+      if (bounds != null) {
+        boundsByChannel[c] = new float[bounds.size()];
+        for (int i = 0; i < bounds.size(); i++) {
+          boundsByChannel[c][i] = bounds.get(i);
+        }
+      }
+    }
   }
 
 
 
   /**
-   * Classifies each channel's input value using its configured list of
+   * Classifies a channel's input value using its configured list of
    * ascending upper bounds.
    *
-   * <p>For each channel, given:
+   * <p>Given:
    * <pre>
    * bounds = [b0, b1, b2, ..., bN]  // sorted ascending
    * value = v
@@ -176,77 +189,61 @@ public class LimitClassificationActor extends Actor {
    * bounds.size()
    * </pre>
    *
-   * @param snapshot a map channel → numeric value (must contain all required channels)
-   * @return a map channel → classification index
+   * The value is truncated to an integer before it is compared.
    *
-   * @throws IllegalStateException
-   *         if snapshot is null or missing a required channel
+   * @param channel index of the channel in {@link #getInputChannels()}
+   * @param value   the numeric value of the channel
+   * @return the classification index
    *
-   * @throws ClassCastException
-   *         if a snapshot value is not numeric
+   * @throws IllegalArgumentException
+   *         if the channel has no limits
    */
-  public Map<String, Integer> checkLimits(Map<String, Object> snapshot) {
-    if (snapshot == null || snapshot.isEmpty()) {
-      throw new IllegalStateException("No snapshot available yet.");
+  public int checkLimit(int channel, double value) {
+    float[] bounds = boundsByChannel[channel];
+    if (bounds == null) {
+      throw new IllegalArgumentException("No limits for channel: %s".formatted(inputChannels.get(channel)));
     }
+    int truncated = (int) value;
 
-    Map<String, Integer> alarmStates = new HashMap<>();
-
-    for (String channel : this.getInputChannels()) {
-      if (!limits.containsKey(channel)) {
-        continue;
-      }
-
-      Object raw = snapshot.get(channel);
-      if (raw == null) {
-        throw new IllegalStateException("Missing value for channel: %s".formatted(channel));
-      }
-
-      int value = switch (raw) {
-        case Integer i -> i;
-        case Number n -> n.intValue();
-        default -> throw new ClassCastException("Non-numeric value on channel: %s".formatted(raw));
-      };
-
-      List<Float> bounds = limits.get(channel);
-
-      // find first index where upperBound >= value
-      int index = 0;
-      for (; index < bounds.size(); index++) {
-        if (value <= bounds.get(index)) {
-          break;
-        }
+    // find first index where upperBound >= value
+    int index = 0;
+    for (; index < bounds.length; index++) {
+      if (truncated <= bounds[index]) {
+        break;
       }
-
-      alarmStates.put(channel, index);
     }
-
-    return alarmStates;
+    return index;
   }
 
 
   /**
    * Receives a snapshot from the runtime, classifies all channel values via
-   * {@link #checkLimits(Map)}, and publishes one result message per output channel.
+   * {@link #checkLimit(int, double)}, and publishes one result message per input channel to the output channels, unless
+   * emit on change suppresses an unchanged class. Channels without limits publish {@code null}.
    *
    * <p>The output message contains:
    * <ul>
    *   <li>{@code timestamp}: ISO-8601 timestamp</li>
-   *   <li>{@code value}: classification index computed by {@link #checkLimits(Map)}</li>
+   *   <li>{@code value}: classification index computed by {@link #checkLimit(int, double)}</li>
    *   <li>{@code className}: this classifier's ID</li>
    *   <li>{@code channelID}: the output channel the message is published to</li>
    * </ul>
    *
-   * @param latestSnapshot a map channel → numeric value
+   * @param snapshot snapshot of the input channels, with numeric values
+   * @throws ClassCastException if a limited channel has a non-numeric value
    */
-
   @Override
-  public void fireFunction(Map<String, Object> latestSnapshot) {
-    Map<String, Integer> states = checkLimits(latestSnapshot);
-
-    for (String ch : inputChannels) {
-      publishResult(eventBus, formatter, states.get(ch), id, outputChannels);
+  public void fireFunction(ActorSnapshot snapshot) {
+    for (int c = 0; c < snapshot.size(); c++) {
+      if (boundsByChannel[c] == null) {
+        publishOnChange(snapshot.channel(c), null);
+        continue;
+      }
+      double value = snapshot.getDouble(c);
+      if (Double.isNaN(value) && !(snapshot.get(c) instanceof Number)) {
+        throw new ClassCastException("Non-numeric value on channel: %s".formatted(snapshot.get(c)));
+      }
+      publishOnChange(snapshot.channel(c), checkLimit(c, value));
     }
   }
 }
-
@@ -1,6 +1,7 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.core.EventBus;
 import org.json.JSONArray;
 
@@ -8,13 +9,12 @@ import java.util.List;
 import java.util.Map;
 
 import static com.framed.cdss.utils.CDSSUtils.parseChannelListJson;
-import static com.framed.cdss.utils.CDSSUtils.publishResult;
 
 public class RRMismatchClassificationActor extends Actor {
+    private static final int RR_ESTIMATION = 0;
+    private static final int RR_SETTINGS = 1;
 
     private final int varLimit;
-    private final String rrEstimationChannel;
-    private final String rrSettingsChannel;
 
     public RRMismatchClassificationActor(EventBus eventBus, String id, String rrEstimationChannel, String rrSettingsChannel, JSONArray outputChannels, int varLimit){
         super(
@@ -32,18 +32,27 @@ public class RRMismatchClassificationActor extends Actor {
                 parseChannelListJson(outputChannels)
         );
         this.varLimit = varLimit;
-        this.rrEstimationChannel = rrEstimationChannel;
-        this.rrSettingsChannel = rrSettingsChannel;
 
     }
+
+    /**
+     * Publishes 1 if the estimated (index 0) and set (index 1) respiratory rates differ by more than the limit, 0
+     * otherwise; a channel without data counts as 0.
+     *
+     * @param snapshot snapshot of the estimated and set respiratory rate channels
+     */
     @Override
-    public void fireFunction(Map<String, Object> latestSnapshot) {
-        double rrEstimation = (double) latestSnapshot.getOrDefault(rrEstimationChannel, 0);
-        double rrSetting = (double) latestSnapshot.getOrDefault(rrSettingsChannel, 0 );
+    public void fireFunction(ActorSnapshot snapshot) {
+        double rrEstimation = valueOrZero(snapshot.getDouble(RR_ESTIMATION));
+        double rrSetting = valueOrZero(snapshot.getDouble(RR_SETTINGS));
         int warnValue = 0;
         if (Math.abs(rrEstimation - rrSetting) > varLimit){
             warnValue = 1;
         }
-        publishResult(eventBus, formatter, warnValue, id, outputChannels);
+        publishOnChange(id, warnValue);
+    }
+
+    private static double valueOrZero(double value) {
+        return Double.isNaN(value) ? 0 : value;
     }
 }
@@ -1,6 +1,7 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.cdss.utils.SlopeUtils;
 import com.framed.core.EventBus;
 import org.json.JSONArray;
@@ -38,8 +39,7 @@ import static com.framed.cdss.utils.SlopeUtils.computeSlope;
  *         "timestamp": "&lt;ISO‑8601 string&gt;"
  *     }
  *     </pre>
- *     The timestamp is read from {@code &lt;channel&gt;-timestamp} if attached by
- *     the event bus; otherwise {@link Instant#now()} is used.</li>
+ *     The timestamp of the message is used as the time of the sample.</li>
  * </ul>
  *
  * <h2>Output</h2>
@@ -108,6 +108,10 @@ import static com.framed.cdss.utils.SlopeUtils.computeSlope;
  *     <li>{@code useHampel}, {@code hampelWindow}, {@code hampelK}: Optional Hampel
  *         outlier suppression.</li>
  * </ul>
+ * <p>
+ * The detector needs every waveform sample. When the actor batches under load, configure
+ * {@code "batching": {"samples": true}} so that all samples of a batch are processed.
+ * </p>
  *
  * <h2>Thread Safety</h2>
  * <p>
@@ -133,7 +137,7 @@ import static com.framed.cdss.utils.SlopeUtils.computeSlope;
 public class RespiratoryRateEstimationActor extends Actor {
 
     // ---- Channels ----
-    private final String etco2Channel;
+    private static final int ETCO2 = 0;
 
     // ---- Detection parameters (tunable) ----
     private final int windowSize;                 // N samples for slope window (e.g., 15–50 depending on sampling rate)
@@ -199,7 +203,6 @@ public class RespiratoryRateEstimationActor extends Actor {
             double hampelK
     ) {
         super(eventBus, id, List.of(Map.of(etco2Channel, "*")), List.of(etco2Channel), parseChannelListJson(outputChannels));
-        this.etco2Channel = etco2Channel;
         if (windowSize < 3) throw new IllegalArgumentException("windowSize must be >= 3");
         this.windowSize = windowSize;
         this.riseSlopeMin = riseSlopeMin;
@@ -215,40 +218,60 @@ public class RespiratoryRateEstimationActor extends Actor {
     }
 
     /**
-     * Processes a single incoming ETCO2_WAVE sample, updates the smoothing/filters,
-     * maintains the sliding window, estimates the local slope (mmHg/s), and drives
-     * the hysteresis-based breath detection state machine. When a breath is confirmed,
-     * registers its timestamp and, if enough history is present, computes and publishes RR.
+     * Processes the incoming ETCO2_WAVE samples, then computes and publishes RR if possible.
      *
      * <p><strong>Expected input:</strong> The snapshot should contain the ETCO2 value
-     * under {@code etco2Channel} (Number or String convertible to double). A timestamp
-     * is read from {@code <channel>-timestamp} if available; otherwise {@link Instant#now()}
-     * is used as a fallback.</p>
+     * (Number or String convertible to double) and its timestamp. When the actor batches with samples
+     * (see {@link Actor#setBatching(int, boolean)}), every sample of {@link ActorSnapshot#samples(int)} is processed
+     * in order instead of the latest value only.</p>
      *
      * <p><strong>Side effects:</strong> Updates internal buffers (EMA value, Hampel buffer,
      * sliding window, peak history), and may publish RR to {@code outputChannels}.</p>
      *
-     * @param snapshot A map-like payload representing the latest event bus snapshot for the input channel.
-     *                 Must contain a numeric ETCO2 value at key {@code etco2Channel}. Timestamp is optional.
+     * @param snapshot snapshot of the ETCO2 channel
      */
     @Override
-    public void fireFunction(Map<String, Object> snapshot) {
-        Object raw = snapshot.get(etco2Channel);
-        if (!(raw instanceof Number) && !(raw instanceof String)) return;
+    public void fireFunction(ActorSnapshot snapshot) {
+        boolean ready = false;
+        List<Actor.Sample> samples = snapshot.samples(ETCO2);
+        if (!samples.isEmpty()) {
+            for (Actor.Sample sample : samples) {
+                ready |= processSample(sample.value(), sample.timestamp());
+            }
+        } else {
+            ready = processSample(snapshot.get(ETCO2), snapshot.timestamp(ETCO2));
+        }
 
+        // After updating detections, compute and publish RR if possible
+        if (ready) {
+            computeAndPublishRR();
+        }
+    }
+
+    /**
+     * Processes a single ETCO2_WAVE sample: updates the smoothing/filters, maintains the sliding window,
+     * estimates the local slope (mmHg/s), and drives the hysteresis-based breath detection state machine.
+     * When a breath is confirmed, registers its timestamp.
+     *
+     * @param raw ETCO2 value (Number or String convertible to double)
+     * @param ts  timestamp of the sample
+     * @return whether the window was filled enough to estimate the slope
+     */
+    private boolean processSample(Object raw, Instant ts) {
         // Parse value
         double etco2;
-        try {
-            etco2 = Double.parseDouble(raw.toString());
-        } catch (Exception e) {
-            return;
+        if (raw instanceof Number n) {
+            etco2 = n.doubleValue();
+        } else if (raw instanceof String str) {
+            try {
+                etco2 = Double.parseDouble(str);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        } else {
+            return false;
         }
 
-        // Timestamp from snapshot if present; fallback to now
-        Instant ts = (Instant) snapshot.getOrDefault("%s-timestamp".formatted(etco2Channel), Instant.now());
-        // If your base Actor provides access to original message JSON including timestamp,
-        // adapt here to read it; otherwise Instant.now() is acceptable if upstream time is monotonic.
-
         double v = etco2;
 
         // Optional EMA smoothing
@@ -269,7 +292,7 @@ public class RespiratoryRateEstimationActor extends Actor {
         }
 
         // Need at least 3 samples to compute slope securely
-        if (window.size() < Math.max(3, windowSize / 2)) return;
+        if (window.size() < Math.max(3, windowSize / 2)) return false;
 
         // Compute slope (mmHg/sec) by least-squares over the window
         double slope = computeSlope(window);
@@ -289,9 +312,7 @@ public class RespiratoryRateEstimationActor extends Actor {
             }
             armed = false;
         }
-
-        // After updating detections, compute and publish RR if possible
-        computeAndPublishRR();
+        return true;
     }
 
 
@@ -371,7 +392,7 @@ public class RespiratoryRateEstimationActor extends Actor {
      * RR [breaths/min] = 60000 / median(inter_breath_interval_ms)
      * </pre>
      *
-     * <p>If no valid intervals remain after filtering, nothing is published.</p>
+     * <p>If no valid intervals remain after filtering, an RR of 0 is published.</p>
      */
     private void computeAndPublishRR() {
         if (detectedPeaks.size() < 2) return;
@@ -388,13 +409,16 @@ public class RespiratoryRateEstimationActor extends Actor {
                 intervalsMs.add(d);
             }
         }
-        if (intervalsMs.isEmpty()) publishResult(eventBus, formatter, 0, id, outputChannels);;
+        if (intervalsMs.isEmpty()) {
+            publishResult(eventBus, addressRegistry, 0, id, outputChannels);
+            return;
+        }
 
         intervalsMs.sort(Long::compareTo);
         double medianMs = intervalsMs.get(intervalsMs.size() / 2);
         double rr = 60000.0 / medianMs;
 
-        publishResult(eventBus, formatter, rr, id, outputChannels);
+        publishResult(eventBus, addressRegistry, rr, id, outputChannels);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.core.EventBus;
 
 import java.util.List;
@@ -9,8 +10,8 @@ import java.util.Map;
 import static com.framed.cdss.utils.CDSSUtils.publishResult;
 
 public class SFComputationActor extends Actor {
-  private final String spo2Channel;
-  private final String fio2Channel;
+  private static final int SPO2 = 0;
+  private static final int FIO2 = 1;
 
 
   public SFComputationActor(EventBus eventBus, String id, String spo2Channel, String fio2Channel, String outputChannel) {
@@ -29,18 +30,20 @@ public class SFComputationActor extends Actor {
         outputChannel
       )
     );
-    this.spo2Channel = spo2Channel;
-    this.fio2Channel = fio2Channel;
   }
 
+  /**
+   * Publishes SpO2 / FiO2 once both channels carry a numeric value.
+   *
+   * @param snapshot snapshot of the SpO2 (index 0) and FiO2 (index 1) channels
+   */
   @Override
-  public void fireFunction(Map<String, Object> latestValues) {
-    if (
-      latestValues.get(spo2Channel) instanceof Number spo2
-        && latestValues.get(fio2Channel) instanceof Number fio2
-    ){
-      float sf = spo2.floatValue() / fio2.floatValue();
-      publishResult(eventBus, formatter, sf, id, outputChannels);
+  public void fireFunction(ActorSnapshot snapshot) {
+    double spo2 = snapshot.getDouble(SPO2);
+    double fio2 = snapshot.getDouble(FIO2);
+    if (!Double.isNaN(spo2) && !Double.isNaN(fio2) && fio2 != 0) {
+      float sf = (float) spo2 / (float) fio2;
+      publishResult(eventBus, addressRegistry, sf, id, outputChannels);
     }
   }
 }
@@ -2,15 +2,14 @@
 package com.framed.cdss.actors;
 
 import com.framed.cdss.Actor;
+import com.framed.cdss.ActorSnapshot;
 import com.framed.cdss.utils.SlopeUtils;
 import com.framed.cdss.utils.TrendDirection;
 import com.framed.core.EventBus;
-import org.jetbrains.annotations.NotNull;
+import com.framed.core.Measurement;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
 import java.util.*;
 
 import static com.framed.cdss.utils.CDSSUtils.*;
@@ -50,12 +49,14 @@ import static com.framed.cdss.utils.SlopeUtils.computeSlope;
  * decreasing condition to hold for {@code persistWindows} consecutive evaluated windows before it emits a warning.
  * By default, {@code persistWindows = 2}.</p>
  *
- * <p>Once in the "warning" state for a channel, this implementation emits a warning only on state entry,
- * and resets once the condition is no longer met.</p>
+ * <p>Every evaluated window publishes the state of its channel (1 warning, 0 otherwise). With emit on change (see
+ * {@link Actor#setEmitOnChange(boolean, long)}) a channel only publishes when it enters or leaves the warning state,
+ * plus the optional heartbeat.</p>
  *
  * <h2>Inputs and outputs</h2>
  * <ul>
- *   <li><strong>Input:</strong> {@link #fireFunction(Map)} is invoked with a snapshot {@code channel -> value}.</li>
+ *   <li><strong>Input:</strong> {@link #fireFunction(ActorSnapshot)} is invoked with a snapshot of the input
+ *   channels; each channel that received a message since the last firing adds its latest value to its window.</li>
  *   <li><strong>Output:</strong> A warning message is published to each configured output channel and also logged.</li>
  * </ul>
  *
@@ -81,11 +82,20 @@ public class TrendClassificationActor extends Actor {
      */
     private final Map<String, Integer> persistWindows;
 
-    /** Per-channel sliding window of the most recent values. */
-    private final Map<String, Deque<SlopeUtils.Sample>> windows = new HashMap<>();
+    /** Sliding window size by input channel index, resolved from {@link #windowSizes}. */
+    private final int[] windowSizeByChannel;
 
-    /** Per-channel counter of consecutive "trend condition met" evaluations. */
-    private final Map<String, Integer> consecutiveHits = new HashMap<>();
+    /** Decrease threshold by input channel index, resolved from {@link #deltaPerChannel}. */
+    private final int[] deltaByChannel;
+
+    /** Required consecutive windows by input channel index, resolved from {@link #persistWindows}. */
+    private final int[] persistByChannel;
+
+    /** Per-channel sliding window of the most recent values, by input channel index. */
+    private final List<Deque<SlopeUtils.Sample>> windows;
+
+    /** Per-channel counter of consecutive "trend condition met" evaluations, by input channel index. */
+    private final int[] consecutiveHits;
 
     /**
      * Constructs a {@code TrendClassifier} that warns on decreasing trends using regression slope,
@@ -122,23 +132,39 @@ public class TrendClassificationActor extends Actor {
         this.deltaPerChannel = parsePerChannelIntMap(deltas, 0);
 
 
-        for (String ch : this.inputChannels) {
-            int windowSize = this.windowSizes.getOrDefault(ch, 2);
-            windows.put(ch, new ArrayDeque<>(windowSize));
-            consecutiveHits.put(ch, 0);
+        int channels = this.inputChannels.size();
+        this.windowSizeByChannel = new int[channels];
+        this.deltaByChannel = new int[channels];
+        this.persistByChannel = new int[channels];
+        this.windows = new ArrayList<>(channels);
+        this.consecutiveHits = new int[channels];
+        for (int c = 0; c < channels; c++) {
+            String ch = this.inputChannels.get(c);
+            windowSizeByChannel[c] = requireConfigured(this.windowSizes, ch, "windowSizes");
+            deltaByChannel[c] = requireConfigured(this.deltaPerChannel, ch, "deltas");
+            persistByChannel[c] = requireConfigured(this.persistWindows, ch, "persistWindows");
+            windows.add(new ArrayDeque<>(windowSizeByChannel[c]));
         }
 
 
         this.direction = TrendDirection.valueOf(direction);
     }
 
+    private static int requireConfigured(Map<String, Integer> perChannel, String channel, String name) {
+        Integer value = perChannel.get(channel);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing %s value for channel '%s'".formatted(name, channel));
+        }
+        return value;
+    }
+
     /**
      * Updates per-channel windows with the newest snapshot values, computes the regression slope when enough
      * samples exist, and emits warnings for channels exhibiting a persistent decreasing trend.
      *
      * <p>Behavior per channel:</p>
      * <ol>
-     *   <li>If the channel is missing in the snapshot, it is skipped.</li>
+     *   <li>If the channel received no message since the last firing, it is skipped.</li>
      *   <li>The numeric value is appended to the channel window (oldest removed if full).</li>
      *   <li>Once the window is full, compute regression slope over the window.</li>
      *   <li>If slope {@code <= -delta}, increment the persistence counter; otherwise reset it.</li>
@@ -146,50 +172,41 @@ public class TrendClassificationActor extends Actor {
      *   <li>If slope no longer meets the condition, exit warning state.</li>
      * </ol>
      *
-     * @param latestSnapshot snapshot map {@code channel -> value}; values must be {@link Number}
-     * @throws ClassCastException if any encountered snapshot value is not numeric
+     * @param snapshot snapshot of the input channels; values must be {@link Number}
+     * @throws ClassCastException if the value of a changed channel is not numeric
      */
     @Override
-    public void fireFunction(Map<String, Object> latestSnapshot) {
-        if (latestSnapshot == null || latestSnapshot.isEmpty()) {
-            return; // or throw; depending on your system's expectations
-        }
-
-        for (String channel : inputChannels) {
-            Object raw = latestSnapshot.get(channel);
-            Instant ts = (Instant) latestSnapshot.getOrDefault("%s-timestamp".formatted(channel), Instant.now());
-
-            if (raw != null) {
-                Deque<SlopeUtils.Sample> window = getWindow(channel, raw, ts);
-
-                // Need a full window to evaluate trend
-                if (window.size() >= windowSizes.get(channel)) {
-                    double slope = computeSlope(window);
-                    decideWarning(channel, slope, window);
-                }
-
+    public void fireFunction(ActorSnapshot snapshot) {
+        for (int c = snapshot.nextChanged(0); c >= 0; c = snapshot.nextChanged(c + 1)) {
+            Deque<SlopeUtils.Sample> window = addToWindow(snapshot, c);
+
+            // Need a full window to evaluate trend
+            if (window.size() >= windowSizeByChannel[c]) {
+                double slope = computeSlope(window);
+                decideWarning(c, slope, window);
             }
         }
     }
 
-    private void decideWarning(String channel, double slope, Deque<SlopeUtils.Sample> window) {
+    private void decideWarning(int channel, double slope, Deque<SlopeUtils.Sample> window) {
+        int delta = deltaByChannel[channel];
         boolean conditionMet = false;
         switch (direction) {
-            case DOWN ->  conditionMet = slope <= -deltaPerChannel.get(channel);
-            case UP -> conditionMet = slope >= deltaPerChannel.get(channel);
-            case BOTH -> conditionMet = (slope <= -deltaPerChannel.get(channel)) || (slope >= deltaPerChannel.get(channel));
+            case DOWN ->  conditionMet = slope <= -delta;
+            case UP -> conditionMet = slope >= delta;
+            case BOTH -> conditionMet = (slope <= -delta) || (slope >= delta);
         }
 
         // Persistence logic
-        int hits = consecutiveHits.get(channel);
+        int hits = consecutiveHits[channel];
         if (conditionMet) {
             hits++;
         } else {
             hits = 0;
         }
-        consecutiveHits.put(channel, hits);
+        consecutiveHits[channel] = hits;
 
-        if (conditionMet && hits >= persistWindows.get(channel)){
+        if (conditionMet && hits >= persistByChannel[channel]){
            emitWarning(channel, 1, window);
         } else {
             emitWarning(channel, 0, window);
@@ -198,22 +215,20 @@ public class TrendClassificationActor extends Actor {
 
     }
 
-    @NotNull
-    private Deque<SlopeUtils.Sample> getWindow(String channel, Object raw, Instant ts) {
-        double value = switch (raw) {
-            case Integer i -> i.doubleValue();
-            case Number n -> n.doubleValue();
-            default -> throw new ClassCastException(
-                    "Non-numeric value for channel '%s': %s".formatted(channel, raw.getClass().getName())
+    private Deque<SlopeUtils.Sample> addToWindow(ActorSnapshot snapshot, int channel) {
+        double value = snapshot.getDouble(channel);
+        if (Double.isNaN(value) && !(snapshot.get(channel) instanceof Number)) {
+            throw new ClassCastException(
+                    "Non-numeric value for channel '%s': %s".formatted(snapshot.channel(channel), snapshot.get(channel))
             );
-        };
+        }
 
         // Maintain sliding window
         Deque<SlopeUtils.Sample> window = windows.get(channel);
-        if (window.size() == windowSizes.get(channel)) {
+        if (window.size() == windowSizeByChannel[channel]) {
             window.removeFirst();
         }
-        window.addLast(new SlopeUtils.Sample(ts, value));
+        window.addLast(new SlopeUtils.Sample(snapshot.timestamp(channel), value));
         return window;
     }
 
@@ -222,35 +237,34 @@ public class TrendClassificationActor extends Actor {
     /**
      * Emits a decreasing-trend warning for the given channel.
      *
-     * <p>This method logs a warning and publishes a structured warning message to each configured output channel.</p>
+     * <p>This method logs a warning and publishes a structured warning message to each configured output channel,
+     * unless emit on change suppresses an unchanged value.</p>
      *
-     * @param channel the channel for which the warning is emitted
+     * @param channel index of the channel for which the warning is emitted
      * @param warnValue value of the warning, 1 if conditions are met, 0 else
      * @param window  the current evaluation window (used to include context)
      */
-    private void emitWarning(String channel, int warnValue, Deque<SlopeUtils.Sample> window) {
-        // Publish warning event
-        JSONObject result = new JSONObject();
-        result.put("timestamp", LocalDateTime.now().format(formatter));
-        result.put("className", id);
-        result.put("inputChannel", channel);
-
-        result.put("value", warnValue);
-
-        // Add metadata for consumers
-        result.put("trendMetric", "REGRESSION_SLOPE");
-        result.put("direction", this.direction);
-        result.put("windowSize", windowSizes.get(channel));
-        result.put("delta", deltaPerChannel.get(channel));
-        result.put("persistWindows", persistWindows);
-
-        result.put("windowFirst", window.peekFirst());
-        result.put("windowLast", window.peekLast());
+    private void emitWarning(int channel, int warnValue, Deque<SlopeUtils.Sample> window) {
+        String inputChannel = inputChannels.get(channel);
+        if (!shouldEmit(inputChannel, warnValue)) {
+            return; // unchanged, see Actor#setEmitOnChange
+        }
+        // Publish warning event, with metadata for consumers
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("inputChannel", inputChannel);
+        metadata.put("trendMetric", "REGRESSION_SLOPE");
+        metadata.put("direction", this.direction);
+        metadata.put("windowSize", windowSizeByChannel[channel]);
+        metadata.put("delta", deltaByChannel[channel]);
+        metadata.put("persistWindows", persistWindows);
+        metadata.put("windowFirst", window.peekFirst());
+        metadata.put("windowLast", window.peekLast());
+        Measurement result = Measurement.of(CDSS_DEVICE, null, id, Measurement.now(), warnValue)
+                .withAttributes(metadata);
 
         for (String out : outputChannels) {
-            result.put("channelID", out);
-            eventBus.publish("CDSS.addresses", out);
-            eventBus.publish(out, result);
+            addressRegistry.announce(CDSS_DEVICE, out);
+            eventBus.publish(out, result.withChannel(out));
         }
     }
 }
@@ -1,15 +1,18 @@
 package com.framed.cdss.utils;
 
+import com.framed.core.AddressRegistry;
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class CDSSUtils {
 
+    /** Pseudo-device under which all CDSS result addresses are announced. */
+    public static final String CDSS_DEVICE = "CDSS";
+
     private CDSSUtils() {
         throw new IllegalStateException("Utility class");
     }
@@ -84,15 +87,21 @@ public class CDSSUtils {
         return result;
     }
 
-    public static void publishResult(EventBus eventBus, DateTimeFormatter formatter, Object warnValue, String id, List<String> outputChannels) {
-        JSONObject result = new JSONObject();
-        result.put("timestamp", LocalDateTime.now().format(formatter));
-        result.put("className", id);
-        result.put("value", warnValue);
+    /**
+     * Publishes a CDSS result as {@link Measurement} of the {@link #CDSS_DEVICE} on all output channels.
+     *
+     * @param eventBus        the event bus
+     * @param addressRegistry the registry of the event bus, resolved once by the caller (see {@link AddressRegistry#of})
+     * @param warnValue       the result value
+     * @param id              the actor id, used as class name
+     * @param outputChannels  the channels to publish on
+     */
+    public static void publishResult(EventBus eventBus, AddressRegistry addressRegistry, Object warnValue, String id,
+                                     List<String> outputChannels) {
+        Measurement result = Measurement.ofValue(CDSS_DEVICE, null, id, Measurement.now(), warnValue);
         for (String out : outputChannels) {
-            result.put("channelID", out);
-            eventBus.publish("CDSS.addresses", out);
-            eventBus.publish(out, result);
+            addressRegistry.announce(CDSS_DEVICE, out);
+            eventBus.publish(out, result.withChannel(out));
         }
     }
 
@@ -1,11 +1,18 @@
 package com.framed.communicator.driver.parser;
 
+import com.framed.core.AddressRegistry;
 import com.framed.core.EventBus;
 import com.framed.core.Service;
 
 public abstract class Parser<T> extends Service {
+  /**
+   * Registry used to announce parsed data addresses once per address.
+   */
+  protected final AddressRegistry addressRegistry;
+
   protected Parser(EventBus eventBus) {
     super(eventBus);
+    this.addressRegistry = AddressRegistry.of(eventBus);
   }
 
   public abstract void parse(T message, String deviceName);
@@ -4,16 +4,17 @@ import com.framed.communicator.driver.parser.Parser;
 import com.framed.communicator.driver.protocol.medibus.utils.DataUtils;
 import com.framed.communicator.driver.protocol.medibus.utils.DataConstants;
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
+import com.framed.core.jfr.RealTimeParseEvent;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 public class MedibusRealTimeParser extends Parser<Byte> {
   private final List<Byte> realTimeByteList = new CopyOnWriteArrayList<>();
@@ -41,6 +42,8 @@ public class MedibusRealTimeParser extends Parser<Byte> {
 
   @Override
   public void parse(Byte message, String deviceName) {
+    RealTimeParseEvent event = new RealTimeParseEvent();
+    event.begin();
     realTimeByteList.add(message);
 
     int bytesSuccessfullyRead = 0;
@@ -175,6 +178,13 @@ public class MedibusRealTimeParser extends Parser<Byte> {
     if (!batch.isEmpty()) {
       write(deviceName, batch); // <-- pass local batch
     }
+
+    if (event.shouldCommit()) {
+      event.device = deviceName;
+      event.bytesBuffered = realTimeByteArray.length;
+      event.recordsDecoded = batch.size();
+      event.commit();
+    }
   }
 
   private static boolean isIsCmdPair(byte[] buffer) {
@@ -216,19 +226,11 @@ public class MedibusRealTimeParser extends Parser<Byte> {
       double value = (double) map.get("value");
 
       long tsMs = (long) map.get("timestampMs");
-      // Render ISO-8601 with microseconds from the captured ms
-      String tsIso = LocalDateTime.ofInstant(Instant.ofEpochMilli(tsMs), java.time.ZoneId.systemDefault())
-        .format(formatter);
-
-      JSONObject waveValResult = new JSONObject();
-      waveValResult.put("timestamp", tsIso);
-      waveValResult.put("timestampMs", tsMs);           // optional raw ms
-      waveValResult.put("channelID", channelID);
-      waveValResult.put("value", value);
-      waveValResult.put("className", "RealTime");
+      // Keep the captured record time, converted to epoch nanos
+      Measurement waveValResult = Measurement.of(deviceName, channelID, "RealTime", TimeUnit.MILLISECONDS.toNanos(tsMs), value);
 
       String address = "%s.%s.parsed".formatted(deviceName, channelID);
-      eventBus.publish("%s.addresses".formatted(deviceName), address);
+      addressRegistry.announce(deviceName, address);
       eventBus.publish(address, waveValResult);
     }
   }
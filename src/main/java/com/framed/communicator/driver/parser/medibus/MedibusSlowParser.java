@@ -3,11 +3,10 @@ package com.framed.communicator.driver.parser.medibus;
 import com.framed.communicator.driver.parser.Parser;
 import com.framed.communicator.driver.protocol.medibus.utils.DataConstants;
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
 import org.json.JSONArray;
-import org.json.JSONObject;
 
 import java.nio.charset.StandardCharsets;
-import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.util.logging.Level;
 
@@ -17,26 +16,14 @@ public class MedibusSlowParser extends Parser<byte[]> {
     super(eventBus);
     for (Object device : devices) {
       String deviceName = (String) device;
-      eventBus.register(deviceName, msg -> handleEventBus(msg, deviceName));
+      eventBus.register(deviceName, byte[].class, values -> handleEventBus(values, deviceName));
     }
 
 
   }
 
-  private synchronized void handleEventBus(Object msg, String deviceName) {
-    switch (msg) {
-      case byte[] values -> parse(values, deviceName);
-      case JSONArray message -> {
-        byte[] values = new byte[message.length()];
-        for (int i = 0; i < message.length(); i++) {
-          values[i] = (byte) message.getInt(i);
-        }
-        parse(values, deviceName);
-      }
-      case null, default -> logger.warning("Message dataypte unmatched.");
-    }
-
-
+  private synchronized void handleEventBus(byte[] values, String deviceName) {
+    parse(values, deviceName);
   }
 
   @Override
@@ -178,12 +165,9 @@ public class MedibusSlowParser extends Parser<byte[]> {
   }
 
   private void write(String deviceName, String channelID, String className, Object dataValue, LocalDateTime timestamp) {
-    JSONObject result = new JSONObject().put("channelID", channelID);
-    result.put("value", dataValue);
-    result.put("timestamp", timestamp.format(formatter));
-    result.put("className", className);
+    Measurement result = Measurement.ofValue(deviceName, channelID, className, Measurement.toEpochNanos(timestamp), dataValue);
     String address = "%s.%s.%s.parsed".formatted(className, deviceName, channelID);
-    eventBus.publish(MessageFormat.format("{0}.addresses", deviceName), address);
+    addressRegistry.announce(deviceName, address);
     eventBus.publish(address, result);
   }
 }
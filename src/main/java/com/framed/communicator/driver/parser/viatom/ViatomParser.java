@@ -1,16 +1,19 @@
 package com.framed.communicator.driver.parser.viatom;
 
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
 import com.framed.communicator.driver.parser.Parser;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.time.LocalDateTime;
+
 public class ViatomParser extends Parser<Object> {
   public ViatomParser(EventBus eventBus, JSONArray devices) {
     super(eventBus);
     for (Object device : devices) {
       String deviceName = (String) device;
-      eventBus.register(deviceName, msg -> handleEventBus((String) msg, deviceName));
+      eventBus.register(deviceName, String.class, msg -> handleEventBus(msg, deviceName));
     }
   }
 
@@ -21,18 +24,14 @@ public class ViatomParser extends Parser<Object> {
   @Override
   public void parse(Object message, String deviceName) {
     JSONObject result = new JSONObject((String) message);
-    String timestamp = result.getString("timestamp");
+    long timestamp = Measurement.toEpochNanos(LocalDateTime.parse(result.getString("timestamp"), formatter));
     JSONObject data = result.getJSONObject("data");
     for (String key : data.keySet()) {
       Object value = data.getJSONObject(key).get("value");
       Object field = data.getJSONObject(key).get("field");
       String address = "%s.%s.parsed".formatted(deviceName, key);
-      JSONObject parsedResult = new JSONObject();
-      parsedResult.put("timestamp", timestamp);
-      parsedResult.put("channelID", key);
-      parsedResult.put("value", value);
-      parsedResult.put("className", field.toString());
-      eventBus.publish("%s.addresses".formatted(deviceName), address);
+      Measurement parsedResult = Measurement.ofValue(deviceName, key, field.toString(), timestamp, value);
+      addressRegistry.announce(deviceName, address);
       eventBus.publish(address, parsedResult);
     }
   }
@@ -3,16 +3,29 @@ package com.framed.communicator.driver.protocol.medibus;
 import com.framed.communicator.driver.protocol.medibus.utils.DataUtils;
 import com.framed.communicator.driver.protocol.medibus.utils.DataConstants;
 import com.framed.core.EventBus;
+import com.framed.core.jfr.MedibusFrameEvent;
+import com.framed.core.metrics.MetricsRegistry;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 
+/**
+ * Splits the byte stream of a Medibus device into command/response frames, verifies their checksums and hands the
+ * user data to the frame handler; real-time bytes are published on {@code <deviceID>.real-time}.
+ *
+ * <p>Valid frames and checksum errors are counted per device in {@link MetricsRegistry#getDefault()}
+ * ({@value #FRAMES}, {@value #CHECKSUM_ERRORS}) and emitted as {@link MedibusFrameEvent}s to JFR.</p>
+ */
 public class MedibusFramer {
 
+  public static final String FRAMES = "framed_medibus_frames_total";
+  public static final String CHECKSUM_ERRORS = "framed_medibus_checksum_errors_total";
+
   Logger logger = Logger.getLogger(MedibusFramer.class.getName());
 
   private final EventBus eventBus;
@@ -28,11 +41,15 @@ public class MedibusFramer {
 
 
   private final Consumer<byte[]> frameHandler;
+  private final LongAdder frames;
+  private final LongAdder checksumErrors;
 
   public MedibusFramer(Consumer<byte[]> frameHandler, EventBus eventBus, String deviceID) {
     this.deviceID = deviceID;
     this.eventBus = eventBus;
     this.frameHandler = frameHandler;
+    this.frames = MetricsRegistry.getDefault().counter(FRAMES, "device", deviceID);
+    this.checksumErrors = MetricsRegistry.getDefault().counter(CHECKSUM_ERRORS, "device", deviceID);
   }
 
   public void createFrameListFromByte(byte bValue) {
@@ -84,6 +101,8 @@ public class MedibusFramer {
 
 
   private void finalizeFrame() {
+    MedibusFrameEvent event = new MedibusFrameEvent();
+    event.begin();
     int frameLen = bList.size();
     if (frameLen < 3) {
       bList.clear();
@@ -107,13 +126,23 @@ public class MedibusFramer {
     byte checksumComputed = DataUtils.computeChecksum(userDataArray);
     String checksumComputedStr = String.format("%02X", checksumComputed & 0xFF).toUpperCase();
 
-    if (checksumComputedStr.equals(checksumStr)) {
+    boolean checksumOk = checksumComputedStr.equals(checksumStr);
+    if (checksumOk) {
+      frames.increment();
       frameHandler.accept(userDataArray);
     } else {
+      checksumErrors.increment();
       logger.warning("Checksum Error");
     }
 
     bList.clear();
     storeEnd = false;
+
+    if (event.shouldCommit()) {
+      event.device = deviceID;
+      event.frameLength = frameLen;
+      event.checksumOk = checksumOk;
+      event.commit();
+    }
   }
 }
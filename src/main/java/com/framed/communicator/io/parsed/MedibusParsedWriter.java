@@ -2,7 +2,12 @@ package com.framed.communicator.io.parsed;
 
 import com.framed.communicator.io.Writer;
 
+import com.framed.core.AddressRegistry;
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
+import com.framed.core.Registration;
+import com.framed.core.ScopedEventBus;
+import com.framed.core.jfr.WriteEvent;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
@@ -10,33 +15,33 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 public class MedibusParsedWriter extends Writer<JSONObject> {
-  private List<String> addresses = new ArrayList<>();
 
   public MedibusParsedWriter(String path, EventBus eventBus, JSONArray devices) {
     super(path, eventBus);
+    AddressRegistry addressRegistry = AddressRegistry.of(eventBus);
     for (Object device : devices) {
       String deviceName = (String) device;
-      eventBus.register(deviceName + ".addresses", msg -> {
-        if (!addresses.contains(msg.toString())) {
-          addresses.add(msg.toString());
-          eventBus.register(
-            msg.toString(), msg_ -> {
-              handleEventBus(msg_, deviceName);
-            }
-          );
-        }
-      });
+      Registration subscription = addressRegistry.subscribe(deviceName, address ->
+        eventBus.register(
+          address, msg_ -> {
+            handleEventBus(msg_, deviceName);
+          }
+        )
+      );
+      if (eventBus instanceof ScopedEventBus scope) {
+        scope.track(subscription); // released when the service is stopped
+      }
     }
   }
 
 
   @Override
   public synchronized void write(JSONObject data, String deviceName) throws IOException {
+    WriteEvent event = new WriteEvent();
+    event.begin();
     Path filePath;
     if (Objects.equals(data.getString("className"), "RealTime")) {
       filePath = path.resolve(deviceName + "_" + timeOnStart + "_parsed_RT.jsonl");
@@ -45,14 +50,21 @@ public class MedibusParsedWriter extends Writer<JSONObject> {
     }
     String dataString = data.toString();
     if (dataString != null) {
-      Files.write(filePath, dataString.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      byte[] bytes = dataString.getBytes();
+      Files.write(filePath, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
       Files.write(filePath, "\n".getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+      event.bytes = bytes.length + 1L;
+    }
+    if (event.shouldCommit()) {
+      event.writer = getClass().getSimpleName();
+      event.device = deviceName;
+      event.commit();
     }
   }
 
 
   public synchronized void handleEventBus(Object msg, String deviceName) {
-    JSONObject jsonMsg = (JSONObject) msg;
+    JSONObject jsonMsg = msg instanceof Measurement measurement ? measurement.toJson() : (JSONObject) msg;
     try {
       write(jsonMsg, deviceName);
     } catch (IOException e) {
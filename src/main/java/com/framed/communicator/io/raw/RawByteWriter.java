@@ -2,6 +2,7 @@ package com.framed.communicator.io.raw;
 
 import com.framed.communicator.io.Writer;
 import com.framed.core.EventBus;
+import com.framed.core.jfr.WriteEvent;
 import org.json.JSONArray;
 
 import java.io.IOException;
@@ -17,8 +18,9 @@ public class RawByteWriter extends Writer<byte[]> {
       String deviceName = (String) device;
       eventBus.register(
         deviceName,
-        msg -> {
-          handleEventBus(msg, deviceName);
+        byte[].class,
+        data -> {
+          handleEventBus(data, deviceName);
         }
       );
 
@@ -28,15 +30,20 @@ public class RawByteWriter extends Writer<byte[]> {
   @Override
   public synchronized void write(byte[] data, String deviceName) throws IOException {
     if (data.length <= 2) return;
+    WriteEvent event = new WriteEvent();
+    event.begin();
     Path filePath = path.resolve(deviceName + "_" + timeOnStart + "_raw.txt");
     Files.write(filePath, data, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
     Files.write(filePath, "\n".getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    if (event.shouldCommit()) {
+      event.writer = getClass().getSimpleName();
+      event.device = deviceName;
+      event.bytes = data.length + 1L;
+      event.commit();
+    }
   }
 
-  public void handleEventBus(Object msg, String deviceName) {
-    //JSONObject jsonMsg = (JSONObject) msg;
-    //byte[] data = (byte[]) jsonMsg.get("data");
-    byte[] data = msg.toString().getBytes();
+  public void handleEventBus(byte[] data, String deviceName) {
     try {
       write(data, deviceName);
     } catch (IOException e) {
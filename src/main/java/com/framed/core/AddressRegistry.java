@@ -0,0 +1,235 @@
+package com.framed.core;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Caches the data addresses announced per device on an {@link EventBus}.
+ *
+ * <p>Producers (parsers, CDSS actors) used to publish {@code <device>.addresses} for every single data point.
+ * The registry keeps a set of known addresses per device and only publishes an announcement the first time an
+ * address is seen. Consumers (writers, dispatchers) subscribe through {@link #subscribe(String, Consumer)} and
+ * receive every known address exactly once, including those announced before they subscribed, until they close
+ * the returned {@link Registration}. Services tie it to their {@link ScopedEventBus} ({@link ScopedEventBus#track}),
+ * so that it is closed when they are stopped.</p>
+ *
+ * <h2>Protocol:</h2>
+ * <ul>
+ *   <li><b>{@code <device>.addresses}:</b> carries a single address string, published once per new address.
+ *       Announcements received from remote peers are merged into the local cache.</li>
+ *   <li><b>{@value #SYNC_ADDRESS}:</b> carries a device name. Whenever a registry gains its first subscriber for a
+ *       device it publishes a sync request; every registry knowing addresses of that device re-announces them,
+ *       so late-joining peers learn about streams that started before they connected.</li>
+ * </ul>
+ *
+ * <p>There is exactly one registry per event bus, obtained via {@link #of(EventBus)}. The lookup takes a global lock,
+ * so producers resolve the registry once, e.g. when they are constructed, and keep it.</p>
+ */
+public class AddressRegistry {
+
+  /**
+   * Address on which registries request a re-announcement of all addresses known for a device.
+   */
+  public static final String SYNC_ADDRESS = "framed.addresses.sync";
+
+  private static final Map<EventBus, WeakReference<AddressRegistry>> registries =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final EventBus eventBus;
+  private final Map<String, DeviceAddresses> devices = new ConcurrentHashMap<>();
+
+  /**
+   * Known addresses and local listeners of a single device.
+   */
+  private static final class DeviceAddresses {
+    /** Known addresses in announcement order, guarded by this. */
+    private final Set<String> addresses = new LinkedHashSet<>();
+    /** The same addresses, for the lock-free check of {@link #announce}. */
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    private final List<Subscription> listeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * A listener subscribed to the addresses of a device; it is not called anymore once closed.
+   */
+  private static final class Subscription implements Registration {
+    private final String address;
+    private final DeviceAddresses state;
+    private final Consumer<String> listener;
+    private final AtomicBoolean active = new AtomicBoolean(true);
+
+    private Subscription(String address, DeviceAddresses state, Consumer<String> listener) {
+      this.address = address;
+      this.state = state;
+      this.listener = listener;
+    }
+
+    private void accept(String dataAddress) {
+      if (active.get()) {
+        listener.accept(dataAddress);
+      }
+    }
+
+    @Override
+    public String address() {
+      return address;
+    }
+
+    @Override
+    public boolean isActive() {
+      return active.get();
+    }
+
+    @Override
+    public void close() {
+      if (active.compareAndSet(true, false)) {
+        synchronized (state) {
+          state.listeners.remove(this);
+        }
+      }
+    }
+  }
+
+  private AddressRegistry(EventBus eventBus) {
+    this.eventBus = eventBus;
+    eventBus.register(SYNC_ADDRESS, msg -> reannounce(msg.toString()));
+  }
+
+  /**
+   * Returns the registry of the given event bus, creating it on first use.
+   * A {@link ScopedEventBus} shares the registry of the bus it wraps.
+   *
+   * @param eventBus the event bus the registry announces on
+   * @return the registry bound to {@code eventBus}
+   */
+  public static AddressRegistry of(EventBus eventBus) {
+    if (eventBus instanceof ScopedEventBus scoped) {
+      return of(scoped.unwrap());
+    }
+    synchronized (registries) {
+      WeakReference<AddressRegistry> ref = registries.get(eventBus);
+      AddressRegistry registry = ref == null ? null : ref.get();
+      if (registry == null) {
+        registry = new AddressRegistry(eventBus);
+        registries.put(eventBus, new WeakReference<>(registry));
+      }
+      return registry;
+    }
+  }
+
+  /**
+   * Announces a data address of a device.
+   * <p>Only the first announcement of an address is published on {@code <device>.addresses};
+   * repeated calls are a lock-free set lookup. Local subscribers are notified synchronously, so they can
+   * register on the address before the first data point is published.</p>
+   *
+   * @param device  the device (or pseudo-device, e.g. {@code CDSS}) owning the address
+   * @param address the data address
+   */
+  public void announce(String device, String address) {
+    if (add(device, address)) {
+      eventBus.publish(announcementAddress(device), address);
+    }
+  }
+
+  /**
+   * Subscribes to the addresses of a device.
+   * <p>The listener is called once for every address already known and once for every address
+   * announced later, locally or by a remote peer.</p>
+   *
+   * @param device   the device to watch
+   * @param listener receives each address of the device exactly once
+   * @return a handle removing the listener when closed
+   */
+  public Registration subscribe(String device, Consumer<String> listener) {
+    DeviceAddresses state = device(device);
+    Subscription subscription = new Subscription(announcementAddress(device), state, listener);
+    List<String> snapshot;
+    boolean first;
+    synchronized (state) {
+      first = state.listeners.isEmpty();
+      state.listeners.add(subscription);
+      snapshot = List.copyOf(state.addresses);
+    }
+    snapshot.forEach(subscription::accept);
+    if (first) {
+      eventBus.publish(SYNC_ADDRESS, device);
+    }
+    return subscription;
+  }
+
+  /**
+   * Returns the addresses currently known for a device.
+   *
+   * @param device the device
+   * @return an immutable copy of the known addresses
+   */
+  public Set<String> snapshot(String device) {
+    DeviceAddresses state = devices.get(device);
+    if (state == null) {
+      return Set.of();
+    }
+    synchronized (state) {
+      return Set.copyOf(state.addresses);
+    }
+  }
+
+  /**
+   * Adds an address to the cache and notifies local listeners if it is new. Known addresses are recognized without
+   * taking the lock of the device. The listeners are copied under the lock
+   * and notified after releasing it, like the snapshot in {@link #subscribe(String, Consumer)}, so a listener
+   * registering handlers or announcing addresses cannot block or deadlock other producers.
+   *
+   * @return {@code true} if the address was not known before
+   */
+  private boolean add(String device, String address) {
+    DeviceAddresses state = device(device);
+    if (state.known.contains(address)) {
+      return false;
+    }
+    List<Subscription> listeners;
+    synchronized (state) {
+      if (!state.addresses.add(address)) {
+        return false;
+      }
+      state.known.add(address);
+      listeners = List.copyOf(state.listeners);
+    }
+    for (Subscription listener : listeners) {
+      listener.accept(address);
+    }
+    return true;
+  }
+
+  /**
+   * Answers a sync request by re-publishing all addresses known for the device.
+   */
+  private void reannounce(String device) {
+    for (String address : snapshot(device)) {
+      eventBus.publish(announcementAddress(device), address);
+    }
+  }
+
+  private DeviceAddresses device(String device) {
+    DeviceAddresses state = devices.get(device);
+    if (state != null) {
+      return state;
+    }
+    DeviceAddresses created = new DeviceAddresses();
+    state = devices.putIfAbsent(device, created);
+    if (state == null) {
+      // merge announcements of other producers and remote peers
+      eventBus.register(announcementAddress(device), msg -> add(device, msg.toString()));
+      state = created;
+    }
+    return state;
+  }
+
+  private static String announcementAddress(String device) {
+    return "%s.addresses".formatted(device);
+  }
+}
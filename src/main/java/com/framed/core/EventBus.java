@@ -1,6 +1,10 @@
 package com.framed.core;
 
+import com.framed.core.codec.CodecRegistry;
+
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Defines a simple event bus mechanism for message-based communication between components and/or services.
@@ -20,8 +24,63 @@ public interface EventBus {
    *
    * @param address  the address to listen on
    * @param handler  a {@link Consumer} that processes incoming messages
+   * @return a handle removing the handler when closed
+   */
+  Registration register(String address, Consumer<Object> handler);
+
+  /**
+   * Registers a typed handler for messages sent to the specified address.
+   * <p>Payloads are converted by the {@link CodecRegistry#getDefault() default codec registry}: payloads of the
+   * requested type are handed off as is, others are adapted by the type's codec if possible (e.g. a JSON array of
+   * ints from an older peer for {@code byte[]}). Payloads that cannot be converted fail the handler invocation.</p>
+   *
+   * @param address  the address to listen on
+   * @param type     the payload type expected by the handler
+   * @param handler  a {@link Consumer} that processes incoming payloads
+   * @param <T>      the payload type
+   * @return a handle removing the handler when closed
+   */
+  default <T> Registration register(String address, Class<T> type, Consumer<T> handler) {
+    CodecRegistry codecs = CodecRegistry.getDefault();
+    return register(address, message -> handler.accept(codecs.convert(message, type)));
+  }
+
+  /**
+   * Sends a request to a single responder on the given address and awaits its reply asynchronously.
+   * <p>The responder receives a {@link Request} carrying the message, a correlation id and the reply address of
+   * this bus (see {@link Requester}).</p>
+   *
+   * @param address        the address of the responder
+   * @param message        the request message
+   * @param timeoutMillis  time to wait for the reply, in milliseconds
+   * @return a future completed with the reply, or exceptionally with a {@link java.util.concurrent.TimeoutException}
+   *         or the failure reported by the responder
+   */
+  default CompletableFuture<Object> request(String address, Object message, long timeoutMillis) {
+    return Requester.of(this).request(address, message, timeoutMillis);
+  }
+
+  /**
+   * Registers a responder for requests sent to the specified address.
+   * <p>The responder maps the request message to the reply. If it throws, the failure is sent back to the
+   * requester.</p>
+   *
+   * @param address    the address to listen on
+   * @param responder  computes the reply from the request message
+   * @return a handle removing the responder when closed
    */
-  void register(String address, Consumer<Object> handler);
+  default Registration respond(String address, Function<Object, Object> responder) {
+    return register(address, Request.class, request -> {
+      Object reply;
+      try {
+        reply = responder.apply(request.body());
+      } catch (RuntimeException e) {
+        request.fail(this, e.toString());
+        throw e;
+      }
+      request.reply(this, reply);
+    });
+  }
 
   /**
    * Sends a message to a single handler registered for the given address.
@@ -0,0 +1,219 @@
+package com.framed.core;
+
+import com.framed.core.utils.Timer;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single immutable data point flowing through the {@link EventBus}.
+ *
+ * <p>Parsers and CDSS actors publish measurements instead of {@link JSONObject}s. In-process consumers
+ * (actors, dispatchers, writers) read the typed fields directly, so timestamps are never formatted and parsed
+ * back in between. Conversion to JSON only happens at the edges: writers and the JSON transports use
+ * {@link #toJson()}, remote payloads are converted back via {@link #fromJson(JSONObject)}.</p>
+ *
+ * <h2>Fields:</h2>
+ * <ul>
+ *   <li><b>deviceId, channelId, className:</b> interned identifiers; a bounded set of strings per deployment.</li>
+ *   <li><b>timestampNanos:</b> source time in nanoseconds since the epoch.</li>
+ *   <li><b>numericValue:</b> primitive value of numeric measurements.</li>
+ *   <li><b>objectValue:</b> value of non-numeric measurements (text, alarms), {@code null} for numeric ones.</li>
+ *   <li><b>attributes:</b> optional additional fields, e.g. the context of a CDSS warning.</li>
+ * </ul>
+ *
+ * <h2>JSON representation:</h2>
+ * <pre>{@code
+ * {
+ *   "timestamp": "2025-01-01T12:00:00.000000",
+ *   "deviceID": "Oxylog-3000",
+ *   "channelID": "HR",
+ *   "className": "Measurement",
+ *   "value": 72.0
+ * }
+ * }</pre>
+ *
+ * @param deviceId       the device (or pseudo-device, e.g. {@code CDSS}) that produced the value, may be {@code null}
+ * @param channelId      the channel
+ * @param className      the class of the value, e.g. {@code RealTime}, {@code Measurement}, {@code Alarm}
+ * @param timestampNanos the source timestamp in nanoseconds since the epoch
+ * @param numericValue   the value of a numeric measurement, {@code NaN} otherwise
+ * @param objectValue    the value of a non-numeric measurement, {@code null} for numeric ones
+ * @param attributes     additional fields, never {@code null}
+ */
+public record Measurement(String deviceId,
+                          String channelId,
+                          String className,
+                          long timestampNanos,
+                          double numericValue,
+                          Object objectValue,
+                          Map<String, Object> attributes) {
+
+  private static final Map<String, String> ids = new ConcurrentHashMap<>();
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  public Measurement {
+    deviceId = intern(deviceId);
+    channelId = intern(channelId);
+    className = intern(className);
+    attributes = attributes == null || attributes.isEmpty() ? Map.of() : Map.copyOf(attributes);
+  }
+
+  /**
+   * Creates a numeric measurement.
+   *
+   * @param deviceId       the device
+   * @param channelId      the channel
+   * @param className      the class of the value
+   * @param timestampNanos the source timestamp in nanoseconds since the epoch
+   * @param value          the value
+   * @return the measurement
+   */
+  public static Measurement of(String deviceId, String channelId, String className, long timestampNanos, double value) {
+    return new Measurement(deviceId, channelId, className, timestampNanos, value, null, Map.of());
+  }
+
+  /**
+   * Creates a measurement from an arbitrary value. {@link Number}s become numeric measurements,
+   * all other values are kept as object value.
+   *
+   * @param deviceId       the device
+   * @param channelId      the channel
+   * @param className      the class of the value
+   * @param timestampNanos the source timestamp in nanoseconds since the epoch
+   * @param value          the value
+   * @return the measurement
+   */
+  public static Measurement ofValue(String deviceId, String channelId, String className, long timestampNanos, Object value) {
+    if (value instanceof Number n) {
+      return of(deviceId, channelId, className, timestampNanos, n.doubleValue());
+    }
+    return new Measurement(deviceId, channelId, className, timestampNanos, Double.NaN, value, Map.of());
+  }
+
+  /**
+   * @param channelId the channel of the copy
+   * @return a copy of this measurement on another channel, e.g. for publishing a result on several outputs
+   */
+  public Measurement withChannel(String channelId) {
+    return new Measurement(deviceId, channelId, className, timestampNanos, numericValue, objectValue, attributes);
+  }
+
+  /**
+   * @param attributes the additional fields of the copy
+   * @return a copy of this measurement with the given additional fields
+   */
+  public Measurement withAttributes(Map<String, Object> attributes) {
+    return new Measurement(deviceId, channelId, className, timestampNanos, numericValue, objectValue, attributes);
+  }
+
+  /**
+   * @return {@code true} if the value is numeric and available via {@link #numericValue()} without boxing
+   */
+  public boolean isNumeric() {
+    return objectValue == null;
+  }
+
+  /**
+   * @return the value, boxed as {@link Double} for numeric measurements
+   */
+  public Object value() {
+    return objectValue == null ? numericValue : objectValue;
+  }
+
+  /**
+   * @return the source timestamp
+   */
+  public Instant timestamp() {
+    return toInstant(timestampNanos);
+  }
+
+  /**
+   * Converts this measurement to its JSON representation.
+   *
+   * @return a new JSON object, with the timestamp formatted by {@link Timer#formatter} in the system time zone
+   */
+  public JSONObject toJson() {
+    JSONObject json = new JSONObject();
+    attributes.forEach(json::put);
+    json.put("timestamp", LocalDateTime.ofInstant(timestamp(), ZoneId.systemDefault()).format(Timer.formatter));
+    if (deviceId != null) {
+      json.put("deviceID", deviceId);
+    }
+    json.put("channelID", channelId);
+    json.put("className", className);
+    json.put("value", value());
+    return json;
+  }
+
+  /**
+   * Converts the JSON representation back into a measurement. An optional {@code timestampNs} field (nanoseconds since
+   * the epoch) takes precedence over the formatted {@code timestamp}. Fields other than these, {@code deviceID},
+   * {@code channelID}, {@code className} and {@code value} are kept as attributes.
+   *
+   * @param json the JSON representation
+   * @return the measurement
+   */
+  public static Measurement fromJson(JSONObject json) {
+    long timestampNanos = json.opt("timestampNs") instanceof Number nanos ? nanos.longValue()
+      : json.has("timestamp") ? toEpochNanos(LocalDateTime.parse(json.getString("timestamp"), Timer.formatter)) : 0L;
+    Measurement measurement = ofValue(json.optString("deviceID", null), json.optString("channelID", null),
+      json.optString("className", null), timestampNanos, json.opt("value"));
+    Map<String, Object> attributes = new HashMap<>();
+    for (String key : json.keySet()) {
+      switch (key) {
+        case "timestamp", "timestampNs", "deviceID", "channelID", "className", "value" -> { }
+        default -> attributes.put(key, json.get(key));
+      }
+    }
+    return attributes.isEmpty() ? measurement : measurement.withAttributes(attributes);
+  }
+
+  /**
+   * @param timestamp a local timestamp in the system time zone
+   * @return the timestamp in nanoseconds since the epoch
+   */
+  public static long toEpochNanos(LocalDateTime timestamp) {
+    return toEpochNanos(timestamp.atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  /**
+   * @param timestamp an instant
+   * @return the instant in nanoseconds since the epoch
+   */
+  public static long toEpochNanos(Instant timestamp) {
+    return timestamp.getEpochSecond() * NANOS_PER_SECOND + timestamp.getNano();
+  }
+
+  /**
+   * @param epochNanos nanoseconds since the epoch
+   * @return the instant
+   */
+  public static Instant toInstant(long epochNanos) {
+    return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND), Math.floorMod(epochNanos, NANOS_PER_SECOND));
+  }
+
+  /**
+   * @return the current time in nanoseconds since the epoch
+   */
+  public static long now() {
+    return toEpochNanos(Instant.now());
+  }
+
+  private static String intern(String id) {
+    if (id == null) {
+      return null;
+    }
+    String interned = ids.get(id);
+    if (interned != null) {
+      return interned;
+    }
+    interned = ids.putIfAbsent(id, id);
+    return interned == null ? id : interned;
+  }
+}
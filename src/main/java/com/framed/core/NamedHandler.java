@@ -0,0 +1,36 @@
+package com.framed.core;
+
+import java.util.function.Consumer;
+
+/**
+ * A handler with an explicit name, used as the {@code handler} label of its bus metrics and in failure logs instead
+ * of a name derived from the handler instance (see {@link com.framed.core.metrics.BusMetrics#handlerName(Object)}).
+ *
+ * <p>{@link ScopedEventBus} names the handlers of a managed service after the service id.</p>
+ */
+public final class NamedHandler implements Consumer<Object> {
+
+  private final String name;
+  private final Consumer<Object> handler;
+
+  /**
+   * @param name    the name of the handler, e.g. the id of the service registering it
+   * @param handler the handler
+   */
+  public NamedHandler(String name, Consumer<Object> handler) {
+    this.name = name;
+    this.handler = handler;
+  }
+
+  /**
+   * @return the name of the handler
+   */
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public void accept(Object message) {
+    handler.accept(message);
+  }
+}
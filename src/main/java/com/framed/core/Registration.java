@@ -0,0 +1,27 @@
+package com.framed.core;
+
+/**
+ * Handle of a handler registered on an {@link EventBus} or a {@link com.framed.core.remote.Transport}.
+ *
+ * <p>Closing the handle removes the handler: it receives no further messages, messages still queued for it are
+ * discarded, and resources held only for this handler (executors, transport subscriptions) are released.
+ * Closing is idempotent.</p>
+ */
+public interface Registration extends AutoCloseable {
+
+  /**
+   * @return the address the handler is registered on
+   */
+  String address();
+
+  /**
+   * @return {@code true} until the registration is closed
+   */
+  boolean isActive();
+
+  /**
+   * Removes the handler.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,11 @@
+package com.framed.core;
+
+/**
+ * The reply to a {@link Request}.
+ *
+ * @param correlationId the id of the request
+ * @param body          the reply, {@code null} if the request failed
+ * @param error         description of the failure, {@code null} if the request succeeded
+ */
+public record Reply(long correlationId, Object body, String error) {
+}
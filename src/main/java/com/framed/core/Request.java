@@ -0,0 +1,34 @@
+package com.framed.core;
+
+/**
+ * A request sent via {@link EventBus#request(String, Object, long)}.
+ *
+ * <p>Responders receive the request instead of the bare message and answer on its reply address,
+ * usually through {@link EventBus#respond(String, java.util.function.Function)}.</p>
+ *
+ * @param correlationId identifies the request on the requesting side
+ * @param replyAddress  the address the requesting bus listens on for replies
+ * @param body          the request message, may be {@code null}
+ */
+public record Request(long correlationId, String replyAddress, Object body) {
+
+  /**
+   * Publishes the reply to this request.
+   *
+   * @param eventBus the bus to reply on
+   * @param reply    the reply
+   */
+  public void reply(EventBus eventBus, Object reply) {
+    eventBus.publish(replyAddress, new Reply(correlationId, reply, null));
+  }
+
+  /**
+   * Publishes a failure reply, completing the request exceptionally.
+   *
+   * @param eventBus the bus to reply on
+   * @param error    description of the failure
+   */
+  public void fail(EventBus eventBus, String error) {
+    eventBus.publish(replyAddress, new Reply(correlationId, null, error));
+  }
+}
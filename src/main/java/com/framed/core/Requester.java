@@ -0,0 +1,106 @@
+package com.framed.core;
+
+import com.framed.core.utils.PendingRequests;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends {@link Request}s on an {@link EventBus} and correlates their {@link Reply}s.
+ *
+ * <p>Each requester listens on a reply address unique to its bus ({@value #REPLY_ADDRESS_PREFIX}{@code <uuid>}).
+ * Requests are sent point-to-point; replies are published, so they reach the requesting bus through its peers
+ * as well. Outstanding requests are kept in {@link PendingRequests} and fail with a
+ * {@link java.util.concurrent.TimeoutException} if no reply arrives in time. Late and duplicate replies
+ * (e.g. from a local and a remote responder) are ignored.</p>
+ *
+ * <p>There is exactly one requester per event bus, obtained via {@link #of(EventBus)}.</p>
+ */
+public class Requester {
+
+  /**
+   * Prefix of the reply addresses.
+   */
+  public static final String REPLY_ADDRESS_PREFIX = "framed.reply.";
+
+  private static final Map<EventBus, WeakReference<Requester>> requesters =
+    Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final EventBus eventBus;
+  private final String replyAddress = REPLY_ADDRESS_PREFIX + UUID.randomUUID();
+  private final AtomicLong correlationIds = new AtomicLong();
+  private final PendingRequests pending = new PendingRequests();
+
+  private Requester(EventBus eventBus) {
+    this.eventBus = eventBus;
+    eventBus.register(replyAddress, Reply.class, this::onReply);
+  }
+
+  /**
+   * Returns the requester of the given event bus, creating it on first use.
+   * A {@link ScopedEventBus} shares the requester of the bus it wraps.
+   *
+   * @param eventBus the event bus requests are sent on
+   * @return the requester bound to {@code eventBus}
+   */
+  public static Requester of(EventBus eventBus) {
+    if (eventBus instanceof ScopedEventBus scoped) {
+      return of(scoped.unwrap());
+    }
+    synchronized (requesters) {
+      WeakReference<Requester> ref = requesters.get(eventBus);
+      Requester requester = ref == null ? null : ref.get();
+      if (requester == null) {
+        requester = new Requester(eventBus);
+        requesters.put(eventBus, new WeakReference<>(requester));
+      }
+      return requester;
+    }
+  }
+
+  /**
+   * Sends a request.
+   *
+   * @param address       the address of the responder
+   * @param message       the request message
+   * @param timeoutMillis time to wait for the reply, in milliseconds
+   * @return a future completed with the reply body
+   */
+  public CompletableFuture<Object> request(String address, Object message, long timeoutMillis) {
+    long correlationId = correlationIds.incrementAndGet();
+    CompletableFuture<Object> future = pending.add(correlationId, timeoutMillis);
+    try {
+      eventBus.send(address, new Request(correlationId, replyAddress, message));
+    } catch (RuntimeException e) {
+      pending.fail(correlationId, e);
+    }
+    return future;
+  }
+
+  /**
+   * @return the address this requester receives replies on
+   */
+  public String getReplyAddress() {
+    return replyAddress;
+  }
+
+  /**
+   * @return the number of requests awaiting their reply
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  private void onReply(Reply reply) {
+    if (reply.error() != null) {
+      pending.fail(reply.correlationId(), new IllegalStateException("Request failed: %s".formatted(reply.error())));
+    } else {
+      pending.complete(reply.correlationId(), reply.body());
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.framed.core;
+
+import com.framed.core.utils.HandlerRegistration;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A view of a shared {@link EventBus} that keeps track of the handlers registered through it.
+ *
+ * <p>Each managed service gets its own view, so that all its handlers can be detached at once when it is stopped
+ * ({@link #close()}). Sending and publishing are delegated unchanged. Handlers registered after the view was closed
+ * (e.g. from callbacks of the stopped service) are never attached to the shared bus.</p>
+ *
+ * <p>Handlers registered through a named view are wrapped in a {@link NamedHandler}, so that their bus metrics are
+ * labeled with the name of the view, e.g. the service id, unless they are named already.</p>
+ *
+ * <p><b>Note:</b> {@link #shutdown()} only closes the view; the shared bus keeps running.</p>
+ */
+public class ScopedEventBus implements EventBus, AutoCloseable {
+
+  private final EventBus delegate;
+  private final String name;
+  private final Set<Registration> registrations = ConcurrentHashMap.newKeySet();
+  private boolean closed;
+
+  /**
+   * @param delegate the shared event bus
+   */
+  public ScopedEventBus(EventBus delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * @param delegate the shared event bus
+   * @param name     the name of the handlers registered through this view, e.g. the service id, may be {@code null}
+   */
+  public ScopedEventBus(EventBus delegate, String name) {
+    this.delegate = delegate;
+    this.name = name;
+  }
+
+  /**
+   * @return the shared event bus
+   */
+  public EventBus unwrap() {
+    return delegate;
+  }
+
+  @Override
+  public synchronized Registration register(String address, Consumer<Object> handler) {
+    if (closed) {
+      HandlerRegistration registration = new HandlerRegistration(address, handler, r -> { });
+      registration.close();
+      return registration;
+    }
+    Registration registration = delegate.register(address,
+      name == null || handler instanceof NamedHandler ? handler : new NamedHandler(name, handler));
+    HandlerRegistration scoped = new HandlerRegistration(address, handler, r -> {
+      registrations.remove(r);
+      registration.close();
+    });
+    registrations.add(scoped);
+    return scoped;
+  }
+
+  /**
+   * Ties a registration made outside the shared bus, e.g. an {@link AddressRegistry} subscription, to this view:
+   * it is closed with the view, or right away if the view is closed already.
+   *
+   * @param registration the registration
+   * @return a handle closing the registration and releasing it from this view
+   */
+  public synchronized Registration track(Registration registration) {
+    if (closed) {
+      registration.close();
+      return registration;
+    }
+    HandlerRegistration scoped = new HandlerRegistration(registration.address(), null, r -> {
+      registrations.remove(r);
+      registration.close();
+    });
+    registrations.add(scoped);
+    return scoped;
+  }
+
+  @Override
+  public void send(String address, Object message) {
+    delegate.send(address, message);
+  }
+
+  @Override
+  public void publish(String address, Object message) {
+    delegate.publish(address, message);
+  }
+
+  /**
+   * @return the number of handlers and tracked registrations currently registered through this view
+   */
+  public int getRegistrationCount() {
+    return registrations.size();
+  }
+
+  /**
+   * Closes all registrations made through this view and rejects further ones.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+    for (Registration registration : registrations) {
+      registration.close();
+    }
+  }
+
+  /**
+   * Same as {@link #close()}.
+   */
+  @Override
+  public void shutdown() {
+    close();
+  }
+}
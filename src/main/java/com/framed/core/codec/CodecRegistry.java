@@ -0,0 +1,173 @@
+package com.framed.core.codec;
+
+import org.json.JSONObject;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the {@link MessageCodec}s known to the event buses and transports of this process.
+ *
+ * <p>The registry backs typed registration ({@link com.framed.core.EventBus#register(String, Class, java.util.function.Consumer)})
+ * and the encoding of remote payloads. All {@link Codecs built-in codecs} are registered in the
+ * {@link #getDefault() default registry}; services may add codecs for their own payload types.</p>
+ */
+public class CodecRegistry {
+
+  private static final CodecRegistry DEFAULT = new CodecRegistry();
+
+  private final List<MessageCodec<?>> codecs = new CopyOnWriteArrayList<>();
+  private final Map<String, MessageCodec<?>> byName = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Optional<MessageCodec<?>>> byType = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a registry containing the built-in codecs.
+   */
+  public CodecRegistry() {
+    register(Codecs.BYTES);
+    register(Codecs.BYTE);
+    register(Codecs.INTEGER);
+    register(Codecs.LONG);
+    register(Codecs.DOUBLE);
+    register(Codecs.BOOLEAN);
+    register(Codecs.STRING);
+    register(Codecs.JSON_OBJECT);
+    register(Codecs.JSON_ARRAY);
+    register(Codecs.MEASUREMENT);
+    register(Codecs.REQUEST);
+    register(Codecs.REPLY);
+  }
+
+  /**
+   * @return the registry used by the event buses and transports
+   */
+  public static CodecRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Registers a codec. A codec registered later for the same type takes precedence.
+   *
+   * @param codec the codec
+   * @throws IllegalArgumentException if a different codec with the same name is registered
+   */
+  public void register(MessageCodec<?> codec) {
+    MessageCodec<?> existing = byName.putIfAbsent(codec.name(), codec);
+    if (existing != null && existing != codec) {
+      throw new IllegalArgumentException("Codec '%s' is already registered".formatted(codec.name()));
+    }
+    codecs.add(0, codec);
+    byType.clear();
+  }
+
+  /**
+   * @param name the codec name
+   * @return the codec with the given name, or {@code null}
+   */
+  public MessageCodec<?> byName(String name) {
+    return byName.get(name);
+  }
+
+  /**
+   * @param type the payload type
+   * @param <T>  the payload type
+   * @return the codec handling the type or one of its supertypes, or {@code null}
+   */
+  @SuppressWarnings("unchecked")
+  public <T> MessageCodec<T> forType(Class<T> type) {
+    return (MessageCodec<T>) byType.computeIfAbsent(type, t -> codecs.stream()
+      .filter(codec -> codec.type().isAssignableFrom(t))
+      .findFirst()).orElse(null);
+  }
+
+  /**
+   * @param message the payload
+   * @return the codec handling the payload's type, or {@code null}
+   */
+  public MessageCodec<?> forMessage(Object message) {
+    return message == null ? null : forType(message.getClass());
+  }
+
+  /**
+   * Puts a payload into a JSON envelope under {@code "payload"}. JSON values (numbers, booleans, strings, JSON objects
+   * and arrays) are embedded as is. Other payloads are embedded in the JSON form of their codec, or Base64-encoded if
+   * it has none (e.g. raw bytes), and marked with the codec name under {@code "codec"}.
+   *
+   * @param json    the envelope
+   * @param payload the payload
+   */
+  public void putPayload(JSONObject json, Object payload) {
+    MessageCodec<?> codec = forMessage(payload);
+    if (codec == null || codec.jsonNative()) {
+      json.put("payload", payload);
+      return;
+    }
+    Object jsonForm = toJson(codec, payload);
+    json.put("payload", jsonForm != null ? jsonForm : Base64.getEncoder().encodeToString(encode(codec, payload)));
+    json.put("codec", codec.name());
+  }
+
+  /**
+   * Reads a payload written by {@link #putPayload(JSONObject, Object)}.
+   *
+   * @param json the envelope
+   * @return the payload, {@code null} if the envelope has none
+   * @throws IllegalArgumentException if the payload was encoded by an unknown codec or cannot be read by its codec
+   */
+  public Object getPayload(JSONObject json) {
+    Object payload = json.opt("payload");
+    if (!json.has("codec")) {
+      return payload;
+    }
+    MessageCodec<?> codec = byName(json.getString("codec"));
+    if (codec == null) {
+      throw new IllegalArgumentException("Unknown codec: %s".formatted(json.getString("codec")));
+    }
+    if (payload instanceof String encoded) {
+      return codec.decode(Base64.getDecoder().decode(encoded));
+    }
+    Object adapted = payload == null ? null : codec.adapt(payload);
+    if (adapted == null) {
+      throw new IllegalArgumentException("Codec %s cannot read payload: %s".formatted(codec.name(), payload));
+    }
+    return adapted;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> byte[] encode(MessageCodec<T> codec, Object payload) {
+    return codec.encode((T) payload);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Object toJson(MessageCodec<T> codec, Object payload) {
+    return codec.toJson((T) payload);
+  }
+
+  /**
+   * Converts a payload for a typed handler: payloads of the requested type are handed off by their codec,
+   * payloads of other types are adapted if the codec supports it.
+   *
+   * @param message the payload
+   * @param type    the type expected by the handler
+   * @param <T>     the type expected by the handler
+   * @return the payload as {@code type}
+   * @throws IllegalArgumentException if the payload cannot be converted
+   */
+  public <T> T convert(Object message, Class<T> type) {
+    MessageCodec<T> codec = forType(type);
+    if (type.isInstance(message)) {
+      T value = type.cast(message);
+      return codec == null ? value : codec.handoff(value);
+    }
+    T adapted = codec == null || message == null ? null : codec.adapt(message);
+    if (adapted == null) {
+      throw new IllegalArgumentException("Expected payload of type %s, got %s".formatted(
+        type.getName(), message == null ? "null" : message.getClass().getName()));
+    }
+    return adapted;
+  }
+}
@@ -0,0 +1,327 @@
+package com.framed.core.codec;
+
+import com.framed.core.Measurement;
+import com.framed.core.Reply;
+import com.framed.core.Request;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The built-in {@link MessageCodec}s, registered in every {@link CodecRegistry}.
+ */
+public final class Codecs {
+
+  private Codecs() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  /**
+   * Raw bytes, e.g. device frames. Encoded as is; adapts JSON arrays of ints sent by older peers.
+   */
+  public static final MessageCodec<byte[]> BYTES = new MessageCodec<>() {
+    @Override
+    public String name() {
+      return "bytes";
+    }
+
+    @Override
+    public Class<byte[]> type() {
+      return byte[].class;
+    }
+
+    @Override
+    public byte[] encode(byte[] value) {
+      return value;
+    }
+
+    @Override
+    public byte[] decode(byte[] bytes) {
+      return bytes;
+    }
+
+    @Override
+    public byte[] adapt(Object message) {
+      if (message instanceof JSONArray array) {
+        byte[] values = new byte[array.length()];
+        for (int i = 0; i < array.length(); i++) {
+          values[i] = (byte) array.getInt(i);
+        }
+        return values;
+      }
+      return null;
+    }
+  };
+
+  public static final MessageCodec<Byte> BYTE = fixed("byte", Byte.class, 1,
+    (buffer, value) -> buffer.put(value), ByteBuffer::get, Number::byteValue);
+
+  public static final MessageCodec<Integer> INTEGER = fixed("int", Integer.class, Integer.BYTES,
+    ByteBuffer::putInt, ByteBuffer::getInt, Number::intValue);
+
+  public static final MessageCodec<Long> LONG = fixed("long", Long.class, Long.BYTES,
+    ByteBuffer::putLong, ByteBuffer::getLong, Number::longValue);
+
+  public static final MessageCodec<Double> DOUBLE = fixed("double", Double.class, Double.BYTES,
+    ByteBuffer::putDouble, ByteBuffer::getDouble, Number::doubleValue);
+
+  public static final MessageCodec<Boolean> BOOLEAN = fixed("boolean", Boolean.class, 1,
+    (buffer, value) -> buffer.put((byte) (value ? 1 : 0)), buffer -> buffer.get() != 0, null);
+
+  /**
+   * Strings, sent as JSON strings.
+   */
+  public static final MessageCodec<String> STRING = new JsonNativeCodec<>("string", String.class,
+    s -> s, s -> s);
+
+  /**
+   * JSON objects, sent as is.
+   */
+  public static final MessageCodec<JSONObject> JSON_OBJECT = new JsonNativeCodec<>("json", JSONObject.class,
+    JSONObject::toString, JSONObject::new);
+
+  /**
+   * JSON arrays, sent as is.
+   */
+  public static final MessageCodec<JSONArray> JSON_ARRAY = new JsonNativeCodec<>("json-array", JSONArray.class,
+    JSONArray::toString, JSONArray::new);
+
+  /**
+   * {@link Measurement}s, sent in their JSON representation ({@link Measurement#toJson()}) plus the exact timestamp
+   * as {@code timestampNs}; JSON representations are adapted.
+   * The binary form encodes ids, timestamp and numeric values binary, object values and attributes as JSON.
+   */
+  public static final MessageCodec<Measurement> MEASUREMENT = new MessageCodec<>() {
+    private static final int NUMERIC = 1;
+    private static final int ATTRIBUTES = 2;
+
+    @Override
+    public String name() {
+      return "measurement";
+    }
+
+    @Override
+    public Class<Measurement> type() {
+      return Measurement.class;
+    }
+
+    @Override
+    public byte[] encode(Measurement value) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeByte((value.isNumeric() ? NUMERIC : 0) | (value.attributes().isEmpty() ? 0 : ATTRIBUTES));
+        writeString(out, value.deviceId());
+        writeString(out, value.channelId());
+        writeString(out, value.className());
+        out.writeLong(value.timestampNanos());
+        if (value.isNumeric()) {
+          out.writeDouble(value.numericValue());
+        } else {
+          writeString(out, JSONObject.valueToString(value.objectValue()));
+        }
+        if (!value.attributes().isEmpty()) {
+          writeString(out, new JSONObject(value.attributes()).toString());
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+
+    @Override
+    public Measurement decode(byte[] bytes) {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+        int flags = in.readByte();
+        String deviceId = readString(in);
+        String channelId = readString(in);
+        String className = readString(in);
+        long timestampNanos = in.readLong();
+        Measurement measurement = (flags & NUMERIC) != 0
+          ? Measurement.of(deviceId, channelId, className, timestampNanos, in.readDouble())
+          : Measurement.ofValue(deviceId, channelId, className, timestampNanos, new JSONArray("[" + readString(in) + "]").get(0));
+        if ((flags & ATTRIBUTES) != 0) {
+          JSONObject json = new JSONObject(readString(in));
+          Map<String, Object> attributes = new HashMap<>();
+          for (String key : json.keySet()) {
+            attributes.put(key, json.get(key));
+          }
+          measurement = measurement.withAttributes(attributes);
+        }
+        return measurement;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public Object toJson(Measurement value) {
+      return value.toJson().put("timestampNs", value.timestampNanos());
+    }
+
+    @Override
+    public Measurement adapt(Object message) {
+      return message instanceof JSONObject json ? Measurement.fromJson(json) : null;
+    }
+  };
+
+  /**
+   * {@link Request}s, encoded as JSON with the body encoded by its own codec.
+   */
+  public static final MessageCodec<Request> REQUEST = jsonEncoded("request", Request.class,
+    request -> payloadJson(request.body())
+      .put("correlationId", request.correlationId())
+      .put("replyAddress", request.replyAddress()),
+    json -> new Request(json.getLong("correlationId"), json.getString("replyAddress"),
+      CodecRegistry.getDefault().getPayload(json)));
+
+  /**
+   * {@link Reply}s, encoded as JSON with the body encoded by its own codec.
+   */
+  public static final MessageCodec<Reply> REPLY = jsonEncoded("reply", Reply.class,
+    reply -> payloadJson(reply.body())
+      .put("correlationId", reply.correlationId())
+      .putOpt("error", reply.error()),
+    json -> new Reply(json.getLong("correlationId"), CodecRegistry.getDefault().getPayload(json),
+      json.optString("error", null)));
+
+  private static JSONObject payloadJson(Object payload) {
+    JSONObject json = new JSONObject();
+    CodecRegistry.getDefault().putPayload(json, payload);
+    return json;
+  }
+
+  /**
+   * Creates a codec sending its payloads as JSON objects, encoded as UTF-8 JSON text in the binary form.
+   */
+  private static <T> MessageCodec<T> jsonEncoded(String name, Class<T> type, Function<T, JSONObject> toJson,
+                                                 Function<JSONObject, T> fromJson) {
+    return new MessageCodec<>() {
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public Class<T> type() {
+        return type;
+      }
+
+      @Override
+      public byte[] encode(T value) {
+        return toJson.apply(value).toString().getBytes(StandardCharsets.UTF_8);
+      }
+
+      @Override
+      public T decode(byte[] bytes) {
+        return fromJson.apply(new JSONObject(new String(bytes, StandardCharsets.UTF_8)));
+      }
+
+      @Override
+      public Object toJson(T value) {
+        return toJson.apply(value);
+      }
+
+      @Override
+      public T adapt(Object message) {
+        return message instanceof JSONObject json ? fromJson.apply(json) : null;
+      }
+    };
+  }
+
+  /**
+   * Writes a nullable UTF-8 string with an int length prefix ({@code -1} for {@code null}).
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes a value into a buffer.
+   */
+  private interface Writer<T> {
+    void write(ByteBuffer buffer, T value);
+  }
+
+  /**
+   * Creates a codec for a fixed-size primitive wrapper. Its payloads are JSON values and sent as such; the binary
+   * form is kept for completeness. If {@code fromNumber} is given, other {@link Number}s are adapted, e.g. a JSON
+   * integer for a {@link Double} handler.
+   */
+  private static <T> MessageCodec<T> fixed(String name, Class<T> type, int size, Writer<T> writer,
+                                           Function<ByteBuffer, T> reader, Function<Number, T> fromNumber) {
+    return new MessageCodec<>() {
+      @Override
+      public String name() {
+        return name;
+      }
+
+      @Override
+      public Class<T> type() {
+        return type;
+      }
+
+      @Override
+      public byte[] encode(T value) {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        writer.write(buffer, value);
+        return buffer.array();
+      }
+
+      @Override
+      public T decode(byte[] bytes) {
+        return reader.apply(ByteBuffer.wrap(bytes));
+      }
+
+      @Override
+      public T adapt(Object message) {
+        return fromNumber != null && message instanceof Number n ? fromNumber.apply(n) : null;
+      }
+
+      @Override
+      public boolean jsonNative() {
+        return true;
+      }
+    };
+  }
+
+  /**
+   * A codec for payloads that are JSON values themselves; encoded as UTF-8 text for completeness.
+   */
+  private record JsonNativeCodec<T>(String name, Class<T> type, Function<T, String> toText,
+                                    Function<String, T> fromText) implements MessageCodec<T> {
+    @Override
+    public byte[] encode(T value) {
+      return toText.apply(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public T decode(byte[] bytes) {
+      return fromText.apply(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean jsonNative() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.framed.core.codec;
+
+/**
+ * Encodes and hands off payloads of a single type on the event bus.
+ *
+ * <p>A codec defines two paths for its type:</p>
+ * <ul>
+ *   <li><b>Remote:</b> the JSON transports send JSON values as is and other payloads in their JSON form
+ *       ({@link #toJson(Object)}, read back by {@link #adapt(Object)}), so that consumers in other languages can read
+ *       them. Only payloads without a JSON form are converted to a compact binary form by {@link #encode(Object)} and
+ *       {@link #decode(byte[])} and embedded Base64-encoded.</li>
+ *   <li><b>In-process:</b> {@link #handoff(Object)} passes the payload to a handler. By default this is the identity,
+ *       i.e. a zero-copy handoff of the published object.</li>
+ * </ul>
+ *
+ * @param <T> the payload type
+ */
+public interface MessageCodec<T> {
+
+  /**
+   * @return the unique name of the codec, sent along with encoded payloads
+   */
+  String name();
+
+  /**
+   * @return the payload type handled by this codec
+   */
+  Class<T> type();
+
+  /**
+   * @param value the payload
+   * @return the binary form of the payload
+   */
+  byte[] encode(T value);
+
+  /**
+   * @param bytes the binary form of a payload
+   * @return the payload
+   */
+  T decode(byte[] bytes);
+
+  /**
+   * Passes a payload published in-process to a handler.
+   *
+   * @param value the published payload
+   * @return the payload handed to the handler, by default {@code value} itself
+   */
+  default T handoff(T value) {
+    return value;
+  }
+
+  /**
+   * Adapts a payload of another type, e.g. as produced by older peers, to this codec's type.
+   *
+   * @param message the payload
+   * @return the adapted payload, or {@code null} if the payload cannot be adapted
+   */
+  default T adapt(Object message) {
+    return null;
+  }
+
+  /**
+   * Converts a payload to the JSON form sent by the JSON transports; the receiving side restores the payload with
+   * {@link #adapt(Object)}.
+   *
+   * @param value the payload
+   * @return a {@link org.json.JSONObject} or {@link org.json.JSONArray}, or {@code null} to send the binary form
+   */
+  default Object toJson(T value) {
+    return null;
+  }
+
+  /**
+   * @return {@code true} if payloads are valid JSON values and are sent as such instead of encoded
+   */
+  default boolean jsonNative() {
+    return false;
+  }
+}
@@ -0,0 +1,30 @@
+package com.framed.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evaluation of the firing rules of an actor on one or more incoming messages (more than one when the actor batches),
+ * including the firing if a rule was satisfied.
+ */
+@Name("com.framed.ActorEvaluation")
+@Label("Actor Rule Evaluation")
+@Category({"FRAMED", "CDSS"})
+@Description("Evaluation of the firing rules of an actor")
+@StackTrace(false)
+public class ActorEvaluationEvent extends Event {
+
+  @Label("Actor")
+  public String actor;
+
+  @Label("Rules Satisfied")
+  public int rulesSatisfied;
+
+  @Label("Messages")
+  @Description("Messages applied before the evaluation")
+  public int messages;
+}
@@ -0,0 +1,25 @@
+package com.framed.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Execution of the fire function of an actor.
+ */
+@Name("com.framed.ActorFire")
+@Label("Actor Fire")
+@Category({"FRAMED", "CDSS"})
+@Description("Execution of the fire function of an actor")
+@StackTrace(false)
+public class ActorFireEvent extends Event {
+
+  @Label("Actor")
+  public String actor;
+
+  @Label("Rules Satisfied")
+  public int rulesSatisfied;
+}
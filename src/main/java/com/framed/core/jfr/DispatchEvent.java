@@ -0,0 +1,37 @@
+package com.framed.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Invocation of a local handler by the event bus. The event duration is the handler execution.
+ *
+ * <p>Like all events of this package, it is emitted on the hot path: the fields are only filled in once
+ * {@link #shouldCommit()} returns {@code true}, so that without a running recording only the (scalar-replaced)
+ * allocation remains. Record them continuously, e.g. with
+ * {@code -XX:StartFlightRecording:maxage=1h,disk=true}, and inspect them with JDK Mission Control
+ * or {@code jfr print --categories FRAMED}.</p>
+ */
+@Name("com.framed.Dispatch")
+@Label("Handler Dispatch")
+@Category({"FRAMED", "Event Bus"})
+@Description("Invocation of a local event bus handler")
+@StackTrace(false)
+public class DispatchEvent extends Event {
+
+  @Label("Address")
+  public String address;
+
+  @Label("Handler")
+  public String handler;
+
+  @Label("Queue Wait")
+  @Description("Time from enqueueing the message to starting the handler")
+  @Timespan(Timespan.NANOSECONDS)
+  public long queueWait;
+}
@@ -0,0 +1,30 @@
+package com.framed.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A completed Medibus frame, including the checksum verification and the frame handler.
+ */
+@Name("com.framed.MedibusFrame")
+@Label("Medibus Frame")
+@Category({"FRAMED", "Medibus"})
+@Description("A completed Medibus frame")
+@StackTrace(false)
+public class MedibusFrameEvent extends Event {
+
+  @Label("Device")
+  public String device;
+
+  @Label("Frame Length")
+  @DataAmount
+  public int frameLength;
+
+  @Label("Checksum OK")
+  public boolean checksumOk;
+}
@@ -0,0 +1,30 @@
+package com.framed.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A parse pass of the Medibus real-time parser over its buffered bytes.
+ */
+@Name("com.framed.RealTimeParse")
+@Label("Medibus Real-Time Parse")
+@Category({"FRAMED", "Medibus"})
+@Description("A parse pass over the buffered real-time bytes of a device")
+@StackTrace(false)
+public class RealTimeParseEvent extends Event {
+
+  @Label("Device")
+  public String device;
+
+  @Label("Bytes Buffered")
+  @DataAmount
+  public int bytesBuffered;
+
+  @Label("Records Decoded")
+  public int recordsDecoded;
+}
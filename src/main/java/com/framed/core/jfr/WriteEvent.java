@@ -0,0 +1,31 @@
+package com.framed.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A write of a writer or a push of a dispatcher.
+ */
+@Name("com.framed.Write")
+@Label("Write")
+@Category({"FRAMED", "I/O"})
+@Description("A write of a writer or a push of a dispatcher")
+@StackTrace(false)
+public class WriteEvent extends Event {
+
+  @Label("Writer")
+  public String writer;
+
+  @Label("Device")
+  public String device;
+
+  @Label("Bytes")
+  @Description("Bytes written; for dispatchers the size of the JSON representation of the data point")
+  @DataAmount
+  public long bytes;
+}
@@ -1,6 +1,15 @@
 package com.framed.core.local;
 
 import com.framed.core.EventBus;
+import com.framed.core.Registration;
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.core.utils.DeadlineScheduler;
+import com.framed.core.utils.DispatchMode;
+import com.framed.core.utils.HandlerInvoker;
+import com.framed.core.utils.HandlerRegistration;
+import com.framed.core.utils.MessageTtl;
+import com.framed.core.utils.ReplayCache;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -19,33 +28,232 @@ import java.util.function.Consumer;
  * <ul>
  *   <li>Thread-safe handler registration and message dispatching.</li>
  *   <li>Single-threaded executors per address for sequential message processing.</li>
- *   <li>Automatic cleanup of executors when all handlers for an address are removed.</li>
+ *   <li>Handlers are removed by closing their {@link Registration}; the executor of an address is shut down
+ *       when its last handler is removed.</li>
+ *   <li>Handler failures are isolated, counted and optionally routed to a dead-letter address
+ *       (see {@link HandlerInvoker}).</li>
+ *   <li>Optional replay of the recent messages of configured addresses to late handlers (see {@link ReplayCache}).</li>
+ *   <li>Optional per-address TTL: messages dequeued after their TTL are dropped (see {@link MessageTtl}).</li>
+ *   <li>Optional earliest-deadline-first dispatch on a fixed worker pool instead of the per-address executors
+ *       ({@link DispatchMode#DEADLINE}, see {@link DeadlineScheduler}).</li>
+ *   <li>Counts messages, handler invocations, queue depths and latencies per address and handler
+ *       (see {@link BusMetrics}).</li>
  * </ul>
  */
 public class LocalEventBus implements EventBus {
 
   /**
    * Stores registered handlers for each address.
-   * Each address maps to a list of {@link Consumer} instances.
+   * Each address maps to a list of {@link HandlerRegistration}s.
    */
-  private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<String, List<HandlerRegistration>> handlers = new ConcurrentHashMap<>();
 
   /**
    * Stores a dedicated {@link ExecutorService} for each address to process messages sequentially.
    */
   private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
 
+  /**
+   * Counters, gauges and latency histograms of this bus.
+   */
+  private final BusMetrics metrics;
+
+  /**
+   * Invokes handlers, isolating the address executors from handler failures.
+   */
+  private final HandlerInvoker invoker;
+
+  /**
+   * Caches the recent messages of replayed addresses for late handlers.
+   */
+  private final ReplayCache replayCache = new ReplayCache();
+
+  /**
+   * Drops messages of real-time addresses that waited too long in an address executor.
+   */
+  private final MessageTtl messageTtl;
+
+  /**
+   * Runs all handlers earliest deadline first, if the bus was created in {@link DispatchMode#DEADLINE}.
+   */
+  private final DeadlineScheduler deadlineScheduler;
+
+  /**
+   * Creates a bus with a single-threaded executor per address.
+   */
+  public LocalEventBus() {
+    this(DispatchMode.PER_HANDLER);
+  }
+
+  /**
+   * Creates a bus with the given dispatch mode.
+   *
+   * @param dispatchMode {@link DispatchMode#PER_HANDLER} for the default per-address executors, or
+   *                     {@link DispatchMode#DEADLINE} for earliest-deadline-first dispatch
+   * @throws IllegalArgumentException for any other dispatch mode
+   */
+  public LocalEventBus(DispatchMode dispatchMode) {
+    this(dispatchMode, new MetricsRegistry());
+  }
+
+  /**
+   * Creates a bus with the given dispatch mode, keeping its metrics in the given registry.
+   *
+   * @param dispatchMode {@link DispatchMode#PER_HANDLER} or {@link DispatchMode#DEADLINE}
+   * @param metrics      the registry the bus metrics are kept in
+   * @throws IllegalArgumentException for any other dispatch mode
+   */
+  public LocalEventBus(DispatchMode dispatchMode, MetricsRegistry metrics) {
+    this.metrics = new BusMetrics(metrics);
+    this.invoker = new HandlerInvoker(this, this.metrics);
+    this.messageTtl = new MessageTtl(metrics);
+    this.deadlineScheduler = switch (dispatchMode) {
+      case PER_HANDLER -> null;
+      case DEADLINE -> new DeadlineScheduler(Runtime.getRuntime().availableProcessors(), metrics);
+      default -> throw new IllegalArgumentException("LocalEventBus does not support %s".formatted(dispatchMode));
+    };
+  }
+
+  /**
+   * Sets the address on which messages are published whose handler threw an exception.
+   *
+   * @param deadLetterAddress the dead-letter address, or {@code null} to disable dead-letter routing
+   */
+  public void setDeadLetterAddress(String deadLetterAddress) {
+    invoker.setDeadLetterAddress(deadLetterAddress);
+  }
+
+  /**
+   * Configures circuit breaking of continually failing handlers.
+   *
+   * @param failureThreshold consecutive failures after which a handler stops receiving messages; {@code <= 0} disables
+   * @param openMillis       time in milliseconds before a stopped handler is tried again
+   */
+  public void setCircuitBreaker(int failureThreshold, long openMillis) {
+    invoker.setCircuitBreaker(failureThreshold, openMillis);
+  }
+
+  /**
+   * @param address the address
+   * @return the number of handler invocations on the address that threw an exception
+   */
+  public long getFailureCount(String address) {
+    return invoker.getFailureCount(address);
+  }
+
+  /**
+   * Enables replay for all addresses matching the pattern: the last messages of each address are
+   * cached and delivered to handlers registered later.
+   *
+   * @param pattern      glob pattern of the addresses to replay, e.g. {@code *.parsed}
+   * @param maxMessages  number of messages kept per address
+   * @param maxAgeMillis maximum age of replayed messages in milliseconds; {@code <= 0} disables the age limit
+   */
+  public void setReplay(String pattern, int maxMessages, long maxAgeMillis) {
+    replayCache.configure(pattern, maxMessages, maxAgeMillis);
+  }
+
+  /**
+   * Sets a time-to-live for all addresses matching the pattern. Messages that are dequeued by the
+   * address executor after their TTL are dropped.
+   *
+   * @param pattern   glob pattern of the addresses, e.g. {@code *.waveform}
+   * @param ttlMillis maximum queueing time in milliseconds
+   */
+  public void setTtl(String pattern, long ttlMillis) {
+    messageTtl.configure(pattern, ttlMillis);
+  }
+
+  /**
+   * @param address the address
+   * @return the number of messages on the address dropped because their TTL expired
+   */
+  public long getExpiredCount(String address) {
+    return messageTtl.getExpiredCount(address);
+  }
+
+  /**
+   * Sets the deadline of all addresses matching the pattern, relative to the source timestamp of a message.
+   *
+   * @param pattern        glob pattern of the addresses, e.g. {@code CDSS.*}
+   * @param deadlineMillis deadline in milliseconds
+   * @throws IllegalStateException if the bus is not in {@link DispatchMode#DEADLINE}
+   */
+  public void setDeadline(String pattern, long deadlineMillis) {
+    requireDeadlineScheduler().configure(pattern, deadlineMillis);
+  }
+
+  /**
+   * @param address the address
+   * @return the number of handler invocations on the address that completed after their deadline
+   * @throws IllegalStateException if the bus is not in {@link DispatchMode#DEADLINE}
+   */
+  public long getMissedDeadlineCount(String address) {
+    return requireDeadlineScheduler().getMissedCount(address);
+  }
+
+  /**
+   * @return the registry the metrics of this bus are kept in
+   */
+  public MetricsRegistry getMetrics() {
+    return metrics.getRegistry();
+  }
+
+  private DeadlineScheduler requireDeadlineScheduler() {
+    if (deadlineScheduler == null) {
+      throw new IllegalStateException("Deadlines require DispatchMode.DEADLINE");
+    }
+    return deadlineScheduler;
+  }
 
   /**
    * Registers a handler for the specified address.
    * Creates a new single-threaded executor for the address if it does not exist.
+   * If the address is replayed, the cached messages are queued for the handler before any new message.
+   * Closing the returned registration discards the messages still queued for the handler.
    *
    * @param address the address to listen on
    * @param handler the handler that processes messages for this address
+   * @return a handle removing the handler when closed
    */
-  public void register(String address, Consumer<Object> handler) {
-    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
-    executors.computeIfAbsent(address, k -> Executors.newSingleThreadExecutor()); // queues all message -> for real-time guarantees, we might need custom ThreadPoolExecutor
+  @Override
+  public Registration register(String address, Consumer<Object> handler) {
+    HandlerRegistration registration = new HandlerRegistration(address, handler, metrics.register(address, handler), this::unregister);
+    registration.holdForReplay();
+    ReplayCache.Replay replay = replayCache.subscribe(address, () -> handlers.compute(address, (k, list) -> {
+      if (list == null) {
+        list = new CopyOnWriteArrayList<>();
+        executors.computeIfAbsent(address, a -> Executors.newSingleThreadExecutor()); // queues all messages, real-time addresses are bounded by their TTL
+      }
+      list.add(registration);
+      return list;
+    }));
+    for (Object message : replay.messages()) {
+      dispatch(registration, message, executors.get(address));
+    }
+    registration.endReplay(replay.through(), message -> dispatch(registration, message, executors.get(address)));
+    return registration;
+  }
+
+  /**
+   * Removes a closed registration. The executor of the address is shut down with its last handler.
+   *
+   * @param registration the closed registration
+   */
+  private void unregister(HandlerRegistration registration) {
+    handlers.computeIfPresent(registration.address(), (address, list) -> {
+      list.remove(registration);
+      if (!list.isEmpty()) {
+        return list;
+      }
+      ExecutorService executor = executors.remove(address);
+      if (executor != null) {
+        executor.shutdown();
+      }
+      return null;
+    });
+    invoker.forget(registration.handler());
+    metrics.unregister(registration.metrics());
   }
 
   /**
@@ -57,10 +265,12 @@ public class LocalEventBus implements EventBus {
    */
   @Override
   public void send(String address, Object message) {
-    List<Consumer<Object>> list = handlers.get(address);
+    metrics.published(address);
+    long sequence = replayCache.record(address, message);
+    List<HandlerRegistration> list = handlers.get(address);
     ExecutorService executor = executors.get(address);
     if (list != null && !list.isEmpty() && executor != null) {
-      executor.execute(() -> list.get(0).accept(message)); // point-to-point
+      deliver(list.get(0), message, sequence, executor); // point-to-point
     }
   }
 
@@ -72,23 +282,63 @@ public class LocalEventBus implements EventBus {
    */
   @Override
   public void publish(String address, Object message) {
-    List<Consumer<Object>> list = handlers.get(address);
+    metrics.published(address);
+    long sequence = replayCache.record(address, message);
+    List<HandlerRegistration> list = handlers.get(address);
     ExecutorService executor = executors.get(address);
     if (list != null && executor != null) {
-      for (Consumer<Object> handler : list) {
-        executor.execute(() -> handler.accept(message)); // broadcast
+      for (HandlerRegistration handler : list) {
+        deliver(handler, message, sequence, executor); // broadcast
+      }
+    }
+  }
+
+  /**
+   * Dispatches a live message, unless it is held for or was part of the replay to the handler.
+   */
+  private void deliver(HandlerRegistration registration, Object message, long sequence, ExecutorService executor) {
+    if (!registration.heldOrReplayed(message, sequence)) {
+      dispatch(registration, message, executor);
+    }
+  }
+
+  /**
+   * Queues a handler invocation on the address executor, or by deadline in {@link DispatchMode#DEADLINE}.
+   * The invocation is skipped if the registration is closed before it runs.
+   *
+   * @param registration the registration of the handler
+   * @param message      the message
+   * @param executor     the executor of the address
+   */
+  private void dispatch(HandlerRegistration registration, Object message, ExecutorService executor) {
+    String address = registration.address();
+    Runnable task = registration.metrics().queued(messageTtl.wrap(address, () -> {
+      if (registration.isActive()) {
+        invoker.invoke(address, registration.handler(), message, registration.metrics());
+      }
+    }));
+    try {
+      if (deadlineScheduler != null) {
+        deadlineScheduler.execute(address, message, task);
+      } else {
+        executor.execute(task);
       }
+    } catch (RejectedExecutionException e) {
+      // the last handler of the address was removed concurrently, its executor is shut down
     }
   }
 
   /**
-   * Stops all executors that were added to the {@link #executors} map.
+   * Stops all executors that were added to the {@link #executors} map, and the deadline scheduler.
    */
   @Override
   public void shutdown() {
     for (ExecutorService executor : executors.values()) {
       executor.shutdown();
     }
+    if (deadlineScheduler != null) {
+      deadlineScheduler.shutdown();
+    }
   }
 }
 
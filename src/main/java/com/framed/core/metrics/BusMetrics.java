@@ -0,0 +1,143 @@
+package com.framed.core.metrics;
+
+import com.framed.core.NamedHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of an event bus, resolved per address and handler so that recording a message costs a map lookup
+ * and an increment at most.
+ *
+ * <h2>Metrics:</h2>
+ * <ul>
+ *   <li><b>{@value #PUBLISHED}{address}:</b> messages sent or published locally.</li>
+ *   <li><b>{@value #RECEIVED}{address}:</b> messages received from remote peers.</li>
+ *   <li><b>{@value #DELIVERED}, {@value #FAILED}{address, handler}:</b> handler invocations that completed or threw.</li>
+ *   <li><b>{@value #REJECTED}{address, handler}:</b> messages dropped by an open circuit breaker.</li>
+ *   <li><b>{@value #EXPIRED}{address}:</b> messages dropped because their TTL expired in a queue.</li>
+ *   <li><b>{@value #QUEUE_DEPTH}{address, handler}:</b> gauge of the messages queued for a handler, removed with its
+ *       last registration.</li>
+ *   <li><b>{@value #QUEUE_WAIT}, {@value #HANDLER_DURATION}{address, handler}:</b> histograms of the time from
+ *       enqueue to start and of the handler duration.</li>
+ * </ul>
+ * <p>Histograms record nanoseconds; exporters convert to the unit in the metric name. The handler label is the name
+ * of a {@link NamedHandler}, e.g. the id of the service registering it, see {@link #handlerName(Object)}.</p>
+ */
+public class BusMetrics {
+
+  public static final String PUBLISHED = "framed_bus_published_total";
+  public static final String RECEIVED = "framed_bus_received_total";
+  public static final String DELIVERED = "framed_bus_delivered_total";
+  public static final String FAILED = "framed_bus_failed_total";
+  public static final String REJECTED = "framed_bus_rejected_total";
+  public static final String EXPIRED = "framed_bus_expired_total";
+  public static final String QUEUE_DEPTH = "framed_bus_queue_depth";
+  public static final String QUEUE_WAIT = "framed_bus_queue_wait_seconds";
+  public static final String HANDLER_DURATION = "framed_bus_handler_duration_seconds";
+
+  private final MetricsRegistry registry;
+  private final Map<String, LongAdder> published = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> received = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, HandlerMetrics>> handlers = new ConcurrentHashMap<>();
+
+  /**
+   * @param registry the registry the metrics are kept in
+   */
+  public BusMetrics(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * @return the registry the metrics are kept in
+   */
+  public MetricsRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Counts a message sent or published locally.
+   *
+   * @param address the address
+   */
+  public void published(String address) {
+    counter(published, PUBLISHED, address).increment();
+  }
+
+  /**
+   * Counts a message received from a remote peer.
+   *
+   * @param address the address
+   */
+  public void received(String address) {
+    counter(received, RECEIVED, address).increment();
+  }
+
+  /**
+   * @param address the address
+   * @param handler the handler
+   * @return the metrics of the handler on the address; handlers of the same name share their metrics
+   */
+  public HandlerMetrics handler(String address, Object handler) {
+    String name = handlerName(handler);
+    Map<String, HandlerMetrics> byHandler = handlers.computeIfAbsent(address, a -> new ConcurrentHashMap<>());
+    HandlerMetrics metrics = byHandler.get(name);
+    return metrics != null ? metrics : byHandler.computeIfAbsent(name, n -> new HandlerMetrics(registry, address, n));
+  }
+
+  /**
+   * Resolves the metrics of a handler being registered. Each call must be paired with {@link #unregister}.
+   *
+   * @param address the address
+   * @param handler the handler
+   * @return the metrics of the handler on the address; handlers of the same name share their metrics
+   */
+  public HandlerMetrics register(String address, Object handler) {
+    String name = handlerName(handler);
+    return handlers.computeIfAbsent(address, a -> new ConcurrentHashMap<>()).compute(name, (n, metrics) -> {
+      HandlerMetrics registered = metrics != null ? metrics : new HandlerMetrics(registry, address, n);
+      registered.registrations++;
+      return registered;
+    });
+  }
+
+  /**
+   * Releases the metrics of an unregistered handler. With the last registration of its name on the address, the
+   * queue depth gauge is removed; counters and histograms keep their totals.
+   *
+   * @param metrics the metrics returned by {@link #register(String, Object)}
+   */
+  public void unregister(HandlerMetrics metrics) {
+    Map<String, HandlerMetrics> byHandler = handlers.get(metrics.address());
+    if (byHandler == null) {
+      return;
+    }
+    byHandler.computeIfPresent(metrics.handler(), (n, registered) -> {
+      if (registered != metrics || --registered.registrations > 0) {
+        return registered;
+      }
+      registry.removeGauge(QUEUE_DEPTH, "address", metrics.address(), "handler", n);
+      return null;
+    });
+  }
+
+  /**
+   * @param handler a handler
+   * @return the name of a {@link NamedHandler}, otherwise the class name without the synthetic suffix of lambdas
+   *         followed by the identity hash code, so that distinct handlers of the same class get distinct series
+   */
+  public static String handlerName(Object handler) {
+    if (handler instanceof NamedHandler named) {
+      return named.name();
+    }
+    String name = handler.getClass().getName();
+    int lambda = name.indexOf("$$Lambda");
+    return (lambda < 0 ? name : name.substring(0, lambda)) + "@" + Integer.toHexString(System.identityHashCode(handler));
+  }
+
+  private LongAdder counter(Map<String, LongAdder> cache, String name, String address) {
+    LongAdder counter = cache.get(address);
+    return counter != null ? counter : cache.computeIfAbsent(address, a -> registry.counter(name, "address", a));
+  }
+}
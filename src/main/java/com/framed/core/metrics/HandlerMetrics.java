@@ -0,0 +1,112 @@
+package com.framed.core.metrics;
+
+import com.framed.core.jfr.DispatchEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a handler on an address, resolved once by {@link BusMetrics#handler(String, Object)}.
+ * Dispatches are also emitted as {@link DispatchEvent}s to JFR.
+ */
+public final class HandlerMetrics {
+
+  private final String address;
+  private final String handler;
+
+  final LongAdder delivered;
+  final LongAdder failed;
+  final LongAdder rejected;
+  final LongAdder queued = new LongAdder();
+  final LatencyHistogram queueWait;
+  final LatencyHistogram duration;
+
+  /** Number of registrations sharing these metrics, guarded by the map entry in {@link BusMetrics}. */
+  int registrations;
+
+  HandlerMetrics(MetricsRegistry registry, String address, String handler) {
+    this.address = address;
+    this.handler = handler;
+    this.delivered = registry.counter(BusMetrics.DELIVERED, "address", address, "handler", handler);
+    this.failed = registry.counter(BusMetrics.FAILED, "address", address, "handler", handler);
+    this.rejected = registry.counter(BusMetrics.REJECTED, "address", address, "handler", handler);
+    this.queueWait = registry.histogram(BusMetrics.QUEUE_WAIT, "address", address, "handler", handler);
+    this.duration = registry.histogram(BusMetrics.HANDLER_DURATION, "address", address, "handler", handler);
+    registry.gauge(BusMetrics.QUEUE_DEPTH, queued::sum, "address", address, "handler", handler);
+  }
+
+  /**
+   * @return the address of the handler
+   */
+  public String address() {
+    return address;
+  }
+
+  /**
+   * @return the handler label, see {@link BusMetrics#handlerName(Object)}
+   */
+  public String handler() {
+    return handler;
+  }
+
+  /**
+   * Wraps a task queued for the handler, tracking the queue depth and the time from enqueue to start.
+   *
+   * @param task the queued task
+   * @return the tracking task
+   */
+  public Runnable queued(Runnable task) {
+    long enqueued = System.nanoTime();
+    queued.increment();
+    return () -> {
+      queued.decrement();
+      long waitNanos = System.nanoTime() - enqueued;
+      queueWait.record(waitNanos);
+      dispatch(task, waitNanos);
+    };
+  }
+
+  /**
+   * Runs a task delivering a message to the handler, emitting a {@link DispatchEvent}.
+   *
+   * @param task      the task
+   * @param waitNanos the time the message was queued for, 0 if it is delivered on the publishing thread
+   */
+  public void dispatch(Runnable task, long waitNanos) {
+    DispatchEvent event = new DispatchEvent();
+    event.begin();
+    task.run();
+    if (event.shouldCommit()) {
+      event.address = address;
+      event.handler = handler;
+      event.queueWait = waitNanos;
+      event.commit();
+    }
+  }
+
+  /**
+   * Records a completed invocation.
+   *
+   * @param durationNanos the duration of the invocation
+   */
+  public void delivered(long durationNanos) {
+    delivered.increment();
+    duration.record(durationNanos);
+  }
+
+  /**
+   * Records an invocation that threw.
+   *
+   * @param durationNanos the duration of the invocation
+   */
+  public void failed(long durationNanos) {
+    failed.increment();
+    duration.record(durationNanos);
+  }
+
+  /**
+   * Records a message dropped because the circuit breaker of the handler was open.
+   */
+  public void rejected() {
+    rejected.increment();
+  }
+}
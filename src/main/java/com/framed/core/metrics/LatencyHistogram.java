@@ -0,0 +1,140 @@
+package com.framed.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds with logarithmic buckets.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so a recorded value is off by at
+ * most 25% from the bucket bound it is reported as. Recording is a bucket index computation and three atomic
+ * updates, without allocation.</p>
+ */
+public final class LatencyHistogram {
+
+  /**
+   * Sub-buckets per power of two.
+   */
+  public static final int SUB_BUCKETS = 4;
+
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+  /**
+   * Records a duration. Negative durations (clock adjustments) are recorded as 0.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(bucketOf(value));
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * @return a consistent-enough copy of the histogram; concurrent recordings may be partially included
+   */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      count += copy[i];
+    }
+    return new Snapshot(count, sum.sum(), max.get(), copy);
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * @return the largest value falling into the bucket
+   */
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    long lower = (SUB_BUCKETS + (bucket % SUB_BUCKETS)) * width;
+    return lower + width - 1;
+  }
+
+  /**
+   * Immutable copy of a histogram.
+   *
+   * @param count  number of recorded values
+   * @param sum    sum of the recorded values in nanoseconds
+   * @param max    largest recorded value in nanoseconds
+   * @param counts counts per bucket
+   */
+  public record Snapshot(long count, long sum, long max, long[] counts) {
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket containing the percentile, in nanoseconds; 0 if empty
+     */
+    public long valueAtPercentile(double percentile) {
+      long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= Math.max(1, rank)) {
+          return Math.min(upperBoundOf(i), max);
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * @param nanos an upper bound in nanoseconds
+     * @return the number of recorded values in buckets whose upper bound is at most {@code nanos}
+     */
+    public long countAtOrBelow(long nanos) {
+      long result = 0;
+      for (int i = 0; i < counts.length && upperBoundOf(i) <= nanos; i++) {
+        result += counts[i];
+      }
+      return result;
+    }
+
+    /**
+     * The values recorded between an earlier snapshot of the same histogram and this one. The maximum is the upper
+     * bound of the highest bucket with new values, capped by {@link #max()}.
+     *
+     * @param earlier an earlier snapshot of the same histogram
+     * @return the difference
+     */
+    public Snapshot minus(Snapshot earlier) {
+      long[] delta = new long[counts.length];
+      int highest = -1;
+      for (int i = 0; i < counts.length; i++) {
+        delta[i] = counts[i] - earlier.counts[i];
+        if (delta[i] > 0) {
+          highest = i;
+        }
+      }
+      long deltaMax = highest < 0 ? 0 : Math.min(upperBoundOf(highest), max);
+      return new Snapshot(count - earlier.count, sum - earlier.sum, deltaMax, delta);
+    }
+
+    /**
+     * @return the mean of the recorded values in nanoseconds, 0 if empty
+     */
+    public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+  }
+}
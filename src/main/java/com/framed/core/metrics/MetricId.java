@@ -0,0 +1,74 @@
+package com.framed.core.metrics;
+
+import java.util.List;
+
+/**
+ * Name and labels of a metric.
+ *
+ * @param name   the metric name, e.g. {@code framed_bus_published_total}
+ * @param labels alternating label names and values
+ */
+public record MetricId(String name, List<String> labels) {
+
+  public MetricId {
+    if (labels.size() % 2 != 0) {
+      throw new IllegalArgumentException("Labels must be name/value pairs: %s".formatted(labels));
+    }
+    labels = List.copyOf(labels);
+  }
+
+  /**
+   * @param name   the metric name
+   * @param labels alternating label names and values
+   * @return the id
+   */
+  public static MetricId of(String name, String... labels) {
+    return new MetricId(name, List.of(labels));
+  }
+
+  /**
+   * @param label a label name
+   * @return the value of the label, or {@code null}
+   */
+  public String label(String label) {
+    for (int i = 0; i < labels.size(); i += 2) {
+      if (labels.get(i).equals(label)) {
+        return labels.get(i + 1);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @param filter alternating label names and values
+   * @return {@code true} if this id has all the given labels with the given values
+   */
+  public boolean hasLabels(String... filter) {
+    for (int i = 0; i + 1 < filter.length; i += 2) {
+      if (!filter[i + 1].equals(label(filter[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the id in the form {@code name{label="value",...}}
+   */
+  @Override
+  public String toString() {
+    if (labels.isEmpty()) {
+      return name;
+    }
+    StringBuilder builder = new StringBuilder(name).append('{');
+    for (int i = 0; i < labels.size(); i += 2) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append(labels.get(i)).append("=\"")
+        .append(labels.get(i + 1).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+        .append('"');
+    }
+    return builder.append('}').toString();
+  }
+}
@@ -0,0 +1,161 @@
+package com.framed.core.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Embedded HTTP endpoint serving the metrics of a {@link MetricsRegistry} on {@value #PATH} in the
+ * OpenMetrics text format, to be scraped by Prometheus or any OpenMetrics-compatible collector.
+ *
+ * <h2>Format:</h2>
+ * <ul>
+ *   <li>Counters are exposed as {@code counter} families; their names already end with {@code _total}.</li>
+ *   <li>Gauges are exposed as {@code gauge} families.</li>
+ *   <li>{@link LatencyHistogram}s record nanoseconds; they are exposed as {@code histogram} families in seconds,
+ *       with the cumulative buckets of {@link #BUCKET_BOUNDS_NANOS}.</li>
+ * </ul>
+ *
+ * <p>The server runs on a single daemon thread; a scrape only reads the registry.</p>
+ */
+public class MetricsHttpServer {
+
+  public static final String PATH = "/metrics";
+  public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+  /**
+   * Upper bounds of the exported histogram buckets in nanoseconds, from 10 µs to 5 s.
+   */
+  static final long[] BUCKET_BOUNDS_NANOS = {
+    10_000L, 100_000L, 1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L,
+    100_000_000L, 500_000_000L, 1_000_000_000L, 5_000_000_000L
+  };
+  private static final String[] BUCKET_BOUNDS_SECONDS = {
+    "1.0E-5", "1.0E-4", "0.001", "0.005", "0.01", "0.05", "0.1", "0.5", "1.0", "5.0"
+  };
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private static final Logger logger = Logger.getLogger(MetricsHttpServer.class.getName());
+
+  private final MetricsRegistry registry;
+  private final HttpServer server;
+
+  /**
+   * Creates the endpoint, bound to all interfaces. Call {@link #start()} to serve requests.
+   *
+   * @param registry the registry to expose
+   * @param port     the port to listen on, 0 for an ephemeral port
+   * @throws IOException if the port cannot be bound
+   */
+  public MetricsHttpServer(MetricsRegistry registry, int port) throws IOException {
+    this.registry = registry;
+    this.server = HttpServer.create(new InetSocketAddress(port), 0);
+    this.server.createContext(PATH, this::handle);
+    this.server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "MetricsHttpServer");
+      thread.setDaemon(true);
+      return thread;
+    }));
+  }
+
+  /**
+   * Starts serving scrapes.
+   */
+  public void start() {
+    server.start();
+    logger.info("Serving metrics on port %d%s".formatted(getPort(), PATH));
+  }
+
+  /**
+   * Stops the server, waiting at most one second for running scrapes.
+   */
+  public void stop() {
+    server.stop(1);
+  }
+
+  /**
+   * @return the port the server is bound to
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] body = format(registry).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Renders all metrics of a registry in the OpenMetrics text format, terminated by {@code # EOF}.
+   *
+   * @param registry the registry
+   * @return the exposition
+   */
+  public static String format(MetricsRegistry registry) {
+    StringBuilder out = new StringBuilder();
+    byName(registry.getCounters()).forEach((name, values) -> {
+      String family = name.endsWith("_total") ? name.substring(0, name.length() - "_total".length()) : name;
+      out.append("# TYPE ").append(family).append(" counter\n");
+      values.forEach((id, value) -> sample(out, id, Long.toString(value)));
+    });
+    byName(registry.getGauges()).forEach((name, values) -> {
+      out.append("# TYPE ").append(name).append(" gauge\n");
+      values.forEach((id, value) -> sample(out, id, Long.toString(value)));
+    });
+    byName(registry.getHistograms()).forEach((name, values) -> {
+      out.append("# TYPE ").append(name).append(" histogram\n");
+      out.append("# UNIT ").append(name).append(" seconds\n");
+      values.forEach((id, histogram) -> {
+        for (int i = 0; i < BUCKET_BOUNDS_NANOS.length; i++) {
+          sample(out, bucket(id, BUCKET_BOUNDS_SECONDS[i]), Long.toString(histogram.countAtOrBelow(BUCKET_BOUNDS_NANOS[i])));
+        }
+        sample(out, bucket(id, "+Inf"), Long.toString(histogram.count()));
+        sample(out, new MetricId(name + "_count", id.labels()), Long.toString(histogram.count()));
+        sample(out, new MetricId(name + "_sum", id.labels()), Double.toString(histogram.sum() / NANOS_PER_SECOND));
+      });
+    });
+    return out.append("# EOF\n").toString();
+  }
+
+  private static void sample(StringBuilder out, MetricId id, String value) {
+    out.append(id).append(' ').append(value).append('\n');
+  }
+
+  private static MetricId bucket(MetricId id, String upperBound) {
+    List<String> labels = new ArrayList<>(id.labels());
+    labels.add("le");
+    labels.add(upperBound);
+    return new MetricId(id.name() + "_bucket", labels);
+  }
+
+  /**
+   * Groups metric values by name, since all samples of a family must be contiguous.
+   */
+  private static <V> Map<String, Map<MetricId, V>> byName(Map<MetricId, V> values) {
+    Map<String, Map<MetricId, V>> families = new LinkedHashMap<>();
+    values.forEach((id, value) -> families.computeIfAbsent(id.name(), name -> new LinkedHashMap<>()).put(id, value));
+    return families;
+  }
+}
@@ -0,0 +1,186 @@
+package com.framed.core.metrics;
+
+import com.framed.core.EventBus;
+import com.framed.core.utils.Timer;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of the counters, gauges and latency histograms of a FRAMED node.
+ *
+ * <p>Metrics are identified by a {@link MetricId} (name and labels) and created on first use. Hot paths resolve their
+ * metrics once (see {@link BusMetrics}) and afterwards only pay for a {@link LongAdder} increment or a
+ * {@link LatencyHistogram#record(long)}. Exporters read the current values via {@link #getCounters()},
+ * {@link #getGauges()} and {@link #getHistograms()}, or as a JSON {@link #snapshot()} that can be published
+ * periodically on {@value #METRICS_ADDRESS}.</p>
+ *
+ * <p>Event buses create their own registry unless one is passed in; the node-wide one is {@link #getDefault()}.</p>
+ */
+public class MetricsRegistry {
+
+  /**
+   * Address on which snapshots are published by {@link #publishTo(EventBus, long)}.
+   */
+  public static final String METRICS_ADDRESS = "framed.metrics";
+
+  private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+  private static final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "MetricsRegistry-Publisher");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final Map<MetricId, LongAdder> counters = new ConcurrentHashMap<>();
+  private final Map<MetricId, LongSupplier> gauges = new ConcurrentHashMap<>();
+  private final Map<MetricId, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * @return the node-wide registry
+   */
+  public static MetricsRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * @param name   the metric name
+   * @param labels alternating label names and values
+   * @return the counter, created on first use
+   */
+  public LongAdder counter(String name, String... labels) {
+    return counters.computeIfAbsent(MetricId.of(name, labels), id -> new LongAdder());
+  }
+
+  /**
+   * @param name   the metric name
+   * @param labels alternating label names and values
+   * @return the histogram, created on first use
+   */
+  public LatencyHistogram histogram(String name, String... labels) {
+    return histograms.computeIfAbsent(MetricId.of(name, labels), id -> new LatencyHistogram());
+  }
+
+  /**
+   * Registers a gauge, replacing a previous gauge with the same id.
+   *
+   * @param name   the metric name
+   * @param value  supplies the current value; called by exporters, must be cheap and thread-safe
+   * @param labels alternating label names and values
+   */
+  public void gauge(String name, LongSupplier value, String... labels) {
+    gauges.put(MetricId.of(name, labels), value);
+  }
+
+  /**
+   * Removes a histogram, e.g. of a stopped service.
+   *
+   * @param name   the metric name
+   * @param labels alternating label names and values
+   */
+  public void removeHistogram(String name, String... labels) {
+    histograms.remove(MetricId.of(name, labels));
+  }
+
+  /**
+   * Removes a gauge, e.g. of a closed resource.
+   *
+   * @param name   the metric name
+   * @param labels alternating label names and values
+   */
+  public void removeGauge(String name, String... labels) {
+    gauges.remove(MetricId.of(name, labels));
+  }
+
+  /**
+   * @param name   the metric name
+   * @param filter alternating label names and values the counters must have
+   * @return the sum of all counters with the name and labels
+   */
+  public long sum(String name, String... filter) {
+    long sum = 0;
+    for (Map.Entry<MetricId, LongAdder> counter : counters.entrySet()) {
+      if (counter.getKey().name().equals(name) && counter.getKey().hasLabels(filter)) {
+        sum += counter.getValue().sum();
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * @return the current counter values
+   */
+  public Map<MetricId, Long> getCounters() {
+    Map<MetricId, Long> values = new TreeMap<>(Comparator.comparing(MetricId::toString));
+    counters.forEach((id, counter) -> values.put(id, counter.sum()));
+    return values;
+  }
+
+  /**
+   * @return the current gauge values
+   */
+  public Map<MetricId, Long> getGauges() {
+    Map<MetricId, Long> values = new TreeMap<>(Comparator.comparing(MetricId::toString));
+    gauges.forEach((id, gauge) -> values.put(id, gauge.getAsLong()));
+    return values;
+  }
+
+  /**
+   * @return snapshots of the histograms
+   */
+  public Map<MetricId, LatencyHistogram.Snapshot> getHistograms() {
+    Map<MetricId, LatencyHistogram.Snapshot> values = new TreeMap<>(Comparator.comparing(MetricId::toString));
+    histograms.forEach((id, histogram) -> values.put(id, histogram.snapshot()));
+    return values;
+  }
+
+  /**
+   * Builds a JSON snapshot of all metrics.
+   * <pre>{@code
+   * {
+   *   "timestamp": "2025-01-01T12:00:00.000000",
+   *   "counters": { "framed_bus_published_total{address=\"CDSS.x\"}": 42 },
+   *   "gauges": { ... },
+   *   "histograms": { "framed_bus_handler_duration_seconds{...}": { "count": 42, "meanNanos": ..., "p50Nanos": ...,
+   *                                                          "p99Nanos": ..., "maxNanos": ... } }
+   * }
+   * }</pre>
+   *
+   * @return the snapshot
+   */
+  public JSONObject snapshot() {
+    JSONObject counterValues = new JSONObject();
+    getCounters().forEach((id, value) -> counterValues.put(id.toString(), value));
+    JSONObject gaugeValues = new JSONObject();
+    getGauges().forEach((id, value) -> gaugeValues.put(id.toString(), value));
+    JSONObject histogramValues = new JSONObject();
+    getHistograms().forEach((id, histogram) -> histogramValues.put(id.toString(), new JSONObject()
+      .put("count", histogram.count())
+      .put("meanNanos", Math.round(histogram.mean()))
+      .put("p50Nanos", histogram.valueAtPercentile(50))
+      .put("p99Nanos", histogram.valueAtPercentile(99))
+      .put("maxNanos", histogram.max())));
+    return new JSONObject()
+      .put("timestamp", LocalDateTime.now().format(Timer.formatter))
+      .put("counters", counterValues)
+      .put("gauges", gaugeValues)
+      .put("histograms", histogramValues);
+  }
+
+  /**
+   * Publishes a {@link #snapshot()} on {@value #METRICS_ADDRESS} periodically.
+   *
+   * @param eventBus     the bus to publish on
+   * @param periodMillis the publication period in milliseconds
+   * @return the scheduled publication; cancel it to stop publishing
+   */
+  public ScheduledFuture<?> publishTo(EventBus eventBus, long periodMillis) {
+    return publisher.scheduleAtFixedRate(() -> eventBus.publish(METRICS_ADDRESS, snapshot()),
+      periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+  }
+}
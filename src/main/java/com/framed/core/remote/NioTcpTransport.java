@@ -1,5 +1,6 @@
 package com.framed.core.remote;
 
+import com.framed.core.Registration;
 import org.json.JSONObject;
 
 import java.io.IOException;
@@ -15,13 +16,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import static com.framed.core.utils.RemoteUtils.parseAndDispatchAsync;
+import static com.framed.core.utils.RemoteUtils.registerHandler;
+import static com.framed.core.utils.RemoteUtils.toEnvelope;
 
 /**
  * A {@link Transport} implementation using Java NIO for TCP-based communication.
@@ -65,7 +67,7 @@ public class NioTcpTransport implements Transport {
   private final Selector selector;
   private final ServerSocketChannel serverChannel;
   private final ExecutorService workerPool = Executors.newCachedThreadPool();
-  private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<RemoteMessage>>> handlers = new ConcurrentHashMap<>();
   private static final Charset charset = StandardCharsets.UTF_8;
   private volatile boolean running = true;
   private final Map<SocketChannel, StringBuilder> buffers = new ConcurrentHashMap<>();
@@ -208,7 +210,7 @@ public class NioTcpTransport implements Transport {
 
 
   /**
-   * Sends a JSON-formatted message over TCP.
+   * Sends a JSON-formatted message over TCP, terminated by a newline as expected by {@link #handleRead}.
    * Message type is used by the EventBus
    *
    * @param host    the target host
@@ -222,12 +224,9 @@ public class NioTcpTransport implements Transport {
       channel.configureBlocking(true); // short-lived
       channel.connect(new InetSocketAddress(host, port));
 
-      JSONObject json = new JSONObject();
-      json.put("address", address);
-      json.put("payload", message);
-      json.put("type", type);
+      JSONObject json = toEnvelope(address, message, type);
 
-      ByteBuffer buffer = charset.encode(CharBuffer.wrap(json.toString()));
+      ByteBuffer buffer = charset.encode(CharBuffer.wrap(json.toString() + "\n"));
       while (buffer.hasRemaining()) {
         channel.write(buffer);
       }
@@ -252,12 +251,13 @@ public class NioTcpTransport implements Transport {
   }
 
   /**
-   * Registers a handler for messages received on the specified address.
+   * Registers a handler for messages received on the specified address, with their envelope.
    *
    * @param address the address to listen on
-   * @param handler the handler to process messages
+   * @param handler the handler to process incoming messages
    */
-  public void register(String address, Consumer<Object> handler) {
-    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
+  @Override
+  public Registration registerEnvelope(String address, Consumer<RemoteMessage> handler) {
+    return registerHandler(address, handler, handlers);
   }
 }
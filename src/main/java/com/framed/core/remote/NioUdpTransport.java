@@ -1,5 +1,6 @@
 package com.framed.core.remote;
 
+import com.framed.core.Registration;
 import org.json.JSONObject;
 
 import java.io.IOException;
@@ -14,13 +15,14 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import static com.framed.core.utils.RemoteUtils.parseAndDispatchAsync;
+import static com.framed.core.utils.RemoteUtils.registerHandler;
+import static com.framed.core.utils.RemoteUtils.toEnvelope;
 
 
 /** A {@link Transport} implementation using Java NIO over UDP for lightweight, connectionless
@@ -70,7 +72,7 @@ public class NioUdpTransport implements Transport {
   private final DatagramChannel channel;
   private static final Charset charset = StandardCharsets.UTF_8;
   private final ExecutorService workerPool = Executors.newCachedThreadPool();
-  private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<RemoteMessage>>> handlers = new ConcurrentHashMap<>();
   private volatile boolean running = true;
 
 
@@ -92,8 +94,8 @@ public class NioUdpTransport implements Transport {
    * Starts the selector loop on a background thread.
    * <p>When the channel is readable, a datagram is decoded as UTF-8, parsed as JSON,
    * and dispatched to handlers based on its {@code address} field and message type.</p>
-   * <p><b>Implementation note:</b> The received buffer is reused per-iteration. Ensure
-   * {@link DatagramChannel#receive(java.nio.ByteBuffer)} populates the buffer before decoding.</p>
+   * <p><b>Implementation note:</b> The received buffer is reused per-iteration and filled by
+   * {@link DatagramChannel#receive(java.nio.ByteBuffer)} before decoding.</p>
    */
   @Override
   public void start() {
@@ -105,6 +107,9 @@ public class NioUdpTransport implements Transport {
           for (SelectionKey key : selector.selectedKeys()) {
             if (key.isReadable()) {
               buffer.clear();
+              if (channel.receive(buffer) == null) {
+                continue;
+              }
               buffer.flip();
               String jsonStr = charset.decode(buffer).toString();
               parseAndDispatchAsync(jsonStr, handlers, workerPool);
@@ -157,10 +162,7 @@ public class NioUdpTransport implements Transport {
    */
   private void sendMessage(String host, int port, String address, Object message, String type) {
     try {
-      JSONObject json = new JSONObject();
-      json.put("address", address);
-      json.put("payload", message);
-      json.put("type", type);
+      JSONObject json = toEnvelope(address, message, type);
 
       ByteBuffer buffer = charset.encode(CharBuffer.wrap(json.toString()));
       channel.send(buffer, new InetSocketAddress(host, port));
@@ -185,12 +187,13 @@ public class NioUdpTransport implements Transport {
   }
 
   /**
-   * Registers a handler for messages received on the specified address.
+   * Registers a handler for messages received on the specified address, with their envelope.
    *
    * @param address the logical address/topic to listen on
-   * @param handler the handler to process incoming payloads
+   * @param handler the handler to process incoming messages
    */
-  public void register(String address, Consumer<Object> handler) {
-    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
+  @Override
+  public Registration registerEnvelope(String address, Consumer<RemoteMessage> handler) {
+    return registerHandler(address, handler, handlers);
   }
 }
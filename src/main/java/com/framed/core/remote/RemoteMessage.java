@@ -1,3 +1,10 @@
 package com.framed.core.remote;
 
+/**
+ * A message received by a {@link Transport}, with its envelope.
+ *
+ * @param address the address the message was sent or published on
+ * @param payload the payload
+ * @param type    {@code "send"} for point-to-point messages, {@code "publish"} for broadcasts
+ */
 public record RemoteMessage(String address, Object payload, String type) {}
@@ -1,11 +1,18 @@
 package com.framed.core.remote;
 
 import com.framed.core.EventBus;
+import com.framed.core.Registration;
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.core.utils.DeadlineScheduler;
 import com.framed.core.utils.DispatchMode;
+import com.framed.core.utils.HandlerInvoker;
+import com.framed.core.utils.HandlerRegistration;
+import com.framed.core.utils.MessageTtl;
+import com.framed.core.utils.ReplayCache;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.logging.Logger;
@@ -23,6 +30,16 @@ import java.util.logging.Logger;
  *   <li>Integrates with any {@link Transport} implementation (e.g., TCP or UDP).</li>
  *   <li>Maintains a dynamic set of remote peers for message propagation.</li>
  *   <li>Supports local handler registration and synchronous or asynchronous local dispatch.</li>
+ *   <li>Handlers are removed by closing their {@link Registration}, which also releases their executor and,
+ *       with the last handler of an address, the transport subscription of the address.</li>
+ *   <li>Isolates handler failures, optionally routing failed messages to a dead-letter address
+ *       and circuit-breaking continually failing handlers (see {@link HandlerInvoker}).</li>
+ *   <li>Optionally replays the recent messages of configured addresses to late handlers and newly added peers
+ *       (see {@link ReplayCache}).</li>
+ *   <li>Optionally drops messages of real-time addresses that waited in a dispatch queue for longer than their
+ *       TTL (see {@link MessageTtl}).</li>
+ *   <li>Counts messages, handler invocations, queue depths and latencies per address and handler
+ *       (see {@link BusMetrics}).</li>
  *   <li>Graceful shutdown via {@link #shutdown()}.</li>
  * </ul>
  *
@@ -46,19 +63,29 @@ import java.util.logging.Logger;
  *   <li>{@link DispatchMode#SEQUENTIAL} – All handlers run sequentially on the calling thread.</li>
  *   <li>{@link DispatchMode#PARALLEL} – Handlers run concurrently using a shared thread pool.</li>
  *   <li>{@link DispatchMode#PER_HANDLER} – Each handler has its own single-thread executor for ordered execution.</li>
+ *   <li>{@link DispatchMode#DEADLINE} – Handlers run on a fixed worker pool, earliest deadline first
+ *       (see {@link DeadlineScheduler}).</li>
  * </ul>
- * Remote dispatch is delegated to the underlying {@link Transport} implementation.
+ * Remote dispatch is delegated to the underlying {@link Transport} implementation. Messages received from
+ * remote peers are dispatched to the local handlers in the same way as locally published messages.
  * <b>Note:</b> Ensure {@link #shutdown()} is called to release resources and stop the transport.
  */
 
  public class SocketEventBus implements EventBus {
   private final Transport transport;
-  private final Set<Peer> peers = ConcurrentHashMap.newKeySet();
-  private final Map<String, List<Consumer<Object>>> localHandlers = new ConcurrentHashMap<>();
+  /** Peers and the sequence number of the last message replayed to them, see {@link ReplayCache#replayAll}. */
+  private final Map<Peer, Long> peers = new ConcurrentHashMap<>();
+  private final Map<String, List<HandlerRegistration>> localHandlers = new ConcurrentHashMap<>();
+  private final Map<String, Registration> transportRegistrations = new ConcurrentHashMap<>();
   private final Logger logger;
   private final DispatchMode dispatchMode;
   private final ExecutorService parallelPool = Executors.newCachedThreadPool();
-  private final Map<Consumer<Object>, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
+  private final Map<HandlerRegistration, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
+  private final BusMetrics metrics;
+  private final HandlerInvoker invoker;
+  private final ReplayCache replayCache = new ReplayCache();
+  private final MessageTtl messageTtl;
+  private final DeadlineScheduler deadlineScheduler;
 
 
   /**
@@ -70,11 +97,28 @@ import java.util.logging.Logger;
    *                       <li>{@link DispatchMode#SEQUENTIAL} – handlers run sequentially on the caller thread</li>
    *                       <li>{@link DispatchMode#PARALLEL} – handlers run concurrently using a shared thread pool</li>
    *                       <li>{@link DispatchMode#PER_HANDLER} – each handler has its own single-thread executor for ordered execution</li>
+   *                       <li>{@link DispatchMode#DEADLINE} – handlers run on a fixed worker pool, earliest deadline first</li>
    *                     </ul>
    */
   public SocketEventBus(Transport transport, DispatchMode dispatchMode) {
+    this(transport, dispatchMode, new MetricsRegistry());
+  }
+
+  /**
+   * Creates a new {@code SocketEventBus} keeping its metrics in the given registry.
+   *
+   * @param transport    the transport implementation (e.g., TCPTransport or UDPTransport)
+   * @param dispatchMode determines how local handlers are executed
+   * @param metrics      the registry the bus metrics are kept in, e.g. {@link MetricsRegistry#getDefault()}
+   */
+  public SocketEventBus(Transport transport, DispatchMode dispatchMode, MetricsRegistry metrics) {
     this.transport = transport;
     this.dispatchMode = dispatchMode;
+    this.metrics = new BusMetrics(metrics);
+    this.invoker = new HandlerInvoker(this, this.metrics);
+    this.messageTtl = new MessageTtl(metrics);
+    this.deadlineScheduler = dispatchMode == DispatchMode.DEADLINE
+      ? new DeadlineScheduler(Runtime.getRuntime().availableProcessors(), metrics) : null;
     this.transport.start();
     this.logger = Logger.getLogger(getClass().getName());
   }
@@ -82,12 +126,17 @@ import java.util.logging.Logger;
 
   /**
    * Adds a remote peer to the event bus.
-   * <p>Messages sent or published will also be forwarded to this peer.</p>
+   * <p>Messages sent or published will also be forwarded to this peer. Cached messages of replayed
+   * addresses (see {@link #setReplay(String, int, long)}) are published to the peer, possibly interleaved with
+   * messages published concurrently.</p>
    *
    * @param peer the remote peer to add
    */
   public void addPeer(Peer peer) {
-    peers.add(peer);
+    List<ReplayCache.CachedMessage> replay = replayCache.replayAll(through -> peers.put(peer, through));
+    for (ReplayCache.CachedMessage cached : replay) {
+      transport.publish(peer.host(), peer.port(), cached.address(), cached.message());
+    }
   }
 
   /**
@@ -100,17 +149,188 @@ import java.util.logging.Logger;
   }
 
 
+  /**
+   * Sets the address on which messages are published whose handler threw an exception.
+   *
+   * @param deadLetterAddress the dead-letter address, or {@code null} to disable dead-letter routing
+   */
+  public void setDeadLetterAddress(String deadLetterAddress) {
+    invoker.setDeadLetterAddress(deadLetterAddress);
+  }
+
+  /**
+   * Configures circuit breaking of continually failing handlers.
+   *
+   * @param failureThreshold consecutive failures after which a handler stops receiving messages; {@code <= 0} disables
+   * @param openMillis       time in milliseconds before a stopped handler is tried again
+   */
+  public void setCircuitBreaker(int failureThreshold, long openMillis) {
+    invoker.setCircuitBreaker(failureThreshold, openMillis);
+  }
+
+  /**
+   * @param address the logical address/topic
+   * @return the number of handler invocations on the address that threw an exception
+   */
+  public long getFailureCount(String address) {
+    return invoker.getFailureCount(address);
+  }
+
+  /**
+   * Enables replay for all addresses matching the pattern: the last messages of each address are
+   * cached and delivered to handlers registered later and to peers added later.
+   *
+   * @param pattern      glob pattern of the addresses to replay, e.g. {@code *.parsed}
+   * @param maxMessages  number of messages kept per address
+   * @param maxAgeMillis maximum age of replayed messages in milliseconds; {@code <= 0} disables the age limit
+   */
+  public void setReplay(String pattern, int maxMessages, long maxAgeMillis) {
+    replayCache.configure(pattern, maxMessages, maxAgeMillis);
+  }
+
+  /**
+   * Sets a time-to-live for all addresses matching the pattern. Messages that are dequeued by a handler
+   * executor after their TTL are dropped. Has no effect in {@link DispatchMode#SEQUENTIAL}, which does not queue.
+   *
+   * @param pattern   glob pattern of the addresses, e.g. {@code *.waveform}
+   * @param ttlMillis maximum queueing time in milliseconds
+   */
+  public void setTtl(String pattern, long ttlMillis) {
+    messageTtl.configure(pattern, ttlMillis);
+  }
+
+  /**
+   * @param address the logical address/topic
+   * @return the number of messages on the address dropped because their TTL expired
+   */
+  public long getExpiredCount(String address) {
+    return messageTtl.getExpiredCount(address);
+  }
+
+  /**
+   * Sets the deadline of all addresses matching the pattern, relative to the source timestamp of a message.
+   *
+   * @param pattern        glob pattern of the addresses, e.g. {@code CDSS.*}
+   * @param deadlineMillis deadline in milliseconds
+   * @throws IllegalStateException if the bus is not in {@link DispatchMode#DEADLINE}
+   */
+  public void setDeadline(String pattern, long deadlineMillis) {
+    requireDeadlineScheduler().configure(pattern, deadlineMillis);
+  }
+
+  /**
+   * @param address the logical address/topic
+   * @return the number of handler invocations on the address that completed after their deadline
+   * @throws IllegalStateException if the bus is not in {@link DispatchMode#DEADLINE}
+   */
+  public long getMissedDeadlineCount(String address) {
+    return requireDeadlineScheduler().getMissedCount(address);
+  }
+
+  /**
+   * @return the registry the metrics of this bus are kept in
+   */
+  public MetricsRegistry getMetrics() {
+    return metrics.getRegistry();
+  }
+
+  private DeadlineScheduler requireDeadlineScheduler() {
+    if (deadlineScheduler == null) {
+      throw new IllegalStateException("Deadlines require DispatchMode.DEADLINE, bus uses %s".formatted(dispatchMode));
+    }
+    return deadlineScheduler;
+  }
+
   /**
    * Registers a local handler for the specified address.
-   * <p>The handler will also be registered with the underlying transport for remote messages.</p>
+   * <p>On the first registration for an address, the bus registers itself with the underlying transport,
+   * so that remote messages for the address are dispatched to the local handlers: a remote {@code send} to the
+   * first handler, a remote {@code publish} to all.
+   * If the address is replayed, the cached messages are delivered to the handler before any new message.</p>
+   * <p>Closing the returned registration discards the messages still queued for the handler and shuts down its
+   * executor. Closing the last registration of an address also removes the transport subscription.</p>
    *
    * @param address the logical address/topic to listen on
    * @param handler the handler to process incoming payloads
+   * @return a handle removing the handler when closed
    */
   @Override
-  public void register(String address, Consumer<Object> handler) {
-    localHandlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
-    transport.register(address, handler);
+  public Registration register(String address, Consumer<Object> handler) {
+    HandlerRegistration registration = new HandlerRegistration(address, handler, metrics.register(address, handler), this::unregister);
+    registration.holdForReplay();
+    ReplayCache.Replay replay = replayCache.subscribe(address,
+      () -> localHandlers.compute(address, (k, handlers) -> {
+        if (handlers == null) {
+          handlers = new CopyOnWriteArrayList<>();
+          transportRegistrations.put(address, transport.registerEnvelope(address, this::receive));
+        }
+        handlers.add(registration);
+        return handlers;
+      }));
+    for (Object message : replay.messages()) {
+      dispatch(registration, message);
+    }
+    registration.endReplay(replay.through(), message -> dispatch(registration, message));
+    return registration;
+  }
+
+  /**
+   * Dispatches a message received from a peer: a {@code send} to the first local handler only, as
+   * {@link com.framed.core.local.LocalEventBus#send} does, a {@code publish} to all of them.
+   *
+   * @param message the message with its envelope
+   */
+  private void receive(RemoteMessage message) {
+    String address = message.address();
+    Object payload = message.payload();
+    metrics.received(address);
+    long sequence = replayCache.recordRemote(address, payload);
+    if (!"send".equals(message.type())) {
+      dispatchLocally(address, payload, sequence);
+      return;
+    }
+    List<HandlerRegistration> handlers = localHandlers.get(address);
+    if (handlers != null && !handlers.isEmpty()) {
+      HandlerRegistration first = handlers.get(0);
+      if (!first.heldOrReplayed(payload, sequence)) {
+        dispatch(first, payload);
+      }
+    }
+  }
+
+  /**
+   * Removes a closed registration, its executor and, if it was the last one of its address,
+   * the transport subscription of the address.
+   *
+   * @param registration the closed registration
+   */
+  private void unregister(HandlerRegistration registration) {
+    localHandlers.computeIfPresent(registration.address(), (address, handlers) -> {
+      handlers.remove(registration);
+      if (!handlers.isEmpty()) {
+        return handlers;
+      }
+      Registration transportRegistration = transportRegistrations.remove(address);
+      if (transportRegistration != null) {
+        transportRegistration.close();
+      }
+      return null;
+    });
+    reclaimExecutor(registration);
+    invoker.forget(registration.handler());
+    metrics.unregister(registration.metrics());
+  }
+
+  /**
+   * Shuts down the executor of a closed registration. Queued invocations are skipped, the thread terminates.
+   *
+   * @param registration the closed registration
+   */
+  private void reclaimExecutor(HandlerRegistration registration) {
+    ExecutorService executor = handlerExecutors.remove(registration);
+    if (executor != null) {
+      executor.shutdown();
+    }
   }
 
   /**
@@ -122,9 +342,13 @@ import java.util.logging.Logger;
    */
   @Override
   public void send(String address, Object message) {
-    dispatchLocally(address, message);
-    for (Peer peer : peers) {
-      transport.send(peer.host(), peer.port(), address, message);
+    metrics.published(address);
+    long sequence = replayCache.record(address, message);
+    dispatchLocally(address, message, sequence);
+    for (Map.Entry<Peer, Long> peer : peers.entrySet()) {
+      if (sequence == 0 || sequence > peer.getValue()) {
+        transport.send(peer.getKey().host(), peer.getKey().port(), address, message);
+      }
     }
   }
 
@@ -137,42 +361,89 @@ import java.util.logging.Logger;
    */
   @Override
   public void publish(String address, Object message) {
-    dispatchLocally(address, message);
-    for (Peer peer : peers) {
-      transport.publish(peer.host(), peer.port(), address, message);
+    metrics.published(address);
+    long sequence = replayCache.record(address, message);
+    dispatchLocally(address, message, sequence);
+    for (Map.Entry<Peer, Long> peer : peers.entrySet()) {
+      if (sequence == 0 || sequence > peer.getValue()) {
+        transport.publish(peer.getKey().host(), peer.getKey().port(), address, message);
+      }
     }
   }
 
 
   /**
    * Dispatches a message to all local handlers registered for the given address.
-   * <p>Execution is synchronous and blocking on the calling thread.</p>
+   * <p>Depending on the {@link DispatchMode}, handlers run on the calling thread or on executors.
+   * Failures of handlers are isolated by the {@link HandlerInvoker}. Messages held for or already part of the
+   * replay to a new handler are skipped there.</p>
    *
-   * @param address the logical address/topic
-   * @param message the payload to deliver
+   * @param address  the logical address/topic
+   * @param message  the payload to deliver
+   * @param sequence the sequence number of the message in the {@link ReplayCache}, 0 if not cached
    */
-  private void dispatchLocally(String address, Object message) {
-    List<Consumer<Object>> handlers = localHandlers.get(address);
+  private void dispatchLocally(String address, Object message, long sequence) {
+    List<HandlerRegistration> handlers = localHandlers.get(address);
     if (handlers != null) {
-      for (Consumer<Object> handler : handlers) {
-        switch (dispatchMode) {
-          case SEQUENTIAL:
-            handler.accept(message); // if in SEQUENTIAL mode, call each handler in the executing thread
-            break;
-          case PARALLEL:
-            parallelPool.submit(() -> handler.accept(message)); // if in PARALLEL mode, create a new thread
-            break;
-          case PER_HANDLER:
-            handlerExecutors
-              .computeIfAbsent(handler, h -> Executors.newSingleThreadExecutor())
-              .submit(() -> handler.accept(message)); // if in PER_HANDLER mode, create new thread
-                                                      // if handler was never called, else use per handler threads.
-            break;
+      for (HandlerRegistration handler : handlers) {
+        if (!handler.heldOrReplayed(message, sequence)) {
+          dispatch(handler, message);
         }
       }
     }
   }
 
+  /**
+   * Dispatches a message to a single local handler according to the {@link DispatchMode}.
+   *
+   * @param registration the registration of the handler
+   * @param message      the payload to deliver
+   */
+  private void dispatch(HandlerRegistration registration, Object message) {
+    String address = registration.address();
+    switch (dispatchMode) {
+      case SEQUENTIAL:
+        // if in SEQUENTIAL mode, call each handler in the executing thread
+        registration.metrics().dispatch(() -> invoke(registration, message), 0);
+        break;
+      case PARALLEL:
+        parallelPool.execute(queued(registration, message)); // if in PARALLEL mode, create a new thread
+        break;
+      case PER_HANDLER:
+        try {
+          handlerExecutors
+            .computeIfAbsent(registration, h -> Executors.newSingleThreadExecutor())
+            .execute(queued(registration, message)); // if in PER_HANDLER mode, create new thread
+                                                     // if handler was never called, else use per handler threads.
+        } catch (RejectedExecutionException e) {
+          // the registration was closed concurrently, its executor is shut down
+        }
+        if (!registration.isActive()) {
+          reclaimExecutor(registration); // an executor created after the registration was closed
+        }
+        break;
+      case DEADLINE:
+        deadlineScheduler.execute(address, message, queued(registration, message)); // if in DEADLINE mode, queue by deadline
+        break;
+    }
+  }
+
+  /**
+   * @return the task delivering a queued message, tracking its queueing time and dropping it once its TTL expired
+   */
+  private Runnable queued(HandlerRegistration registration, Object message) {
+    return registration.metrics().queued(messageTtl.wrap(registration.address(), () -> invoke(registration, message)));
+  }
+
+  /**
+   * Invokes the handler of a registration, unless the registration was closed while the message was queued.
+   */
+  private void invoke(HandlerRegistration registration, Object message) {
+    if (registration.isActive()) {
+      invoker.invoke(registration.address(), registration.handler(), message, registration.metrics());
+    }
+  }
+
   /**
    * Shuts down the event bus and releases resources.
    * <p>Stops the underlying transport, alle executors, and clears local handlers and peer list.</p>
@@ -180,9 +451,13 @@ import java.util.logging.Logger;
   public void shutdown() {
     transport.shutdown();
     localHandlers.clear();
+    transportRegistrations.clear();
     peers.clear();
     parallelPool.shutdownNow();
     handlerExecutors.values().forEach(ExecutorService::shutdownNow);
+    if (deadlineScheduler != null) {
+      deadlineScheduler.shutdown();
+    }
     logger.info("SocketEventBus shutdown successfully.");
   }
 
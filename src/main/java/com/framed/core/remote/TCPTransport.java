@@ -1,5 +1,6 @@
 package com.framed.core.remote;
 
+import com.framed.core.Registration;
 import org.json.JSONObject;
 
 import java.io.BufferedReader;
@@ -12,7 +13,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
@@ -20,6 +20,8 @@ import java.util.logging.Logger;
 
 import static com.framed.core.utils.RemoteUtils.parseAndDispatch;
 import static com.framed.core.utils.RemoteUtils.parseAndDispatchAsync;
+import static com.framed.core.utils.RemoteUtils.registerHandler;
+import static com.framed.core.utils.RemoteUtils.toEnvelope;
 
 /**
  * A {@link Transport} implementation using traditional blocking I/O over TCP sockets.
@@ -62,10 +64,10 @@ public class TCPTransport implements Transport {
   Logger logger = Logger.getLogger(getClass().getName());
 
   private final int port;
-  private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<RemoteMessage>>> handlers = new ConcurrentHashMap<>();
   private volatile boolean running = true;
   private final ExecutorService workerPool = Executors.newCachedThreadPool();
-  private final Map<Consumer<Object>, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
+  private final Map<Consumer<RemoteMessage>, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
   private ServerSocket serverSocket;
 
 
@@ -170,10 +172,7 @@ public class TCPTransport implements Transport {
    */
   private void sendMessage(String host, int port, String address, Object message, String type) {
     try (Socket socket = new Socket(host, port)) {
-      JSONObject json = new JSONObject();
-      json.put("address", address);
-      json.put("payload", message);
-      json.put("type", type);
+      JSONObject json = toEnvelope(address, message, type);
 
       PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
       writer.println(json);
@@ -202,15 +201,14 @@ public class TCPTransport implements Transport {
   }
 
   /**
-   * Registers a handler for messages received on the specified address.
+   * Registers a handler for messages received on the specified address, with their envelope.
    * Creates a single threaded executor for that handler.
    * @param address the logical address/topic to listen on
-   * @param handler the handler to process incoming payloads
+   * @param handler the handler to process incoming messages
    */
   @Override
-  public void register(String address, Consumer<Object> handler) {
-    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
-    handlerExecutors.put(handler, Executors.newSingleThreadExecutor());
+  public Registration registerEnvelope(String address, Consumer<RemoteMessage> handler) {
+    return registerHandler(address, handler, handlers, handlerExecutors);
   }
 
 }
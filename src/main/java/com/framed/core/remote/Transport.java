@@ -1,5 +1,7 @@
 package com.framed.core.remote;
 
+import com.framed.core.Registration;
+
 import java.util.function.Consumer;
 
 
@@ -40,12 +42,25 @@ public interface Transport {
   void publish(String host, int port, String address, Object message);
 
   /**
-   * Registers a handler for messages received on the specified address.
+   * Registers a handler for the payloads of messages received on the specified address.
+   *
+   * @param address the address or topic to listen on
+   * @param handler a {@link java.util.function.Consumer} that processes incoming messages
+   * @return a handle removing the handler (and its executor, if any) when closed
+   */
+  default Registration register(String address, Consumer<Object> handler) {
+    return registerEnvelope(address, message -> handler.accept(message.payload()));
+  }
+
+  /**
+   * Registers a handler for messages received on the specified address, with their envelope, so that the receiver
+   * can tell a point-to-point {@code send} from a {@code publish} (see {@link RemoteMessage#type()}).
    *
    * @param address the address or topic to listen on
    * @param handler a {@link java.util.function.Consumer} that processes incoming messages
+   * @return a handle removing the handler (and its executor, if any) when closed
    */
-  void register(String address, Consumer<Object> handler);
+  Registration registerEnvelope(String address, Consumer<RemoteMessage> handler);
   /**
    * Starts the transport mechanism, initializing resources such as sockets or threads.
    */
@@ -1,5 +1,6 @@
 package com.framed.core.remote;
 
+import com.framed.core.Registration;
 import org.json.JSONObject;
 
 import java.io.IOException;
@@ -10,7 +11,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
@@ -18,6 +18,8 @@ import java.util.logging.Logger;
 
 import static com.framed.core.utils.RemoteUtils.parseAndDispatch;
 import static com.framed.core.utils.RemoteUtils.parseAndDispatchAsync;
+import static com.framed.core.utils.RemoteUtils.registerHandler;
+import static com.framed.core.utils.RemoteUtils.toEnvelope;
 
 
 /** A {@link Transport} implementation using UDP datagrams for lightweight, connectionless messaging.
@@ -58,11 +60,11 @@ public class UDPTransport implements Transport {
   Logger logger = Logger.getLogger(getClass().getName());
 
   private final int port;
-  private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<RemoteMessage>>> handlers = new ConcurrentHashMap<>();
   private volatile boolean running = true;
   private DatagramSocket socket;
   private final ExecutorService workerPool = Executors.newCachedThreadPool();
-  private final Map<Consumer<Object>, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
+  private final Map<Consumer<RemoteMessage>, ExecutorService> handlerExecutors = new ConcurrentHashMap<>();
 
   /**
    * Creates a new UDP transport bound to the specified port.
@@ -140,10 +142,7 @@ public class UDPTransport implements Transport {
    */
   private void sendMessage(String host, int port, String address, Object message, String type) {
     try {
-      JSONObject json = new JSONObject();
-      json.put("address", address);
-      json.put("payload", message);
-      json.put("type", type);
+      JSONObject json = toEnvelope(address, message, type);
 
       byte[] data = json.toString().getBytes(StandardCharsets.UTF_8);
       DatagramPacket packet = new DatagramPacket(data, data.length, InetAddress.getByName(host), port);
@@ -155,15 +154,14 @@ public class UDPTransport implements Transport {
 
 
   /**
-   * Registers a handler for messages received on the specified address.
+   * Registers a handler for messages received on the specified address, with their envelope.
    *
    * @param address the logical address/topic to listen on
-   * @param handler the handler to process incoming payloads
+   * @param handler the handler to process incoming messages
    */
   @Override
-  public void register(String address, Consumer<Object> handler) {
-    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
-    handlerExecutors.put(handler, Executors.newSingleThreadExecutor());
+  public Registration registerEnvelope(String address, Consumer<RemoteMessage> handler) {
+    return registerHandler(address, handler, handlers, handlerExecutors);
   }
 
   /**
@@ -176,6 +174,7 @@ public class UDPTransport implements Transport {
     if (socket != null && !socket.isClosed()) {
       socket.close();
     }
+    handlerExecutors.values().forEach(ExecutorService::shutdownNow);
     workerPool.shutdownNow(); // stop handler tasks
   }
 }
@@ -0,0 +1,43 @@
+package com.framed.core.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * A glob pattern over event bus addresses, used to configure per-address bus features.
+ *
+ * <p>{@code *} matches any (possibly empty) sequence of characters, all other characters match literally.
+ * E.g. {@code Oxylog-3000.*.parsed} matches all parsed addresses of that device, {@code *} matches every address.</p>
+ *
+ * @param glob  the pattern as configured
+ * @param regex the compiled regular expression
+ */
+public record AddressPattern(String glob, Pattern regex) {
+
+  /**
+   * Compiles a glob pattern.
+   *
+   * @param glob the pattern, using {@code *} as wildcard
+   * @return the compiled pattern
+   */
+  public static AddressPattern of(String glob) {
+    String[] literals = glob.split("\\*", -1);
+    StringBuilder regex = new StringBuilder();
+    for (int i = 0; i < literals.length; i++) {
+      if (i > 0) {
+        regex.append(".*");
+      }
+      if (!literals[i].isEmpty()) {
+        regex.append(Pattern.quote(literals[i]));
+      }
+    }
+    return new AddressPattern(glob, Pattern.compile(regex.toString()));
+  }
+
+  /**
+   * @param address the address to test
+   * @return {@code true} if the whole address matches the pattern
+   */
+  public boolean matches(String address) {
+    return regex.matcher(address).matches();
+  }
+}
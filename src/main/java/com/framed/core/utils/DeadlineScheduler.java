@@ -0,0 +1,231 @@
+package com.framed.core.utils;
+
+import com.framed.core.Measurement;
+import com.framed.core.metrics.MetricsRegistry;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Earliest-deadline-first (EDF) executor for event bus handlers ({@link DispatchMode#DEADLINE}).
+ *
+ * <p>Handler invocations run on a fixed pool of worker threads. Queued invocations are ordered by the deadline of
+ * their message instead of their arrival, so that alarm and classification handlers with tight latency budgets
+ * overtake bulk work (writers, waveform parsing) when the CPU is saturated.</p>
+ *
+ * <h2>Deadlines:</h2>
+ * <p>The deadline of a message is its source timestamp plus the deadline configured for its address
+ * (by {@link AddressPattern}). The source timestamp is taken from a {@link Measurement}, or from the
+ * {@code timestamp} field of a {@link JSONObject} message (formatted with {@link Timer#formatter}); messages without one use the time they
+ * were handed to the scheduler. Addresses without a configured deadline use {@link #DEFAULT_DEADLINE_MILLIS},
+ * so bulk work is deferred but never starved.</p>
+ *
+ * <h2>Statistics:</h2>
+ * <p>An invocation that completes after its deadline counts as missed. Executed and missed invocations are
+ * counted per address ({@value #EXECUTED}, {@value #MISSED}); the number of queued invocations is a gauge
+ * ({@value #QUEUE_DEPTH}).</p>
+ *
+ * <p><b>Note:</b> Invocations of the same handler may run concurrently, as in {@link DispatchMode#PARALLEL}.</p>
+ */
+public class DeadlineScheduler {
+
+  /**
+   * Deadline of addresses without a configured deadline, relative to their source timestamp.
+   */
+  public static final long DEFAULT_DEADLINE_MILLIS = 1000;
+
+  public static final String EXECUTED = "framed_bus_deadline_executed_total";
+  public static final String MISSED = "framed_bus_deadline_missed_total";
+  public static final String QUEUE_DEPTH = "framed_bus_deadline_queue_depth";
+
+  private final ThreadPoolExecutor workers;
+  private final MetricsRegistry metrics;
+  private final AtomicLong sequence = new AtomicLong();
+  private final List<Rule> rules = new CopyOnWriteArrayList<>();
+  private final Map<String, Long> deadlineByAddress = new ConcurrentHashMap<>();
+  private final Map<String, Stats> statsByAddress = new ConcurrentHashMap<>();
+
+  /**
+   * Deadline of the addresses matching a pattern.
+   */
+  private record Rule(AddressPattern pattern, long deadlineMillis) {
+  }
+
+  /**
+   * Deadline statistics of a single address.
+   */
+  private static final class Stats {
+    private final LongAdder executed;
+    private final LongAdder missed;
+
+    private Stats(MetricsRegistry metrics, String address) {
+      this.executed = metrics.counter(EXECUTED, "address", address);
+      this.missed = metrics.counter(MISSED, "address", address);
+    }
+  }
+
+  /**
+   * A queued invocation, ordered by deadline and, for equal deadlines, by submission.
+   */
+  private static final class DeadlineTask implements Runnable, Comparable<DeadlineTask> {
+    private final long deadlineNanos;
+    private final long sequence;
+    private final Runnable task;
+    private final Stats stats;
+
+    private DeadlineTask(long deadlineNanos, long sequence, Runnable task, Stats stats) {
+      this.deadlineNanos = deadlineNanos;
+      this.sequence = sequence;
+      this.task = task;
+      this.stats = stats;
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } finally {
+        stats.executed.increment();
+        if (System.nanoTime() - deadlineNanos > 0) {
+          stats.missed.increment();
+        }
+      }
+    }
+
+    @Override
+    public int compareTo(DeadlineTask other) {
+      int byDeadline = Long.compare(deadlineNanos - other.deadlineNanos, 0);
+      return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * Creates a scheduler with one worker per available processor.
+   */
+  public DeadlineScheduler() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param threads the number of worker threads
+   */
+  public DeadlineScheduler(int threads) {
+    this(threads, new MetricsRegistry());
+  }
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param threads the number of worker threads
+   * @param metrics the registry executed and missed invocations are counted in
+   */
+  public DeadlineScheduler(int threads, MetricsRegistry metrics) {
+    this.metrics = metrics;
+    AtomicLong ids = new AtomicLong();
+    this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+      new PriorityBlockingQueue<>(),
+      r -> {
+        Thread thread = new Thread(r, "DeadlineScheduler-" + ids.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    metrics.gauge(QUEUE_DEPTH, () -> workers.getQueue().size());
+  }
+
+  /**
+   * Sets the deadline of all addresses matching the pattern. If several patterns match an address,
+   * the first configured one applies.
+   *
+   * @param pattern        glob pattern of the addresses (see {@link AddressPattern})
+   * @param deadlineMillis deadline relative to the source timestamp of a message, in milliseconds
+   */
+  public void configure(String pattern, long deadlineMillis) {
+    rules.add(new Rule(AddressPattern.of(pattern), deadlineMillis));
+    deadlineByAddress.clear();
+  }
+
+  /**
+   * Queues a handler invocation for a message of the address.
+   *
+   * @param address the address of the message
+   * @param message the message, used to determine the source timestamp
+   * @param task    the handler invocation
+   */
+  public void execute(String address, Object message, Runnable task) {
+    long nowNanos = System.nanoTime();
+    long deadlineMillis = deadlineMillis(address);
+    long sourceAgeMillis = sourceAgeMillis(message);
+    long deadlineNanos = nowNanos + TimeUnit.MILLISECONDS.toNanos(deadlineMillis - sourceAgeMillis);
+    Stats stats = statsByAddress.get(address);
+    if (stats == null) {
+      stats = statsByAddress.computeIfAbsent(address, a -> new Stats(metrics, a));
+    }
+    workers.execute(new DeadlineTask(deadlineNanos, sequence.getAndIncrement(), task, stats));
+  }
+
+  /**
+   * @param address the address
+   * @return the number of executed handler invocations of the address
+   */
+  public long getExecutedCount(String address) {
+    Stats stats = statsByAddress.get(address);
+    return stats == null ? 0 : stats.executed.sum();
+  }
+
+  /**
+   * @param address the address
+   * @return the number of handler invocations of the address that completed after their deadline
+   */
+  public long getMissedCount(String address) {
+    Stats stats = statsByAddress.get(address);
+    return stats == null ? 0 : stats.missed.sum();
+  }
+
+  /**
+   * Stops all workers, discarding queued invocations.
+   */
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  private long deadlineMillis(String address) {
+    Long deadline = deadlineByAddress.get(address);
+    if (deadline != null) {
+      return deadline;
+    }
+    return deadlineByAddress.computeIfAbsent(address, a -> rules.stream()
+      .filter(rule -> rule.pattern().matches(a))
+      .findFirst()
+      .map(Rule::deadlineMillis)
+      .orElse(DEFAULT_DEADLINE_MILLIS));
+  }
+
+  /**
+   * @return the time elapsed since the source timestamp of the message, or 0 if it has none
+   */
+  private static long sourceAgeMillis(Object message) {
+    if (message instanceof Measurement measurement) {
+      return Math.max(0, TimeUnit.NANOSECONDS.toMillis(Measurement.now() - measurement.timestampNanos()));
+    }
+    if (message instanceof JSONObject json && json.has("timestamp")) {
+      try {
+        long sourceMillis = LocalDateTime.parse(json.getString("timestamp"), Timer.formatter)
+          .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.max(0, System.currentTimeMillis() - sourceMillis);
+      } catch (DateTimeParseException | JSONException e) {
+        return 0;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,267 @@
+package com.framed.core.utils;
+
+import com.framed.core.EventBus;
+import com.framed.core.Measurement;
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.metrics.HandlerMetrics;
+import com.framed.core.metrics.MetricsRegistry;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Invokes event bus handlers with failure isolation.
+ *
+ * <p>A handler that throws must neither kill the thread it runs on nor disappear silently inside an
+ * executor's future. The invoker catches every {@link Throwable} thrown by a handler and</p>
+ * <ul>
+ *   <li>counts the failure per address and handler (see {@link BusMetrics}),</li>
+ *   <li>logs it, at most once per {@link #LOG_INTERVAL_MILLIS} per address (suppressed failures are counted),</li>
+ *   <li>publishes a dead letter with the failure context if a dead-letter address is configured, and</li>
+ *   <li>optionally opens a circuit breaker for a handler that keeps failing, so that it stops consuming CPU.</li>
+ * </ul>
+ *
+ * <h2>Circuit breaker:</h2>
+ * <p>After {@code failureThreshold} consecutive failures of a handler, the breaker opens and messages for that
+ * handler are dropped (and counted as rejected) for {@code openMillis}. The next message after that period is
+ * delivered on trial: success closes the breaker, failure opens it again.</p>
+ *
+ * <h2>Dead letters:</h2>
+ * <p>A dead letter is a {@link JSONObject} with the fields {@code address}, {@code handler}, {@code error},
+ * {@code message} and {@code timestamp}. Failures of handlers registered on the dead-letter address itself are
+ * never routed to it again.</p>
+ */
+public class HandlerInvoker {
+
+  /**
+   * Minimum interval between two failure log entries of the same address.
+   */
+  public static final long LOG_INTERVAL_MILLIS = 10_000;
+
+  private final Logger logger = Logger.getLogger(getClass().getName());
+  private final EventBus eventBus;
+  private final BusMetrics metrics;
+
+  private volatile String deadLetterAddress;
+  private volatile int failureThreshold;
+  private volatile long openNanos;
+
+  private final Map<String, FailureLog> failureLogs = new ConcurrentHashMap<>();
+  private final Map<Consumer<Object>, Breaker> breakers = new ConcurrentHashMap<>();
+
+  /**
+   * Failure log throttling of a single address.
+   */
+  private static final class FailureLog {
+    private final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(LOG_INTERVAL_MILLIS));
+    private final AtomicLong suppressed = new AtomicLong();
+  }
+
+  /**
+   * Circuit breaker state of a single handler.
+   */
+  private static final class Breaker {
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean open;
+  }
+
+  /**
+   * Creates an invoker without dead-letter routing and without circuit breaking.
+   *
+   * @param eventBus the event bus dead letters are published on
+   */
+  public HandlerInvoker(EventBus eventBus) {
+    this(eventBus, new BusMetrics(new MetricsRegistry()));
+  }
+
+  /**
+   * Creates an invoker without dead-letter routing and without circuit breaking.
+   *
+   * @param eventBus the event bus dead letters are published on
+   * @param metrics  the metrics of the event bus
+   */
+  public HandlerInvoker(EventBus eventBus, BusMetrics metrics) {
+    this.eventBus = eventBus;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Sets the address failed messages are routed to.
+   *
+   * @param deadLetterAddress the dead-letter address, or {@code null} to disable routing
+   */
+  public void setDeadLetterAddress(String deadLetterAddress) {
+    this.deadLetterAddress = deadLetterAddress;
+  }
+
+  /**
+   * Configures the per-handler circuit breaker.
+   *
+   * @param failureThreshold consecutive failures that open the breaker; {@code <= 0} disables circuit breaking
+   * @param openMillis       time the breaker stays open before a trial delivery
+   */
+  public void setCircuitBreaker(int failureThreshold, long openMillis) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    if (failureThreshold <= 0) {
+      breakers.clear();
+    }
+  }
+
+  /**
+   * Delivers a message to a handler, isolating the caller from any failure of the handler.
+   *
+   * @param address the address the message was published on
+   * @param handler the handler to invoke
+   * @param message the message
+   */
+  public void invoke(String address, Consumer<Object> handler, Object message) {
+    invoke(address, handler, message, metrics.handler(address, handler));
+  }
+
+  /**
+   * Delivers a message to a handler, isolating the caller from any failure of the handler.
+   *
+   * @param address        the address the message was published on
+   * @param handler        the handler to invoke
+   * @param message        the message
+   * @param handlerMetrics the metrics of the handler, as resolved on registration
+   */
+  public void invoke(String address, Consumer<Object> handler, Object message, HandlerMetrics handlerMetrics) {
+    Breaker breaker = breakers.isEmpty() ? null : breakers.get(handler);
+    if (breaker != null && rejects(breaker)) {
+      handlerMetrics.rejected();
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      handler.accept(message);
+      handlerMetrics.delivered(System.nanoTime() - start);
+      if (breaker != null) {
+        onSuccess(address, handler, breaker);
+      }
+    } catch (Throwable t) {
+      handlerMetrics.failed(System.nanoTime() - start);
+      onFailure(address, handler, message, t);
+    }
+  }
+
+  /**
+   * Discards the circuit breaker state of a handler, e.g. after it was unregistered.
+   *
+   * @param handler the handler
+   */
+  public void forget(Consumer<Object> handler) {
+    breakers.remove(handler);
+  }
+
+  /**
+   * @param address the address
+   * @return the number of failed handler invocations on the address
+   */
+  public long getFailureCount(String address) {
+    return metrics.getRegistry().sum(BusMetrics.FAILED, "address", address);
+  }
+
+  /**
+   * @param address the address
+   * @return the number of messages dropped on the address because a handler's circuit breaker was open
+   */
+  public long getRejectedCount(String address) {
+    return metrics.getRegistry().sum(BusMetrics.REJECTED, "address", address);
+  }
+
+  private boolean rejects(Breaker breaker) {
+    synchronized (breaker) {
+      return breaker.open && System.nanoTime() - breaker.openUntilNanos < 0;
+    }
+  }
+
+  private void onSuccess(String address, Consumer<Object> handler, Breaker breaker) {
+    boolean closed;
+    synchronized (breaker) {
+      closed = breaker.open;
+      breaker.open = false;
+      breaker.consecutiveFailures = 0;
+    }
+    breakers.remove(handler, breaker);
+    if (closed) {
+      logger.info("Circuit breaker of handler %s on address %s closed.".formatted(handlerName(handler), address));
+    }
+  }
+
+  private void onFailure(String address, Consumer<Object> handler, Object message, Throwable t) {
+    log(address, handler, t, failureLog(address));
+    routeToDeadLetter(address, handler, message, t);
+
+    int threshold = failureThreshold;
+    if (threshold <= 0) {
+      return;
+    }
+    Breaker breaker = breakers.computeIfAbsent(handler, h -> new Breaker());
+    boolean opened = false;
+    synchronized (breaker) {
+      breaker.consecutiveFailures++;
+      if (breaker.consecutiveFailures >= threshold) {
+        opened = !breaker.open;
+        breaker.open = true;
+        breaker.openUntilNanos = System.nanoTime() + openNanos;
+      }
+    }
+    if (opened) {
+      logger.warning("Circuit breaker of handler %s on address %s opened after %d consecutive failures."
+        .formatted(handlerName(handler), address, threshold));
+    }
+  }
+
+  private void log(String address, Consumer<Object> handler, Throwable t, FailureLog failures) {
+    long now = System.nanoTime();
+    long last = failures.lastLogNanos.get();
+    if (now - last >= TimeUnit.MILLISECONDS.toNanos(LOG_INTERVAL_MILLIS) && failures.lastLogNanos.compareAndSet(last, now)) {
+      long suppressed = failures.suppressed.getAndSet(0);
+      logger.log(Level.WARNING, "Handler %s on address %s failed (%d similar failures suppressed): %s"
+        .formatted(handlerName(handler), address, suppressed, t), t);
+    } else {
+      failures.suppressed.incrementAndGet();
+    }
+  }
+
+  private void routeToDeadLetter(String address, Consumer<Object> handler, Object message, Throwable t) {
+    String target = deadLetterAddress;
+    if (target == null || target.equals(address)) {
+      return;
+    }
+    JSONObject letter = new JSONObject();
+    letter.put("address", address);
+    letter.put("handler", handlerName(handler));
+    letter.put("error", t.toString());
+    letter.put("message", switch (message) {
+      case Measurement measurement -> measurement.toJson();
+      case JSONObject json -> json;
+      case null, default -> String.valueOf(message);
+    });
+    letter.put("timestamp", LocalDateTime.now().format(Timer.formatter));
+    try {
+      eventBus.publish(target, letter);
+    } catch (RuntimeException e) {
+      logger.warning("Failed to publish dead letter for address %s: %s".formatted(address, e));
+    }
+  }
+
+  private FailureLog failureLog(String address) {
+    FailureLog failureLog = failureLogs.get(address);
+    return failureLog != null ? failureLog : failureLogs.computeIfAbsent(address, a -> new FailureLog());
+  }
+
+  private static String handlerName(Consumer<Object> handler) {
+    return BusMetrics.handlerName(handler);
+  }
+}
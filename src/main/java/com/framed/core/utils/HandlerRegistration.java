@@ -0,0 +1,146 @@
+package com.framed.core.utils;
+
+import com.framed.core.Registration;
+import com.framed.core.metrics.HandlerMetrics;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * {@link Registration} of a handler, as used by the event buses and transports.
+ *
+ * <p>Registrations are compared by identity, so the same handler can be registered several times and each
+ * registration is removed separately. The removal callback runs once, on the first {@link #close()}.</p>
+ *
+ * <p>While the cached messages of a replayed address are delivered to a new registration (see {@link ReplayCache}),
+ * live messages are held and delivered after them; live messages that were part of the replay are skipped.</p>
+ */
+public final class HandlerRegistration implements Registration {
+
+  private final String address;
+  private final Consumer<Object> handler;
+  private final HandlerMetrics metrics;
+  private final Consumer<HandlerRegistration> onClose;
+  private final AtomicBoolean active = new AtomicBoolean(true);
+
+  /** Live messages held during the replay, {@code null} otherwise. Guarded by this. */
+  private ArrayDeque<Held> held;
+
+  /** Whether live messages are held, checked without the monitor. */
+  private volatile boolean holding;
+
+  /** Sequence number of the last replayed message; live messages up to it were replayed already. */
+  private volatile long replayedThrough;
+
+  private record Held(Object message, long sequence) {
+  }
+
+  /**
+   * @param address the address the handler is registered on
+   * @param handler the handler
+   * @param onClose removes the handler from its bus or transport
+   */
+  public HandlerRegistration(String address, Consumer<Object> handler, Consumer<HandlerRegistration> onClose) {
+    this(address, handler, null, onClose);
+  }
+
+  /**
+   * @param address the address the handler is registered on
+   * @param handler the handler
+   * @param metrics the metrics of the handler, may be {@code null}
+   * @param onClose removes the handler from its bus or transport
+   */
+  public HandlerRegistration(String address, Consumer<Object> handler, HandlerMetrics metrics,
+                             Consumer<HandlerRegistration> onClose) {
+    this.address = address;
+    this.handler = handler;
+    this.metrics = metrics;
+    this.onClose = onClose;
+  }
+
+  @Override
+  public String address() {
+    return address;
+  }
+
+  /**
+   * @return the registered handler
+   */
+  public Consumer<Object> handler() {
+    return handler;
+  }
+
+  /**
+   * @return the metrics of the handler, {@code null} if the registration is not instrumented
+   */
+  public HandlerMetrics metrics() {
+    return metrics;
+  }
+
+  /**
+   * Holds live messages until {@link #endReplay} is called. To be called before the registration is added.
+   */
+  public void holdForReplay() {
+    synchronized (this) {
+      held = new ArrayDeque<>();
+      holding = true;
+    }
+  }
+
+  /**
+   * Decides whether a live message is delivered now.
+   *
+   * @param message  the message
+   * @param sequence its number from {@link ReplayCache#record}, 0 if the address is not cached
+   * @return {@code true} if the message is held until the replay ended or was part of the replay, {@code false} if
+   *         it is to be delivered now
+   */
+  public boolean heldOrReplayed(Object message, long sequence) {
+    if (holding) {
+      synchronized (this) {
+        if (held != null) {
+          held.add(new Held(message, sequence));
+          return true;
+        }
+      }
+    }
+    return sequence != 0 && sequence <= replayedThrough;
+  }
+
+  /**
+   * Ends the replay: delivers the held live messages that were not part of it, in order, without holding a lock.
+   *
+   * @param through sequence number of the last replayed message, see {@link ReplayCache.Replay#through()}
+   * @param deliver delivers a message to the handler
+   */
+  public void endReplay(long through, Consumer<Object> deliver) {
+    replayedThrough = through;
+    while (true) {
+      Held next;
+      synchronized (this) {
+        next = held == null ? null : held.poll();
+        if (next == null) {
+          held = null;
+          holding = false;
+          return;
+        }
+      }
+      if (next.sequence() == 0 || next.sequence() > through) {
+        deliver.accept(next.message());
+      }
+    }
+  }
+
+  @Override
+  public boolean isActive() {
+    return active.get();
+  }
+
+  @Override
+  public void close() {
+    if (active.compareAndSet(true, false)) {
+      onClose.accept(this);
+    }
+  }
+}
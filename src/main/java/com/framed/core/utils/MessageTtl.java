@@ -0,0 +1,114 @@
+package com.framed.core.utils;
+
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.metrics.MetricsRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-address time-to-live of queued messages.
+ *
+ * <p>For real-time addresses (waveforms, CDSS inputs), a message that waited in a dispatch queue for longer than
+ * its TTL only delays fresher data. Tasks handed to an executor are wrapped via {@link #wrap(String, Runnable)},
+ * which records the enqueue time; when the task is dequeued after its TTL expired, it is dropped and counted
+ * instead of run (see {@link BusMetrics#EXPIRED}).</p>
+ *
+ * <p>TTLs are configured by {@link AddressPattern}. Addresses without a matching pattern are never dropped
+ * and their tasks are not wrapped.</p>
+ */
+public class MessageTtl {
+
+  private static final long NO_TTL = 0;
+
+  private final MetricsRegistry metrics;
+  private final List<Rule> rules = new CopyOnWriteArrayList<>();
+  private final Map<String, Long> ttlByAddress = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> expiredByAddress = new ConcurrentHashMap<>();
+
+  /**
+   * TTL of the addresses matching a pattern.
+   */
+  private record Rule(AddressPattern pattern, long ttlNanos) {
+  }
+
+  /**
+   * Creates a TTL policy counting expired messages in a registry of its own.
+   */
+  public MessageTtl() {
+    this(new MetricsRegistry());
+  }
+
+  /**
+   * @param metrics the registry expired messages are counted in
+   */
+  public MessageTtl(MetricsRegistry metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Sets the TTL of all addresses matching the pattern. If several patterns match an address,
+   * the first configured one applies.
+   *
+   * @param pattern   glob pattern of the addresses (see {@link AddressPattern})
+   * @param ttlMillis maximum queueing time in milliseconds, must be positive
+   * @throws IllegalArgumentException if {@code ttlMillis} is not positive
+   */
+  public void configure(String pattern, long ttlMillis) {
+    if (ttlMillis <= 0) {
+      throw new IllegalArgumentException("ttlMillis must be positive, was %d".formatted(ttlMillis));
+    }
+    rules.add(new Rule(AddressPattern.of(pattern), TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+    ttlByAddress.clear();
+  }
+
+  /**
+   * Wraps a dispatch task of the address so that it is dropped if dequeued after the TTL.
+   *
+   * @param address the address of the dispatched message
+   * @param task    the task delivering the message
+   * @return a task checking the TTL at execution time, or {@code task} itself if the address has no TTL
+   */
+  public Runnable wrap(String address, Runnable task) {
+    long ttlNanos = ttlNanos(address);
+    if (ttlNanos == NO_TTL) {
+      return task;
+    }
+    long enqueued = System.nanoTime();
+    return () -> {
+      if (System.nanoTime() - enqueued > ttlNanos) {
+        expiredByAddress.computeIfAbsent(address, a -> metrics.counter(BusMetrics.EXPIRED, "address", a)).increment();
+        return;
+      }
+      task.run();
+    };
+  }
+
+  /**
+   * @param address the address
+   * @return the number of messages on the address dropped because their TTL expired in a queue
+   */
+  public long getExpiredCount(String address) {
+    LongAdder expired = expiredByAddress.get(address);
+    return expired == null ? 0 : expired.sum();
+  }
+
+  private long ttlNanos(String address) {
+    if (rules.isEmpty()) {
+      return NO_TTL;
+    }
+    Long ttl = ttlByAddress.get(address);
+    if (ttl != null) {
+      return ttl;
+    }
+    return ttlByAddress.computeIfAbsent(address, a -> rules.stream()
+      .filter(rule -> rule.pattern().matches(a))
+      .findFirst()
+      .map(Rule::ttlNanos)
+      .orElse(NO_TTL));
+  }
+}
@@ -0,0 +1,190 @@
+package com.framed.core.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outstanding requests awaiting their reply, keyed by correlation id.
+ *
+ * <p>Timeouts are kept on a hashed timer wheel instead of one scheduled task per request: adding and completing a
+ * request is O(1), and a single ticker expires one bucket per tick. Completed requests stay on the wheel until their
+ * bucket comes up and are skipped then. Timeouts therefore fire with a granularity of one tick
+ * ({@link #DEFAULT_TICK_MILLIS}).</p>
+ *
+ * <p>The ticker only runs while requests are on the wheel.</p>
+ */
+public class PendingRequests {
+
+  /**
+   * Resolution of the timeouts.
+   */
+  public static final long DEFAULT_TICK_MILLIS = 10;
+
+  /**
+   * Number of buckets; timeouts longer than one revolution wait for several rounds in their bucket.
+   */
+  public static final int DEFAULT_WHEEL_SIZE = 512;
+
+  private static final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "PendingRequests-Ticker");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final long tickNanos;
+  private final long startNanos = System.nanoTime();
+  private final Bucket[] wheel;
+  private final Map<Long, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+  private final AtomicInteger scheduled = new AtomicInteger();
+  private long lastTick = -1; // accessed by the ticker thread only
+  private ScheduledFuture<?> tickTask; // guarded by this
+
+  /**
+   * Timeout of a single request.
+   */
+  private record Timeout(long correlationId, long deadlineTick, long timeoutMillis, CompletableFuture<Object> future) {
+  }
+
+  /**
+   * Timeouts hashed to the same slot of the wheel. Guarded by its own monitor.
+   */
+  private static final class Bucket {
+    private final List<Timeout> timeouts = new ArrayList<>();
+    private long expiredUpTo = -1;
+  }
+
+  /**
+   * Creates a wheel with {@link #DEFAULT_TICK_MILLIS} and {@link #DEFAULT_WHEEL_SIZE}.
+   */
+  public PendingRequests() {
+    this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+  }
+
+  /**
+   * @param tickMillis resolution of the timeouts in milliseconds, must be positive
+   * @param wheelSize  number of buckets, rounded up to a power of two
+   */
+  public PendingRequests(long tickMillis, int wheelSize) {
+    if (tickMillis <= 0) {
+      throw new IllegalArgumentException("tickMillis must be positive, was %d".formatted(tickMillis));
+    }
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+    this.wheel = new Bucket[Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1];
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = new Bucket();
+    }
+  }
+
+  /**
+   * Adds a request.
+   *
+   * @param correlationId the id the reply will carry
+   * @param timeoutMillis time after which the request fails with a {@link TimeoutException}
+   * @return the future completed by {@link #complete} or {@link #fail}
+   */
+  public CompletableFuture<Object> add(long correlationId, long timeoutMillis) {
+    CompletableFuture<Object> future = new CompletableFuture<>();
+    pending.put(correlationId, future);
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis)) - startNanos;
+    long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+    Bucket bucket = wheel[(int) (deadlineTick & (wheel.length - 1))];
+    boolean expired;
+    synchronized (bucket) {
+      expired = deadlineTick <= bucket.expiredUpTo; // the ticker already passed the slot
+      if (!expired) {
+        bucket.timeouts.add(new Timeout(correlationId, deadlineTick, timeoutMillis, future));
+        scheduled.incrementAndGet();
+      }
+    }
+    if (expired) {
+      expire(correlationId, timeoutMillis, future);
+    } else {
+      ensureTicking();
+    }
+    return future;
+  }
+
+  /**
+   * Completes a request with its reply.
+   *
+   * @param correlationId the id of the request
+   * @param reply         the reply
+   * @return {@code false} if the request is unknown, e.g. because it timed out
+   */
+  public boolean complete(long correlationId, Object reply) {
+    CompletableFuture<Object> future = pending.remove(correlationId);
+    return future != null && future.complete(reply);
+  }
+
+  /**
+   * Fails a request.
+   *
+   * @param correlationId the id of the request
+   * @param error         the failure
+   * @return {@code false} if the request is unknown, e.g. because it timed out
+   */
+  public boolean fail(long correlationId, Throwable error) {
+    CompletableFuture<Object> future = pending.remove(correlationId);
+    return future != null && future.completeExceptionally(error);
+  }
+
+  /**
+   * @return the number of requests awaiting their reply
+   */
+  public int size() {
+    return pending.size();
+  }
+
+  private synchronized void ensureTicking() {
+    if (tickTask == null) {
+      tickTask = ticker.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Expires the buckets of all ticks since the previous run; after an idle period at most one revolution.
+   */
+  private void tick() {
+    long now = (System.nanoTime() - startNanos) / tickNanos;
+    for (long tick = Math.max(lastTick + 1, now - wheel.length + 1); tick <= now; tick++) {
+      expireBucket(tick);
+    }
+    lastTick = now;
+    synchronized (this) {
+      if (scheduled.get() == 0 && tickTask != null) {
+        tickTask.cancel(false);
+        tickTask = null;
+      }
+    }
+  }
+
+  private void expireBucket(long tick) {
+    Bucket bucket = wheel[(int) (tick & (wheel.length - 1))];
+    List<Timeout> expired = new ArrayList<>();
+    synchronized (bucket) {
+      bucket.expiredUpTo = tick;
+      Iterator<Timeout> timeouts = bucket.timeouts.iterator();
+      while (timeouts.hasNext()) {
+        Timeout timeout = timeouts.next();
+        if (timeout.deadlineTick() <= tick) {
+          timeouts.remove();
+          expired.add(timeout);
+        }
+      }
+    }
+    scheduled.addAndGet(-expired.size());
+    for (Timeout timeout : expired) {
+      expire(timeout.correlationId(), timeout.timeoutMillis(), timeout.future());
+    }
+  }
+
+  private void expire(long correlationId, long timeoutMillis, CompletableFuture<Object> future) {
+    if (pending.remove(correlationId, future)) {
+      future.completeExceptionally(new TimeoutException("No reply to request %d within %d ms".formatted(correlationId, timeoutMillis)));
+    }
+  }
+}
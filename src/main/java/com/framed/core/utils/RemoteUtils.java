@@ -1,11 +1,14 @@
 package com.framed.core.utils;
 
+import com.framed.core.Registration;
+import com.framed.core.codec.CodecRegistry;
 import com.framed.core.remote.RemoteMessage;
 import org.jetbrains.annotations.NotNull;
 import org.json.JSONObject;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
@@ -15,51 +18,128 @@ public class RemoteUtils {
     throw new IllegalStateException("Utility class");
   }
 
+  /**
+   * Builds the JSON envelope sent by the transports.
+   * <p>JSON values (strings, numbers, booleans, JSON objects and arrays) are embedded as is. Other payloads with a
+   * {@link MessageCodec} are embedded in their JSON form (e.g. {@link com.framed.core.Measurement#toJson()}), or
+   * Base64-encoded if they have none (e.g. {@code byte[]}), and marked with the codec name, so that the receiving side
+   * restores their type.</p>
+   *
+   * @param address the message address
+   * @param message the message payload
+   * @param type    the message type ("send" or "publish")
+   * @return the envelope
+   */
+  @NotNull
+  public static JSONObject toEnvelope(String address, Object message, String type) {
+    JSONObject json = new JSONObject();
+    json.put("address", address);
+    CodecRegistry.getDefault().putPayload(json, message);
+    json.put("type", type);
+    return json;
+  }
+
   @NotNull
   public static RemoteMessage parseMessage(String jsonStr) {
     JSONObject json = new JSONObject(jsonStr);
     String address = json.getString("address");
-    Object payload = json.get("payload");
+    Object payload = CodecRegistry.getDefault().getPayload(json);
     String type = json.getString("type");
     return new RemoteMessage(address, payload, type);
   }
 
+  /**
+   * Adds a transport handler for an address.
+   *
+   * @param address  the address
+   * @param handler  the handler, receiving the messages with their envelope
+   * @param handlers the handlers of the transport, by address
+   * @return a handle removing the handler when closed
+   */
+  public static Registration registerHandler(String address, Consumer<RemoteMessage> handler,
+                                             Map<String, List<Consumer<RemoteMessage>>> handlers) {
+    return registerHandler(address, handler, handlers, null);
+  }
+
+  /**
+   * Adds a transport handler for an address, with a single-thread executor of its own. Closing the
+   * registration removes the handler and shuts the executor down.
+   * <p>Each registration adds its own entry to the handlers, so the same handler can be registered on several
+   * addresses (or several times on one) and every registration keeps its executor until it is closed.</p>
+   *
+   * @param address          the address
+   * @param handler          the handler, receiving the messages with their envelope
+   * @param handlers         the handlers of the transport, by address
+   * @param handlerExecutors the executors of the transport, by handler entry; {@code null} if handlers have no
+   *                         executor
+   * @return a handle removing the handler when closed
+   */
+  public static Registration registerHandler(String address, Consumer<RemoteMessage> handler,
+                                             Map<String, List<Consumer<RemoteMessage>>> handlers,
+                                             Map<Consumer<RemoteMessage>, ExecutorService> handlerExecutors) {
+    // a distinct entry per registration, the key of its executor
+    Consumer<RemoteMessage> entry = message -> handler.accept(message);
+    if (handlerExecutors != null) {
+      handlerExecutors.put(entry, Executors.newSingleThreadExecutor());
+    }
+    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(entry);
+    return new HandlerRegistration(address, message -> handler.accept((RemoteMessage) message), registration -> {
+      handlers.computeIfPresent(address, (a, list) -> {
+        list.remove(entry);
+        return list.isEmpty() ? null : list;
+      });
+      if (handlerExecutors != null) {
+        ExecutorService executor = handlerExecutors.remove(entry);
+        if (executor != null) {
+          executor.shutdown();
+        }
+      }
+    });
+  }
+
   /**
    * Parses a JSON message and submits it to registered handlers, creating a thread per handler.
+   * A {@code send} is submitted to the first handler only.
    *
    * @param jsonStr    the JSON string representing the message to parse and dispatch
    * @param workerPool the workerPool of the Transport
    */
-  public static void parseAndDispatchAsync(String jsonStr, Map<String, List<Consumer<Object>>> handlers, ExecutorService workerPool) {
+  public static void parseAndDispatchAsync(String jsonStr, Map<String, List<Consumer<RemoteMessage>>> handlers, ExecutorService workerPool) {
     RemoteMessage result = RemoteUtils.parseMessage(jsonStr);
 
-    List<Consumer<Object>> list = handlers.get(result.address());
+    List<Consumer<RemoteMessage>> list = handlers.get(result.address());
     if (list != null) {
       if ("send".equals(result.type()) && !list.isEmpty()) {
-        workerPool.submit(() -> list.get(0).accept(result.payload()));
+        Consumer<RemoteMessage> handler = list.get(0);
+        workerPool.execute(() -> handler.accept(result));
       } else {
-        for (Consumer<Object> handler : list) {
-          workerPool.submit(() -> handler.accept(result.payload()));
+        for (Consumer<RemoteMessage> handler : list) {
+          workerPool.execute(() -> handler.accept(result));
         }
       }
     }
   }
 
   /**
-   * Parses a JSON message and submits it to registered handlers.
+   * Parses a JSON message and submits it to registered handlers. A {@code send} is submitted to the first handler
+   * only.
    *
    * @param jsonStr the JSON string representing the message to parse and dispatch
    */
   public static void parseAndDispatch(String jsonStr,
-                                      Map<String, List<Consumer<Object>>> handlers,
-                                      Map<Consumer<Object>, ExecutorService> handlerExecutors) {
+                                      Map<String, List<Consumer<RemoteMessage>>> handlers,
+                                      Map<Consumer<RemoteMessage>, ExecutorService> handlerExecutors) {
     RemoteMessage result = RemoteUtils.parseMessage(jsonStr);
-    List<Consumer<Object>> list = handlers.get(result.address());
+    List<Consumer<RemoteMessage>> list = handlers.get(result.address());
     if (list != null) {
-      for (Consumer<Object> handler : list) {
-        handlerExecutors.computeIfAbsent(handler, h ->
-          Executors.newSingleThreadExecutor(r -> new Thread(r, "Handler-" + h.hashCode()))
-        ).submit(() -> handler.accept(result.payload()));
+      for (Consumer<RemoteMessage> handler : list) {
+        ExecutorService executor = handlerExecutors.get(handler);
+        if (executor != null) { // null if the handler was removed concurrently
+          executor.execute(() -> handler.accept(result));
+        }
+        if ("send".equals(result.type())) {
+          break;
+        }
       }
     }
 
@@ -0,0 +1,249 @@
+package com.framed.core.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Bounded per-address cache of recent messages, replayed to late subscribers.
+ *
+ * <p>Services that register after a stream has started (e.g. due to the {@code Manager.instantiate} order) or
+ * peers that (re)connect would otherwise start with an empty state. For every address matching a configured
+ * {@link AddressPattern}, the cache keeps a ring of the last {@code maxMessages} messages, optionally restricted to
+ * those younger than {@code maxAgeMillis}, and replays them on subscription.</p>
+ *
+ * <h2>Exactly once:</h2>
+ * <p>Each cached message gets a sequence number, increasing across all addresses. {@link #record(String, Object)}
+ * only appends to the ring under its lock and returns the number; the caller dispatches afterwards, without holding
+ * any lock of the cache. {@link #subscribe(String, Runnable)} registers a subscriber and takes the messages to replay
+ * under the same lock and returns them with the number of the last one. A live dispatch with a number up to it was
+ * part of the replay and is skipped for that subscriber (see {@link HandlerRegistration#heldOrReplayed}), so a new
+ * subscriber receives every message exactly once. {@link #replayAll(LongConsumer)} does the same for peers, with
+ * the number of the last message recorded on any address. Messages of addresses without a matching pattern get
+ * number 0 and are neither cached nor locked.</p>
+ */
+public class ReplayCache {
+
+  private final List<Policy> policies = new CopyOnWriteArrayList<>();
+  private final Map<String, Optional<Ring>> rings = new ConcurrentHashMap<>();
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Taken shared by {@link #record} and {@link #subscribe}, exclusively by {@link #replayAll}.
+   */
+  private final ReadWriteLock replayLock = new ReentrantReadWriteLock();
+
+  /**
+   * Cache policy for the addresses matching a pattern.
+   */
+  private record Policy(AddressPattern pattern, int maxMessages, long maxAgeNanos) {
+  }
+
+  /**
+   * Ring of recent messages of a single address. Guarded by its own monitor.
+   */
+  private static final class Ring {
+    private final int maxMessages;
+    private final long maxAgeNanos;
+    private final ArrayDeque<Entry> entries;
+    private long lastSequence;
+
+    private Ring(Policy policy) {
+      this.maxMessages = policy.maxMessages();
+      this.maxAgeNanos = policy.maxAgeNanos();
+      this.entries = new ArrayDeque<>(maxMessages);
+    }
+
+    private void add(Object message, boolean remote, long sequence) {
+      if (entries.size() == maxMessages) {
+        entries.pollFirst();
+      }
+      entries.addLast(new Entry(message, System.nanoTime(), remote));
+      lastSequence = sequence;
+    }
+
+    private List<Entry> snapshot() {
+      if (maxAgeNanos > 0) {
+        long now = System.nanoTime();
+        while (!entries.isEmpty() && now - entries.peekFirst().nanos() > maxAgeNanos) {
+          entries.pollFirst();
+        }
+      }
+      return new ArrayList<>(entries);
+    }
+  }
+
+  /**
+   * A cached message with its recording time and whether it was received from a remote peer.
+   */
+  private record Entry(Object message, long nanos, boolean remote) {
+  }
+
+  /**
+   * The messages replayed to a new subscriber.
+   *
+   * @param messages the cached messages of the address, oldest first
+   * @param through  sequence number of the last recorded message of the address, 0 if there is none
+   */
+  public record Replay(List<Object> messages, long through) {
+  }
+
+  /**
+   * A cached message of an address, as replayed to a new peer.
+   *
+   * @param address the address
+   * @param message the message
+   */
+  public record CachedMessage(String address, Object message) {
+  }
+
+  /**
+   * Enables caching for all addresses matching the pattern. If several patterns match an address,
+   * the first configured one applies.
+   *
+   * @param pattern      glob pattern of the addresses to cache (see {@link AddressPattern})
+   * @param maxMessages  number of messages kept per address, must be positive
+   * @param maxAgeMillis maximum age of replayed messages in milliseconds; {@code <= 0} replays regardless of age
+   * @throws IllegalArgumentException if {@code maxMessages} is not positive
+   */
+  public void configure(String pattern, int maxMessages, long maxAgeMillis) {
+    if (maxMessages <= 0) {
+      throw new IllegalArgumentException("maxMessages must be positive, was %d".formatted(maxMessages));
+    }
+    policies.add(new Policy(AddressPattern.of(pattern), maxMessages, TimeUnit.MILLISECONDS.toNanos(maxAgeMillis)));
+    rings.clear();
+  }
+
+  /**
+   * Records a locally sent or published message, to be dispatched by the caller afterwards.
+   *
+   * @param address the address the message is sent or published on
+   * @param message the message
+   * @return the sequence number of the message, 0 if the address is not cached
+   */
+  public long record(String address, Object message) {
+    return record(address, message, false);
+  }
+
+  /**
+   * Records a message received from a remote peer, to be dispatched by the caller afterwards. Such messages are
+   * replayed to local subscribers, but not to peers via {@link #replayAll}.
+   *
+   * @param address the address the message was received on
+   * @param message the message
+   * @return the sequence number of the message, 0 if the address is not cached
+   */
+  public long recordRemote(String address, Object message) {
+    return record(address, message, true);
+  }
+
+  private long record(String address, Object message, boolean remote) {
+    Ring ring = ring(address);
+    if (ring == null) {
+      return 0;
+    }
+    replayLock.readLock().lock();
+    try {
+      synchronized (ring) {
+        long number = sequence.incrementAndGet();
+        ring.add(message, remote, number);
+        return number;
+      }
+    } finally {
+      replayLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Registers a subscriber and takes the cached messages of the address to replay to it. The caller delivers them
+   * after this method returned, before the live messages held meanwhile.
+   *
+   * @param address      the address
+   * @param registration adds the subscriber, so that it receives subsequently recorded messages; must not block
+   * @return the messages to replay to the new subscriber only
+   */
+  public Replay subscribe(String address, Runnable registration) {
+    Ring ring = ring(address);
+    if (ring == null) {
+      registration.run();
+      return new Replay(List.of(), 0);
+    }
+    replayLock.readLock().lock();
+    try {
+      synchronized (ring) {
+        registration.run();
+        return new Replay(ring.snapshot().stream().map(Entry::message).toList(), ring.lastSequence);
+      }
+    } finally {
+      replayLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Attaches a subscriber to all addresses at once (e.g. a newly connected peer) and takes all locally recorded
+   * messages to replay to it. No message can be recorded in between.
+   *
+   * @param attachment adds the subscriber, given the sequence number of the last recorded message; live messages up
+   *                   to it are part of the replay. Must not block.
+   * @return the messages to replay to the new subscriber only, oldest first per address
+   */
+  public List<CachedMessage> replayAll(LongConsumer attachment) {
+    List<CachedMessage> replay = new ArrayList<>();
+    replayLock.writeLock().lock();
+    try {
+      attachment.accept(sequence.get());
+      rings.forEach((address, ring) -> ring.ifPresent(r -> {
+        synchronized (r) {
+          for (Entry entry : r.snapshot()) {
+            if (!entry.remote()) {
+              replay.add(new CachedMessage(address, entry.message()));
+            }
+          }
+        }
+      }));
+    } finally {
+      replayLock.writeLock().unlock();
+    }
+    return replay;
+  }
+
+  /**
+   * @param address the address
+   * @return the cached messages of the address, oldest first
+   */
+  public List<Object> snapshot(String address) {
+    Ring ring = ring(address);
+    if (ring == null) {
+      return List.of();
+    }
+    synchronized (ring) {
+      return ring.snapshot().stream().map(Entry::message).toList();
+    }
+  }
+
+  /**
+   * Resolves the ring of an address, memoizing addresses that are not cached.
+   */
+  private Ring ring(String address) {
+    if (policies.isEmpty()) {
+      return null;
+    }
+    Optional<Ring> ring = rings.get(address);
+    if (ring != null) {
+      return ring.orElse(null);
+    }
+    return rings.computeIfAbsent(address, a -> policies.stream()
+      .filter(policy -> policy.pattern().matches(a))
+      .findFirst()
+      .map(Ring::new)).orElse(null);
+  }
+}
@@ -1,5 +1,7 @@
 package com.framed.orchestrator;
 
+import com.framed.core.metrics.MetricsHttpServer;
+import com.framed.core.metrics.MetricsRegistry;
 import com.framed.core.remote.*;
 import com.framed.core.utils.DispatchMode;
 import org.json.JSONObject;
@@ -29,18 +31,11 @@ public class Main {
     }
 
     //initialize EventBus by config, using TCP or UDP remote transportation protocols
-    Transport transport;
-    int port = communicationConfig.getInt("port");
-
-    if (communicationConfig.getString("type").equals("TCP")) {
-      transport = new NioTcpTransport(port);
-    } else if (communicationConfig.getString("type").equals("UDP")) {
-      transport = new NioUdpTransport(port);
-    } else {
-      logger.warning("Invalid communication type config, using blocking TCP instead...");
-      transport = new TCPTransport(port);
-    }
-    SocketEventBus eventBus = new SocketEventBus(transport, DispatchMode.PER_HANDLER);
+    Transport transport = createTransport(communicationConfig.getString("type"), communicationConfig.getInt("port"));
+    DispatchMode dispatchMode = DispatchMode.valueOf(communicationConfig.optString("dispatchMode", DispatchMode.PER_HANDLER.name()));
+    SocketEventBus eventBus = new SocketEventBus(transport, dispatchMode, MetricsRegistry.getDefault());
+
+    configure(eventBus, communicationConfig);
 
     // add configured peers (remote SocketEventBus instances)
     if (communicationConfig.has("peers")) {
@@ -50,6 +45,18 @@ public class Main {
       }
     }
 
+    // optional periodic publication of metric snapshots on framed.metrics
+    if (communicationConfig.has("metricsIntervalMillis")) {
+      MetricsRegistry.getDefault().publishTo(eventBus, communicationConfig.getLong("metricsIntervalMillis"));
+    }
+
+    // optional OpenMetrics endpoint on http://<host>:<metricsPort>/metrics
+    MetricsHttpServer metricsServer = communicationConfig.has("metricsPort")
+      ? new MetricsHttpServer(MetricsRegistry.getDefault(), communicationConfig.getInt("metricsPort")) : null;
+    if (metricsServer != null) {
+      metricsServer.start();
+    }
+
     // instantiate all configured service, including DFCN actors
     Manager manager = new Manager(servicesConfigs, eventBus);
     for (String key : servicesConfigs.keySet()) {
@@ -63,6 +70,9 @@ public class Main {
       // Add shutdown hook to stop all services cleanly
     Runtime.getRuntime().addShutdownHook(new Thread(() -> {
       try {
+        if (metricsServer != null) {
+          metricsServer.stop();
+        }
         logger.info("Shutting down EventBus...");
         eventBus.shutdown();
         logger.info("Shutting down managed services...");
@@ -81,5 +91,63 @@ public class Main {
     }
 
   }
-}
 
+  /**
+   * @param type the configured communication type, {@code TCP} or {@code UDP}
+   * @param port the port to listen on, 0 for an ephemeral port
+   * @return the NIO transport of the type, the blocking TCP transport for unknown types
+   * @throws IOException if the port cannot be bound
+   */
+  public static Transport createTransport(String type, int port) throws IOException {
+    if (type.equals("TCP")) {
+      return new NioTcpTransport(port);
+    } else if (type.equals("UDP")) {
+      return new NioUdpTransport(port);
+    }
+    logger.warning("Invalid communication type config, using blocking TCP instead...");
+    return new TCPTransport(port);
+  }
+
+  /**
+   * Applies the optional dispatch settings of a communication config to an event bus: dead-letter address,
+   * circuit breaker, replay, TTLs and deadlines. Peers and metrics exposition are left to the caller.
+   *
+   * @param eventBus            the event bus
+   * @param communicationConfig the validated communication config
+   */
+  public static void configure(SocketEventBus eventBus, JSONObject communicationConfig) {
+    // optional handler failure handling: dead-letter routing and circuit breaking (both opt-in, off by default)
+    if (communicationConfig.has("deadLetterAddress")) {
+      eventBus.setDeadLetterAddress(communicationConfig.getString("deadLetterAddress"));
+    }
+    if (communicationConfig.has("circuitBreaker")) {
+      JSONObject breakerConfig = communicationConfig.getJSONObject("circuitBreaker");
+      eventBus.setCircuitBreaker(breakerConfig.getInt("failureThreshold"), breakerConfig.getLong("openMillis"));
+    }
+
+    // optional replay of recent messages to late subscribers and new peers (opt-in, off by default)
+    if (communicationConfig.has("replay")) {
+      for (Object replay : communicationConfig.getJSONArray("replay")) {
+        JSONObject replayConfig = (JSONObject) replay;
+        eventBus.setReplay(replayConfig.getString("pattern"), replayConfig.getInt("maxMessages"),
+          replayConfig.optLong("maxAgeMillis", 0));
+      }
+    }
+
+    // optional TTL of queued messages on real-time addresses
+    if (communicationConfig.has("ttl")) {
+      for (Object ttl : communicationConfig.getJSONArray("ttl")) {
+        JSONObject ttlConfig = (JSONObject) ttl;
+        eventBus.setTtl(ttlConfig.getString("pattern"), ttlConfig.getLong("ttlMillis"));
+      }
+    }
+
+    // optional per-address deadlines for earliest-deadline-first dispatch (requires dispatchMode DEADLINE)
+    if (communicationConfig.has("deadlines")) {
+      for (Object deadline : communicationConfig.getJSONArray("deadlines")) {
+        JSONObject deadlineConfig = (JSONObject) deadline;
+        eventBus.setDeadline(deadlineConfig.getString("pattern"), deadlineConfig.getLong("deadlineMillis"));
+      }
+    }
+  }
+}
@@ -3,6 +3,7 @@ package com.framed.orchestrator;
 import com.framed.cdss.Actor;
 import com.framed.cdss.DFCN;
 import com.framed.core.EventBus;
+import com.framed.core.ScopedEventBus;
 import com.framed.core.Service;
 
 import org.json.JSONArray;
@@ -25,6 +26,14 @@ import java.util.logging.Logger;
  *   <li>Instantiates services from JSON configuration using {@link Factory}.</li>
  *   <li>Maintains a registry of active service instances keyed by their IDs.</li>
  *   <li>Supports stopping individual services or all services at once.</li>
+ *   <li>Gives every service its own {@link ScopedEventBus}, so that stopping a service detaches all its handlers
+ *       and the service can be instantiated again.</li>
+ *   <li>Enables micro-batched firing of {@link Actor}s with an optional {@code batching} object
+ *       ({@code maxMessages}, {@code samples}), see {@link Actor#setBatching(int, boolean)}.</li>
+ *   <li>Configures the latency reporting of {@link Actor}s with an optional {@code latency} object
+ *       ({@code summaryIntervalMillis}, {@code perFire}), see {@link Actor#setLatencyReporting(long, boolean)}.</li>
+ *   <li>Lets {@link Actor}s publish only changed outputs with an optional {@code emitOnChange} object
+ *       ({@code enabled}, {@code heartbeatMillis}), see {@link Actor#setEmitOnChange(boolean, long)}.</li>
  * </ul>
  *
  * <h2>Usage Example:</h2>
@@ -61,6 +70,7 @@ public class Manager {
   private final EventBus eventBus;
   private final Logger logger;
   Map<String, Service> instances = new HashMap<>();
+  Map<String, ScopedEventBus> scopes = new HashMap<>();
   JSONObject config;
 
   /**
@@ -86,16 +96,45 @@ public class Manager {
     JSONArray classes = config.getJSONArray(classType);
     for (Object clazz : classes) {
       JSONObject serviceConfig = (JSONObject) clazz;
+      ScopedEventBus scope = new ScopedEventBus(eventBus, serviceConfig.getString("id"));
       try {
-        Service service = Factory.instantiate(serviceConfig, eventBus);
+        Service service = Factory.instantiate(serviceConfig, scope);
+        if (service instanceof Actor actor) {
+          configureActor(actor, serviceConfig);
+        }
         this.instances.put(serviceConfig.getString("id"), service);
+        this.scopes.put(serviceConfig.getString("id"), scope);
       } catch (Exception e) {
+        scope.close(); // handlers registered before the constructor failed
         logger.severe("Failed to instantiate Service: %s%s".formatted(serviceConfig.getString("id"), e));
       }
       logger.info("Successfully instantiated %s: %s".formatted(classType, serviceConfig.getString("id")));
     }
   }
 
+  /**
+   * Applies the optional actor settings of a service definition: {@code batching}, {@code latency} (summaries are
+   * published every {@value Actor#DEFAULT_LATENCY_SUMMARY_MILLIS} ms without it) and {@code emitOnChange}.
+   *
+   * @param actor         the instantiated actor
+   * @param serviceConfig the service definition of the actor
+   */
+  private static void configureActor(Actor actor, JSONObject serviceConfig) {
+    JSONObject batching = serviceConfig.optJSONObject("batching");
+    if (batching != null) {
+      actor.setBatching(batching.optInt("maxMessages", Actor.DEFAULT_MAX_BATCH), batching.optBoolean("samples", false));
+    }
+
+    JSONObject latency = serviceConfig.optJSONObject("latency", new JSONObject());
+    actor.setLatencyReporting(latency.optLong("summaryIntervalMillis", Actor.DEFAULT_LATENCY_SUMMARY_MILLIS),
+      latency.optBoolean("perFire", false));
+
+    JSONObject emitOnChange = serviceConfig.optJSONObject("emitOnChange");
+    if (emitOnChange != null) {
+      actor.setEmitOnChange(emitOnChange.optBoolean("enabled", true), emitOnChange.optLong("heartbeatMillis", 0));
+    }
+  }
+
   public void validateDFCN() {
     List<Actor> actorList = new ArrayList<>();
     for (Service service: this.instances.values()) {
@@ -107,21 +146,32 @@ public class Manager {
   }
 
   /**
-   * Stops the service with the specified ID.
+   * Stops the service with the specified ID and detaches all its handlers from the event bus.
    *
    * @param id the ID of the service to stop
    */
   public void stop(String id) {
-    Service service = this.instances.get(id);
-    service.stop();
+    Service service = this.instances.remove(id);
+    if (service == null) {
+      logger.warning("No running service with id: %s".formatted(id));
+      return;
+    }
+    try {
+      service.stop();
+    } finally {
+      ScopedEventBus scope = this.scopes.remove(id);
+      if (scope != null) {
+        scope.close();
+      }
+    }
   }
 
   /**
    * Stops all active services managed by this instance.
    */
   public void stopAll() {
-    for (Service service : instances.values()) {
-      service.stop();
+    for (String id : new ArrayList<>(instances.keySet())) {
+      stop(id);
     }
   }
 }
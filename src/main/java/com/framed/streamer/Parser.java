@@ -1,5 +1,6 @@
 package com.framed.streamer;
 
+import com.framed.core.Measurement;
 import com.framed.core.utils.Timer;
 import com.framed.streamer.model.DataPoint;
 import org.json.JSONObject;
@@ -22,4 +23,8 @@ public class Parser {
     String className = jsonObject.getString("className");
     return new DataPoint<>(timestamp, value, channelID, deviceID, className);
   }
+
+  public static DataPoint<?> parse(Measurement measurement, String deviceID) {
+    return new DataPoint<>(measurement.timestamp(), measurement.value(), measurement.channelId(), deviceID, measurement.className());
+  }
 }
@@ -1,7 +1,14 @@
 package com.framed.streamer.dispatcher;
 
+import com.framed.core.AddressRegistry;
 import com.framed.core.EventBus;
+import com.framed.core.Measurement;
+import com.framed.core.Registration;
+import com.framed.core.ScopedEventBus;
 import com.framed.core.Service;
+import com.framed.core.jfr.WriteEvent;
+import com.framed.core.metrics.LatencyHistogram;
+import com.framed.core.metrics.MetricsRegistry;
 import com.framed.streamer.model.DataPoint;
 import com.framed.streamer.Parser;
 import org.json.JSONArray;
@@ -9,32 +16,57 @@ import org.json.JSONObject;
 
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Base class of the services storing the data points of a set of devices, e.g. in a database or in files.
+ *
+ * <p>Subscribes to all addresses of the devices (see {@link AddressRegistry}) and hands every data point to
+ * {@link #push(DataPoint)}. The duration of each push is recorded per dispatcher class in
+ * {@link MetricsRegistry#getDefault()} ({@value #WRITE_DURATION}) and emitted as {@link WriteEvent} to JFR.</p>
+ */
 public abstract class Dispatcher extends Service {
-  private final List<String> addresses = new ArrayList<>();
 
+  public static final String WRITE_DURATION = "framed_dispatcher_write_duration_seconds";
+
+  private final LatencyHistogram writeDuration;
 
   public Dispatcher(EventBus eventBus, JSONArray devices) {
     super(eventBus);
+    this.writeDuration = MetricsRegistry.getDefault().histogram(WRITE_DURATION, "dispatcher", getClass().getSimpleName());
+    AddressRegistry addressRegistry = AddressRegistry.of(eventBus);
     for (Object deviceObj : devices) {
       String deviceID = deviceObj.toString();
-      eventBus.register("%s.addresses".formatted(deviceID), msg -> {
-        if (!addresses.contains(msg.toString())) {
-          addresses.add(msg.toString());
-          eventBus.register((String) msg, msg_ -> {
-            try {
+      Registration subscription = addressRegistry.subscribe(deviceID, address ->
+        eventBus.register(address, msg_ -> {
+          try {
+            DataPoint<?> dp;
+            if (msg_ instanceof Measurement measurement) {
+              dp = Parser.parse(measurement, deviceID);
+            } else {
               JSONObject body = (JSONObject) msg_;
               body.put("deviceID", deviceID);
-              DataPoint<?> dp = Parser.parse(body);
-              push(dp);
-            } catch (Exception e) {
-              throw new RuntimeException(e);
+              dp = Parser.parse(body);
+            }
+            WriteEvent event = new WriteEvent();
+            event.begin();
+            long start = System.nanoTime();
+            push(dp);
+            writeDuration.record(System.nanoTime() - start);
+            if (event.shouldCommit()) {
+              event.writer = getClass().getSimpleName();
+              event.device = deviceID;
+              event.bytes = dp.toJsonString().length();
+              event.commit();
             }
-          });
-        }
-      });
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        })
+      );
+      if (eventBus instanceof ScopedEventBus scope) {
+        scope.track(subscription); // released when the service is stopped
+      }
     }
   }
 
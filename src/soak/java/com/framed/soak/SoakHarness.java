@@ -0,0 +1,211 @@
+package com.framed.soak;
+
+import com.framed.communicator.driver.parser.medibus.MedibusRealTimeParser;
+import com.framed.communicator.driver.parser.medibus.MedibusSlowParser;
+import com.framed.communicator.driver.parser.viatom.ViatomParser;
+import com.framed.communicator.driver.protocol.Protocol;
+import com.framed.core.Service;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import com.framed.orchestrator.ConfigLoader;
+import com.framed.orchestrator.Main;
+import com.framed.orchestrator.Manager;
+import com.framed.streamer.dispatcher.InfluxDispatcher;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Soak and load test of a complete FRAMED topology on one machine, used to size the hardware per bed count.
+ *
+ * <p>Every bed gets its own {@link SocketEventBus} (configured like {@link Main} from the communication config,
+ * on an ephemeral port and without peers) and its own {@link Manager} instantiating the services config, with
+ * these replacements:</p>
+ * <ul>
+ *   <li>Device protocols (serial ports) are not instantiated. Every device of a Medibus parser is simulated by a
+ *       {@link SyntheticMedibusDevice}, every device of a Viatom parser by a {@link SyntheticViatomDevice}.</li>
+ *   <li>{@link InfluxDispatcher}s are replaced by {@link StubDispatcher}s.</li>
+ *   <li>{@code path}s of writers and dispatchers are resolved against {@code <outputPath>/bed-<n>/}.</li>
+ * </ul>
+ * <p>Parsers, actors, writers and the other dispatchers run as configured. All metrics are kept in
+ * {@link MetricsRegistry#getDefault()}, so the {@link SoakReport} aggregates over all beds.</p>
+ *
+ * <h2>Soak config:</h2>
+ * <pre>{@code
+ * {
+ *   "services": "config/services.json",
+ *   "communication": "config/communication.json",
+ *   "beds": 4,
+ *   "durationSeconds": 3600,
+ *   "reportIntervalSeconds": 30,
+ *   "outputPath": "target/soak/",
+ *   "medibus": { "slowFramesPerSecond": 2, "realTimeHz": 125, "itemsPerFrame": 30 },
+ *   "viatom": { "messagesPerSecond": 1 }
+ * }
+ * }</pre>
+ *
+ * <p>Run with {@code ./mvnw -Psoak -DskipTests verify [-Dsoak.config=config/soak.json]}.</p>
+ */
+public class SoakHarness {
+  private static final Logger logger = Logger.getLogger(SoakHarness.class.getName());
+
+  private SoakHarness() {
+    throw new IllegalStateException("Utility class");
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    JSONObject soakConfig = ConfigLoader.loadConfig(args.length > 0 ? args[0] : "config/soak.json");
+    JSONObject servicesConfig = ConfigLoader.loadConfig(soakConfig.optString("services", "config/services.json"));
+    ConfigLoader.validateServiceConfigs(servicesConfig);
+    JSONObject communicationConfig = ConfigLoader.loadConfig(soakConfig.optString("communication", "config/communication.json"));
+    ConfigLoader.validateCommunicationConfigs(communicationConfig);
+
+    int beds = soakConfig.optInt("beds", 1);
+    long durationNanos = TimeUnit.SECONDS.toNanos(soakConfig.optLong("durationSeconds", 600));
+    long reportIntervalMillis = TimeUnit.SECONDS.toMillis(soakConfig.optLong("reportIntervalSeconds", 30));
+    Path outputPath = Path.of(soakConfig.optString("outputPath", "target/soak/"));
+
+    SoakReport report = new SoakReport(MetricsRegistry.getDefault(), System.out);
+    List<Bed> running = new ArrayList<>();
+    for (int bed = 0; bed < beds; bed++) {
+      running.add(startBed(bed, servicesConfig, communicationConfig, soakConfig, outputPath.resolve("bed-%d".formatted(bed))));
+    }
+    logger.info("Started %d bed(s), running for %d s".formatted(beds, TimeUnit.NANOSECONDS.toSeconds(durationNanos)));
+
+    long end = System.nanoTime() + durationNanos;
+    while (System.nanoTime() < end) {
+      Thread.sleep(Math.min(reportIntervalMillis, Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))));
+      report.interval();
+    }
+    report.summary(beds);
+
+    for (Bed bed : running) {
+      bed.stop();
+    }
+    System.exit(0);
+  }
+
+  private static Bed startBed(int index, JSONObject servicesConfig, JSONObject communicationConfig,
+                              JSONObject soakConfig, Path outputPath) throws IOException {
+    DispatchMode dispatchMode = DispatchMode.valueOf(communicationConfig.optString("dispatchMode", DispatchMode.PER_HANDLER.name()));
+    SocketEventBus eventBus = new SocketEventBus(Main.createTransport(communicationConfig.getString("type"), 0),
+      dispatchMode, MetricsRegistry.getDefault());
+    Main.configure(eventBus, communicationConfig);
+
+    JSONObject bedConfig = replaceDevicesAndStorage(servicesConfig, outputPath);
+    Manager manager = new Manager(bedConfig, eventBus);
+    for (String key : bedConfig.keySet()) {
+      manager.instantiate(key);
+    }
+    manager.validateDFCN();
+
+    List<Service> devices = new ArrayList<>();
+    JSONObject medibus = soakConfig.optJSONObject("medibus", new JSONObject());
+    JSONObject viatom = soakConfig.optJSONObject("viatom", new JSONObject());
+    long seed = 1000L * index;
+    for (Map.Entry<String, DeviceKind> device : simulatedDevices(servicesConfig).entrySet()) {
+      switch (device.getValue().type()) {
+        case MEDIBUS -> {
+          SyntheticMedibusDevice synthetic = new SyntheticMedibusDevice(eventBus, device.getKey(),
+            device.getValue().waveFormType(), medibus.optInt("itemsPerFrame", 30), servicesConfig.toString(), seed++);
+          synthetic.start(medibus.optDouble("slowFramesPerSecond", 2), medibus.optDouble("realTimeHz", 125));
+          devices.add(synthetic);
+        }
+        case VIATOM -> {
+          SyntheticViatomDevice synthetic = new SyntheticViatomDevice(eventBus, device.getKey(), seed++);
+          synthetic.start(viatom.optDouble("messagesPerSecond", 1));
+          devices.add(synthetic);
+        }
+      }
+    }
+    return new Bed(eventBus, manager, devices);
+  }
+
+  /**
+   * @return a copy of the services config without device protocols, with stub dispatchers instead of InfluxDB
+   * and with all paths below the output path of the bed
+   */
+  static JSONObject replaceDevicesAndStorage(JSONObject servicesConfig, Path outputPath) throws IOException {
+    JSONObject bedConfig = new JSONObject();
+    for (String key : servicesConfig.keySet()) {
+      JSONArray services = new JSONArray();
+      for (Object service : servicesConfig.getJSONArray(key)) {
+        JSONObject serviceConfig = new JSONObject(service.toString());
+        String className = serviceConfig.getString("class");
+        if (isProtocol(className)) {
+          continue;
+        }
+        if (className.equals(InfluxDispatcher.class.getName())) {
+          serviceConfig.put("class", StubDispatcher.class.getName());
+        }
+        if (serviceConfig.has("path")) {
+          Path path = outputPath.resolve(serviceConfig.getString("path"));
+          Files.createDirectories(path);
+          serviceConfig.put("path", path.toString());
+        }
+        services.put(serviceConfig);
+      }
+      bedConfig.put(key, services);
+    }
+    return bedConfig;
+  }
+
+  private static boolean isProtocol(String className) {
+    try {
+      return Protocol.class.isAssignableFrom(Class.forName(className));
+    } catch (ClassNotFoundException e) {
+      return false; // reported by the Manager
+    }
+  }
+
+  enum DeviceType { MEDIBUS, VIATOM }
+
+  /**
+   * @param type         the protocol of the device
+   * @param waveFormType the waveform type of a Medibus real-time parser, 0 without real-time data
+   */
+  record DeviceKind(DeviceType type, int waveFormType) {
+  }
+
+  /**
+   * @return the devices of the configured parsers by ID
+   */
+  static Map<String, DeviceKind> simulatedDevices(JSONObject servicesConfig) {
+    Map<String, DeviceKind> devices = new LinkedHashMap<>();
+    for (String key : servicesConfig.keySet()) {
+      for (Object service : servicesConfig.getJSONArray(key)) {
+        JSONObject serviceConfig = (JSONObject) service;
+        String className = serviceConfig.getString("class");
+        JSONArray ids = serviceConfig.optJSONArray("devices", new JSONArray());
+        for (Object id : ids) {
+          if (className.equals(MedibusRealTimeParser.class.getName())) {
+            devices.put(id.toString(), new DeviceKind(DeviceType.MEDIBUS, serviceConfig.optInt("waveFormType", 0)));
+          } else if (className.equals(MedibusSlowParser.class.getName())) {
+            devices.putIfAbsent(id.toString(), new DeviceKind(DeviceType.MEDIBUS, 0));
+          } else if (className.equals(ViatomParser.class.getName())) {
+            devices.put(id.toString(), new DeviceKind(DeviceType.VIATOM, 0));
+          }
+        }
+      }
+    }
+    return devices;
+  }
+
+  private record Bed(SocketEventBus eventBus, Manager manager, List<Service> devices) {
+    void stop() {
+      devices.forEach(Service::stop);
+      eventBus.shutdown();
+      manager.stopAll();
+    }
+  }
+}
@@ -0,0 +1,204 @@
+package com.framed.soak;
+
+import com.framed.cdss.Actor;
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.metrics.LatencyHistogram;
+import com.framed.core.metrics.MetricId;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.streamer.dispatcher.Dispatcher;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the JVM side of a soak run and prints interval lines and the final report from a
+ * {@link MetricsRegistry}.
+ *
+ * <h2>Report:</h2>
+ * <ul>
+ *   <li>Sustained throughput: messages published on the buses and data points stored per second, and the
+ *       handler failures.</li>
+ *   <li>Latency percentiles per stage: end to end per device ({@link StubDispatcher#END_TO_END}), actor firing
+ *       ({@link Actor#LATENCY}, global mode), queue wait and duration per handler class on the buses
+ *       ({@link BusMetrics#QUEUE_WAIT}, {@link BusMetrics#HANDLER_DURATION}) and dispatcher writes
+ *       ({@link Dispatcher#WRITE_DURATION}).</li>
+ *   <li>GC pauses per collector ({@value #GC_PAUSE}), from the GC notifications of the platform MXBeans.</li>
+ *   <li>Live and peak thread counts.</li>
+ *   <li>Heap growth: heap used after the first and the last collection, extrapolated per hour (meaningful for
+ *       runs well beyond the warm-up).</li>
+ * </ul>
+ * <p>Percentiles are bucket bounds of {@link LatencyHistogram}, i.e. accurate to 25%.</p>
+ */
+public class SoakReport {
+
+  public static final String GC_PAUSE = "framed_soak_gc_pause_seconds";
+
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+  private static final double BYTES_PER_MIB = 1024 * 1024d;
+
+  private final MetricsRegistry registry;
+  private final PrintStream out;
+  private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+  private final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+    .filter(pool -> pool.getType() == MemoryType.HEAP)
+    .map(MemoryPoolMXBean::getName)
+    .collect(Collectors.toSet());
+  private final long startNanos = System.nanoTime();
+  private volatile long firstHeapAfterGc = -1;
+  private volatile long firstHeapAfterGcNanos;
+  private volatile long lastHeapAfterGc = -1;
+  private volatile long lastHeapAfterGcNanos;
+  private long lastIntervalNanos = startNanos;
+  private long lastPublished;
+  private long lastStored;
+
+  /**
+   * Starts listening to GC notifications.
+   *
+   * @param registry the registry of the buses and services under test
+   * @param out      the stream the report is printed to
+   */
+  public SoakReport(MetricsRegistry registry, PrintStream out) {
+    this.registry = registry;
+    this.out = out;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if (collector instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener((notification, handback) -> {
+          if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            onGc(GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()));
+          }
+        }, null, null);
+      }
+    }
+  }
+
+  private void onGc(GarbageCollectionNotificationInfo info) {
+    registry.histogram(GC_PAUSE, "gc", info.getGcName())
+      .record(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+    long used = 0;
+    for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+      if (heapPools.contains(pool.getKey())) {
+        used += pool.getValue().getUsed();
+      }
+    }
+    long now = System.nanoTime();
+    if (firstHeapAfterGc < 0) {
+      firstHeapAfterGc = used;
+      firstHeapAfterGcNanos = now;
+    }
+    lastHeapAfterGc = used;
+    lastHeapAfterGcNanos = now;
+  }
+
+  /**
+   * Prints one line with the rates since the previous line.
+   */
+  public void interval() {
+    long now = System.nanoTime();
+    long published = registry.sum(BusMetrics.PUBLISHED);
+    long stored = count(StubDispatcher.END_TO_END);
+    double seconds = (now - lastIntervalNanos) / 1e9;
+    out.printf("%6ds  published %9.1f/s  stored %9.1f/s  end-to-end p99 %9s  threads %4d  heap after GC %8s%n",
+      TimeUnit.NANOSECONDS.toSeconds(now - startNanos),
+      (published - lastPublished) / seconds, (stored - lastStored) / seconds,
+      millis(merged(StubDispatcher.END_TO_END).valueAtPercentile(99)),
+      threads.getThreadCount(), mebibytes(lastHeapAfterGc));
+    lastIntervalNanos = now;
+    lastPublished = published;
+    lastStored = stored;
+  }
+
+  /**
+   * Prints the final report.
+   *
+   * @param beds the number of simulated beds
+   */
+  public void summary(int beds) {
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    out.printf("%n== FRAMED soak report: %d bed(s), %.0f s ==%n", beds, seconds);
+    out.printf("Throughput: published %.1f msg/s, stored %.1f points/s (%.1f points/s per bed)%n",
+      registry.sum(BusMetrics.PUBLISHED) / seconds, count(StubDispatcher.END_TO_END) / seconds,
+      count(StubDispatcher.END_TO_END) / seconds / beds);
+
+    out.printf("Handler failures: %d failed, %d rejected by open circuit breakers, %d expired%n",
+      registry.sum(BusMetrics.FAILED), registry.sum(BusMetrics.REJECTED), registry.sum(BusMetrics.EXPIRED));
+
+    table("End-to-end latency (data point timestamp -> dispatcher) by device", StubDispatcher.END_TO_END, "device");
+    table("Actor latency (earliest input -> firing) by actor", Actor.LATENCY, "actor", "mode", "global");
+    table("Bus queue wait by handler", BusMetrics.QUEUE_WAIT, "handler");
+    table("Bus handler duration by handler", BusMetrics.HANDLER_DURATION, "handler");
+    table("Dispatcher write duration by dispatcher", Dispatcher.WRITE_DURATION, "dispatcher");
+    table("GC pauses by collector", GC_PAUSE, "gc");
+
+    out.printf("%nThreads: %d live, %d peak, %d started%n",
+      threads.getThreadCount(), threads.getPeakThreadCount(), threads.getTotalStartedThreadCount());
+    double hours = (lastHeapAfterGcNanos - firstHeapAfterGcNanos) / 3.6e12;
+    out.printf("Heap after GC: first %s, last %s, growth %s%n", mebibytes(firstHeapAfterGc), mebibytes(lastHeapAfterGc),
+      hours > 0 ? "%.1f MiB/h".formatted((lastHeapAfterGc - firstHeapAfterGc) / BYTES_PER_MIB / hours) : "n/a");
+  }
+
+  private void table(String title, String metric, String label, String... filter) {
+    Map<String, LatencyHistogram.Snapshot> byLabel = new TreeMap<>();
+    registry.getHistograms().forEach((id, snapshot) -> {
+      if (id.name().equals(metric) && id.hasLabels(filter) && snapshot.count() > 0) {
+        byLabel.merge(String.valueOf(id.label(label)), snapshot, SoakReport::merge);
+      }
+    });
+    out.printf("%n%s%n", title);
+    if (byLabel.isEmpty()) {
+      out.println("  (none)");
+      return;
+    }
+    out.printf("  %10s %9s %9s %9s %9s %9s  %s%n", "count", "mean", "p50", "p95", "p99", "max", label);
+    byLabel.forEach((value, snapshot) -> out.printf("  %10d %9s %9s %9s %9s %9s  %s%n", snapshot.count(),
+      millis((long) snapshot.mean()), millis(snapshot.valueAtPercentile(50)), millis(snapshot.valueAtPercentile(95)),
+      millis(snapshot.valueAtPercentile(99)), millis(snapshot.max()), value));
+  }
+
+  /**
+   * @param metric a histogram name
+   * @return all histograms of the name merged into one
+   */
+  private LatencyHistogram.Snapshot merged(String metric) {
+    LatencyHistogram.Snapshot result = null;
+    for (Map.Entry<MetricId, LatencyHistogram.Snapshot> histogram : registry.getHistograms().entrySet()) {
+      if (histogram.getKey().name().equals(metric)) {
+        result = result == null ? histogram.getValue() : merge(result, histogram.getValue());
+      }
+    }
+    return result != null ? result : new LatencyHistogram().snapshot();
+  }
+
+  private long count(String metric) {
+    return merged(metric).count();
+  }
+
+  private static LatencyHistogram.Snapshot merge(LatencyHistogram.Snapshot a, LatencyHistogram.Snapshot b) {
+    long[] counts = new long[a.counts().length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = a.counts()[i] + b.counts()[i];
+    }
+    return new LatencyHistogram.Snapshot(a.count() + b.count(), a.sum() + b.sum(), Math.max(a.max(), b.max()), counts);
+  }
+
+  private static String millis(long nanos) {
+    return "%.3fms".formatted(nanos / NANOS_PER_MILLI);
+  }
+
+  private static String mebibytes(long bytes) {
+    return bytes < 0 ? "n/a" : "%.1fMiB".formatted(bytes / BYTES_PER_MIB);
+  }
+}
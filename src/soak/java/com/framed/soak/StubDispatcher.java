@@ -0,0 +1,49 @@
+package com.framed.soak;
+
+import com.framed.core.EventBus;
+import com.framed.core.Measurement;
+import com.framed.core.metrics.LatencyHistogram;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.streamer.dispatcher.Dispatcher;
+import com.framed.streamer.model.DataPoint;
+import org.json.JSONArray;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stands in for the {@code InfluxDispatcher} during soak runs: instead of writing to InfluxDB, it records the age
+ * of every data point when it reaches the dispatcher.
+ *
+ * <h2>Metrics:</h2>
+ * <ul>
+ *   <li><b>{@value #END_TO_END}{device}:</b> time from the timestamp of a data point (set by the parser, or by the
+ *       device for Viatom messages and by the actor for CDSS results) to its storage.</li>
+ * </ul>
+ * Actor latencies are recorded by the actors themselves, see {@link com.framed.cdss.Actor#LATENCY}.
+ */
+public class StubDispatcher extends Dispatcher {
+
+  public static final String END_TO_END = "framed_soak_end_to_end_seconds";
+
+  private final Map<String, LatencyHistogram> endToEnd = new ConcurrentHashMap<>();
+
+  public StubDispatcher(EventBus eventBus, JSONArray devices) {
+    super(eventBus, devices);
+  }
+
+  @Override
+  public void push(DataPoint<?> dataPoint) {
+    long age = Measurement.now() - Measurement.toEpochNanos(dataPoint.timestamp());
+    endToEnd.computeIfAbsent(dataPoint.deviceID(), device -> MetricsRegistry.getDefault()
+      .histogram(END_TO_END, "device", device)).record(age);
+  }
+
+  @Override
+  public void pushBatch(List<DataPoint<?>> batch) {
+    for (DataPoint<?> dataPoint : batch) {
+      push(dataPoint);
+    }
+  }
+}
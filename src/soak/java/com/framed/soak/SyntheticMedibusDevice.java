@@ -0,0 +1,184 @@
+package com.framed.soak;
+
+import com.framed.communicator.driver.protocol.medibus.MedibusFramer;
+import com.framed.communicator.driver.protocol.medibus.utils.DataConstants;
+import com.framed.communicator.driver.protocol.medibus.utils.DataUtils;
+import com.framed.core.EventBus;
+import com.framed.core.Service;
+import com.framed.core.utils.Timer;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Replaces the serial port of a {@code MedibusProtocol}: generates the byte stream of a Medibus.X ventilator and
+ * feeds it through a {@link MedibusFramer}, which publishes response frames on {@code <deviceID>} and real-time
+ * bytes on {@code <deviceID>.real-time} exactly as in production.
+ *
+ * <h2>Stream:</h2>
+ * <ul>
+ *   <li>On {@link #start}, one real-time configuration per waveform of the waveform type is published, as
+ *       {@code ParsingUtils.readRealtimeConfigResponse} does after the configuration handshake.</li>
+ *   <li>Slow data alternates between responses to "current measured data codepage 1" and "current device
+ *       settings". They contain the data codes whose channel names occur in the services config, so the
+ *       configured actors fire, filled up with further codes to {@code itemsPerFrame} items.</li>
+ *   <li>Real-time records carry one value per waveform: a capnogram at 15 breaths/min for CO₂, sine waves for
+ *       the others.</li>
+ * </ul>
+ */
+public class SyntheticMedibusDevice extends Service {
+
+  private static final long TICK_MILLIS = 10;
+  private static final int MAX_BIN_VALUE = 4095;
+  private static final int MAX_VALUE = 100;
+
+  private final String deviceID;
+  private final MedibusFramer framer;
+  private final List<Byte> waveforms;
+  private final Map<Byte, Double> measurements;
+  private final Map<Byte, Double> settings;
+  private final Random random;
+  private final Timer timer = new Timer();
+  private long startNanos;
+  private long realTimeRecords;
+  private long slowFrames;
+
+  /**
+   * @param eventBus       the bus of the bed
+   * @param deviceID       the device ID the parsers are configured with
+   * @param waveFormType   the waveform type of the real-time parser
+   * @param itemsPerFrame  the number of data items per slow response
+   * @param servicesConfig the services config, searched for the channel names to include
+   * @param seed           the seed of the signal noise
+   */
+  public SyntheticMedibusDevice(EventBus eventBus, String deviceID, int waveFormType, int itemsPerFrame,
+                                String servicesConfig, long seed) {
+    super(eventBus);
+    this.deviceID = deviceID;
+    this.framer = new MedibusFramer(frame -> eventBus.publish(deviceID, frame), eventBus, deviceID);
+    this.waveforms = DataUtils.createWaveFormTypeList(waveFormType);
+    this.random = new Random(seed);
+    this.measurements = select(DataConstants.MedibusXMeasurementCP1, itemsPerFrame, servicesConfig);
+    this.settings = select(DataConstants.MedibusXDeviceSettings, itemsPerFrame, servicesConfig);
+  }
+
+  /**
+   * Publishes the real-time configuration and starts streaming.
+   *
+   * @param slowFramesPerSecond the rate of slow responses
+   * @param realTimeHz          the rate of real-time records, if the waveform type has waveforms
+   */
+  public void start(double slowFramesPerSecond, double realTimeHz) {
+    for (byte waveform : waveforms) {
+      eventBus.publish(deviceID + ".real-time", new JSONObject()
+        .put("dataCode", "%02X".formatted(waveform))
+        .put("Interval", Math.round(1_000_000 / realTimeHz))
+        .put("minValue", minValue(waveform))
+        .put("maxValue", MAX_VALUE)
+        .put("maxBinValue", MAX_BIN_VALUE));
+    }
+    double recordsPerSecond = waveforms.isEmpty() ? 0 : realTimeHz;
+    startNanos = System.nanoTime();
+    timer.setPeriodic(TICK_MILLIS, () -> tick(slowFramesPerSecond, recordsPerSecond));
+  }
+
+  @Override
+  public void stop() {
+    timer.shutdown();
+  }
+
+  private void tick(double slowFramesPerSecond, double realTimeHz) {
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    for (; realTimeRecords < (long) (seconds * realTimeHz); realTimeRecords++) {
+      feed(realTimeRecord(realTimeRecords / realTimeHz));
+    }
+    for (; slowFrames < (long) (seconds * slowFramesPerSecond); slowFrames++) {
+      feed(slowFrames % 2 == 0 ? response('$', measurements, 0) : response(')', settings, 1));
+    }
+  }
+
+  private void feed(byte[] bytes) {
+    for (byte b : bytes) {
+      framer.createFrameListFromByte(b);
+    }
+  }
+
+  /**
+   * @param echo   the echoed command
+   * @param values  the current values per data code, advanced by a random walk
+   * @param padding the number of blanks following each 4 character value
+   * @return the response frame with checksum and {@code CR}
+   */
+  private byte[] response(char echo, Map<Byte, Double> values, int padding) {
+    StringBuilder data = new StringBuilder().append((char) DataConstants.BOFRESPCHAR).append(echo);
+    values.replaceAll((code, value) -> Math.max(0, Math.min(999, value + random.nextGaussian())));
+    values.forEach((code, value) -> data.append("%02X".formatted(code))
+      .append("%4d".formatted(Math.round(value)))
+      .append(" ".repeat(padding)));
+    byte[] userData = data.toString().getBytes(StandardCharsets.US_ASCII);
+    byte[] checksum = "%02X".formatted(DataUtils.computeChecksum(userData) & 0xFF).getBytes(StandardCharsets.US_ASCII);
+    return DataUtils.concatBuffer(userData, checksum);
+  }
+
+  private byte[] realTimeRecord(double seconds) {
+    int streams = waveforms.size();
+    ByteArrayOutputStream record = new ByteArrayOutputStream();
+    record.write(DataConstants.SYNC_BYTE | ((1 << Math.min(streams, 4)) - 1));
+    if (streams > 4) {
+      record.write(DataConstants.SC_TX_DATASTREAM_5_8);
+      record.write(DataConstants.SYNC_CMD_BYTE | ((1 << (streams - 4)) - 1));
+    }
+    for (byte waveform : waveforms) {
+      double value = waveform == 0x06 ? capnogram(seconds) : Math.sin(2 * Math.PI * seconds / 4 + waveform) * 20 + 20;
+      double scaled = (value - minValue(waveform)) / (MAX_VALUE - minValue(waveform)) * MAX_BIN_VALUE;
+      int bin = (int) Math.max(0, Math.min(MAX_BIN_VALUE, scaled + random.nextGaussian() * 5));
+      record.write(DataConstants.RT_BYTE | (bin & 0x3F));
+      record.write(DataConstants.RT_BYTE | ((bin >> 6) & 0x3F));
+    }
+    return record.toByteArray();
+  }
+
+  /**
+   * @return the CO₂ partial pressure in mmHg of a breath cycle of 4 s: inspiration, expiratory upstroke and plateau
+   */
+  private static double capnogram(double seconds) {
+    double phase = seconds % 4 / 4;
+    if (phase < 0.4) {
+      return 0.5;
+    } else if (phase < 0.5) {
+      return 0.5 + 34 * (phase - 0.4) / 0.1;
+    } else if (phase < 0.95) {
+      return 34 + 4 * (phase - 0.5) / 0.45;
+    }
+    return 38 * (1 - (phase - 0.95) / 0.05);
+  }
+
+  private static int minValue(byte waveform) {
+    return waveform == 0x00 || waveform == 0x01 ? -100 : 0;
+  }
+
+  /**
+   * @return the data codes whose channel names occur in the config, filled up with further codes to {@code items}
+   */
+  private Map<Byte, Double> select(Map<Byte, String> codes, int items, String servicesConfig) {
+    Map<Byte, Double> selected = new TreeMap<>();
+    Map<Byte, String> sorted = new TreeMap<>(codes);
+    sorted.forEach((code, name) -> {
+      if (servicesConfig.contains(name)) {
+        selected.put(code, 10 + random.nextDouble() * 90);
+      }
+    });
+    for (Byte code : sorted.keySet()) {
+      if (selected.size() >= items) {
+        break;
+      }
+      selected.putIfAbsent(code, 10 + random.nextDouble() * 90);
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,58 @@
+package com.framed.soak;
+
+import com.framed.core.EventBus;
+import com.framed.core.Service;
+import com.framed.core.utils.Timer;
+import org.json.JSONObject;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * Publishes the JSON messages of a Viatom pulse oximeter (SpO₂, pulse rate and perfusion index) on
+ * {@code <deviceID>}, as the BLE bridge does, stamped with the current time.
+ */
+public class SyntheticViatomDevice extends Service {
+
+  private final String deviceID;
+  private final Random random;
+  private final Timer timer = new Timer();
+  private double spo2 = 97;
+  private double pulseRate = 72;
+
+  /**
+   * @param eventBus the bus of the bed
+   * @param deviceID the device ID the parsers are configured with
+   * @param seed     the seed of the signal noise
+   */
+  public SyntheticViatomDevice(EventBus eventBus, String deviceID, long seed) {
+    super(eventBus);
+    this.deviceID = deviceID;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * @param messagesPerSecond the message rate
+   */
+  public void start(double messagesPerSecond) {
+    timer.setPeriodic(Math.max(1, Math.round(1000 / messagesPerSecond)), this::publish);
+  }
+
+  private void publish() {
+    spo2 = Math.max(80, Math.min(100, spo2 + random.nextGaussian() * 0.5 + (97 - spo2) * 0.05));
+    pulseRate = Math.max(40, Math.min(160, pulseRate + random.nextGaussian() + (72 - pulseRate) * 0.05));
+    JSONObject data = new JSONObject()
+      .put("SpO2", new JSONObject().put("value", Math.round(spo2)).put("field", "Measurement"))
+      .put("HR", new JSONObject().put("value", Math.round(pulseRate)).put("field", "Measurement"))
+      .put("PI", new JSONObject().put("value", Math.round(20 + random.nextGaussian() * 2) / 10.0).put("field", "Measurement"));
+    JSONObject message = new JSONObject()
+      .put("timestamp", LocalDateTime.now().format(formatter))
+      .put("data", data);
+    eventBus.publish(deviceID, message.toString());
+  }
+
+  @Override
+  public void stop() {
+    timer.shutdown();
+  }
+}
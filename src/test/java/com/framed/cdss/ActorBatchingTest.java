@@ -0,0 +1,123 @@
+package com.framed.cdss;
+
+import com.framed.utils.InMemoryEventBus;
+import com.framed.utils.StartedActors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.framed.utils.JsonFixtures.dp;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micro-batched firing:
+ * - Messages queued while the actor fires are applied together and fire once
+ * - maxMessages bounds the batch
+ * - Samples per channel are passed when enabled
+ * Messages published from fireFunction to the actor's own inputs queue up in its mailbox, which simulates load.
+ */
+public class ActorBatchingTest {
+
+    private static final String A = "A";
+    private static final String B = "B";
+
+    private InMemoryEventBus bus;
+    private final List<Map<String, Object>> snaps = new ArrayList<>();
+    private final StartedActors actors = new StartedActors();
+
+    @BeforeEach
+    void setup() {
+        bus = new InMemoryEventBus();
+        snaps.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        actors.stopAll();
+    }
+
+    private Actor actor() {
+        return actors.started(new MapActor(bus, "batch", List.of(Map.of(A, "*"), Map.of(B, "*")), List.of(A, B), List.of(A, B)) {
+            @Override
+            public void fireFunction(Map<String, Object> latestSnapshot) {
+                snaps.add(latestSnapshot);
+                if (snaps.size() == 1) {
+                    LocalDateTime t = LocalDateTime.now();
+                    eventBus.publish(A, dp(2, t));
+                    eventBus.publish(A, dp(3, t));
+                    eventBus.publish(B, dp(4, t));
+                }
+            }
+        });
+    }
+
+    @Test
+    void withoutBatchingEveryMessageFires() {
+        actor();
+
+        bus.publish(A, dp(1, LocalDateTime.now()));
+
+        assertEquals(4, snaps.size());
+        assertFalse(snaps.get(0).containsKey("A-samples"));
+    }
+
+    @Test
+    void queuedMessagesFireOnceWithTheirSamples() {
+        actor().setBatching(Actor.DEFAULT_MAX_BATCH, true);
+
+        bus.publish(A, dp(1, LocalDateTime.now()));
+
+        assertEquals(2, snaps.size(), "Three queued messages should fire once");
+        Map<String, Object> batch = snaps.get(1);
+        assertEquals(3, batch.get(A));
+        assertEquals(4, batch.get(B));
+        assertEquals(List.of(2, 3), values(batch.get("A-samples")));
+        assertEquals(List.of(4), values(batch.get("B-samples")));
+        assertEquals(List.of(1), values(snaps.get(0).get("A-samples")));
+        assertEquals(List.of(), values(snaps.get(0).get("B-samples")));
+    }
+
+    @Test
+    void stateRequestsDoNotConsumeSamples() {
+        Actor actor = actors.started(new MapActor(bus, "batch-state", List.of(Map.of(A, "2")), List.of(A), List.of("OUT")) {
+            @Override
+            public void fireFunction(Map<String, Object> latestSnapshot) {
+                snaps.add(latestSnapshot);
+            }
+        });
+        actor.setBatching(Actor.DEFAULT_MAX_BATCH, true);
+
+        bus.publish(A, dp(1, LocalDateTime.now()));
+        assertEquals(1, actor.getState().getJSONObject("channels").getJSONObject(A).getInt("value"));
+        bus.publish(A, dp(2, LocalDateTime.now()));
+
+        assertEquals(List.of(1, 2), values(snaps.get(0).get("A-samples")));
+    }
+
+    @Test
+    void maxMessagesBoundsTheBatch() {
+        actor().setBatching(2, false);
+
+        bus.publish(A, dp(1, LocalDateTime.now()));
+
+        assertEquals(3, snaps.size());
+        assertEquals(3, snaps.get(1).get(A));
+        assertEquals(4, snaps.get(2).get(B));
+        assertFalse(snaps.get(1).containsKey("A-samples"));
+    }
+
+    @Test
+    void rejectsEmptyBatches() {
+        Actor actor = actor();
+        assertThrows(IllegalArgumentException.class, () -> actor.setBatching(0, false));
+    }
+
+    private static List<Object> values(Object samples) {
+        return ((List<?>) samples).stream().map(sample -> ((Actor.Sample) sample).value()).toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.framed.cdss;
+
+import com.framed.cdss.actors.LimitClassificationActor;
+import com.framed.core.Measurement;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.utils.InMemoryEventBus;
+import com.framed.utils.StartedActors;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.framed.utils.JsonFixtures.dp;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Output deduplication:
+ * - Every output is published by default
+ * - With emit on change only changed values are published, per key
+ * - The heartbeat re-publishes unchanged values
+ */
+public class ActorEmitOnChangeTest {
+
+    private static final String IN = "IN";
+    private static final String OUT = "OUT";
+
+    private InMemoryEventBus bus;
+    private final StartedActors actors = new StartedActors();
+
+    @BeforeEach
+    void setup() {
+        bus = new InMemoryEventBus();
+    }
+
+    @AfterEach
+    void tearDown() {
+        actors.stopAll();
+    }
+
+    /** Publishes the input value divided by 10, i.e. a class that mostly repeats. */
+    private Actor classifier(String id) {
+        return actors.started(new Actor(bus, id, List.of(Map.of(IN, "*")), List.of(IN), List.of(OUT)) {
+            @Override
+            public void fireFunction(ActorSnapshot snapshot) {
+                publishOnChange(id, (int) snapshot.getDouble(0) / 10);
+            }
+        });
+    }
+
+    private void send(int... values) {
+        for (int value : values) bus.publish(IN, dp(value, LocalDateTime.now()));
+    }
+
+    private List<Double> published() {
+        return bus.getPublished().stream()
+                .filter(p -> p.channel().equals(OUT))
+                .map(p -> ((Measurement) p.message()).numericValue())
+                .toList();
+    }
+
+    @Test
+    void publishesEveryOutputByDefault() {
+        classifier("every");
+
+        send(1, 2, 15, 3);
+
+        assertEquals(List.of(0.0, 0.0, 1.0, 0.0), published());
+    }
+
+    @Test
+    void publishesOnlyChangedOutputs() {
+        classifier("change").setEmitOnChange(true, 0);
+
+        send(1, 2, 15, 17, 3, 4);
+
+        assertEquals(List.of(0.0, 1.0, 0.0), published());
+        assertEquals(3, MetricsRegistry.getDefault().counter(Actor.SUPPRESSED, "actor", "change").sum());
+    }
+
+    @Test
+    void heartbeatRepublishesUnchangedOutputs() throws InterruptedException {
+        classifier("heartbeat").setEmitOnChange(true, 20);
+
+        send(1, 2);
+        Thread.sleep(40);
+        send(3, 4);
+
+        assertEquals(List.of(0.0, 0.0), published());
+    }
+
+    @Test
+    void deduplicatesPerKey() {
+        actors.started(new LimitClassificationActor(bus, "limits",
+                new JSONArray("[{\"A\": \"*\"}, {\"B\": \"*\"}]"),
+                new JSONArray(List.of("A", "B")),
+                new JSONArray(List.of(OUT)),
+                new JSONObject("{\"A\": [10], \"B\": [10]}")))
+                .setEmitOnChange(true, 0);
+
+        bus.publish("A", dp(5, LocalDateTime.now()));    // A: 0, B: 0 (no data)
+        bus.publish("A", dp(6, LocalDateTime.now()));    // unchanged
+        bus.publish("B", dp(20, LocalDateTime.now()));   // B: 1
+        bus.publish("A", dp(30, LocalDateTime.now()));   // A: 1
+
+        assertEquals(List.of(0.0, 0.0, 1.0, 1.0), published());
+    }
+
+    @Test
+    void rejectsNegativeHeartbeats() {
+        Actor actor = classifier("negative");
+        assertThrows(IllegalArgumentException.class, () -> actor.setEmitOnChange(true, -1));
+    }
+}
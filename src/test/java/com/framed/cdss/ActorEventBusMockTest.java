@@ -1,6 +1,11 @@
 package com.framed.cdss;
 
+import com.framed.core.Measurement;
+import com.framed.core.metrics.LatencyHistogram;
+import com.framed.core.metrics.MetricsRegistry;
 import com.framed.utils.InMemoryEventBus;
+import com.framed.utils.StartedActors;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -14,15 +19,18 @@ import static org.junit.jupiter.api.Assertions.*;
  * EventBus-oriented tests:
  * - Verifies that publish calls occur (latency/global/rule-participation),
  *   without asserting the exact envelope (implementation detail of CDSSUtils).
+ * - Latencies are recorded into histograms and published as summaries, per fire only in debug mode.
+ * - Stopping an actor removes its histograms.
  */
 public class ActorEventBusMockTest {
 
     private InMemoryEventBus bus;
     private TestActor actor;
+    private final StartedActors actors = new StartedActors();
     private static final String A = "A";
     private static final String B = "B";
 
-    static class TestActor extends Actor {
+    static class TestActor extends MapActor {
         private int fireCount = 0;
         TestActor(InMemoryEventBus bus, String id, List<Map<String,String>> rules,
                   List<String> inputs, List<String> outputs) {
@@ -39,11 +47,17 @@ public class ActorEventBusMockTest {
         List<Map<String, String>> rules = List.of(
                 Map.of(A, "*", B, "*")
         );
-        actor = new TestActor(bus, "lat", rules, List.of(A, B), List.of("OUT"));
+        actor = actors.started(new TestActor(bus, "lat", rules, List.of(A, B), List.of("OUT")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        actors.stopAll();
     }
 
     @Test
     void publishesLatencyOnFire() {
+        actor.setLatencyReporting(0, true);
         LocalDateTime t0 = LocalDateTime.now();
         LocalDateTime t1 = t0.plusSeconds(1);
 
@@ -58,4 +72,94 @@ public class ActorEventBusMockTest {
         assertFalse(bus.getPublished().isEmpty(),
                 "EventBus should have publish calls (latency metrics)");
     }
-}
\ No newline at end of file
+
+    @Test
+    void publishesRuleParticipationLatencyForChannelsOfSatisfiedRulesOnly() {
+        InMemoryEventBus participationBus = new InMemoryEventBus();
+        // R0 fires on A alone, R1 needs two messages on B
+        actors.started(new TestActor(participationBus, "part", List.of(Map.of(A, "*"), Map.of(B, "2")), List.of(A, B), List.of("OUT")))
+                .setLatencyReporting(0, true);
+        LocalDateTime t0 = LocalDateTime.now();
+
+        participationBus.publish(B, dp(1, t0));
+        participationBus.publish(A, dp(2, t0));
+
+        List<String> channels = participationBus.getPublished().stream()
+                .map(InMemoryEventBus.Published::channel)
+                .filter(channel -> channel.startsWith("Latency-Rule-"))
+                .toList();
+        assertEquals(List.of("Latency-Rule-A-part"), channels);
+    }
+
+    @Test
+    void recordsLatencyIntoHistogramsWithoutPublishingPerFire() {
+        TestActor histogramActor = actors.started(new TestActor(bus, "hist", List.of(Map.of(A, "*")), List.of(A, B), List.of("OUT")));
+        LocalDateTime t0 = LocalDateTime.now().minusSeconds(1);
+
+        bus.publish(A, dp(1, t0));
+        bus.publish(A, dp(2, t0));   // same timestamp: channel latency recorded once
+
+        assertEquals(2, histogramActor.getFireCount());
+        assertTrue(bus.getPublished().stream().noneMatch(p -> p.channel().startsWith("Latency-")),
+                "No per-fire latency publications by default");
+        assertEquals(1, latencyCount("hist", "channel", A));
+        assertEquals(0, latencyCount("hist", "channel", B), "Channels without data are not recorded");
+        assertEquals(2, latencyCount("hist", "global", null));
+        assertEquals(2, latencyCount("hist", "rule", A));
+        assertTrue(histogram("hist", "global", null).snapshot().max() >= 1_000_000_000L);
+    }
+
+    @Test
+    void publishesSummariesOfTheIntervalOnly() {
+        TestActor summaryActor = actors.started(new TestActor(bus, "summary", List.of(Map.of(A, "*")), List.of(A), List.of("OUT")));
+
+        bus.publish(A, dp(1, LocalDateTime.now()));
+        bus.publish(A, dp(2, LocalDateTime.now().plusNanos(1_000)));
+        summaryActor.publishLatencySummaries();
+
+        Map<String, Measurement> global = new HashMap<>();
+        bus.getPublished().stream()
+                .filter(p -> p.channel().equals("Latency-Global-summary"))
+                .map(p -> (Measurement) p.message())
+                .forEach(m -> global.put(m.className(), m));
+        assertEquals(Set.of("Latency-Global-count", "Latency-Global-p50", "Latency-Global-p90",
+                "Latency-Global-p99", "Latency-Global-max"), global.keySet());
+        assertEquals(2.0, global.get("Latency-Global-count").numericValue());
+        assertTrue(global.get("Latency-Global-max").numericValue() >= global.get("Latency-Global-p50").numericValue());
+
+        int published = bus.getPublished().size();
+        summaryActor.publishLatencySummaries();
+        assertEquals(published, bus.getPublished().size(), "No summary without new latencies");
+    }
+
+    @Test
+    void stopRemovesTheHistograms() {
+        TestActor stopped = new TestActor(bus, "stopped", List.of(Map.of(A, "*")), List.of(A), List.of("OUT"));
+        bus.publish(A, dp(1, LocalDateTime.now()));
+        assertTrue(hasLatencyHistograms("stopped"));
+
+        stopped.stop();
+
+        assertFalse(hasLatencyHistograms("stopped"));
+    }
+
+    @Test
+    void rejectsNegativeSummaryIntervals() {
+        assertThrows(IllegalArgumentException.class, () -> actor.setLatencyReporting(-1, false));
+    }
+
+    private static long latencyCount(String actorId, String mode, String channel) {
+        return histogram(actorId, mode, channel).snapshot().count();
+    }
+
+    private static boolean hasLatencyHistograms(String actorId) {
+        return MetricsRegistry.getDefault().getHistograms().keySet().stream()
+                .anyMatch(id -> id.name().equals(Actor.LATENCY) && id.hasLabels("actor", actorId));
+    }
+
+    private static LatencyHistogram histogram(String actorId, String mode, String channel) {
+        return channel == null
+                ? MetricsRegistry.getDefault().histogram(Actor.LATENCY, "actor", actorId, "mode", mode)
+                : MetricsRegistry.getDefault().histogram(Actor.LATENCY, "actor", actorId, "mode", mode, "channel", channel);
+    }
+}
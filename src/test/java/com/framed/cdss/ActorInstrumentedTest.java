@@ -2,6 +2,7 @@ package com.framed.cdss;
 
 import com.framed.utils.InMemoryEventBus;
 import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -23,7 +24,7 @@ public class ActorInstrumentedTest {
     private static final String A = "A";
     private static final String B = "B";
 
-    static class RecordingActor extends Actor {
+    static class RecordingActor extends MapActor {
         private final List<Map<String, Object>> firedSnapshots = new ArrayList<>();
         RecordingActor(InMemoryEventBus bus,
                        String id,
@@ -51,6 +52,11 @@ public class ActorInstrumentedTest {
         actor = new RecordingActor(bus, "inst", rules, List.of(A, B), List.of("OUT"));
     }
 
+    @AfterEach
+    void tearDown() {
+        actor.stop();
+    }
+
     @Test
     void stricterRuleIsNotFiredSeparatelyInSameEvaluation() {
         LocalDateTime t0 = LocalDateTime.now();
@@ -1,6 +1,7 @@
 package com.framed.cdss;
 
 import com.framed.utils.InMemoryEventBus;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -26,7 +27,7 @@ public class ActorIntegrationTest {
     private static final String B = "B";
     private static final String C = "C";
 
-    static class CaptureActor extends Actor {
+    static class CaptureActor extends MapActor {
         private final List<Map<String, Object>> snaps = new ArrayList<>();
         CaptureActor(InMemoryEventBus bus, String id, List<Map<String,String>> rules,
                      List<String> inputs, List<String> outputs) {
@@ -53,6 +54,11 @@ public class ActorIntegrationTest {
                 rules, List.of(A, B, C), List.of("OUT"));
     }
 
+    @AfterEach
+    void tearDown() {
+        actor.stop();
+    }
+
     @Test
     void allDatapointsUsedInCorrectOrder_randomized() throws Exception {
 
@@ -129,6 +135,7 @@ public class ActorIntegrationTest {
         List<Map<String, String>> rules = List.of(
                 Map.of(A, "*", B, "*")
         );
+        actor.stop();
         actor = new CaptureActor(bus, "int2", rules, List.of(A, B, C), List.of("OUT"));
 
         LocalDateTime t = LocalDateTime.now();
@@ -0,0 +1,131 @@
+package com.framed.cdss;
+
+import com.framed.core.MockTransport;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import com.framed.utils.InMemoryEventBus;
+import com.framed.utils.StartedActors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.framed.utils.JsonFixtures.dp;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mailbox execution model:
+ * - Concurrent handler executors never run fireFunction concurrently
+ * - Messages published by fireFunction to the actor itself are processed after the current one
+ * - getState is served from within and outside the mailbox
+ * - A failing message does not reach the publisher or stop the mailbox
+ */
+public class ActorMailboxTest {
+
+    private SocketEventBus socketBus;
+    private final StartedActors actors = new StartedActors();
+
+    @AfterEach
+    void tearDown() {
+        actors.stopAll();
+        if (socketBus != null) socketBus.shutdown();
+    }
+
+    @Test
+    void fireFunctionIsNeverRunConcurrently() throws Exception {
+        socketBus = new SocketEventBus(new MockTransport(), DispatchMode.PER_HANDLER);
+        final int perChannel = 2000;
+        List<String> channels = List.of("A", "B", "C", "D");
+        CountDownLatch done = new CountDownLatch(channels.size() * perChannel);
+        AtomicBoolean inFire = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        long[] fires = new long[1]; // plain counter, only safe with a single consumer
+
+        actors.started(new MapActor(socketBus, "mailbox", channels.stream().map(ch -> Map.of(ch, "*")).toList(), channels, List.of("OUT")) {
+            @Override
+            public void fireFunction(Map<String, Object> latestSnapshot) {
+                if (!inFire.compareAndSet(false, true)) overlapped.set(true);
+                fires[0]++;
+                inFire.set(false);
+                done.countDown();
+            }
+        });
+
+        List<Thread> producers = new ArrayList<>();
+        for (String ch : channels) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perChannel; i++) socketBus.publish(ch, dp(i, LocalDateTime.now()));
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        for (Thread producer : producers) producer.join();
+
+        assertTrue(done.await(30, TimeUnit.SECONDS), "All messages should fire");
+        assertFalse(overlapped.get(), "fireFunction must not run concurrently");
+        assertEquals(channels.size() * perChannel, fires[0]);
+    }
+
+    @Test
+    void selfPublicationIsProcessedAfterTheCurrentMessage() {
+        InMemoryEventBus bus = new InMemoryEventBus();
+        List<String> order = new ArrayList<>();
+        actors.started(new MapActor(bus, "loop", List.of(Map.of("A", "*"), Map.of("B", "*")), List.of("A", "B"), List.of("B")) {
+            @Override
+            public void fireFunction(Map<String, Object> latestSnapshot) {
+                order.add("begin " + latestSnapshot.get("B"));
+                if (Integer.valueOf(0).equals(latestSnapshot.get("B"))) {
+                    eventBus.publish("B", dp(7, LocalDateTime.now()));
+                }
+                order.add("end " + latestSnapshot.get("B"));
+            }
+        });
+
+        bus.publish("A", dp(1, LocalDateTime.now()));
+
+        assertEquals(List.of("begin 0", "end 0", "begin 7", "end 7"), order);
+    }
+
+    @Test
+    void stateIsServedInsideAndOutsideTheMailbox() {
+        InMemoryEventBus bus = new InMemoryEventBus();
+        List<Long> countsSeenInFire = new ArrayList<>();
+        Actor actor = actors.started(new MapActor(bus, "state", List.of(Map.of("A", "*")), List.of("A"), List.of("OUT")) {
+            @Override
+            public void fireFunction(Map<String, Object> latestSnapshot) {
+                countsSeenInFire.add(getState().getJSONObject("channels").getJSONObject("A").getLong("count"));
+            }
+        });
+
+        bus.publish("A", dp(1, LocalDateTime.now()));
+        bus.publish("A", dp(2, LocalDateTime.now()));
+
+        assertEquals(List.of(1L, 2L), countsSeenInFire);
+        assertEquals(2L, actor.getState().getJSONObject("channels").getJSONObject("A").getLong("count"));
+    }
+
+    @Test
+    void failureStaysInsideTheActor() {
+        InMemoryEventBus bus = new InMemoryEventBus();
+        List<Object> processed = new ArrayList<>();
+        Actor actor = actors.started(new MapActor(bus, "failing", List.of(Map.of("A", "*")), List.of("A"), List.of("OUT")) {
+            @Override
+            public void fireFunction(Map<String, Object> latestSnapshot) {
+                if (Integer.valueOf(1).equals(latestSnapshot.get("A"))) throw new IllegalStateException("boom");
+                processed.add(latestSnapshot.get("A"));
+            }
+        });
+
+        assertDoesNotThrow(() -> bus.publish("A", dp(1, LocalDateTime.now())));
+        bus.publish("A", dp(2, LocalDateTime.now()));
+
+        assertEquals(List.of(2), processed);
+        assertEquals(2L, actor.getState().getJSONObject("channels").getJSONObject("A").getLong("count"));
+    }
+}
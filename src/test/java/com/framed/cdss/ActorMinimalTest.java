@@ -1,9 +1,13 @@
 package com.framed.cdss;
 
+import com.framed.core.Measurement;
 import com.framed.utils.InMemoryEventBus;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -23,7 +27,7 @@ public class ActorMinimalTest {
     private static final String CH_B = "B";
 
     /** Minimal concrete actor that just records fired snapshots. */
-    static class TestActor extends Actor {
+    static class TestActor extends MapActor {
         private final List<Map<String, Object>> fired = new ArrayList<>();
 
         TestActor(InMemoryEventBus bus,
@@ -63,6 +67,11 @@ public class ActorMinimalTest {
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        actor.stop();
+    }
+
     @Test
     void firesOncePerMessage_whenEachRuleSingleChannelStar() {
         // Send datapoints with increasing timestamps
@@ -102,4 +111,26 @@ public class ActorMinimalTest {
 
         assertThrows(UnsupportedOperationException.class, () -> snap.put("x", 1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void snapshotReadsMeasurementsWithoutParsing() {
+        Instant ts = Instant.parse("2025-01-01T12:00:00.123456789Z");
+        bus.publish(CH_A, Measurement.of("dev", CH_A, "Measurement", Measurement.toEpochNanos(ts), 42.5));
+
+        Map<String, Object> snap = actor.getFired().get(0);
+        assertEquals(42.5, snap.get(CH_A));
+        assertEquals(ts, snap.get("%s-timestamp".formatted(CH_A)));
+    }
+
+    @Test
+    void snapshotPrefersNumericTimestampOfJsonMessages() {
+        Instant ts = Instant.parse("2025-01-01T12:00:00.123456789Z");
+        JSONObject message = dp(7, LocalDateTime.now()).put("timestampNs", Measurement.toEpochNanos(ts));
+        bus.publish(CH_A, message);
+
+        Map<String, Object> snap = actor.getFired().get(0);
+        assertEquals(7, snap.get(CH_A));
+        assertEquals(ts, snap.get("%s-timestamp".formatted(CH_A)));
+        assertEquals(Instant.EPOCH, snap.get("%s-timestamp".formatted(CH_B)), "Channel without data");
+    }
+}
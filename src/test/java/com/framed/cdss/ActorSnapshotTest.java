@@ -0,0 +1,167 @@
+package com.framed.cdss;
+
+import com.framed.cdss.actors.SFComputationActor;
+import com.framed.cdss.actors.TrendClassificationActor;
+import com.framed.core.Measurement;
+import com.framed.utils.InMemoryEventBus;
+import com.framed.utils.StartedActors;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static com.framed.utils.JsonFixtures.dp;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Array-backed snapshots:
+ * - Changed-channel bitmask relative to the previous firing
+ * - Typed getters and the map rendering used by fireFunction(Map)
+ * - Actors built on fireFunction(ActorSnapshot)
+ */
+public class ActorSnapshotTest {
+
+    private static final String A = "A";
+    private static final String B = "B";
+
+    private InMemoryEventBus bus;
+    private final List<ActorSnapshot> snapshots = new ArrayList<>();
+    private final StartedActors actors = new StartedActors();
+
+    @BeforeEach
+    void setup() {
+        bus = new InMemoryEventBus();
+        snapshots.clear();
+        actors.started(new Actor(bus, "snap", List.of(Map.of(A, "*"), Map.of(B, "2")), List.of(A, B), List.of("OUT")) {
+            @Override
+            public void fireFunction(ActorSnapshot snapshot) {
+                snapshots.add(snapshot);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        actors.stopAll();
+    }
+
+    @Test
+    void marksChannelsChangedSinceTheLastFiring() {
+        bus.publish(A, Measurement.of("dev", A, "Measurement", 1_000L, 1.5));
+        bus.publish(B, dp(1, LocalDateTime.now()));   // B:"2" not yet satisfied
+        bus.publish(B, dp(2, LocalDateTime.now()));
+        bus.publish(A, Measurement.of("dev", A, "Measurement", 2_000L, 2.5));
+
+        assertEquals(3, snapshots.size());
+        ActorSnapshot first = snapshots.get(0);
+        assertTrue(first.isChanged(0));
+        assertFalse(first.isChanged(1));
+        assertEquals(1, first.changedCount());
+        assertEquals(-1, first.nextChanged(1));
+
+        ActorSnapshot second = snapshots.get(1);
+        assertFalse(second.isChanged(0));
+        assertTrue(second.isChanged(1));
+        assertEquals(1, second.nextChanged(0));
+        assertEquals(2, second.count(1));
+
+        ActorSnapshot third = snapshots.get(2);
+        assertTrue(third.isChanged(0));
+        assertFalse(third.isChanged(1));
+    }
+
+    @Test
+    void providesTypedValuesAndTimestamps() {
+        bus.publish(A, Measurement.of("dev", A, "Measurement", 1_500_000_123L, 42.5));
+
+        ActorSnapshot snapshot = snapshots.get(0);
+        assertEquals(2, snapshot.size());
+        assertEquals(B, snapshot.channel(1));
+        assertEquals(1, snapshot.indexOf(B));
+        assertEquals(42.5, snapshot.getDouble(0));
+        assertEquals(1_500_000_123L, snapshot.timestampNanos(0));
+        assertEquals(Instant.ofEpochSecond(1, 500_000_123), snapshot.timestamp(0));
+
+        // channel without data: legacy value 0, no numeric value, epoch timestamp
+        assertEquals(0, snapshot.get(1));
+        assertTrue(Double.isNaN(snapshot.getDouble(1)));
+        assertEquals(Instant.EPOCH, snapshot.timestamp(1));
+        assertEquals(List.of(), snapshot.samples(1));
+    }
+
+    @Test
+    void rendersTheMapOfFireFunctionMap() {
+        bus.publish(A, dp("text", LocalDateTime.now()));
+
+        Map<String, Object> map = snapshots.get(0).toMap();
+        assertEquals(List.of(A, "A-timestamp", B, "B-timestamp"), List.copyOf(map.keySet()));
+        assertEquals("text", map.get(A));
+        assertTrue(Double.isNaN(snapshots.get(0).getDouble(0)));
+        assertThrows(UnsupportedOperationException.class, () -> map.put("x", 1));
+    }
+
+    @Test
+    void iteratesChangedChannelsBeyondOneWord() {
+        int channels = 130;
+        long[] changed = new long[3];
+        for (int c : new int[]{3, 64, 129}) changed[c >>> 6] |= 1L << c;
+        List<String> names = IntStream.range(0, channels).mapToObj(c -> "ch" + c).toList();
+        ActorSnapshot snapshot = new ActorSnapshot(names, new Object[channels], new double[channels], new long[channels],
+                new long[channels], changed, null, new String[channels]);
+
+        List<Integer> visited = new ArrayList<>();
+        for (int c = snapshot.nextChanged(0); c >= 0; c = snapshot.nextChanged(c + 1)) visited.add(c);
+
+        assertEquals(List.of(3, 64, 129), visited);
+        assertEquals(3, snapshot.changedCount());
+        assertFalse(snapshot.isChanged(65));
+    }
+
+    @Test
+    void sfActorWaitsForBothNumericInputs() {
+        InMemoryEventBus sfBus = new InMemoryEventBus();
+        actors.started(new SFComputationActor(sfBus, "sf", "spo2", "fio2", "S/F-Value"));
+
+        sfBus.publish("spo2", dp(96, LocalDateTime.now()));
+        assertTrue(sfBus.getPublished().stream().noneMatch(p -> p.channel().equals("S/F-Value")),
+                "No S/F without FiO2");
+
+        sfBus.publish("fio2", dp(0.4, LocalDateTime.now()));
+        Measurement sf = (Measurement) sfBus.getPublished().stream()
+                .filter(p -> p.channel().equals("S/F-Value"))
+                .findFirst().orElseThrow().message();
+        assertEquals(240.0, sf.numericValue(), 1e-3);
+    }
+
+    @Test
+    void trendActorOnlyWindowsChangedChannels() {
+        InMemoryEventBus trendBus = new InMemoryEventBus();
+        actors.started(new TrendClassificationActor(trendBus, "trend",
+                new JSONArray("[{\"x\": \"*\"}, {\"y\": \"*\"}]"),
+                new JSONArray(List.of("x", "y")),
+                new JSONArray(List.of("trend")),
+                new JSONObject("{\"x\": 2, \"y\": 2}"),
+                new JSONObject("{\"x\": 1, \"y\": 1}"),
+                new JSONObject("{\"x\": 0, \"y\": 0}"),
+                "DOWN"));
+
+        trendBus.publish("y", Measurement.of("dev", "y", "Measurement", 1_000_000_000L, 90));
+        trendBus.publish("x", Measurement.of("dev", "x", "Measurement", 2_000_000_000L, 95));
+        trendBus.publish("x", Measurement.of("dev", "x", "Measurement", 3_000_000_000L, 90));
+
+        // y has a single sample: firings of x must not add its unchanged value to its window again
+        List<Object> evaluated = trendBus.getPublished().stream()
+                .filter(p -> p.channel().equals("trend"))
+                .map(p -> ((Measurement) p.message()).attributes().get("inputChannel"))
+                .toList();
+        assertEquals(List.of("x"), evaluated);
+    }
+}
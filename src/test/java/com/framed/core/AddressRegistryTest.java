@@ -0,0 +1,135 @@
+package com.framed.core;
+
+import com.framed.utils.InMemoryEventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AddressRegistryTest {
+
+  private InMemoryEventBus bus;
+  private AddressRegistry registry;
+
+  @BeforeEach
+  public void setup() {
+    bus = new InMemoryEventBus();
+    registry = AddressRegistry.of(bus);
+  }
+
+  @Test
+  public void testAnnouncesEachAddressOnce() {
+    registry.announce("dev", "dev.HR.parsed");
+    registry.announce("dev", "dev.HR.parsed");
+    registry.announce("dev", "dev.SpO2.parsed");
+
+    long announcements = bus.getPublished().stream()
+      .filter(p -> p.channel().equals("dev.addresses"))
+      .count();
+    assertEquals(2, announcements);
+    assertEquals(Set.of("dev.HR.parsed", "dev.SpO2.parsed"), registry.snapshot("dev"));
+  }
+
+  @Test
+  public void testLateSubscriberReceivesSnapshot() {
+    registry.announce("dev", "dev.HR.parsed");
+
+    List<String> received = new ArrayList<>();
+    registry.subscribe("dev", received::add);
+    registry.announce("dev", "dev.SpO2.parsed");
+    registry.announce("dev", "dev.HR.parsed");
+
+    assertEquals(List.of("dev.HR.parsed", "dev.SpO2.parsed"), received);
+  }
+
+  @Test
+  public void testClosedSubscriptionReceivesNoMoreAddresses() {
+    List<String> received = new ArrayList<>();
+    Registration subscription = registry.subscribe("dev", received::add);
+    registry.announce("dev", "dev.HR.parsed");
+
+    subscription.close();
+    registry.announce("dev", "dev.SpO2.parsed");
+
+    assertFalse(subscription.isActive());
+    assertEquals(List.of("dev.HR.parsed"), received);
+  }
+
+  @Test
+  public void testScopedSubscriptionIsReleasedWithTheScope() {
+    ScopedEventBus scope = new ScopedEventBus(bus);
+    List<String> received = new ArrayList<>();
+    scope.track(AddressRegistry.of(scope).subscribe("dev", received::add));
+
+    scope.close();
+    registry.announce("dev", "dev.HR.parsed");
+
+    assertTrue(received.isEmpty());
+    assertEquals(0, scope.getRegistrationCount());
+  }
+
+  @Test
+  public void testSlowListenerDoesNotBlockOtherProducers() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    registry.subscribe("dev", address -> {
+      if (address.equals("dev.HR.parsed")) {
+        awaitQuietly(release);
+      }
+    });
+    Thread slow = new Thread(() -> registry.announce("dev", "dev.HR.parsed"));
+    slow.start();
+    while (!registry.snapshot("dev").contains("dev.HR.parsed")) {
+      Thread.sleep(1);
+    }
+
+    CompletableFuture<Void> other = CompletableFuture.runAsync(() -> registry.announce("dev", "dev.SpO2.parsed"));
+
+    assertDoesNotThrow(() -> other.get(1, TimeUnit.SECONDS));
+    release.countDown();
+    slow.join();
+  }
+
+  @Test
+  public void testMergesRemoteAnnouncements() {
+    List<String> received = new ArrayList<>();
+    registry.subscribe("remote", received::add);
+
+    // announcement arriving from a peer
+    bus.publish("remote.addresses", "remote.RR.parsed");
+    bus.publish("remote.addresses", "remote.RR.parsed");
+
+    assertEquals(List.of("remote.RR.parsed"), received);
+    assertEquals(Set.of("remote.RR.parsed"), registry.snapshot("remote"));
+  }
+
+  @Test
+  public void testSyncRequestReannouncesKnownAddresses() {
+    registry.announce("dev", "dev.HR.parsed");
+    bus.clearPublished();
+
+    bus.publish(AddressRegistry.SYNC_ADDRESS, "dev");
+
+    assertTrue(bus.getPublished().contains(new InMemoryEventBus.Published("dev.addresses", "dev.HR.parsed")));
+  }
+
+  @Test
+  public void testOneRegistryPerBus() {
+    assertSame(registry, AddressRegistry.of(bus));
+    assertNotSame(registry, AddressRegistry.of(new InMemoryEventBus()));
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.framed.core;
+
+import com.framed.cdss.Actor;
+import com.framed.cdss.MapActor;
+import com.framed.communicator.driver.parser.medibus.MedibusSlowParser;
+import com.framed.communicator.driver.protocol.medibus.MedibusFramer;
+import com.framed.communicator.driver.protocol.medibus.utils.DataUtils;
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import com.framed.streamer.dispatcher.JsonlDispatcher;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the allocation of the hot paths against regressions such as reintroduced boxing or per-message JSON
+ * building: each path runs a fixed number of messages under JFR with {@code jdk.ObjectAllocationSample} and the
+ * sampled bytes per message must stay within the budget in {@value #BUDGETS}.
+ *
+ * <p>All paths run on the test thread ({@link DispatchMode#SEQUENTIAL}), so only its samples are counted. The
+ * first sample is skipped, since its weight includes the allocation before the recording started.</p>
+ */
+public class AllocationBudgetTest {
+
+  static final String BUDGETS = "allocation-budgets.json";
+  private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+  private static final int WARMUP = 20_000;
+  private static final int MESSAGES = 50_000;
+
+  private SocketEventBus eventBus;
+  private JSONObject budgets;
+  private Actor actor;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    eventBus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL);
+    try (InputStream in = getClass().getClassLoader().getResourceAsStream(BUDGETS)) {
+      assertNotNull(in, BUDGETS);
+      budgets = new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @AfterEach
+  public void tearDown() {
+    if (actor != null) {
+      actor.stop();
+    }
+    eventBus.shutdown();
+  }
+
+  @Test
+  public void testLocalPublishToHandler() throws IOException {
+    long[] delivered = new long[1];
+    eventBus.register("alloc.local", message -> delivered[0]++);
+    Measurement measurement = Measurement.of("dev", "alloc.local", "Measurement", Measurement.now(), 42);
+
+    assertWithinBudget("localPublishToHandler", () -> eventBus.publish("alloc.local", measurement));
+    assertEquals(WARMUP + MESSAGES, delivered[0]);
+  }
+
+  @Test
+  public void testActorEvaluation() throws IOException {
+    long[] fired = new long[1];
+    actor = new MapActor(eventBus, "alloc-actor", List.of(Map.of("alloc.a", "*"), Map.of("alloc.b", "2")),
+      List.of("alloc.a", "alloc.b"), List.of("alloc.out")) {
+      @Override
+      public void fireFunction(Map<String, Object> latestSnapshot) {
+        fired[0]++;
+      }
+    };
+    Measurement[] measurements = new Measurement[1024];
+    long start = Measurement.now();
+    for (int i = 0; i < measurements.length; i++) {
+      measurements[i] = Measurement.of("dev", "alloc.a", "Measurement", start + i * 1_000_000L, 40 + i % 20);
+    }
+    int[] next = new int[1];
+
+    assertWithinBudget("actorEvaluation", () -> eventBus.publish("alloc.a", measurements[next[0]++ % measurements.length]));
+    assertEquals(WARMUP + MESSAGES, fired[0]);
+  }
+
+  @Test
+  public void testMedibusFrameParsing() throws IOException {
+    new MedibusSlowParser(eventBus, new JSONArray().put("alloc-device"));
+    MedibusFramer framer = new MedibusFramer(frame -> eventBus.publish("alloc-device", frame), eventBus, "alloc-device");
+    byte[] frame = measurementFrame("05  12", "0B 5.6", "25  98", "2B  15", "71  38", "72 400", "73  21", "74 1.5");
+
+    assertWithinBudget("medibusFrameParsing", () -> {
+      for (byte b : frame) {
+        framer.createFrameListFromByte(b);
+      }
+    });
+    String address = "Measurement.alloc-device.Breathing pressure, PAW.parsed";
+    assertEquals(WARMUP + MESSAGES, eventBus.getMetrics().sum(BusMetrics.PUBLISHED, "address", address));
+    Set<String> announced = AddressRegistry.of(eventBus).snapshot("alloc-device");
+    assertTrue(announced.contains(address), "Parsed addresses are announced: " + announced);
+    assertEquals(8, announced.size(), "One address per value of the frame: " + announced);
+  }
+
+  @Test
+  public void testJsonlDispatch() throws IOException {
+    Path directory = Files.createTempDirectory("framed-alloc");
+    try {
+      new JsonlDispatcher(eventBus, new JSONArray().put("alloc-device"), directory.toString(), "data.jsonl");
+      String address = "alloc-device.HR.parsed";
+      AddressRegistry.of(eventBus).announce("alloc-device", address);
+      Measurement measurement = Measurement.of("alloc-device", "HR", "Measurement", Measurement.now(), 72);
+
+      assertWithinBudget("jsonlDispatch", () -> eventBus.publish(address, measurement));
+    } finally {
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  private void assertWithinBudget(String path, Runnable message) throws IOException {
+    long budget = budgets.getJSONObject(path).getLong("bytesPerMessage");
+    double bytesPerMessage = sampledBytesPerMessage(message);
+    assertTrue(bytesPerMessage <= budget, "%s allocates %.0f bytes per message, budget is %d bytes (%s)"
+      .formatted(path, bytesPerMessage, budget, BUDGETS));
+  }
+
+  /**
+   * @return the sampled allocation of the test thread per message, after a warm-up
+   */
+  private static double sampledBytesPerMessage(Runnable message) throws IOException {
+    for (int i = 0; i < WARMUP; i++) {
+      message.run();
+    }
+    long thread = Thread.currentThread().getId();
+    Path file = Files.createTempFile("framed-alloc", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(ALLOCATION_SAMPLE).with("throttle", "off");
+      recording.start();
+      for (int i = 0; i < MESSAGES; i++) {
+        message.run();
+      }
+      recording.stop();
+      recording.dump(file);
+      long bytes = 0;
+      boolean first = true;
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals(ALLOCATION_SAMPLE) && event.getThread() != null
+          && event.getThread().getJavaThreadId() == thread) {
+          if (!first) {
+            bytes += event.getLong("weight");
+          }
+          first = false;
+        }
+      }
+      return (double) bytes / MESSAGES;
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * @param items data items of 2 code and 4 value characters
+   * @return a response frame to "current measured data codepage 1" with checksum and {@code CR}
+   */
+  private static byte[] measurementFrame(String... items) {
+    byte[] userData = ("\u0001$" + String.join("", items)).getBytes(StandardCharsets.US_ASCII);
+    byte[] checksum = "%02X".formatted(DataUtils.computeChecksum(userData) & 0xFF).getBytes(StandardCharsets.US_ASCII);
+    return DataUtils.concatBuffer(userData, checksum);
+  }
+}
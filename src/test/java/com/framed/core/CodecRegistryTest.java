@@ -0,0 +1,90 @@
+package com.framed.core;
+
+import com.framed.core.codec.CodecRegistry;
+import com.framed.core.codec.Codecs;
+import com.framed.core.remote.RemoteMessage;
+import com.framed.core.utils.RemoteUtils;
+import com.framed.utils.InMemoryEventBus;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecRegistryTest {
+
+  private final CodecRegistry codecs = CodecRegistry.getDefault();
+
+  @Test
+  public void testBinaryRoundTrips() {
+    int intValue = Codecs.INTEGER.decode(Codecs.INTEGER.encode(42));
+    long longValue = Codecs.LONG.decode(Codecs.LONG.encode(-7L));
+    double doubleValue = Codecs.DOUBLE.decode(Codecs.DOUBLE.encode(72.5));
+    assertEquals(42, intValue);
+    assertEquals(-7L, longValue);
+    assertEquals(72.5, doubleValue);
+    assertTrue(Codecs.BOOLEAN.decode(Codecs.BOOLEAN.encode(true)));
+
+    Measurement alarm = Measurement.ofValue("dev", "Apnea", "Alarm", 123L, "APNEA")
+      .withAttributes(Map.of("inputChannel", "SpO2"));
+    assertEquals(alarm, Codecs.MEASUREMENT.decode(Codecs.MEASUREMENT.encode(alarm)));
+    Measurement numeric = Measurement.of(null, "HR", "Measurement", 456L, 72.0);
+    assertEquals(numeric, Codecs.MEASUREMENT.decode(Codecs.MEASUREMENT.encode(numeric)));
+  }
+
+  @Test
+  public void testTypedRegistrationHandsOffAndAdapts() {
+    InMemoryEventBus eventBus = new InMemoryEventBus();
+    List<byte[]> received = new ArrayList<>();
+    eventBus.register("dev", byte[].class, received::add);
+
+    byte[] frame = {1, 36, 65};
+    eventBus.publish("dev", frame);
+    eventBus.publish("dev", new JSONArray(List.of(1, 36, 65)));
+
+    assertSame(frame, received.get(0));
+    assertArrayEquals(frame, received.get(1));
+    double adapted = codecs.convert(80, Double.class);
+    assertEquals(80.0, adapted);
+    assertThrows(IllegalArgumentException.class, () -> codecs.convert("text", byte[].class));
+  }
+
+  @Test
+  public void testEnvelopeKeepsPayloadType() {
+    byte[] frame = {1, 36, 65, -1};
+
+    JSONObject envelope = RemoteUtils.toEnvelope("dev", frame, "publish");
+    RemoteMessage received = RemoteUtils.parseMessage(envelope.toString());
+
+    assertEquals("bytes", envelope.getString("codec"));
+    assertArrayEquals(frame, (byte[]) received.payload());
+
+    JSONObject json = new JSONObject().put("a", 1);
+    JSONObject jsonEnvelope = RemoteUtils.toEnvelope("dev", json, "publish");
+    assertFalse(jsonEnvelope.has("codec"));
+    assertEquals(1, ((JSONObject) RemoteUtils.parseMessage(jsonEnvelope.toString()).payload()).getInt("a"));
+  }
+
+  @Test
+  public void testEnvelopeIsPlainJsonForNonJavaConsumers() {
+    JSONObject number = RemoteUtils.toEnvelope("hr", 72.5, "publish");
+    assertFalse(number.has("codec"));
+    assertEquals(72.5, number.getDouble("payload"));
+    assertFalse(RemoteUtils.toEnvelope("alarm", true, "publish").has("codec"));
+
+    Measurement measurement = Measurement.of("dev", "HR", "Measurement", 456L, 72.0);
+    JSONObject envelope = new JSONObject(RemoteUtils.toEnvelope("hr", measurement, "publish").toString());
+    assertEquals("measurement", envelope.getString("codec"));
+    assertEquals("HR", envelope.getJSONObject("payload").getString("channelID"));
+    assertEquals(measurement, RemoteUtils.parseMessage(envelope.toString()).payload());
+
+    Request request = new Request(7, "reply.node", measurement);
+    JSONObject requestEnvelope = RemoteUtils.toEnvelope("annotate", request, "send");
+    assertEquals(7, requestEnvelope.getJSONObject("payload").getLong("correlationId"));
+    assertEquals(request, RemoteUtils.parseMessage(requestEnvelope.toString()).payload());
+  }
+}
@@ -0,0 +1,78 @@
+package com.framed.core;
+
+import com.framed.core.local.LocalEventBus;
+import com.framed.core.utils.DeadlineScheduler;
+import com.framed.core.utils.DispatchMode;
+import com.framed.core.utils.Timer;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeadlineSchedulerTest {
+
+  @Test
+  public void testRunsEarliestDeadlineFirst() throws InterruptedException {
+    DeadlineScheduler scheduler = new DeadlineScheduler(1);
+    scheduler.configure("alarm", 10);
+    scheduler.configure("bulk", 5000);
+    CountDownLatch blocker = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(3);
+    List<String> order = new CopyOnWriteArrayList<>();
+
+    scheduler.execute("bulk", "block", () -> await(blocker)); // occupies the single worker
+    scheduler.execute("bulk", "b", () -> { order.add("bulk"); done.countDown(); });
+    scheduler.execute("other", "o", () -> { order.add("other"); done.countDown(); });
+    scheduler.execute("alarm", "a", () -> { order.add("alarm"); done.countDown(); });
+    blocker.countDown();
+
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    scheduler.shutdown();
+    assertEquals(List.of("alarm", "other", "bulk"), order);
+  }
+
+  @Test
+  public void testCountsMissedDeadlinesFromSourceTimestamp() throws InterruptedException {
+    DeadlineScheduler scheduler = new DeadlineScheduler(1);
+    scheduler.configure("alarm", 100);
+    CountDownLatch done = new CountDownLatch(2);
+    JSONObject stale = new JSONObject().put("timestamp", LocalDateTime.now().minusSeconds(1).format(Timer.formatter));
+    JSONObject fresh = new JSONObject().put("timestamp", LocalDateTime.now().format(Timer.formatter));
+
+    scheduler.execute("alarm", stale, done::countDown);
+    scheduler.execute("alarm", fresh, done::countDown);
+
+    assertTrue(done.await(1, TimeUnit.SECONDS));
+    scheduler.shutdown();
+    assertEquals(2, scheduler.getExecutedCount("alarm"));
+    assertEquals(1, scheduler.getMissedCount("alarm"));
+  }
+
+  @Test
+  public void testLocalEventBusInDeadlineMode() throws InterruptedException {
+    LocalEventBus bus = new LocalEventBus(DispatchMode.DEADLINE);
+    bus.setDeadline("alarm", 50);
+    CountDownLatch received = new CountDownLatch(1);
+    bus.register("alarm", msg -> received.countDown());
+
+    bus.publish("alarm", "HR-limit");
+
+    assertTrue(received.await(1, TimeUnit.SECONDS));
+    bus.shutdown();
+    assertThrows(IllegalStateException.class, () -> new LocalEventBus().setDeadline("alarm", 50));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.framed.core;
+
+import com.framed.core.utils.HandlerInvoker;
+import com.framed.utils.InMemoryEventBus;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HandlerInvokerTest {
+
+  private InMemoryEventBus bus;
+  private HandlerInvoker invoker;
+  private final Consumer<Object> failing = msg -> {
+    throw new IllegalStateException("boom");
+  };
+
+  @BeforeEach
+  public void setup() {
+    bus = new InMemoryEventBus();
+    invoker = new HandlerInvoker(bus);
+  }
+
+  @Test
+  public void testFailureIsIsolatedAndCounted() {
+    assertDoesNotThrow(() -> invoker.invoke("a", failing, "x"));
+    assertDoesNotThrow(() -> invoker.invoke("a", failing, "y"));
+
+    assertEquals(2, invoker.getFailureCount("a"));
+    assertEquals(0, invoker.getFailureCount("b"));
+  }
+
+  @Test
+  public void testFailedMessageIsRoutedToDeadLetterAddress() {
+    List<Object> letters = new ArrayList<>();
+    bus.register("dead", letters::add);
+    invoker.setDeadLetterAddress("dead");
+
+    invoker.invoke("a", failing, "x");
+
+    assertEquals(1, letters.size());
+    JSONObject letter = (JSONObject) letters.get(0);
+    assertEquals("a", letter.getString("address"));
+    assertEquals("x", letter.getString("message"));
+    assertTrue(letter.getString("error").contains("boom"));
+  }
+
+  @Test
+  public void testCircuitBreakerOpensAfterConsecutiveFailures() {
+    List<Object> received = new ArrayList<>();
+    Consumer<Object> flaky = msg -> {
+      received.add(msg);
+      throw new IllegalStateException("boom");
+    };
+    invoker.setCircuitBreaker(2, 60_000);
+
+    for (int i = 0; i < 5; i++) {
+      invoker.invoke("a", flaky, i);
+    }
+
+    assertEquals(List.of(0, 1), received);
+    assertEquals(2, invoker.getFailureCount("a"));
+    assertEquals(3, invoker.getRejectedCount("a"));
+  }
+
+  @Test
+  public void testCircuitBreakerClosesAfterSuccessfulTrial() throws InterruptedException {
+    List<Object> received = new ArrayList<>();
+    Consumer<Object> recovering = msg -> {
+      received.add(msg);
+      if ((int) msg < 2) {
+        throw new IllegalStateException("boom");
+      }
+    };
+    invoker.setCircuitBreaker(2, 10);
+
+    invoker.invoke("a", recovering, 0);
+    invoker.invoke("a", recovering, 1);
+    invoker.invoke("a", recovering, -1); // rejected while open
+    Thread.sleep(20);
+    invoker.invoke("a", recovering, 2); // trial
+    invoker.invoke("a", recovering, 3);
+
+    assertEquals(List.of(0, 1, 2, 3), received);
+    assertEquals(1, invoker.getRejectedCount("a"));
+  }
+}
@@ -0,0 +1,80 @@
+package com.framed.core;
+
+import com.framed.communicator.driver.protocol.medibus.MedibusFramer;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import com.framed.utils.InMemoryEventBus;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JfrEventsTest {
+
+  @Test
+  public void testDispatchIsRecorded() throws IOException {
+    SocketEventBus eventBus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL);
+    eventBus.register("jfr.dispatch", message -> { });
+
+    List<RecordedEvent> events = record("com.framed.Dispatch", () -> eventBus.publish("jfr.dispatch", 1));
+
+    RecordedEvent event = events.stream()
+      .filter(e -> "jfr.dispatch".equals(e.getString("address")))
+      .findFirst()
+      .orElseThrow();
+    assertNotNull(event.getString("handler"));
+    assertEquals(0, event.getLong("queueWait"));
+    eventBus.shutdown();
+  }
+
+  @Test
+  public void testMedibusFramesAreRecordedWithChecksumResult() throws IOException {
+    MedibusFramer framer = new MedibusFramer(frame -> { }, new InMemoryEventBus(), "jfr-device");
+
+    List<RecordedEvent> events = record("com.framed.MedibusFrame", () -> {
+      feed(framer, "\u001BQ", "6C"); // valid checksum of 0x1B + 'Q'
+      feed(framer, "\u001BQ", "00");
+    });
+
+    List<RecordedEvent> ofDevice = events.stream().filter(e -> "jfr-device".equals(e.getString("device"))).toList();
+    assertEquals(2, ofDevice.size());
+    assertTrue(ofDevice.get(0).getBoolean("checksumOk"));
+    assertFalse(ofDevice.get(1).getBoolean("checksumOk"));
+    assertEquals(4, ofDevice.get(0).getInt("frameLength"));
+  }
+
+  private static void feed(MedibusFramer framer, String userData, String checksum) {
+    for (byte b : (userData + checksum + "\r").getBytes(StandardCharsets.US_ASCII)) {
+      framer.createFrameListFromByte(b);
+    }
+  }
+
+  private static List<RecordedEvent> record(String eventName, Runnable action) throws IOException {
+    Path file = Files.createTempFile("framed", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withoutThreshold();
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> events = new ArrayList<>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().equals(eventName)) {
+          events.add(event);
+        }
+      }
+      return events;
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.framed.core;
+
+import com.framed.core.remote.RemoteMessage;
+import com.framed.core.utils.RemoteUtils;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeasurementTest {
+
+  private final long timestamp = Measurement.toEpochNanos(LocalDateTime.of(2025, 1, 1, 12, 0, 0, 123_456_000));
+
+  @Test
+  public void testInternsIdentifiers() {
+    Measurement a = Measurement.of(new String("dev"), new String("HR"), "Measurement", timestamp, 72);
+    Measurement b = Measurement.of(new String("dev"), new String("HR"), "Measurement", timestamp, 73);
+
+    assertSame(a.deviceId(), b.deviceId());
+    assertSame(a.channelId(), b.channelId());
+  }
+
+  @Test
+  public void testNumericAndObjectValues() {
+    Measurement numeric = Measurement.ofValue("dev", "HR", "Measurement", timestamp, 72);
+    Measurement alarm = Measurement.ofValue("dev", "Apnea", "Alarm", timestamp, "APNEA");
+
+    assertTrue(numeric.isNumeric());
+    assertEquals(72.0, numeric.numericValue());
+    assertEquals(72.0, numeric.value());
+    assertFalse(alarm.isNumeric());
+    assertEquals("APNEA", alarm.value());
+  }
+
+  @Test
+  public void testJsonRoundTrip() {
+    Measurement measurement = Measurement.of("dev", "HR", "Measurement", timestamp, 72.5)
+      .withAttributes(Map.of("inputChannel", "SpO2"));
+
+    JSONObject json = measurement.toJson();
+    assertEquals("2025-01-01T12:00:00.123456", json.getString("timestamp"));
+    assertEquals("dev", json.getString("deviceID"));
+    assertEquals(measurement, Measurement.fromJson(json));
+  }
+
+  @Test
+  public void testTransportEnvelopeRestoresMeasurement() {
+    Measurement measurement = Measurement.of("dev", "HR", "Measurement", timestamp, 72.5);
+
+    String envelope = RemoteUtils.toEnvelope("dev.HR.parsed", measurement, "publish").toString();
+    RemoteMessage received = RemoteUtils.parseMessage(envelope);
+
+    assertEquals(measurement, received.payload());
+    assertEquals("Hello", RemoteUtils.parseMessage(RemoteUtils.toEnvelope("a", "Hello", "send").toString()).payload());
+  }
+}
@@ -0,0 +1,73 @@
+package com.framed.core;
+
+import com.framed.core.local.LocalEventBus;
+import com.framed.core.utils.MessageTtl;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageTtlTest {
+
+  @Test
+  public void testExpiredTaskIsDroppedAndCounted() throws InterruptedException {
+    MessageTtl ttl = new MessageTtl();
+    ttl.configure("*.waveform", 10);
+    AtomicBoolean ran = new AtomicBoolean();
+
+    Runnable task = ttl.wrap("dev.waveform", () -> ran.set(true));
+    Thread.sleep(30);
+    task.run();
+
+    assertFalse(ran.get());
+    assertEquals(1, ttl.getExpiredCount("dev.waveform"));
+  }
+
+  @Test
+  public void testAddressWithoutTtlIsNotWrapped() {
+    MessageTtl ttl = new MessageTtl();
+    ttl.configure("*.waveform", 10);
+    Runnable task = () -> {};
+
+    assertSame(task, ttl.wrap("dev.HR.parsed", task));
+  }
+
+  @Test
+  public void testLocalEventBusDropsMessagesQueuedBehindSlowHandler() throws InterruptedException {
+    LocalEventBus bus = new LocalEventBus();
+    bus.setTtl("rt", 20);
+    CountDownLatch first = new CountDownLatch(1);
+    List<Object> received = new CopyOnWriteArrayList<>();
+    bus.register("rt", msg -> {
+      received.add(msg);
+      if (received.size() == 1) {
+        sleep(60);
+        first.countDown();
+      }
+    });
+
+    bus.publish("rt", 1);
+    bus.publish("rt", 2); // waits behind the slow first message
+    assertTrue(first.await(1, TimeUnit.SECONDS));
+    Thread.sleep(20);
+    bus.publish("rt", 3);
+    Thread.sleep(50);
+    bus.shutdown();
+
+    assertEquals(List.of(1, 3), received);
+    assertEquals(1, bus.getExpiredCount("rt"));
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.framed.core;
+
+import com.framed.core.metrics.MetricsHttpServer;
+import com.framed.core.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsHttpServerTest {
+
+  @Test
+  public void testFormatsCountersGaugesAndHistograms() {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("framed_bus_published_total", "address", "a").add(3);
+    registry.counter("framed_bus_published_total", "address", "b").add(4);
+    registry.gauge("framed_bus_queue_depth", () -> 2, "address", "a");
+    registry.histogram("framed_bus_handler_duration_seconds", "address", "a").record(2_000_000);
+
+    String text = MetricsHttpServer.format(registry);
+
+    assertTrue(text.contains("# TYPE framed_bus_published counter\n"
+      + "framed_bus_published_total{address=\"a\"} 3\n"
+      + "framed_bus_published_total{address=\"b\"} 4\n"), text);
+    assertTrue(text.contains("# TYPE framed_bus_queue_depth gauge\nframed_bus_queue_depth{address=\"a\"} 2\n"), text);
+    assertTrue(text.contains("# TYPE framed_bus_handler_duration_seconds histogram\n"), text);
+    assertTrue(text.contains("framed_bus_handler_duration_seconds_bucket{address=\"a\",le=\"0.001\"} 0\n"), text);
+    assertTrue(text.contains("framed_bus_handler_duration_seconds_bucket{address=\"a\",le=\"0.005\"} 1\n"), text);
+    assertTrue(text.contains("framed_bus_handler_duration_seconds_bucket{address=\"a\",le=\"+Inf\"} 1\n"), text);
+    assertTrue(text.contains("framed_bus_handler_duration_seconds_count{address=\"a\"} 1\n"), text);
+    assertTrue(text.contains("framed_bus_handler_duration_seconds_sum{address=\"a\"} 0.002\n"), text);
+    assertTrue(text.endsWith("# EOF\n"), text);
+  }
+
+  @Test
+  public void testServesMetricsOverHttp() throws IOException {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("framed_actor_fired_total", "actor", "hr").increment();
+    MetricsHttpServer server = new MetricsHttpServer(registry, 0);
+    server.start();
+    try {
+      HttpURLConnection connection = (HttpURLConnection)
+        new URL("http://localhost:%d%s".formatted(server.getPort(), MetricsHttpServer.PATH)).openConnection();
+      int status = connection.getResponseCode();
+      String body;
+      try (InputStream in = connection.getInputStream()) {
+        body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+      }
+
+      assertEquals(200, status);
+      assertEquals(MetricsHttpServer.CONTENT_TYPE, connection.getHeaderField("Content-Type"));
+      assertTrue(body.contains("framed_actor_fired_total{actor=\"hr\"} 1\n"), body);
+    } finally {
+      server.stop();
+    }
+  }
+}
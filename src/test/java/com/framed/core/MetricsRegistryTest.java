@@ -0,0 +1,148 @@
+package com.framed.core;
+
+import com.framed.core.metrics.BusMetrics;
+import com.framed.core.metrics.LatencyHistogram;
+import com.framed.core.metrics.MetricsRegistry;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryTest {
+
+  @Test
+  public void testHistogramPercentilesAreWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long micros = 1; micros <= 1000; micros++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    long count = snapshot.count();
+    long max = snapshot.max();
+    long p50 = snapshot.valueAtPercentile(50);
+    long p99 = snapshot.valueAtPercentile(99);
+
+    assertEquals(1000, count);
+    assertEquals(1_000_000, max);
+    // 4 sub-buckets per power of two bound the relative error by 25%
+    assertTrue(p50 >= 500_000 && p50 <= 625_000, "p50 was " + p50);
+    assertTrue(p99 >= 990_000 && p99 <= 1_250_000, "p99 was " + p99);
+    assertEquals(500_500_000.0 / 1000, snapshot.mean(), 1.0);
+  }
+
+  @Test
+  public void testSnapshotDifferenceHoldsTheValuesRecordedInBetween() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+    LatencyHistogram.Snapshot earlier = histogram.snapshot();
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(10));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(20));
+
+    LatencyHistogram.Snapshot interval = histogram.snapshot().minus(earlier);
+
+    assertEquals(2, interval.count());
+    assertEquals(30_000, interval.sum());
+    // the maximum of the interval is a bucket bound, not the 100 ms recorded before
+    assertTrue(interval.max() >= 20_000 && interval.max() <= 25_000, "max was " + interval.max());
+    assertTrue(interval.valueAtPercentile(99) <= interval.max());
+    assertEquals(0, histogram.snapshot().minus(histogram.snapshot()).count());
+  }
+
+  @Test
+  public void testBusCountsPublishedAndDeliveredMessages() throws InterruptedException {
+    MetricsRegistry registry = new MetricsRegistry();
+    SocketEventBus eventBus = new SocketEventBus(new MockTransport(), DispatchMode.PER_HANDLER, registry);
+    CountDownLatch latch = new CountDownLatch(3);
+    eventBus.register("vitals", message -> latch.countDown());
+    eventBus.register("failing", message -> {
+      throw new IllegalStateException("boom");
+    });
+
+    eventBus.publish("vitals", 1);
+    eventBus.publish("vitals", 2);
+    eventBus.publish("vitals", 3);
+    eventBus.publish("failing", 4);
+    assertTrue(latch.await(1, TimeUnit.SECONDS));
+    awaitCount(registry, BusMetrics.FAILED, "failing", 1);
+
+    long published = registry.sum(BusMetrics.PUBLISHED, "address", "vitals");
+    assertEquals(3, published);
+    awaitCount(registry, BusMetrics.DELIVERED, "vitals", 3);
+    assertEquals(0, registry.sum(BusMetrics.FAILED, "address", "vitals"));
+    eventBus.shutdown();
+  }
+
+  @Test
+  public void testHandlersAreLabeledByNameAndReleasedOnUnregister() {
+    MetricsRegistry registry = new MetricsRegistry();
+    SocketEventBus eventBus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL, registry);
+    ScopedEventBus first = new ScopedEventBus(eventBus, "first");
+    ScopedEventBus second = new ScopedEventBus(eventBus, "second");
+    first.register("vitals", message -> { });
+    second.register("vitals", message -> { });
+
+    eventBus.publish("vitals", 1);
+
+    assertEquals(1, registry.sum(BusMetrics.DELIVERED, "address", "vitals", "handler", "first"));
+    assertEquals(1, registry.sum(BusMetrics.DELIVERED, "address", "vitals", "handler", "second"));
+    assertEquals(2, queueDepthGauges(registry));
+
+    first.close();
+    assertEquals(1, queueDepthGauges(registry));
+    second.close();
+    assertEquals(0, queueDepthGauges(registry));
+    eventBus.shutdown();
+  }
+
+  @Test
+  public void testUnnamedHandlersOfTheSameClassGetDistinctLabels() {
+    Object first = new Object();
+    Object second = new Object();
+    assertNotEquals(BusMetrics.handlerName(first), BusMetrics.handlerName(second));
+    assertEquals("device", BusMetrics.handlerName(new NamedHandler("device", message -> { })));
+  }
+
+  @Test
+  public void testSnapshotIsPublishedOnMetricsAddress() throws InterruptedException {
+    MetricsRegistry registry = new MetricsRegistry();
+    SocketEventBus eventBus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL, registry);
+    registry.counter("test_total", "kind", "a").add(5);
+    registry.gauge("test_depth", () -> 7);
+    registry.histogram("test_seconds").record(1000);
+    CountDownLatch latch = new CountDownLatch(1);
+    JSONObject[] received = new JSONObject[1];
+    eventBus.register(MetricsRegistry.METRICS_ADDRESS, JSONObject.class, snapshot -> {
+      received[0] = snapshot;
+      latch.countDown();
+    });
+
+    var publication = registry.publishTo(eventBus, 10);
+    assertTrue(latch.await(1, TimeUnit.SECONDS));
+    publication.cancel(false);
+
+    JSONObject snapshot = received[0];
+    assertEquals(5, snapshot.getJSONObject("counters").getLong("test_total{kind=\"a\"}"));
+    assertEquals(7, snapshot.getJSONObject("gauges").getLong("test_depth"));
+    assertEquals(1, snapshot.getJSONObject("histograms").getJSONObject("test_seconds").getLong("count"));
+    eventBus.shutdown();
+  }
+
+  private static long queueDepthGauges(MetricsRegistry registry) {
+    return registry.getGauges().keySet().stream().filter(id -> id.name().equals(BusMetrics.QUEUE_DEPTH)).count();
+  }
+
+  private static void awaitCount(MetricsRegistry registry, String name, String address, long expected)
+    throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    while (registry.sum(name, "address", address) < expected && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, registry.sum(name, "address", address));
+  }
+}
@@ -1,6 +1,8 @@
 package com.framed.core;
 
+import com.framed.core.remote.RemoteMessage;
 import com.framed.core.remote.Transport;
+import com.framed.core.utils.RemoteUtils;
 
 import java.util.List;
 import java.util.Map;
@@ -25,7 +27,7 @@ public class MockTransport implements Transport {
   /**
    * Stores registered handlers for each address.
    */
-  private final Map<String, List<Consumer<Object>>> handlers = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<RemoteMessage>>> handlers = new ConcurrentHashMap<>();
 
   /**
    * Stores all sent or published messages for verification.
@@ -44,7 +46,7 @@ public class MockTransport implements Transport {
   @Override
   public void send(String host, int port, String address, Object message) {
     sentMessages.add("SEND:%s:%s".formatted(address, message));
-    dispatch(address, message);
+    dispatch(new RemoteMessage(address, message, "send"));
   }
 
 
@@ -60,21 +62,23 @@ public class MockTransport implements Transport {
   @Override
   public void publish(String host, int port, String address, Object message) {
     sentMessages.add("PUBLISH:%s:%s".formatted(address, message));
-    dispatch(address, message);
+    dispatch(new RemoteMessage(address, message, "publish"));
   }
 
 
   /**
-   * Dispatches a message to all handlers registered for the given address.
+   * Dispatches a message to the handlers registered for its address, a {@code send} to the first one only.
    *
-   * @param address the address to dispatch to
-   * @param message the message to deliver
+   * @param message the message with its envelope
    */
-  private void dispatch(String address, Object message) {
-    List<Consumer<Object>> list = handlers.get(address);
+  private void dispatch(RemoteMessage message) {
+    List<Consumer<RemoteMessage>> list = handlers.get(message.address());
     if (list != null) {
-      for (Consumer<Object> handler : list) {
+      for (Consumer<RemoteMessage> handler : list) {
         handler.accept(message);
+        if ("send".equals(message.type())) {
+          break;
+        }
       }
     }
   }
@@ -98,14 +102,14 @@ public class MockTransport implements Transport {
 
 
   /**
-   * Registers a handler for messages received on the specified address.
+   * Registers a handler for messages received on the specified address, with their envelope.
    *
    * @param address the address to listen on
    * @param handler the handler to process messages
    */
   @Override
-  public void register(String address, Consumer<Object> handler) {
-    handlers.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(handler);
+  public Registration registerEnvelope(String address, Consumer<RemoteMessage> handler) {
+    return RemoteUtils.registerHandler(address, handler, handlers);
   }
 
 
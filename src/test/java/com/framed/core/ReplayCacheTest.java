@@ -0,0 +1,126 @@
+package com.framed.core;
+
+import com.framed.core.remote.Peer;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import com.framed.core.utils.ReplayCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayCacheTest {
+
+  private ReplayCache cache;
+
+  @BeforeEach
+  public void setup() {
+    cache = new ReplayCache();
+    cache.configure("dev.*.parsed", 2, 0);
+  }
+
+  @Test
+  public void testKeepsLastMessagesOfMatchingAddresses() {
+    for (int i = 0; i < 3; i++) {
+      cache.record("dev.HR.parsed", i);
+      cache.record("dev.HR.raw", i);
+    }
+
+    assertEquals(List.of(1, 2), cache.snapshot("dev.HR.parsed"));
+    assertTrue(cache.snapshot("dev.HR.raw").isEmpty());
+  }
+
+  @Test
+  public void testDropsMessagesOlderThanMaxAge() throws InterruptedException {
+    cache.configure("aged", 10, 10);
+    cache.record("aged", "old");
+    Thread.sleep(30);
+    cache.record("aged", "new");
+
+    assertEquals(List.of("new"), cache.snapshot("aged"));
+  }
+
+  @Test
+  public void testRejectsUnboundedRing() {
+    assertThrows(IllegalArgumentException.class, () -> cache.configure("*", 0, 1000));
+  }
+
+  @Test
+  public void testLateHandlerReceivesCachedMessagesBeforeNewOnes() {
+    SocketEventBus bus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL);
+    bus.setReplay("*.parsed", 2, 0);
+    bus.publish("dev.HR.parsed", 1);
+    bus.publish("dev.HR.parsed", 2);
+    bus.publish("dev.HR.parsed", 3);
+
+    List<Object> received = new ArrayList<>();
+    bus.register("dev.HR.parsed", received::add);
+    bus.publish("dev.HR.parsed", 4);
+
+    assertEquals(List.of(2, 3, 4), received);
+  }
+
+  @Test
+  public void testNewPeerReceivesCachedMessages() {
+    MockTransport transport = new MockTransport();
+    SocketEventBus bus = new SocketEventBus(transport, DispatchMode.SEQUENTIAL);
+    bus.setReplay("*.parsed", 1, 0);
+    bus.publish("dev.HR.parsed", 1);
+    bus.publish("dev.HR.parsed", 2);
+
+    bus.addPeer(new Peer("localhost", 1234));
+
+    assertEquals(List.of("PUBLISH:dev.HR.parsed:2"), transport.getSentMessages());
+  }
+
+  @Test
+  public void testLiveMessageIsNotReplayedAgain() {
+    cache.record("dev.HR.parsed", 1);
+    long live = cache.record("dev.HR.parsed", 2);
+
+    ReplayCache.Replay replay = cache.subscribe("dev.HR.parsed", () -> {});
+
+    assertEquals(List.of(1, 2), replay.messages());
+    assertEquals(live, replay.through());
+    assertEquals(0, cache.record("dev.HR.raw", 3), "Uncached addresses are not numbered");
+  }
+
+  @Test
+  public void testBlockedHandlerDoesNotStallOtherPublishers() throws InterruptedException {
+    SocketEventBus bus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL);
+    bus.setReplay("*.parsed", 2, 0);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Object> received = new ArrayList<>();
+    bus.register("dev.HR.parsed", message -> {
+      if (message.equals(1)) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      synchronized (received) {
+        received.add(message);
+      }
+    });
+
+    Thread slow = new Thread(() -> bus.publish("dev.HR.parsed", 1));
+    slow.start();
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    Thread other = new Thread(() -> bus.publish("dev.HR.parsed", 2));
+    other.start();
+    other.join(5000);
+
+    assertFalse(other.isAlive(), "Publishing must not wait for the handler of another publisher");
+    release.countDown();
+    slow.join(5000);
+    assertEquals(List.of(2, 1), received);
+  }
+}
@@ -0,0 +1,65 @@
+package com.framed.core;
+
+import com.framed.core.remote.RemoteMessage;
+import com.framed.core.remote.SocketEventBus;
+import com.framed.core.utils.DispatchMode;
+import com.framed.core.utils.PendingRequests;
+import com.framed.core.utils.RemoteUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestReplyTest {
+
+  @Test
+  public void testRequestIsAnsweredByResponder() throws Exception {
+    SocketEventBus eventBus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL);
+    eventBus.respond("echo", body -> "echo:" + body);
+
+    Object reply = eventBus.request("echo", "ping", 1000).get(1, TimeUnit.SECONDS);
+
+    assertEquals("echo:ping", reply);
+    assertEquals(0, Requester.of(eventBus).getPendingCount());
+  }
+
+  @Test
+  public void testResponderFailureCompletesExceptionally() {
+    SocketEventBus eventBus = new SocketEventBus(new MockTransport(), DispatchMode.SEQUENTIAL);
+    eventBus.respond("broken", body -> {
+      throw new IllegalStateException("boom");
+    });
+
+    CompletableFuture<Object> future = eventBus.request("broken", null, 1000);
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+    assertTrue(e.getCause().getMessage().contains("boom"));
+  }
+
+  @Test
+  public void testRequestWithoutResponderTimesOut() {
+    PendingRequests pending = new PendingRequests(5, 8);
+    CompletableFuture<Object> answered = pending.add(1, 50);
+    CompletableFuture<Object> unanswered = pending.add(2, 50);
+    assertTrue(pending.complete(1, "reply"));
+
+    ExecutionException e = assertThrows(ExecutionException.class, () -> unanswered.get(2, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof TimeoutException);
+    assertTrue(answered.isDone());
+    assertFalse(pending.complete(2, "late"));
+    assertEquals(0, pending.size());
+  }
+
+  @Test
+  public void testRequestEnvelopeRoundTrip() {
+    Request request = new Request(7, "framed.reply.x", Measurement.of("dev", "HR", "Measurement", 1L, 72.0));
+
+    RemoteMessage received = RemoteUtils.parseMessage(RemoteUtils.toEnvelope("dev.state", request, "send").toString());
+
+    assertEquals(request, received.payload());
+  }
+}
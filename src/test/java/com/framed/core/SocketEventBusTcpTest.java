@@ -1,6 +1,8 @@
 package com.framed.core;
 
+import com.framed.core.remote.NioTcpTransport;
 import com.framed.core.remote.Peer;
+import com.framed.core.remote.RemoteMessage;
 import com.framed.core.remote.SocketEventBus;
 import com.framed.core.remote.TCPTransport;
 import com.framed.core.utils.DispatchMode;
@@ -13,6 +15,7 @@ import java.net.ServerSocket;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +23,7 @@ public class SocketEventBusTcpTest {
 
   private SocketEventBus busA;
   private SocketEventBus busB;
+  private TCPTransport transportB;
 
   private int portA;
   private int portB;
@@ -36,7 +40,7 @@ public class SocketEventBusTcpTest {
 
     // Create transports on dynamic ports
     TCPTransport transportA = new TCPTransport(portA);
-    TCPTransport transportB = new TCPTransport(portB);
+    transportB = new TCPTransport(portB);
 
     // Create buses
     busA = new SocketEventBus(transportA, DispatchMode.SEQUENTIAL);
@@ -116,6 +120,49 @@ public class SocketEventBusTcpTest {
     assertEquals(message, received2.get());
   }
 
+  @Test
+  public void closingOneRegistrationKeepsTheSameHandlerOnOtherAddresses() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicReference<Object> received = new AtomicReference<>();
+    Consumer<RemoteMessage> handler = message -> {
+      received.set(message.payload());
+      latch.countDown();
+    };
+    Registration first = transportB.registerEnvelope("shared.first", handler);
+    transportB.registerEnvelope("shared.second", handler);
+
+    first.close();
+    busA.publish("shared.second", "still delivered");
+
+    assertTrue(latch.await(2, TimeUnit.SECONDS), "Message to the remaining registration was not received in time");
+    assertEquals("still delivered", received.get());
+  }
+
+  @Test
+  public void testNioTcpMessageBetweenBuses() throws Exception {
+    int nioPortA = findFreeTcpPort();
+    int nioPortB = findFreeTcpPort();
+    SocketEventBus nioA = new SocketEventBus(new NioTcpTransport(nioPortA), DispatchMode.SEQUENTIAL);
+    SocketEventBus nioB = new SocketEventBus(new NioTcpTransport(nioPortB), DispatchMode.SEQUENTIAL);
+    try {
+      nioA.addPeer(new Peer(loopbackHost, nioPortB));
+      CountDownLatch latch = new CountDownLatch(1);
+      AtomicReference<Object> received = new AtomicReference<>();
+      nioB.register("nio.tcp", payload -> {
+        received.set(payload);
+        latch.countDown();
+      });
+
+      nioA.send("nio.tcp", "Hello over NIO TCP");
+
+      assertTrue(latch.await(2, TimeUnit.SECONDS), "Message was not received in time");
+      assertEquals("Hello over NIO TCP", received.get());
+    } finally {
+      nioA.shutdown();
+      nioB.shutdown();
+    }
+  }
+
   /** Finds a currently free TCP port by binding a ServerSocket to port 0 on loopback. */
   private static int findFreeTcpPort() throws Exception {
     try (ServerSocket seocket = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
@@ -6,6 +6,8 @@ import com.framed.core.utils.DispatchMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,6 +56,69 @@ public class SocketEventBusTest {
     assertTrue(mockTransport.getSentMessages().contains("PUBLISH:broadcast:Broadcasting"));
   }
 
+  @Test
+  public void testRemoteSendReachesTheFirstLocalHandlerOnly() {
+    MockTransport transport = new MockTransport();
+    SocketEventBus bus = new SocketEventBus(transport, DispatchMode.SEQUENTIAL);
+    List<Object> first = new ArrayList<>();
+    List<Object> second = new ArrayList<>();
+    bus.register("p2p", first::add);
+    bus.register("p2p", second::add);
+
+    // as received from a peer
+    transport.send("remote", 1234, "p2p", "once");
+    transport.publish("remote", 1234, "p2p", "all");
+
+    assertEquals(List.of("once", "all"), first);
+    assertEquals(List.of("all"), second);
+  }
+
+  @Test
+  public void testFailingHandlerDoesNotAffectOtherHandlers() {
+    AtomicReference<Object> received = new AtomicReference<>();
+
+    eventBus.register("broadcast", msg -> {
+      throw new IllegalStateException("boom");
+    });
+    eventBus.register("broadcast", received::set);
+
+    assertDoesNotThrow(() -> eventBus.publish("broadcast", "Broadcasting"));
+    assertEquals("Broadcasting", received.get());
+    assertTrue(eventBus.getFailureCount("broadcast") > 0);
+  }
+
+  @Test
+  public void testClosedRegistrationStopsDelivery() {
+    List<Object> kept = new ArrayList<>();
+    List<Object> removed = new ArrayList<>();
+
+    eventBus.register("broadcast", kept::add);
+    Registration registration = eventBus.register("broadcast", removed::add);
+    registration.close();
+    registration.close();
+    eventBus.publish("broadcast", "after close");
+
+    assertFalse(registration.isActive());
+    assertTrue(removed.isEmpty());
+    assertTrue(kept.contains("after close"));
+  }
+
+  @Test
+  public void testScopedBusDetachesAllHandlers() {
+    List<Object> received = new ArrayList<>();
+    ScopedEventBus scope = new ScopedEventBus(eventBus);
+    scope.register("a", received::add);
+    scope.register("b", received::add);
+
+    scope.close();
+    scope.register("c", received::add);
+    eventBus.publish("a", 1);
+    eventBus.publish("c", 3);
+
+    assertTrue(received.isEmpty());
+    assertEquals(0, scope.getRegistrationCount());
+  }
+
   @Test
   public void testNoHandlerDoesNotCrash() {
     assertDoesNotThrow(() -> eventBus.send("unknown.address", "No one listens"));
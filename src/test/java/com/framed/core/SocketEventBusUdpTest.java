@@ -1,5 +1,6 @@
 package com.framed.core;
 
+import com.framed.core.remote.NioUdpTransport;
 import com.framed.core.remote.Peer;
 import com.framed.core.remote.SocketEventBus;
 import com.framed.core.remote.UDPTransport;
@@ -119,6 +120,31 @@ public class SocketEventBusUdpTest {
     assertEquals(message, received2.get());
   }
 
+  @Test
+  public void testNioUdpMessageBetweenBuses() throws Exception {
+    int nioPortA = findFreeUdpPort();
+    int nioPortB = findFreeUdpPort();
+    SocketEventBus nioA = new SocketEventBus(new NioUdpTransport(nioPortA), DispatchMode.SEQUENTIAL);
+    SocketEventBus nioB = new SocketEventBus(new NioUdpTransport(nioPortB), DispatchMode.SEQUENTIAL);
+    try {
+      nioA.addPeer(new Peer(loopbackHost, nioPortB));
+      CountDownLatch latch = new CountDownLatch(1);
+      AtomicReference<Object> received = new AtomicReference<>();
+      nioB.register("nio.udp", payload -> {
+        received.set(payload);
+        latch.countDown();
+      });
+
+      nioA.send("nio.udp", "Hello over NIO UDP");
+
+      assertTrue(latch.await(2, TimeUnit.SECONDS), "Message was not received in time");
+      assertEquals("Hello over NIO UDP", received.get());
+    } finally {
+      nioA.shutdown();
+      nioB.shutdown();
+    }
+  }
+
   /**
    * Finds a currently free UDP port by letting the OS assign one to a temporary
    * socket and then releasing it. While there's a theoretical race between discovery
@@ -1,6 +1,8 @@
 package com.framed.utils;
 
 import com.framed.core.EventBus;
+import com.framed.core.Registration;
+import com.framed.core.utils.HandlerRegistration;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -18,9 +20,10 @@ public class InMemoryEventBus implements EventBus {
     public record Published(String channel, Object message) {}
 
     @Override
-    public void register(String channel, Consumer<Object> handler) {
+    public Registration register(String channel, Consumer<Object> handler) {
         subscribers.computeIfAbsent(channel, k -> Collections.synchronizedList(new ArrayList<>()))
                 .add(handler);
+        return new HandlerRegistration(channel, handler, r -> subscribers.get(channel).remove(handler));
     }
 
     @Override
@@ -0,0 +1,32 @@
+package com.framed.utils;
+
+import com.framed.cdss.Actor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Actors created by a test, stopped after it so that their latency summaries and histograms do not outlive it.
+ * Tests add each actor through {@link #started(Actor)} and call {@link #stopAll()} from their {@code @AfterEach}.
+ */
+public class StartedActors {
+
+    private final List<Actor> actors = new ArrayList<>();
+
+    /**
+     * @param actor the actor created by the test
+     * @return the actor
+     */
+    public <T extends Actor> T started(T actor) {
+        actors.add(actor);
+        return actor;
+    }
+
+    /**
+     * Stops all actors added so far.
+     */
+    public void stopAll() {
+        actors.forEach(Actor::stop);
+        actors.clear();
+    }
+}